@@ -0,0 +1,160 @@
+package demo.app.demogradle.carga;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * CLIENTES LENTOS: modelo cerrado con muchos clientes simultáneos que envían
+ * el cuerpo de cada ingreso por partes, repartido a lo largo de carga.lentitud
+ * (celulares con mala señal en la puerta)
+ * - Mientras el cuerpo llega, Tomcat retiene el hilo de la petición: con hilos
+ *   de plataforma el pool se agota y el resto hace fila; con hilos virtuales no
+ * - Cada cliente repite ingreso lento + salida normal de su propia placa
+ * - La latencia del ingreso incluye la lentitud del propio cliente
+ *
+ * Uso: ./gradlew carga -PcargaArgs="--carga.clientes-lentos=10000"
+ *      (y lo mismo con --spring.profiles.active=virtuales para comparar)
+ */
+final class ClientesLentos {
+
+    private static final int PARTES_CUERPO = 5;
+
+    private final ConfiguracionCarga configuracion;
+    private final String base;
+    private final ExecutorService hilos = Executors.newVirtualThreadPerTaskExecutor();
+    private final HttpClient cliente;
+    private final InformeLatencias informe = new InformeLatencias();
+
+    ClientesLentos(ConfiguracionCarga configuracion, String base) {
+        this.configuracion = configuracion;
+        this.base = base;
+        this.cliente = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(hilos)
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+    }
+
+    void ejecutar() throws InterruptedException {
+        long inicio = System.nanoTime();
+        long inicioMedicion = inicio + configuracion.calentamiento().toNanos();
+        long fin = inicioMedicion + configuracion.duracion().toNanos();
+
+        List<Thread> clientes = new ArrayList<>(configuracion.clientesLentos());
+        for (int i = 0; i < configuracion.clientesLentos(); i++) {
+            String placa = String.format("L%05d", i);
+            clientes.add(Thread.ofVirtual().name("cliente-lento-" + i).start(() -> atender(placa, inicioMedicion, fin)));
+        }
+        for (Thread clienteLento : clientes) {
+            clienteLento.join();
+        }
+        hilos.shutdown();
+        informe.imprimir(System.out, configuracion.duracion(),
+                configuracion.clientesLentos() / (configuracion.lentitud().toNanos() / 1e9));
+    }
+
+    private void atender(String placa, long inicioMedicion, long fin) {
+        byte[] cuerpo = ("{\"placa\":\"" + placa + "\",\"tipo\":\"CARRO\"}").getBytes(StandardCharsets.UTF_8);
+        while (System.nanoTime() < fin) {
+            long inicio = System.nanoTime();
+            boolean medir = inicio >= inicioMedicion;
+            HttpRequest ingreso = HttpRequest.newBuilder(URI.create(base + "/ingresar"))
+                    .header("Content-Type", "application/json")
+                    .timeout(Duration.ofMinutes(2))
+                    .POST(HttpRequest.BodyPublishers.fromPublisher(
+                            new CuerpoLento(cuerpo, configuracion.lentitud(), hilos), cuerpo.length))
+                    .build();
+            if (!enviar(Operacion.INGRESAR, ingreso, inicio, medir)) {
+                continue;
+            }
+            HttpRequest salida = HttpRequest.newBuilder(URI.create(base + "/sacar/" + placa))
+                    .timeout(Duration.ofMinutes(2))
+                    .PUT(HttpRequest.BodyPublishers.noBody())
+                    .build();
+            enviar(Operacion.SACAR, salida, System.nanoTime(), medir);
+        }
+    }
+
+    private boolean enviar(Operacion operacion, HttpRequest peticion, long inicio, boolean medir) {
+        try {
+            HttpResponse<Void> respuesta = cliente.send(peticion, HttpResponse.BodyHandlers.discarding());
+            if (medir) {
+                informe.registrar(operacion, System.nanoTime() - inicio, respuesta.statusCode());
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (Exception e) {
+            if (medir) {
+                informe.registrarFallo(operacion, System.nanoTime() - inicio);
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Entrega el cuerpo en PARTES_CUERPO pedazos, con una pausa antes de cada uno,
+     * respetando la demanda del suscriptor
+     */
+    private static final class CuerpoLento implements Flow.Publisher<ByteBuffer> {
+
+        private final byte[] cuerpo;
+        private final long pausaNanos;
+        private final ExecutorService hilos;
+
+        CuerpoLento(byte[] cuerpo, Duration lentitud, ExecutorService hilos) {
+            this.cuerpo = cuerpo;
+            this.pausaNanos = lentitud.toNanos() / PARTES_CUERPO;
+            this.hilos = hilos;
+        }
+
+        @Override
+        public void subscribe(Flow.Subscriber<? super ByteBuffer> suscriptor) {
+            Semaphore demanda = new Semaphore(0);
+            AtomicBoolean cancelado = new AtomicBoolean();
+            suscriptor.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                    demanda.release((int) Math.min(n, Integer.MAX_VALUE - demanda.availablePermits()));
+                }
+
+                @Override
+                public void cancel() {
+                    cancelado.set(true);
+                    demanda.release();
+                }
+            });
+            hilos.execute(() -> {
+                int tamanoParte = (cuerpo.length + PARTES_CUERPO - 1) / PARTES_CUERPO;
+                try {
+                    for (int desde = 0; desde < cuerpo.length; desde += tamanoParte) {
+                        TimeUnit.NANOSECONDS.sleep(pausaNanos);
+                        demanda.acquire();
+                        if (cancelado.get()) {
+                            return;
+                        }
+                        suscriptor.onNext(ByteBuffer.wrap(cuerpo, desde, Math.min(tamanoParte, cuerpo.length - desde)));
+                    }
+                    suscriptor.onComplete();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    suscriptor.onError(e);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package demo.app.demogradle.carga;
+
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Parámetros de una corrida de carga, leídos como propiedades de Spring
+ * (p. ej. --carga.tasa=800 --carga.duracion=2m)
+ *
+ * @param tasaPorSegundo llegadas por segundo (modelo abierto: no depende de las respuestas)
+ * @param calentamiento tiempo inicial que no se mide
+ * @param duracion tiempo medido
+ * @param placas tamaño del universo de placas
+ * @param sesgoZipf exponente de Zipf; 0 es uniforme, ~1 son clientes frecuentes
+ * @param maximoEnVuelo tope de peticiones simultáneas del cliente
+ * @param mezcla peso relativo de cada operación
+ * @param clientesLentos si es mayor que 0, corre el modelo cerrado de ClientesLentos
+ *                       con esa cantidad de clientes en vez de las llegadas abiertas
+ * @param lentitud cuánto tarda cada cliente lento en enviar el cuerpo de su ingreso
+ */
+record ConfiguracionCarga(
+        double tasaPorSegundo,
+        Duration calentamiento,
+        Duration duracion,
+        int placas,
+        double sesgoZipf,
+        int maximoEnVuelo,
+        Map<Operacion, Integer> mezcla,
+        int clientesLentos,
+        Duration lentitud) {
+
+    /** Mezcla de un día normal: las pantallas consultan más de lo que entran y salen carros */
+    static final String MEZCLA_POR_DEFECTO = "ingresar:20,sacar:18,activos:50,costo:8,historial:4";
+
+    static ConfiguracionCarga desde(Environment env) {
+        return new ConfiguracionCarga(
+                env.getProperty("carga.tasa", Double.class, 500.0),
+                env.getProperty("carga.calentamiento", Duration.class, Duration.ofSeconds(15)),
+                env.getProperty("carga.duracion", Duration.class, Duration.ofMinutes(1)),
+                env.getProperty("carga.placas", Integer.class, 20_000),
+                env.getProperty("carga.sesgo-zipf", Double.class, 0.9),
+                env.getProperty("carga.maximo-en-vuelo", Integer.class, 1_024),
+                mezcla(env.getProperty("carga.mezcla", MEZCLA_POR_DEFECTO)),
+                env.getProperty("carga.clientes-lentos", Integer.class, 0),
+                env.getProperty("carga.lentitud", Duration.class, Duration.ofSeconds(1)));
+    }
+
+    private static Map<Operacion, Integer> mezcla(String texto) {
+        Map<Operacion, Integer> pesos = new EnumMap<>(Operacion.class);
+        for (String par : texto.split(",")) {
+            String[] partes = par.trim().split(":");
+            if (partes.length != 2) {
+                throw new IllegalArgumentException("Mezcla inválida, se espera operacion:peso -> " + par);
+            }
+            pesos.put(Operacion.valueOf(partes[0].trim().toUpperCase()), Integer.parseInt(partes[1].trim()));
+        }
+        return pesos;
+    }
+}
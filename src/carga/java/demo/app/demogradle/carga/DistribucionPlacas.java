@@ -0,0 +1,34 @@
+package demo.app.demogradle.carga;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Placas con distribución de Zipf: unos pocos clientes frecuentes concentran la
+ * mayoría de las visitas y una cola larga aparece de vez en cuando
+ */
+final class DistribucionPlacas {
+
+    private final String[] placas;
+    private final double[] acumulada;
+
+    DistribucionPlacas(int cantidad, double sesgo) {
+        placas = new String[cantidad];
+        acumulada = new double[cantidad];
+        double total = 0;
+        for (int i = 0; i < cantidad; i++) {
+            placas[i] = String.format("C%05d", i);
+            total += 1.0 / Math.pow(i + 1, sesgo);
+            acumulada[i] = total;
+        }
+        for (int i = 0; i < cantidad; i++) {
+            acumulada[i] /= total;
+        }
+    }
+
+    String siguiente() {
+        double u = ThreadLocalRandom.current().nextDouble();
+        int i = Arrays.binarySearch(acumulada, u);
+        return placas[i >= 0 ? i : Math.min(-i - 1, placas.length - 1)];
+    }
+}
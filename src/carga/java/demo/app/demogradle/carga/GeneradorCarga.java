@@ -0,0 +1,208 @@
+package demo.app.demogradle.carga;
+
+import demo.app.demogradle.DemoGradleApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * GENERADOR DE CARGA en la misma JVM
+ * - Levanta la aplicación completa en un puerto aleatorio
+ * - Modelo abierto: las llegadas siguen un proceso de Poisson a la tasa pedida,
+ *   sin esperar a que termine la petición anterior (como carros en la puerta)
+ * - Placas con distribución de Zipf; las salidas se toman de los carros que
+ *   este mismo generador dejó adentro, en orden de llegada
+ * - Informa throughput y p50/p99/p99.9 por operación, corregidos por omisión coordinada
+ *
+ * Uso: ./gradlew carga -PcargaArgs="--carga.tasa=800 --carga.duracion=2m"
+ * Con --carga.clientes-lentos=N corre en cambio el modelo cerrado de ClientesLentos
+ */
+public final class GeneradorCarga {
+
+    private static final String API = "/api/parqueadero";
+
+    private final ConfiguracionCarga configuracion;
+    private final String base;
+    private final ExecutorService hilosCliente;
+    private final HttpClient cliente;
+    private final DistribucionPlacas placas;
+    private final Operacion[] ruleta;
+    private final Semaphore enVuelo;
+    private final InformeLatencias informe = new InformeLatencias();
+
+    private final Set<String> adentro = ConcurrentHashMap.newKeySet();
+    private final Queue<String> ordenLlegada = new ConcurrentLinkedQueue<>();
+    private final AtomicReference<String> etagActivos = new AtomicReference<>();
+
+    GeneradorCarga(ConfiguracionCarga configuracion, int puerto) {
+        this.configuracion = configuracion;
+        this.base = "http://localhost:" + puerto + API;
+        this.hilosCliente = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        this.cliente = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(hilosCliente)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        this.placas = new DistribucionPlacas(configuracion.placas(), configuracion.sesgoZipf());
+        this.ruleta = ruleta(configuracion.mezcla());
+        this.enVuelo = new Semaphore(configuracion.maximoEnVuelo());
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        try (ConfigurableApplicationContext contexto = new SpringApplicationBuilder(DemoGradleApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.jpa.show-sql=false",
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN")
+                .run(args)) {
+            int puerto = ((WebServerApplicationContext) contexto).getWebServer().getPort();
+            ConfiguracionCarga configuracion = ConfiguracionCarga.desde(contexto.getEnvironment());
+            System.out.printf("Aplicación en el puerto %d; %s%n", puerto, configuracion);
+            if (configuracion.clientesLentos() > 0) {
+                new ClientesLentos(configuracion, "http://localhost:" + puerto + API).ejecutar();
+            } else {
+                new GeneradorCarga(configuracion, puerto).ejecutar();
+            }
+        }
+    }
+
+    void ejecutar() throws InterruptedException {
+        long inicio = System.nanoTime();
+        long inicioMedicion = inicio + configuracion.calentamiento().toNanos();
+        long fin = inicioMedicion + configuracion.duracion().toNanos();
+        double nanosEntreLlegadas = TimeUnit.SECONDS.toNanos(1) / configuracion.tasaPorSegundo();
+
+        long programada = inicio;
+        while (programada < fin) {
+            long espera = programada - System.nanoTime();
+            if (espera > 0) {
+                LockSupport.parkNanos(espera);
+            }
+            // Si el tope de peticiones en vuelo frena el envío, la latencia igual
+            // se cuenta desde "programada": la espera en la puerta es parte de la experiencia
+            enVuelo.acquire();
+            enviar(ruleta[ThreadLocalRandom.current().nextInt(ruleta.length)], programada, programada >= inicioMedicion);
+
+            // Llegadas de Poisson: intervalos exponenciales
+            programada += (long) (-Math.log(1 - ThreadLocalRandom.current().nextDouble()) * nanosEntreLlegadas);
+        }
+
+        if (!enVuelo.tryAcquire(configuracion.maximoEnVuelo(), 30, TimeUnit.SECONDS)) {
+            System.out.println("Algunas peticiones no terminaron en 30 s y quedan fuera del informe");
+        }
+        hilosCliente.shutdown();
+        informe.imprimir(System.out, configuracion.duracion(), configuracion.tasaPorSegundo());
+    }
+
+    private void enviar(Operacion operacion, long programada, boolean medir) {
+        String[] placa = new String[1];
+        HttpRequest peticion = switch (operacion) {
+            case INGRESAR -> {
+                placa[0] = placaAfuera();
+                String tipo = (placa[0].hashCode() & 1) == 0 ? "CARRO" : "MOTO";
+                yield HttpRequest.newBuilder(URI.create(base + "/ingresar"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(
+                                "{\"placa\":\"" + placa[0] + "\",\"tipo\":\"" + tipo + "\"}"))
+                        .build();
+            }
+            case SACAR -> {
+                String siguiente = ordenLlegada.poll();
+                placa[0] = siguiente != null ? siguiente : placas.siguiente();
+                yield HttpRequest.newBuilder(URI.create(base + "/sacar/" + placa[0]))
+                        .PUT(HttpRequest.BodyPublishers.noBody())
+                        .build();
+            }
+            case ACTIVOS -> {
+                HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(base + "/activos"))
+                        .header("Accept-Encoding", "gzip");
+                String etag = etagActivos.get();
+                if (etag != null) {
+                    builder.header("If-None-Match", etag);
+                }
+                yield builder.GET().build();
+            }
+            case COSTO -> HttpRequest.newBuilder(URI.create(base + "/costo/" + placas.siguiente())).GET().build();
+            case HISTORIAL -> HttpRequest.newBuilder(URI.create(base + "/historial?limite=50")).GET().build();
+        };
+
+        cliente.sendAsync(peticion, HttpResponse.BodyHandlers.discarding())
+                .whenComplete((respuesta, error) -> {
+                    long latencia = System.nanoTime() - programada;
+                    try {
+                        if (error != null) {
+                            if (medir) {
+                                informe.registrarFallo(operacion, latencia);
+                            }
+                            return;
+                        }
+                        seguirEstado(operacion, placa[0], respuesta);
+                        if (medir) {
+                            informe.registrar(operacion, latencia, respuesta.statusCode());
+                        }
+                    } finally {
+                        enVuelo.release();
+                    }
+                });
+    }
+
+    /**
+     * Prefiere placas que este generador no dejó adentro; si el sorteo insiste en
+     * una que ya está, se envía igual y cuenta como un 409 realista
+     */
+    private String placaAfuera() {
+        String placa = placas.siguiente();
+        for (int intento = 0; intento < 3 && adentro.contains(placa); intento++) {
+            placa = placas.siguiente();
+        }
+        return placa;
+    }
+
+    private void seguirEstado(Operacion operacion, String placa, HttpResponse<Void> respuesta) {
+        switch (operacion) {
+            case INGRESAR -> {
+                if (respuesta.statusCode() == 201 && adentro.add(placa)) {
+                    ordenLlegada.add(placa);
+                }
+            }
+            case SACAR -> adentro.remove(placa);
+            case ACTIVOS -> respuesta.headers().firstValue("ETag").ifPresent(etagActivos::set);
+            default -> {
+            }
+        }
+    }
+
+    private static Operacion[] ruleta(Map<Operacion, Integer> mezcla) {
+        int total = mezcla.values().stream().mapToInt(Integer::intValue).sum();
+        if (total <= 0) {
+            throw new IllegalArgumentException("La mezcla de operaciones debe tener algún peso positivo");
+        }
+        Operacion[] ruleta = new Operacion[total];
+        int i = 0;
+        for (Map.Entry<Operacion, Integer> peso : mezcla.entrySet()) {
+            for (int j = 0; j < peso.getValue(); j++) {
+                ruleta[i++] = peso.getKey();
+            }
+        }
+        return ruleta;
+    }
+}
@@ -0,0 +1,69 @@
+package demo.app.demogradle.carga;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencias por operación, medidas desde el instante en que la petición DEBÍA
+ * salir según el plan de llegadas y no desde que salió: si el servidor se
+ * atrasa, la espera acumulada también cuenta (corrección de omisión coordinada)
+ */
+final class InformeLatencias {
+
+    private final Map<Operacion, Histogram> latencias = new EnumMap<>(Operacion.class);
+    private final Map<String, LongAdder> estados = new ConcurrentHashMap<>();
+    private final LongAdder fallos = new LongAdder();
+
+    InformeLatencias() {
+        for (Operacion operacion : Operacion.values()) {
+            latencias.put(operacion, new ConcurrentHistogram(3));
+        }
+    }
+
+    void registrar(Operacion operacion, long latenciaNanos, int estado) {
+        latencias.get(operacion).recordValue(latenciaNanos);
+        estados.computeIfAbsent(operacion + " " + estado, k -> new LongAdder()).increment();
+    }
+
+    void registrarFallo(Operacion operacion, long latenciaNanos) {
+        latencias.get(operacion).recordValue(latenciaNanos);
+        fallos.increment();
+    }
+
+    void imprimir(PrintStream salida, Duration medido, double tasaObjetivo) {
+        Histogram total = new Histogram(3);
+        latencias.values().forEach(total::add);
+        double segundos = medido.toNanos() / 1e9;
+
+        salida.printf("%nTasa objetivo: %.0f/s  -  completadas: %d  -  throughput: %.1f/s  -  fallos de red: %d%n",
+                tasaObjetivo, total.getTotalCount(), total.getTotalCount() / segundos, fallos.sum());
+        salida.printf("%-10s %10s %10s %10s %10s %10s%n", "operacion", "n", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+        latencias.forEach((operacion, h) -> fila(salida, operacion.name().toLowerCase(), h));
+        fila(salida, "total", total);
+
+        salida.println();
+        estados.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(e -> salida.printf("  %-20s %d%n", e.getKey().toLowerCase(), e.getValue().sum()));
+    }
+
+    private static void fila(PrintStream salida, String nombre, Histogram h) {
+        if (h.getTotalCount() == 0) {
+            return;
+        }
+        salida.printf("%-10s %10d %10.2f %10.2f %10.2f %10.2f%n", nombre, h.getTotalCount(),
+                ms(h.getValueAtPercentile(50)), ms(h.getValueAtPercentile(99)),
+                ms(h.getValueAtPercentile(99.9)), ms(h.getMaxValue()));
+    }
+
+    private static double ms(long nanos) {
+        return nanos / 1e6;
+    }
+}
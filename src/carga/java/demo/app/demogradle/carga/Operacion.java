@@ -0,0 +1,12 @@
+package demo.app.demogradle.carga;
+
+/**
+ * Llamadas que hace el tráfico de las puertas y las pantallas
+ */
+enum Operacion {
+    INGRESAR,
+    SACAR,
+    ACTIVOS,
+    COSTO,
+    HISTORIAL
+}
@@ -0,0 +1,142 @@
+package demo.app.demogradle.application.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import demo.app.demogradle.application.dto.VehiculoResponse;
+import demo.app.demogradle.benchmark.ContextoH2;
+import demo.app.demogradle.domain.model.TipoVehiculo;
+import demo.app.demogradle.domain.model.Vehiculo;
+import demo.app.demogradle.domain.port.out.VehiculoRepository;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * BENCHMARK: exportación NDJSON del historial completo contra H2 en memoria
+ * - jpa: cursor JDBC de solo avance del adaptador JPA
+ * - jdbc: el mismo cursor en el adaptador JDBC escrito a mano
+ *
+ * Cada exportación recorre transmitirHistorial y escribe cada estancia como lo
+ * hace ParqueaderoController (mapToResponse, Jackson y salto de línea) en una
+ * salida que solo cuenta bytes, así se mide la lectura y la serialización sin red.
+ *
+ * Contadores: filas exportadas, filasPorSegundo y megabytes de NDJSON por exportación
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class ExportacionHistorialBenchmark {
+
+    private static final int TAMANO_LOTE_CARGA = 10_000;
+
+    @Param({"jpa", "jdbc"})
+    public String adaptador;
+
+    @Param({"10000000"})
+    public int filas;
+
+    private ContextoH2 contextoH2;
+    private VehiculoRepository repositorio;
+    private ObjectWriter writer;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Exportacion {
+        public long filas;
+        public double filasPorSegundo;
+        public double megabytes;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        contextoH2 = new ContextoH2("parqueadero.persistencia.adaptador=" + adaptador);
+        repositorio = contextoH2.adaptador();
+        writer = contextoH2.bean(ObjectMapper.class).writerFor(VehiculoResponse.class);
+        cargar(contextoH2.bean(JdbcTemplate.class));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        contextoH2.close();
+    }
+
+    @Benchmark
+    public long exportarNdjson(Exportacion exportacion) throws IOException {
+        ContadorBytes salida = new ContadorBytes();
+        long exportadas = 0;
+        long inicio = System.nanoTime();
+        try (Stream<Vehiculo> historial = repositorio.transmitirHistorial()) {
+            Iterator<Vehiculo> vehiculos = historial.iterator();
+            while (vehiculos.hasNext()) {
+                salida.write(writer.writeValueAsBytes(ParqueaderoController.mapToResponse(vehiculos.next())));
+                salida.write('\n');
+                exportadas++;
+            }
+        }
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+        exportacion.filas = exportadas;
+        exportacion.filasPorSegundo = exportadas / segundos;
+        exportacion.megabytes = salida.bytes / (1024.0 * 1024.0);
+        return salida.bytes;
+    }
+
+    /**
+     * Estancias cerradas por lotes JDBC, sin pasar por el adaptador: la carga no
+     * es lo que se mide
+     */
+    private void cargar(JdbcTemplate jdbcTemplate) {
+        LocalDateTime base = LocalDateTime.now().minusSeconds(filas);
+        List<Object[]> lote = new ArrayList<>(TAMANO_LOTE_CARGA);
+        for (int i = 0; i < filas; i++) {
+            LocalDateTime ingreso = base.plusSeconds(i);
+            lote.add(new Object[]{String.format("E%06d", i % 1_000_000),
+                    (i % 3 == 0 ? TipoVehiculo.MOTO : TipoVehiculo.CARRO).name(),
+                    Timestamp.valueOf(ingreso), Timestamp.valueOf(ingreso.plusHours(1)), 1_000 + i % 5_000});
+            if (lote.size() == TAMANO_LOTE_CARGA || i == filas - 1) {
+                jdbcTemplate.batchUpdate(
+                        "INSERT INTO estancias (id, placa, tipo, fecha_ingreso, fecha_salida, activo, costo) "
+                                + "VALUES (NEXT VALUE FOR estancias_seq, ?, ?, ?, ?, FALSE, ?)", lote);
+                lote.clear();
+            }
+        }
+    }
+
+    private static final class ContadorBytes extends OutputStream {
+        long bytes;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+        }
+    }
+}
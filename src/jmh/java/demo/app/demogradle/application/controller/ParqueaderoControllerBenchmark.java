@@ -0,0 +1,68 @@
+package demo.app.demogradle.application.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import demo.app.demogradle.application.dto.VehiculoResponse;
+import demo.app.demogradle.domain.model.TipoVehiculo;
+import demo.app.demogradle.domain.model.Vehiculo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BENCHMARK: adaptador de entrada REST
+ * - mapToResponse: Vehiculo → VehiculoResponse
+ * - serializarLista: lista de respuestas a JSON, con el ObjectMapper configurado
+ *   como lo hace Spring Boot (fechas ISO, sin timestamps)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParqueaderoControllerBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int tamano;
+
+    private Vehiculo vehiculo;
+    private List<VehiculoResponse> respuestas;
+    private ObjectWriter writer;
+
+    @Setup
+    public void setUp() {
+        vehiculo = Vehiculo.crear("ABC123", TipoVehiculo.CARRO).marcarSalida();
+        respuestas = new ArrayList<>(tamano);
+        for (int i = 0; i < tamano; i++) {
+            Vehiculo v = Vehiculo.crear(String.format("LIS%03d", i % 1000), TipoVehiculo.MOTO);
+            respuestas.add(ParqueaderoController.mapToResponse(i % 2 == 0 ? v : v.marcarSalida()));
+        }
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        writer = objectMapper.writerFor(objectMapper.getTypeFactory()
+                .constructCollectionType(List.class, VehiculoResponse.class));
+    }
+
+    @Benchmark
+    public VehiculoResponse mapToResponse() {
+        return ParqueaderoController.mapToResponse(vehiculo);
+    }
+
+    @Benchmark
+    public byte[] serializarLista() throws Exception {
+        return writer.writeValueAsBytes(respuestas);
+    }
+}
@@ -0,0 +1,53 @@
+package demo.app.demogradle.benchmark;
+
+import demo.app.demogradle.DemoGradleApplication;
+import demo.app.demogradle.domain.port.out.VehiculoRepository;
+import demo.app.demogradle.infrastructure.persistence.config.PersistenciaConfig;
+import org.springframework.beans.factory.annotation.BeanFactoryAnnotationUtils;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Contexto de Spring sin servidor web, con H2 en memoria, para los benchmarks
+ * que necesitan el adaptador JPA real
+ * - Entrega el adaptador sin decoradores (ni caché ni índice), para medir la base de datos
+ * - Cada trial abre su propia base de datos y la cierra al terminar
+ */
+public final class ContextoH2 implements AutoCloseable {
+
+    private final ConfigurableApplicationContext contexto;
+
+    public ContextoH2() {
+        this(new String[0]);
+    }
+
+    /**
+     * @param propiedades propiedades adicionales "clave=valor" del benchmark
+     */
+    public ContextoH2(String... propiedades) {
+        this.contexto = new SpringApplicationBuilder(DemoGradleApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:benchmark;LAZY_QUERY_EXECUTION=1",
+                        "spring.jpa.show-sql=false",
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN")
+                .properties(propiedades)
+                .run();
+    }
+
+    public VehiculoRepository adaptador() {
+        return BeanFactoryAnnotationUtils.qualifiedBeanOfType(
+                contexto.getBeanFactory(), VehiculoRepository.class, PersistenciaConfig.ADAPTADOR);
+    }
+
+    public <T> T bean(Class<T> tipo) {
+        return contexto.getBean(tipo);
+    }
+
+    @Override
+    public void close() {
+        contexto.close();
+    }
+}
@@ -0,0 +1,51 @@
+package demo.app.demogradle.domain.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BENCHMARK: métodos de fábrica y de transición del agregado Vehiculo
+ * - crear: validación de placa, mayúsculas y reloj
+ * - marcarSalida: copia inmutable y tarifa
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VehiculoBenchmark {
+
+    private Vehiculo activo;
+
+    @Setup
+    public void setUp() {
+        activo = Vehiculo.builder()
+                .placa("ABC123")
+                .tipo(TipoVehiculo.CARRO)
+                .fechaIngreso(LocalDateTime.now().minusHours(3))
+                .activo(true)
+                .build();
+    }
+
+    @Benchmark
+    public Vehiculo crear() {
+        return Vehiculo.crear("abc123", TipoVehiculo.CARRO);
+    }
+
+    @Benchmark
+    public Vehiculo marcarSalida() {
+        return activo.marcarSalida();
+    }
+}
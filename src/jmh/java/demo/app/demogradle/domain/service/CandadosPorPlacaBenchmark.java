@@ -0,0 +1,158 @@
+package demo.app.demogradle.domain.service;
+
+import demo.app.demogradle.domain.model.ConsultaHistorial;
+import demo.app.demogradle.domain.model.PaginaHistorial;
+import demo.app.demogradle.domain.model.ResultadoParqueadero;
+import demo.app.demogradle.domain.model.TipoVehiculo;
+import demo.app.demogradle.domain.model.Vehiculo;
+import demo.app.demogradle.domain.port.out.VehiculoRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * BENCHMARK: ingreso + salida concurrentes a través de los candados por placa
+ * - distintas: cada hilo usa su propia placa; debería escalar con los núcleos
+ * - misma: todos los hilos pelean una placa; se serializan en su franja
+ *
+ * El puerto es un mapa concurrente, así que lo que se mide es el servicio.
+ * Para ver el escalamiento, repetir con -t 1, 2, 4, ... hasta los núcleos
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class CandadosPorPlacaBenchmark {
+
+    @Param({"distintas", "misma"})
+    public String placas;
+
+    private final AtomicInteger hilos = new AtomicInteger();
+    private ParqueaderoService servicio;
+
+    @Setup
+    public void setUp() {
+        servicio = new ParqueaderoService(new PuertoConcurrente());
+    }
+
+    @State(Scope.Thread)
+    public static class Puerta {
+        String placa;
+
+        @Setup
+        public void setUp(CandadosPorPlacaBenchmark benchmark) {
+            placa = "misma".equals(benchmark.placas)
+                    ? "MIS001"
+                    : String.format("HIL%03d", benchmark.hilos.getAndIncrement());
+        }
+    }
+
+    @Benchmark
+    public void ingresarYSalir(Puerta puerta, Blackhole bh) {
+        ResultadoParqueadero<Vehiculo> ingreso = servicio.ingresarVehiculo(puerta.placa, TipoVehiculo.CARRO);
+        bh.consume(ingreso);
+        bh.consume(servicio.liquidarSalida(puerta.placa));
+    }
+
+    /**
+     * Puerto falso con las escrituras condicionales de la base de datos, sin bloqueos propios
+     */
+    private static final class PuertoConcurrente implements VehiculoRepository {
+
+        private final ConcurrentHashMap<String, Vehiculo> activos = new ConcurrentHashMap<>();
+
+        @Override
+        public Vehiculo guardar(Vehiculo vehiculo) {
+            return vehiculo;
+        }
+
+        @Override
+        public boolean registrarIngreso(Vehiculo vehiculo) {
+            return activos.putIfAbsent(vehiculo.getPlaca(), vehiculo) == null;
+        }
+
+        @Override
+        public boolean registrarSalida(Vehiculo vehiculoSalida) {
+            return activos.remove(vehiculoSalida.getPlaca()) != null;
+        }
+
+        @Override
+        public boolean[] registrarIngresos(List<Vehiculo> vehiculos) {
+            boolean[] aplicados = new boolean[vehiculos.size()];
+            for (int i = 0; i < aplicados.length; i++) {
+                aplicados[i] = registrarIngreso(vehiculos.get(i));
+            }
+            return aplicados;
+        }
+
+        @Override
+        public boolean[] registrarSalidas(List<Vehiculo> vehiculosSalida) {
+            boolean[] aplicadas = new boolean[vehiculosSalida.size()];
+            for (int i = 0; i < aplicadas.length; i++) {
+                aplicadas[i] = registrarSalida(vehiculosSalida.get(i));
+            }
+            return aplicadas;
+        }
+
+        @Override
+        public Optional<Vehiculo> buscarPorPlaca(String placa) {
+            return Optional.ofNullable(activos.get(placa.toUpperCase()));
+        }
+
+        @Override
+        public Optional<Vehiculo> buscarActivoPorPlaca(String placa) {
+            return buscarPorPlaca(placa);
+        }
+
+        @Override
+        public List<Vehiculo> buscarActivosPorPlacas(Collection<String> placas) {
+            return placas.stream().map(this::buscarActivoPorPlaca).flatMap(Optional::stream).toList();
+        }
+
+        @Override
+        public List<Vehiculo> buscarVehiculosActivos() {
+            return List.copyOf(activos.values());
+        }
+
+        @Override
+        public List<Vehiculo> buscarTodos() {
+            return buscarVehiculosActivos();
+        }
+
+        @Override
+        public PaginaHistorial buscarHistorial(ConsultaHistorial consulta) {
+            return PaginaHistorial.desde(List.of(), consulta.getLimite());
+        }
+
+        @Override
+        public Stream<Vehiculo> transmitirHistorial() {
+            return Stream.empty();
+        }
+
+        @Override
+        public void eliminar(String placa) {
+            activos.remove(placa.toUpperCase());
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package demo.app.demogradle.domain.service;
+
+import demo.app.demogradle.benchmark.ContextoH2;
+import demo.app.demogradle.domain.model.SolicitudIngreso;
+import demo.app.demogradle.domain.model.TipoVehiculo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BENCHMARK: ingreso y salida de un evento completo contra H2, en vehículos por segundo
+ * - individual: una llamada al caso de uso (y un viaje a la base) por vehículo
+ * - lote: ingresarVehiculos / liquidarSalidas, un lote JDBC por operación
+ * Cada invocación ingresa y saca las mismas placas, así que la tabla solo crece en historial
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class LoteBenchmark {
+
+    private static final int VEHICULOS = 1_000;
+
+    @Param({"individual", "lote"})
+    public String modo;
+
+    private ContextoH2 contextoH2;
+    private ParqueaderoService servicio;
+    private List<SolicitudIngreso> ingresos;
+    private List<String> placas;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        contextoH2 = new ContextoH2();
+        servicio = new ParqueaderoService(contextoH2.adaptador());
+        ingresos = new ArrayList<>(VEHICULOS);
+        placas = new ArrayList<>(VEHICULOS);
+        for (int i = 0; i < VEHICULOS; i++) {
+            String placa = String.format("LOT%04d", i);
+            ingresos.add(SolicitudIngreso.de(placa, TipoVehiculo.values()[i % TipoVehiculo.values().length]));
+            placas.add(placa);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        contextoH2.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(2 * VEHICULOS)
+    public void evento(Blackhole bh) {
+        if ("lote".equals(modo)) {
+            bh.consume(servicio.ingresarVehiculos(ingresos));
+            bh.consume(servicio.liquidarSalidas(placas));
+        } else {
+            for (SolicitudIngreso ingreso : ingresos) {
+                bh.consume(servicio.ingresarVehiculo(ingreso.getPlaca(), ingreso.getTipo()));
+            }
+            for (String placa : placas) {
+                bh.consume(servicio.liquidarSalida(placa));
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package demo.app.demogradle.domain.service;
+
+import demo.app.demogradle.benchmark.ContextoH2;
+import demo.app.demogradle.domain.model.ResultadoParqueadero;
+import demo.app.demogradle.domain.model.TipoVehiculo;
+import demo.app.demogradle.domain.model.Vehiculo;
+import demo.app.demogradle.domain.port.out.VehiculoRepository;
+import demo.app.demogradle.infrastructure.persistence.memoria.VehiculoRepositoryMemoriaAdapter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BENCHMARK: ParqueaderoService.calcularCosto sobre estancias ya cerradas
+ * - memoria: el adaptador en memoria con arreglos primitivos
+ * - h2: el adaptador JPA real contra H2 en memoria, sin caché delante
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParqueaderoServiceBenchmark {
+
+    private static final int PLACAS = 1_000;
+
+    @Param({"memoria", "h2"})
+    public String repositorio;
+
+    private ContextoH2 contextoH2;
+    private ParqueaderoService servicio;
+    private String[] placas;
+    private int siguiente;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        VehiculoRepository puerto;
+        if ("h2".equals(repositorio)) {
+            contextoH2 = new ContextoH2();
+            puerto = contextoH2.adaptador();
+        } else {
+            puerto = new VehiculoRepositoryMemoriaAdapter(PLACAS);
+        }
+        servicio = new ParqueaderoService(puerto);
+
+        placas = new String[PLACAS];
+        for (int i = 0; i < PLACAS; i++) {
+            placas[i] = String.format("BEN%03d", i);
+            Vehiculo vehiculo = Vehiculo.crear(placas[i], TipoVehiculo.values()[i % TipoVehiculo.values().length]);
+            puerto.registrarIngreso(vehiculo);
+            puerto.registrarSalida(vehiculo.marcarSalida());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (contextoH2 != null) {
+            contextoH2.close();
+        }
+    }
+
+    @Benchmark
+    public ResultadoParqueadero<Integer> calcularCosto() {
+        String placa = placas[siguiente];
+        siguiente = (siguiente + 1) % PLACAS;
+        return servicio.calcularCosto(placa);
+    }
+}
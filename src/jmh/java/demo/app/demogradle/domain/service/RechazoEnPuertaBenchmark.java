@@ -0,0 +1,219 @@
+package demo.app.demogradle.domain.service;
+
+import demo.app.demogradle.domain.model.ConsultaHistorial;
+import demo.app.demogradle.domain.model.PaginaHistorial;
+import demo.app.demogradle.domain.model.ResultadoParqueadero;
+import demo.app.demogradle.domain.model.TipoVehiculo;
+import demo.app.demogradle.domain.model.Vehiculo;
+import demo.app.demogradle.domain.port.out.VehiculoRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.CompilerControl;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * BENCHMARK: lecturas rechazadas en la puerta (placa ya adentro / placa desconocida)
+ *
+ * 🎯 QUÉ COMPARAMOS:
+ * - resultado*: el servicio actual, que devuelve ResultadoParqueadero
+ * - excepcion*: el camino anterior (mensaje concatenado, excepción lanzada en el
+ *   servicio y capturada en el controlador), con la misma forma que el servicio
+ *   actual: mismo puerto y mismo candado por placa alrededor de cada caso de uso
+ *
+ * La excepción se lanza en un método que no se integra (DONT_INLINE), como en el
+ * servicio real: si el throw y el catch quedaran en el mismo método compilado, C2
+ * podría convertirlos en un salto y medir un rechazo que en producción no existe.
+ *
+ * El puerto rechaza siempre y no toca base de datos: se mide solo el costo del rechazo
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RechazoEnPuertaBenchmark {
+
+    private static final String PLACA = "ABC123";
+
+    private ParqueaderoService servicio;
+    private ServicioConExcepciones servicioConExcepciones;
+
+    @Setup
+    public void setUp() {
+        VehiculoRepository repositorio = new PuertoQueRechaza();
+        servicio = new ParqueaderoService(repositorio);
+        servicioConExcepciones = new ServicioConExcepciones(repositorio);
+    }
+
+    @Benchmark
+    public int resultadoDuplicado() {
+        return estado(servicio.ingresarVehiculo(PLACA, TipoVehiculo.CARRO));
+    }
+
+    @Benchmark
+    public int excepcionDuplicado() {
+        try {
+            servicioConExcepciones.ingresarVehiculo(PLACA, TipoVehiculo.CARRO);
+            return 201;
+        } catch (IllegalStateException e) {
+            return 409;
+        }
+    }
+
+    @Benchmark
+    public int resultadoNoEncontrado() {
+        return estado(servicio.liquidarSalida(PLACA));
+    }
+
+    @Benchmark
+    public int excepcionNoEncontrado() {
+        try {
+            servicioConExcepciones.liquidarSalida(PLACA);
+            return 200;
+        } catch (IllegalArgumentException e) {
+            return 404;
+        }
+    }
+
+    private static int estado(ResultadoParqueadero<?> resultado) {
+        if (resultado instanceof ResultadoParqueadero.Duplicado<?>) {
+            return 409;
+        }
+        if (resultado instanceof ResultadoParqueadero.NoEncontrado<?>) {
+            return 404;
+        }
+        return 200;
+    }
+
+    /**
+     * El servicio anterior, que rechazaba con excepciones, con la misma forma que
+     * ParqueaderoService: mismos candados por placa y mismas llamadas al puerto
+     */
+    private static final class ServicioConExcepciones {
+
+        private final VehiculoRepository vehiculoRepository;
+        private final CandadosPorPlaca candados = new CandadosPorPlaca(ParqueaderoService.FRANJAS_PLACA);
+
+        ServicioConExcepciones(VehiculoRepository vehiculoRepository) {
+            this.vehiculoRepository = vehiculoRepository;
+        }
+
+        Vehiculo ingresarVehiculo(String placa, TipoVehiculo tipo) {
+            Vehiculo vehiculo = Vehiculo.crear(placa, tipo);
+            return candados.conPlaca(vehiculo.getPlaca(), () -> {
+                if (!vehiculoRepository.registrarIngreso(vehiculo)) {
+                    rechazarDuplicado(vehiculo.getPlaca());
+                }
+                return vehiculo;
+            });
+        }
+
+        Vehiculo liquidarSalida(String placa) {
+            return candados.conPlaca(placa, () -> {
+                Optional<Vehiculo> vehiculo = vehiculoRepository.buscarActivoPorPlaca(placa);
+                if (vehiculo.isEmpty()) {
+                    rechazarNoEncontrado(placa);
+                }
+                Vehiculo vehiculoSalida = vehiculo.get().marcarSalida();
+                if (!vehiculoRepository.registrarSalida(vehiculoSalida)) {
+                    rechazarNoEncontrado(placa);
+                }
+                return vehiculoSalida;
+            });
+        }
+
+        @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+        private static void rechazarDuplicado(String placa) {
+            throw new IllegalStateException("El vehículo con placa " + placa + " ya está en el parqueadero");
+        }
+
+        @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+        private static void rechazarNoEncontrado(String placa) {
+            throw new IllegalArgumentException("Vehículo con placa " + placa + " no encontrado en el parqueadero");
+        }
+    }
+
+    /**
+     * Puerto falso: toda placa ya está adentro para ingresar y ausente para salir
+     */
+    private static final class PuertoQueRechaza implements VehiculoRepository {
+
+        @Override
+        public Vehiculo guardar(Vehiculo vehiculo) {
+            return vehiculo;
+        }
+
+        @Override
+        public boolean registrarIngreso(Vehiculo vehiculo) {
+            return false;
+        }
+
+        @Override
+        public boolean registrarSalida(Vehiculo vehiculoSalida) {
+            return false;
+        }
+
+        @Override
+        public boolean[] registrarIngresos(List<Vehiculo> vehiculos) {
+            return new boolean[vehiculos.size()];
+        }
+
+        @Override
+        public boolean[] registrarSalidas(List<Vehiculo> vehiculosSalida) {
+            return new boolean[vehiculosSalida.size()];
+        }
+
+        @Override
+        public Optional<Vehiculo> buscarPorPlaca(String placa) {
+            return Optional.empty();
+        }
+
+        @Override
+        public Optional<Vehiculo> buscarActivoPorPlaca(String placa) {
+            return Optional.empty();
+        }
+
+        @Override
+        public List<Vehiculo> buscarActivosPorPlacas(Collection<String> placas) {
+            return List.of();
+        }
+
+        @Override
+        public List<Vehiculo> buscarVehiculosActivos() {
+            return List.of();
+        }
+
+        @Override
+        public List<Vehiculo> buscarTodos() {
+            return List.of();
+        }
+
+        @Override
+        public PaginaHistorial buscarHistorial(ConsultaHistorial consulta) {
+            return PaginaHistorial.desde(List.of(), consulta.getLimite());
+        }
+
+        @Override
+        public Stream<Vehiculo> transmitirHistorial() {
+            return Stream.empty();
+        }
+
+        @Override
+        public void eliminar(String placa) {
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package demo.app.demogradle.infrastructure.persistence.adapter;
+
+import demo.app.demogradle.benchmark.ContextoH2;
+import demo.app.demogradle.domain.model.TipoVehiculo;
+import demo.app.demogradle.domain.model.Vehiculo;
+import demo.app.demogradle.domain.port.out.VehiculoRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BENCHMARK: cierre de estancias bajo contención, contra H2
+ * - optimista: guardar con @Version y reintento, sin bloquear filas
+ * - pesimista: guardar con SELECT ... FOR UPDATE, los demás esperan en la base
+ * - condicional: registrarSalida, el UPDATE condicional que usan las salidas
+ *   de producción (referencia para los dos modos de guardar)
+ *
+ * Distribución sesgada: la mayoría de operaciones cae en unas pocas placas
+ * "calientes" (una puerta con fila), el resto se reparte entre muchas.
+ * Cada operación intenta abrir una estancia y solo la cierra si la abrió: en
+ * una placa caliente los demás hilos pierden el ingreso y no cierran nada.
+ * Contadores: conflictos y reintentos del modo optimista en cada iteración
+ * (en el pesimista y el condicional quedan en 0)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class BloqueoEstanciasBenchmark {
+
+    private static final int PLACAS = 1_000;
+    private static final int CALIENTES = 4;
+    private static final String CONDICIONAL = "condicional";
+
+    @Param({VehiculoRepositoryAdapter.BLOQUEO_OPTIMISTA, VehiculoRepositoryAdapter.BLOQUEO_PESIMISTA, CONDICIONAL})
+    public String bloqueo;
+
+    /** Porcentaje de operaciones que caen en las placas calientes */
+    @Param({"90"})
+    public int sesgo;
+
+    private ContextoH2 contextoH2;
+    private VehiculoRepository adaptador;
+    private String[] placas;
+    private Counter conflictos;
+    private Counter reintentos;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        contextoH2 = new ContextoH2("parqueadero.persistencia.bloqueo="
+                + (CONDICIONAL.equals(bloqueo) ? VehiculoRepositoryAdapter.BLOQUEO_OPTIMISTA : bloqueo));
+        adaptador = contextoH2.adaptador();
+        MeterRegistry registry = contextoH2.bean(MeterRegistry.class);
+        conflictos = registry.counter(VehiculoRepositoryAdapter.METRICA_CONFLICTOS);
+        reintentos = registry.counter(VehiculoRepositoryAdapter.METRICA_REINTENTOS);
+        placas = new String[PLACAS];
+        for (int i = 0; i < PLACAS; i++) {
+            placas[i] = String.format("BLQ%03d", i);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        contextoH2.close();
+    }
+
+    /**
+     * Los contadores de Micrometer son de todo el proceso y JMH suma los de cada
+     * hilo: cada hilo reporta el avance global desde el inicio de la iteración
+     * dividido entre la cantidad de hilos
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Conflictos {
+        public double conflictos;
+        public double reintentos;
+        private double conflictosAlIniciar;
+        private double reintentosAlIniciar;
+        private int hilos;
+
+        @Setup(Level.Iteration)
+        public void setUp(BloqueoEstanciasBenchmark benchmark, BenchmarkParams parametros) {
+            hilos = parametros.getThreads();
+            conflictosAlIniciar = benchmark.conflictos.count();
+            reintentosAlIniciar = benchmark.reintentos.count();
+            conflictos = 0;
+            reintentos = 0;
+        }
+
+        void actualizar(BloqueoEstanciasBenchmark benchmark) {
+            conflictos = (benchmark.conflictos.count() - conflictosAlIniciar) / hilos;
+            reintentos = (benchmark.reintentos.count() - reintentosAlIniciar) / hilos;
+        }
+    }
+
+    @Benchmark
+    public Vehiculo cerrarEstancia(Conflictos contadores) {
+        ThreadLocalRandom azar = ThreadLocalRandom.current();
+        String placa = azar.nextInt(100) < sesgo
+                ? placas[azar.nextInt(CALIENTES)]
+                : placas[CALIENTES + azar.nextInt(PLACAS - CALIENTES)];
+        Vehiculo estancia = Vehiculo.crear(placa, TipoVehiculo.CARRO);
+        if (!adaptador.registrarIngreso(estancia)) {
+            return null;
+        }
+        Vehiculo salida = estancia.marcarSalida();
+        Vehiculo cerrada = CONDICIONAL.equals(bloqueo)
+                ? (adaptador.registrarSalida(salida) ? salida : null)
+                : adaptador.guardar(salida);
+        contadores.actualizar(this);
+        return cerrada;
+    }
+}
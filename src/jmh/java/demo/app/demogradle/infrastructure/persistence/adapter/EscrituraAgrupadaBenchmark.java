@@ -0,0 +1,202 @@
+package demo.app.demogradle.infrastructure.persistence.adapter;
+
+import demo.app.demogradle.domain.model.TipoVehiculo;
+import demo.app.demogradle.domain.model.Vehiculo;
+import demo.app.demogradle.domain.port.in.ParqueaderoUseCase;
+import demo.app.demogradle.domain.service.ParqueaderoService;
+import demo.app.demogradle.infrastructure.persistence.memoria.VehiculoRepositoryMemoriaAdapter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * BENCHMARK: escritura agrupada por encima de los candados por placa
+ * - sin: servicio → índice de activos → adaptador, un commit por escritura
+ * - con: escritura agrupada → servicio (en lote) → índice de activos → adaptador
+ *
+ * El adaptador es el de memoria con un costo fijo por commit, tomado de a uno
+ * (como forzar un único archivo a disco). Cada hilo es una puerta con su propia
+ * placa que ingresa y saca en bucle. Son 256 puertas y lotes de hasta 256, más
+ * que las 64 franjas del índice: mientras esperan la ventana no retienen ninguna
+ * - distintas: placas cualesquiera; algunas comparten franja por azar
+ * - misma-franja: todas caen en la franja 0 del servicio y del índice, el peor
+ *   caso si la espera retuviera la franja
+ *
+ * Contadores: escrituras / lotes = escrituras por lote que vio cada llamador;
+ * masDe64 = escrituras aplicadas en lotes de más de 64. Con misma-franja los
+ * lotes deben quedar igual de grandes que con distintas
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(256)
+@Fork(1)
+public class EscrituraAgrupadaBenchmark {
+
+    private static final Duration VENTANA = Duration.ofMillis(2);
+    private static final int TAMANO_LOTE = 256;
+    private static final int FRANJAS_INDICE = 64;
+    /** Franjas del servicio (ParqueaderoService): franja 0 ahí también es franja 0 del índice */
+    private static final int FRANJAS_SERVICIO = 256;
+    private static final long COSTO_COMMIT_NANOS = TimeUnit.MICROSECONDS.toNanos(500);
+
+    @Param({"sin", "con"})
+    public String agrupacion;
+
+    @Param({"distintas", "misma-franja"})
+    public String placas;
+
+    private PuertoConCommit puerto;
+    private ParqueaderoConEscrituraAgrupada escrituraAgrupada;
+    private ParqueaderoUseCase servicio;
+    private int candidata;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        puerto = new PuertoConCommit();
+        servicio = new ParqueaderoService(new VehiculoRepositoryConIndiceActivos(puerto));
+        if ("con".equals(agrupacion)) {
+            escrituraAgrupada = new ParqueaderoConEscrituraAgrupada(
+                    servicio, VENTANA, TAMANO_LOTE, new SimpleMeterRegistry());
+            servicio = escrituraAgrupada;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (escrituraAgrupada != null) {
+            escrituraAgrupada.close();
+        }
+    }
+
+    /**
+     * La siguiente placa libre; en misma-franja, solo las de la franja 0 del servicio
+     */
+    synchronized String siguientePlaca() {
+        while (true) {
+            String placa = String.format("G%06d", candidata++);
+            if (!"misma-franja".equals(placas) || (placa.hashCode() & 0x7fffffff) % FRANJAS_SERVICIO == 0) {
+                return placa;
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Puerta {
+        String placa;
+
+        @Setup(Level.Trial)
+        public void setUp(EscrituraAgrupadaBenchmark benchmark) {
+            placa = benchmark.siguientePlaca();
+        }
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Lotes {
+        public long escrituras;
+        /** Cada escritura suma 1 / tamaño de su lote: el total es la cantidad de lotes */
+        public double lotes;
+        public long masDe64;
+    }
+
+    @Benchmark
+    public void ingresarYSalir(Puerta puerta, Lotes lotes, Blackhole bh) {
+        bh.consume(servicio.ingresarVehiculo(puerta.placa, TipoVehiculo.CARRO));
+        contar(puerta, lotes);
+        bh.consume(servicio.liquidarSalida(puerta.placa));
+        contar(puerta, lotes);
+    }
+
+    private void contar(Puerta puerta, Lotes lotes) {
+        int tamano = puerto.tamanoDeLote.getOrDefault(puerta.placa, 1);
+        lotes.escrituras++;
+        lotes.lotes += 1.0 / tamano;
+        if (tamano > FRANJAS_INDICE) {
+            lotes.masDe64++;
+        }
+    }
+
+    /**
+     * Adaptador de memoria con un costo fijo por commit, de a un commit a la vez;
+     * anota en qué tamaño de lote se aplicó la última escritura de cada placa
+     */
+    private static final class PuertoConCommit extends VehiculoRepositoryMemoriaAdapter {
+
+        private final ReentrantLock disco = new ReentrantLock();
+        private final ConcurrentHashMap<String, Integer> tamanoDeLote = new ConcurrentHashMap<>();
+
+        PuertoConCommit() {
+            super(1024);
+        }
+
+        @Override
+        public boolean registrarIngreso(Vehiculo vehiculo) {
+            commit();
+            tamanoDeLote.put(vehiculo.getPlaca(), 1);
+            return super.registrarIngreso(vehiculo);
+        }
+
+        @Override
+        public boolean registrarSalida(Vehiculo vehiculoSalida) {
+            commit();
+            tamanoDeLote.put(vehiculoSalida.getPlaca(), 1);
+            return super.registrarSalida(vehiculoSalida);
+        }
+
+        @Override
+        public boolean[] registrarIngresos(List<Vehiculo> vehiculos) {
+            commit();
+            // El lote de la clase base pasa por registrarIngreso: aquí se evita el commit extra
+            boolean[] ingresados = new boolean[vehiculos.size()];
+            for (int i = 0; i < ingresados.length; i++) {
+                tamanoDeLote.put(vehiculos.get(i).getPlaca(), vehiculos.size());
+                ingresados[i] = super.registrarIngreso(vehiculos.get(i));
+            }
+            return ingresados;
+        }
+
+        @Override
+        public boolean[] registrarSalidas(List<Vehiculo> vehiculosSalida) {
+            commit();
+            boolean[] cerradas = new boolean[vehiculosSalida.size()];
+            for (int i = 0; i < cerradas.length; i++) {
+                tamanoDeLote.put(vehiculosSalida.get(i).getPlaca(), vehiculosSalida.size());
+                cerradas[i] = super.registrarSalida(vehiculosSalida.get(i));
+            }
+            return cerradas;
+        }
+
+        private void commit() {
+            disco.lock();
+            try {
+                LockSupport.parkNanos(COSTO_COMMIT_NANOS);
+            } finally {
+                disco.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package demo.app.demogradle.infrastructure.persistence.diario;
+
+import demo.app.demogradle.domain.model.TipoVehiculo;
+import demo.app.demogradle.domain.model.Vehiculo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BENCHMARK: tiempo de arranque del adaptador con diario tras un año de tráfico
+ * - 5.000 estancias por día durante 365 días, cada una con ingreso y salida
+ * - diario: sin instantánea, se reproducen todos los registros
+ * - instantanea: instantánea tomada antes del último día, más la cola de ese día
+ *
+ * El objetivo es que "instantanea" quede por debajo de un segundo
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g"})
+public class RecuperacionDiarioBenchmark {
+
+    private static final int ESTANCIAS_POR_DIA = 5_000;
+    private static final int PLACAS = 100_000;
+
+    @Param({"365"})
+    public int dias;
+
+    @Param({"diario", "instantanea"})
+    public String recuperacion;
+
+    private Path directorio;
+    private VehiculoRepositoryDiarioAdapter recuperado;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directorio = Files.createTempDirectory("recuperacion-diario");
+        VehiculoRepositoryDiarioAdapter adaptador = abrir(PoliticaSincronizacion.PERIODICA);
+        LocalDateTime inicio = LocalDateTime.now().minusDays(dias);
+        int total = dias * ESTANCIAS_POR_DIA;
+        for (int i = 0; i < total; i++) {
+            if ("instantanea".equals(recuperacion) && i == total - ESTANCIAS_POR_DIA) {
+                adaptador.tomarInstantanea();
+            }
+            LocalDateTime ingreso = inicio.plusSeconds(i * 17L);
+            String placa = String.format("A%05d", i % PLACAS);
+            TipoVehiculo tipo = i % 3 == 0 ? TipoVehiculo.MOTO : TipoVehiculo.CARRO;
+            adaptador.registrarIngreso(Vehiculo.builder()
+                    .placa(placa).tipo(tipo).fechaIngreso(ingreso).activo(true)
+                    .build());
+            adaptador.registrarSalida(Vehiculo.builder()
+                    .placa(placa).tipo(tipo).fechaIngreso(ingreso).fechaSalida(ingreso.plusHours(2))
+                    .activo(false).costo(4_000)
+                    .build());
+        }
+        adaptador.close();
+    }
+
+    @TearDown(Level.Invocation)
+    public void cerrar() {
+        if (recuperado != null) {
+            recuperado.close();
+            recuperado = null;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        FileSystemUtils.deleteRecursively(directorio);
+    }
+
+    @Benchmark
+    public VehiculoRepositoryDiarioAdapter recuperar() {
+        recuperado = abrir(PoliticaSincronizacion.AGRUPADA);
+        return recuperado;
+    }
+
+    private VehiculoRepositoryDiarioAdapter abrir(PoliticaSincronizacion politica) {
+        return new VehiculoRepositoryDiarioAdapter(directorio, DataSize.ofMegabytes(64), politica,
+                Duration.ofSeconds(1), Duration.ZERO, 1024);
+    }
+}
@@ -0,0 +1,130 @@
+package demo.app.demogradle.infrastructure.persistence.jdbc;
+
+import demo.app.demogradle.benchmark.ContextoH2;
+import demo.app.demogradle.domain.model.TipoVehiculo;
+import demo.app.demogradle.domain.model.Vehiculo;
+import demo.app.demogradle.domain.port.out.VehiculoRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BENCHMARK: latencia de ingreso, salida y consultas por placa contra H2
+ * - jpa: VehiculoRepositoryAdapter (Spring Data + Hibernate)
+ * - jdbc: VehiculoRepositoryJdbcAdapter (sentencias JDBC escritas a mano)
+ *
+ * Ambos corren sobre el mismo esquema y la misma base. Cada iteración prepara
+ * placas nuevas: las de ingreso no existen y las de salida ya están adentro,
+ * así cada operación medida cambia exactamente una fila
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AdaptadorJdbcBenchmark {
+
+    private static final int PLACAS_CONSULTA = 1_000;
+    /** Holgado para lo que alcanza a correr una iteración de un segundo */
+    private static final int POR_ITERACION = 100_000;
+    private static final int LOTE_PREPARACION = 1_000;
+
+    @Param({"jpa", "jdbc"})
+    public String adaptador;
+
+    private ContextoH2 contextoH2;
+    private VehiculoRepository repositorio;
+    private String[] consultas;
+    private Vehiculo[] porIngresar;
+    private Vehiculo[] porSacar;
+    private int siguienteIngreso;
+    private int siguienteSalida;
+    private int siguienteConsulta;
+    private long iteracion;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        contextoH2 = new ContextoH2("parqueadero.persistencia.adaptador=" + adaptador);
+        repositorio = contextoH2.adaptador();
+        consultas = new String[PLACAS_CONSULTA];
+        for (int i = 0; i < PLACAS_CONSULTA; i++) {
+            consultas[i] = String.format("CON%03d", i);
+            repositorio.registrarIngreso(Vehiculo.crear(consultas[i], TipoVehiculo.CARRO));
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void prepararIteracion() {
+        iteracion++;
+        porIngresar = new Vehiculo[POR_ITERACION];
+        porSacar = new Vehiculo[POR_ITERACION];
+        for (int i = 0; i < POR_ITERACION; i++) {
+            porIngresar[i] = Vehiculo.crear(placa('I', i), TipoVehiculo.CARRO);
+            porSacar[i] = Vehiculo.crear(placa('S', i), TipoVehiculo.MOTO);
+        }
+        for (int desde = 0; desde < POR_ITERACION; desde += LOTE_PREPARACION) {
+            List<Vehiculo> lote = Arrays.asList(porSacar).subList(desde, desde + LOTE_PREPARACION);
+            repositorio.registrarIngresos(lote);
+        }
+        for (int i = 0; i < POR_ITERACION; i++) {
+            porSacar[i] = porSacar[i].marcarSalida();
+        }
+        siguienteIngreso = 0;
+        siguienteSalida = 0;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        contextoH2.close();
+    }
+
+    @Benchmark
+    public boolean ingresar() {
+        return repositorio.registrarIngreso(porIngresar[siguienteIngreso++ % POR_ITERACION]);
+    }
+
+    @Benchmark
+    public boolean sacar() {
+        return repositorio.registrarSalida(porSacar[siguienteSalida++ % POR_ITERACION]);
+    }
+
+    @Benchmark
+    public Optional<Vehiculo> buscarPorPlaca() {
+        return repositorio.buscarPorPlaca(siguienteConsulta());
+    }
+
+    @Benchmark
+    public Optional<Vehiculo> buscarActivoPorPlaca() {
+        return repositorio.buscarActivoPorPlaca(siguienteConsulta());
+    }
+
+    private String siguienteConsulta() {
+        String placa = consultas[siguienteConsulta];
+        siguienteConsulta = (siguienteConsulta + 1) % PLACAS_CONSULTA;
+        return placa;
+    }
+
+    /**
+     * Prefijo + 6 dígitos en base 36, distintos en cada iteración del trial
+     */
+    private String placa(char prefijo, int i) {
+        String numero = Long.toString(iteracion * POR_ITERACION + i, 36);
+        return prefijo + "0".repeat(6 - numero.length()) + numero;
+    }
+}
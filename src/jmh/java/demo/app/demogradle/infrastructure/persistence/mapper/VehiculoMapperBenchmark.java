@@ -0,0 +1,49 @@
+package demo.app.demogradle.infrastructure.persistence.mapper;
+
+import demo.app.demogradle.domain.model.TipoVehiculo;
+import demo.app.demogradle.domain.model.Vehiculo;
+import demo.app.demogradle.infrastructure.persistence.entity.VehiculoEntity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BENCHMARK: mapeo Domain ↔ Entity del adaptador JPA
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VehiculoMapperBenchmark {
+
+    private final VehiculoMapper mapper = new VehiculoMapperImpl();
+    private Vehiculo vehiculo;
+    private VehiculoEntity entity;
+
+    @Setup
+    public void setUp() {
+        vehiculo = Vehiculo.crear("ABC123", TipoVehiculo.CARRO).marcarSalida();
+        entity = mapper.toEntity(vehiculo);
+    }
+
+    @Benchmark
+    public VehiculoEntity toEntity() {
+        return mapper.toEntity(vehiculo);
+    }
+
+    @Benchmark
+    public Vehiculo toDomain() {
+        return mapper.toDomain(entity);
+    }
+}
@@ -0,0 +1,157 @@
+package demo.app.demogradle.infrastructure.persistence.memoria;
+
+import demo.app.demogradle.benchmark.ContextoH2;
+import demo.app.demogradle.domain.model.TipoVehiculo;
+import demo.app.demogradle.domain.model.Vehiculo;
+import demo.app.demogradle.infrastructure.persistence.entity.VehiculoEntity;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BENCHMARK: huella en el heap de 1M estancias activas
+ * - memoria: VehiculoRepositoryMemoriaAdapter (arreglos primitivos)
+ * - entidades: un VehiculoEntity por estancia en un HashMap por placa, la forma en
+ *   que el camino JPA representa cada fila en la JVM
+ * - h2: el esquema real en H2 en memoria (tabla más índices), cargado por lotes JDBC
+ *
+ * El contador bytesPorVehiculo es la diferencia de heap usado tras forzar GC,
+ * antes y después de cargar, dividida por la cantidad de vehículos
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class HuellaMemoriaBenchmark {
+
+    @Param({"1000000"})
+    public int vehiculos;
+
+    @Param({"memoria", "entidades", "h2"})
+    public String representacion;
+
+    private ContextoH2 contextoH2;
+    private Object retenido;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Huella {
+        public double bytesPorVehiculo;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        if ("h2".equals(representacion)) {
+            contextoH2 = new ContextoH2();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        retenido = null;
+        if (contextoH2 != null) {
+            contextoH2.close();
+        }
+    }
+
+    @Benchmark
+    public Object cargar(Huella huella) {
+        long antes = heapUsado();
+        retenido = switch (representacion) {
+            case "memoria" -> cargarEnMemoria();
+            case "entidades" -> cargarEntidades();
+            case "h2" -> cargarH2();
+            default -> throw new IllegalArgumentException(representacion);
+        };
+        huella.bytesPorVehiculo = (heapUsado() - antes) / (double) vehiculos;
+        return retenido;
+    }
+
+    private Object cargarEnMemoria() {
+        VehiculoRepositoryMemoriaAdapter adaptador = new VehiculoRepositoryMemoriaAdapter(16);
+        LocalDateTime ahora = LocalDateTime.now();
+        for (int i = 0; i < vehiculos; i++) {
+            adaptador.registrarIngreso(vehiculo(i, ahora));
+        }
+        return adaptador;
+    }
+
+    private Object cargarEntidades() {
+        Map<String, VehiculoEntity> porPlaca = new HashMap<>();
+        LocalDateTime ahora = LocalDateTime.now();
+        for (int i = 0; i < vehiculos; i++) {
+            Vehiculo vehiculo = vehiculo(i, ahora);
+            porPlaca.put(vehiculo.getPlaca(), VehiculoEntity.builder()
+                    .id((long) i)
+                    .placa(vehiculo.getPlaca())
+                    .placaActiva(vehiculo.getPlaca())
+                    .tipo(vehiculo.getTipo())
+                    .fechaIngreso(vehiculo.getFechaIngreso())
+                    .activo(true)
+                    .build());
+        }
+        return porPlaca;
+    }
+
+    private Object cargarH2() {
+        JdbcTemplate jdbcTemplate = contextoH2.bean(JdbcTemplate.class);
+        LocalDateTime ahora = LocalDateTime.now();
+        List<Object[]> lote = new ArrayList<>(10_000);
+        for (int i = 0; i < vehiculos; i++) {
+            Vehiculo vehiculo = vehiculo(i, ahora);
+            lote.add(new Object[]{vehiculo.getPlaca(), vehiculo.getTipo().name(),
+                    Timestamp.valueOf(vehiculo.getFechaIngreso()), vehiculo.getPlaca()});
+            if (lote.size() == 10_000 || i == vehiculos - 1) {
+                jdbcTemplate.batchUpdate(
+                        "INSERT INTO estancias (id, placa, tipo, fecha_ingreso, activo, placa_activa) "
+                                + "VALUES (NEXT VALUE FOR estancias_seq, ?, ?, ?, TRUE, ?)", lote);
+                lote.clear();
+            }
+        }
+        return jdbcTemplate;
+    }
+
+    /**
+     * Fechas ascendentes, como llegan los ingresos reales: cada una se agrega al
+     * final del índice (ingreso, placa). Descendentes, cada inserción correría todo
+     * el arreglo y la carga de un millón sería cuadrática
+     */
+    private static Vehiculo vehiculo(int i, LocalDateTime ahora) {
+        return Vehiculo.builder()
+                .placa(String.format("H%06d", i))
+                .tipo(i % 3 == 0 ? TipoVehiculo.MOTO : TipoVehiculo.CARRO)
+                .fechaIngreso(ahora.plusSeconds(i))
+                .activo(true)
+                .build();
+    }
+
+    private static long heapUsado() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,60 @@
+package demo.app.demogradle.application.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import demo.app.demogradle.application.dto.VehiculoResponse;
+import demo.app.demogradle.domain.model.Vehiculo;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.function.Function;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Respuesta de /activos ya serializada, en JSON plano y comprimida con gzip
+ * - Se regenera solo cuando cambia la instantánea de activos que entrega el caso de uso
+ * - Mientras no cambie, cada consulta de las pantallas solo copia bytes
+ */
+@Component
+@RequiredArgsConstructor
+class ActivosSerializados {
+
+    private final ObjectMapper objectMapper;
+    private volatile Serializacion actual;
+
+    Serializacion obtener(List<Vehiculo> vehiculos, Function<Vehiculo, VehiculoResponse> mapeo) {
+        Serializacion vigente = actual;
+        if (vigente != null && vigente.origen() == vehiculos) {
+            return vigente;
+        }
+        byte[] json = serializar(vehiculos.stream().map(mapeo).toList());
+        Serializacion nueva = new Serializacion(vehiculos, json, comprimir(json));
+        actual = nueva;
+        return nueva;
+    }
+
+    private byte[] serializar(List<VehiculoResponse> responses) {
+        try {
+            return objectMapper.writeValueAsBytes(responses);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar la lista de activos", e);
+        }
+    }
+
+    private static byte[] comprimir(byte[] json) {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream(Math.max(64, json.length / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(salida)) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return salida.toByteArray();
+    }
+
+    record Serializacion(List<Vehiculo> origen, byte[] json, byte[] gzip) {
+    }
+}
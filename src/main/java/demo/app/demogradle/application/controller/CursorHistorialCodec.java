@@ -0,0 +1,41 @@
+package demo.app.demogradle.application.controller;
+
+import demo.app.demogradle.domain.model.CursorHistorial;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Traduce el cursor del dominio a un texto opaco seguro para URL y viceversa
+ * El cliente solo debe reenviar el valor recibido, nunca construirlo
+ */
+final class CursorHistorialCodec {
+
+    private static final char SEPARADOR = '|';
+
+    private CursorHistorialCodec() {
+    }
+
+    static String codificar(CursorHistorial cursor) {
+        String plano = cursor.getFechaIngreso().toString() + SEPARADOR + cursor.getPlaca();
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(plano.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static CursorHistorial decodificar(String cursor) {
+        try {
+            String plano = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separador = plano.indexOf(SEPARADOR);
+            if (separador < 0) {
+                throw new IllegalArgumentException("Cursor de historial inválido");
+            }
+            return new CursorHistorial(
+                    LocalDateTime.parse(plano.substring(0, separador)),
+                    plano.substring(separador + 1));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Cursor de historial inválido");
+        }
+    }
+}
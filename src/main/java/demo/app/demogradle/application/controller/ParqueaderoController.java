@@ -1,87 +1,386 @@
 package demo.app.demogradle.application.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import demo.app.demogradle.application.dto.IngresoVehiculoRequest;
+import demo.app.demogradle.application.dto.ResultadoLoteResponse;
+import demo.app.demogradle.application.dto.SalidaVehiculoRequest;
 import demo.app.demogradle.application.dto.VehiculoResponse;
+import demo.app.demogradle.application.exception.ErrorResponse;
+import demo.app.demogradle.domain.model.ConsultaHistorial;
+import demo.app.demogradle.domain.model.PaginaVistas;
+import demo.app.demogradle.domain.model.ReciboSalida;
+import demo.app.demogradle.domain.model.ResultadoParqueadero;
+import demo.app.demogradle.domain.model.SolicitudIngreso;
+import demo.app.demogradle.domain.model.TipoVehiculo;
 import demo.app.demogradle.domain.model.Vehiculo;
+import demo.app.demogradle.domain.port.in.ConsultaHistorialUseCase;
 import demo.app.demogradle.domain.port.in.ParqueaderoUseCase;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+/**
+ * Adaptador de entrada servlet; con parqueadero.reactivo.habilitado las mismas
+ * rutas las atiende ParqueaderoReactivoController
+ */
 @RestController
 @RequestMapping("/api/parqueadero")
+@ConditionalOnProperty(name = "parqueadero.reactivo.habilitado", havingValue = "false", matchIfMissing = true)
 @RequiredArgsConstructor
 public class ParqueaderoController {
 
+    static final String CABECERA_SIGUIENTE_CURSOR = "X-Siguiente-Cursor";
+    static final String MEDIA_TYPE_NDJSON = "application/x-ndjson";
+    /** La versión de cambios vuelve a 0 al arrancar: la época separa los ETag de cada arranque */
+    private static final String EPOCA = Long.toHexString(new SecureRandom().nextLong());
+
+    /** Un cuerpo inmutable por desenlace, armado una sola vez y compartido entre peticiones */
+    private static final ErrorResponse ERROR_DUPLICADO = error(HttpStatus.CONFLICT,
+            "El vehículo ya está en el parqueadero");
+    private static final ErrorResponse ERROR_NO_ENCONTRADO = error(HttpStatus.NOT_FOUND,
+            "El vehículo no está en el parqueadero");
+    private static final ErrorResponse ERROR_AUN_ACTIVO = error(HttpStatus.BAD_REQUEST,
+            "El vehículo aún está en el parqueadero; el costo se calcula al salir");
+
     private final ParqueaderoUseCase parqueaderoUseCase;
+    private final ConsultaHistorialUseCase consultaHistorialUseCase;
+    private final ObjectMapper objectMapper;
+    private final ActivosSerializados activosSerializados;
+    private final Validator validator;
+    @Value("${parqueadero.http.lote.maximo:10000}")
+    private final int maximoLote;
 
     @PostMapping("/ingresar")
-    public ResponseEntity<VehiculoResponse> ingresarVehiculo(@Valid @RequestBody IngresoVehiculoRequest request) {
-        try {
-            Vehiculo vehiculo = parqueaderoUseCase.ingresarVehiculo(request.getPlaca(), request.getTipo());
-            VehiculoResponse response = mapToResponse(vehiculo);
-            return ResponseEntity.status(HttpStatus.CREATED).body(response);
-        } catch (IllegalStateException e) {
-            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+    public ResponseEntity<?> ingresarVehiculo(@Valid @RequestBody IngresoVehiculoRequest request) {
+        ResultadoParqueadero<Vehiculo> resultado =
+                parqueaderoUseCase.ingresarVehiculo(request.getPlaca(), request.getTipo());
+        if (resultado instanceof ResultadoParqueadero.Exito<Vehiculo> exito) {
+            return ResponseEntity.status(HttpStatus.CREATED).body(mapToResponse(exito.valor()));
         }
+        return conError(resultado);
     }
 
     @PutMapping("/sacar/{placa}")
-    public ResponseEntity<VehiculoResponse> sacarVehiculo(@PathVariable String placa) {
-        try {
-            Vehiculo vehiculo = parqueaderoUseCase.sacarVehiculo(placa);
-            int costo = parqueaderoUseCase.calcularCosto(placa);
-            
-            VehiculoResponse response = mapToResponse(vehiculo);
-            response.setCosto(costo);
-            
+    public ResponseEntity<?> sacarVehiculo(@PathVariable String placa) {
+        ResultadoParqueadero<ReciboSalida> resultado = parqueaderoUseCase.liquidarSalida(placa);
+        if (resultado instanceof ResultadoParqueadero.Exito<ReciboSalida> exito) {
+            ReciboSalida recibo = exito.valor();
+            VehiculoResponse response = mapToResponse(recibo.getVehiculo());
+            response.setCosto(recibo.getCosto());
             return ResponseEntity.ok(response);
-        } catch (IllegalArgumentException e) {
-            return ResponseEntity.notFound().build();
         }
+        return conError(resultado);
+    }
+
+    /**
+     * Ingreso en lote (eventos con vehículos preinscritos): un arreglo JSON o NDJSON
+     * de ingresos. Cada elemento se valida por separado; los válidos se aplican en
+     * un solo lote y la respuesta trae un desenlace por elemento, en el mismo orden
+     */
+    @PostMapping(value = "/ingresar/lote", consumes = {MediaType.APPLICATION_JSON_VALUE, MEDIA_TYPE_NDJSON})
+    public List<ResultadoLoteResponse> ingresarLote(InputStream cuerpo) throws IOException {
+        List<IngresoVehiculoRequest> solicitudes = leerLote(cuerpo, IngresoVehiculoRequest.class);
+        ResultadoLoteResponse[] respuesta = new ResultadoLoteResponse[solicitudes.size()];
+        List<SolicitudIngreso> validas = new ArrayList<>(solicitudes.size());
+        List<Integer> posiciones = new ArrayList<>(solicitudes.size());
+        for (int i = 0; i < solicitudes.size(); i++) {
+            IngresoVehiculoRequest solicitud = solicitudes.get(i);
+            String error = validar(solicitud);
+            if (error != null) {
+                respuesta[i] = invalido(i, solicitud != null ? solicitud.getPlaca() : null, error);
+            } else {
+                validas.add(SolicitudIngreso.de(solicitud.getPlaca(), solicitud.getTipo()));
+                posiciones.add(i);
+            }
+        }
+
+        List<ResultadoParqueadero<Vehiculo>> resultados = parqueaderoUseCase.ingresarVehiculos(validas);
+        for (int k = 0; k < resultados.size(); k++) {
+            int i = posiciones.get(k);
+            ResultadoParqueadero<Vehiculo> resultado = resultados.get(k);
+            ResultadoLoteResponse.ResultadoLoteResponseBuilder elemento = ResultadoLoteResponse.builder()
+                    .indice(i)
+                    .placa(solicitudes.get(i).getPlaca());
+            if (resultado instanceof ResultadoParqueadero.Exito<Vehiculo> exito) {
+                elemento.estado(HttpStatus.CREATED.value()).vehiculo(mapToResponse(exito.valor()));
+            } else {
+                ErrorResponse error = errorDe(resultado);
+                elemento.estado(error.getCodigo()).mensaje(error.getMensaje());
+            }
+            respuesta[i] = elemento.build();
+        }
+        return Arrays.asList(respuesta);
+    }
+
+    /**
+     * Salida en lote (cierre de un evento): un arreglo JSON o NDJSON de
+     * {"placa": ...}; cada elemento trae su liquidación o el motivo del rechazo
+     */
+    @PutMapping(value = "/sacar/lote", consumes = {MediaType.APPLICATION_JSON_VALUE, MEDIA_TYPE_NDJSON})
+    public List<ResultadoLoteResponse> sacarLote(InputStream cuerpo) throws IOException {
+        List<SalidaVehiculoRequest> solicitudes = leerLote(cuerpo, SalidaVehiculoRequest.class);
+        ResultadoLoteResponse[] respuesta = new ResultadoLoteResponse[solicitudes.size()];
+        List<String> validas = new ArrayList<>(solicitudes.size());
+        List<Integer> posiciones = new ArrayList<>(solicitudes.size());
+        for (int i = 0; i < solicitudes.size(); i++) {
+            SalidaVehiculoRequest solicitud = solicitudes.get(i);
+            String error = validar(solicitud);
+            if (error != null) {
+                respuesta[i] = invalido(i, solicitud != null ? solicitud.getPlaca() : null, error);
+            } else {
+                validas.add(solicitud.getPlaca());
+                posiciones.add(i);
+            }
+        }
+
+        List<ResultadoParqueadero<ReciboSalida>> resultados = parqueaderoUseCase.liquidarSalidas(validas);
+        for (int k = 0; k < resultados.size(); k++) {
+            int i = posiciones.get(k);
+            ResultadoParqueadero<ReciboSalida> resultado = resultados.get(k);
+            ResultadoLoteResponse.ResultadoLoteResponseBuilder elemento = ResultadoLoteResponse.builder()
+                    .indice(i)
+                    .placa(solicitudes.get(i).getPlaca());
+            if (resultado instanceof ResultadoParqueadero.Exito<ReciboSalida> exito) {
+                VehiculoResponse vehiculo = mapToResponse(exito.valor().getVehiculo());
+                vehiculo.setCosto(exito.valor().getCosto());
+                elemento.estado(HttpStatus.OK.value()).vehiculo(vehiculo);
+            } else {
+                ErrorResponse error = errorDe(resultado);
+                elemento.estado(error.getCodigo()).mensaje(error.getMensaje());
+            }
+            respuesta[i] = elemento.build();
+        }
+        return Arrays.asList(respuesta);
     }
 
+    /**
+     * Las pantallas de las puertas consultan esto cada segundo: se responde con
+     * bytes ya serializados (y comprimidos si el cliente acepta gzip), o con un
+     * 304 vacío si no hubo ingresos ni salidas desde su ETag
+     */
     @GetMapping("/activos")
-    public ResponseEntity<List<VehiculoResponse>> consultarVehiculosActivos() {
-        List<Vehiculo> vehiculos = parqueaderoUseCase.consultarVehiculosActivos();
-        List<VehiculoResponse> responses = vehiculos.stream()
-                .map(this::mapToResponse)
-                .toList();
-        return ResponseEntity.ok(responses);
+    public ResponseEntity<byte[]> consultarVehiculosActivos(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            WebRequest webRequest, HttpServletResponse response) {
+        boolean gzip = aceptaGzip(acceptEncoding);
+        // Cada codificación es una representación distinta y lleva su propio ETag fuerte;
+        // Vary va también en el 304, para que un caché intermedio no mezcle las dos
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (webRequest.checkNotModified(etag(gzip ? "activos-gzip" : "activos"))) {
+            return null;
+        }
+        ActivosSerializados.Serializacion activos = activosSerializados.obtener(
+                parqueaderoUseCase.consultarVehiculosActivos(), ParqueaderoController::mapToResponse);
+
+        ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON);
+        if (gzip) {
+            return respuesta.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(activos.gzip());
+        }
+        return respuesta.body(activos.json());
     }
 
+    /**
+     * Historial paginado por llave: el cursor de la siguiente página viaja en
+     * la cabecera X-Siguiente-Cursor y se ausenta en la última página.
+     * El ETag es por URL, así que basta con la versión de cambios.
+     * Las filas llegan como vistas del lado de lectura y se mapean una sola vez
+     */
     @GetMapping("/historial")
-    public ResponseEntity<List<VehiculoResponse>> consultarHistorial() {
-        List<Vehiculo> vehiculos = parqueaderoUseCase.consultarHistorial();
-        List<VehiculoResponse> responses = vehiculos.stream()
-                .map(this::mapToResponse)
+    public ResponseEntity<List<VehiculoResponse>> consultarHistorial(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limite,
+            @RequestParam(required = false) TipoVehiculo tipo,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime hasta,
+            WebRequest webRequest) {
+        ConsultaHistorial consulta = ConsultaHistorial.builder()
+                .cursor(cursor != null ? CursorHistorialCodec.decodificar(cursor) : null)
+                .limite(limite)
+                .tipo(tipo)
+                .desde(desde)
+                .hasta(hasta)
+                .build();
+        // Después de decodificar el cursor, para que un cursor inválido no quede con ETag
+        if (webRequest.checkNotModified(etag("historial"))) {
+            return null;
+        }
+
+        PaginaVistas pagina = consultaHistorialUseCase.consultarHistorial(consulta);
+        List<VehiculoResponse> responses = pagina.getVistas().stream()
+                .map(VehiculoResponse::de)
                 .toList();
-        return ResponseEntity.ok(responses);
+
+        ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok();
+        pagina.siguiente().ifPresent(siguiente ->
+                respuesta.header(CABECERA_SIGUIENTE_CURSOR, CursorHistorialCodec.codificar(siguiente)));
+        return respuesta.body(responses);
+    }
+
+    /**
+     * Exportación completa en NDJSON: cada estancia se escribe en la respuesta
+     * apenas se lee del cursor, por lo que la memoria no crece con el historial
+     */
+    @GetMapping(value = "/historial", produces = MEDIA_TYPE_NDJSON)
+    public ResponseEntity<StreamingResponseBody> exportarHistorial() {
+        ObjectWriter writer = objectMapper.writerFor(VehiculoResponse.class);
+        StreamingResponseBody cuerpo = salida -> {
+            try (Stream<Vehiculo> historial = parqueaderoUseCase.exportarHistorial()) {
+                Iterator<Vehiculo> vehiculos = historial.iterator();
+                while (vehiculos.hasNext()) {
+                    salida.write(writer.writeValueAsBytes(mapToResponse(vehiculos.next())));
+                    salida.write('\n');
+                }
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(MEDIA_TYPE_NDJSON))
+                .body(cuerpo);
     }
 
+    /**
+     * La URL es por placa y no por estancia: una nueva estancia de la misma placa
+     * cambia el costo. Por eso el cliente guarda la respuesta pero revalida cada
+     * vez (no-cache) con el ETag, y recibe 304 mientras no haya cambios
+     */
     @GetMapping("/costo/{placa}")
-    public ResponseEntity<Integer> calcularCosto(@PathVariable String placa) {
-        try {
-            int costo = parqueaderoUseCase.calcularCosto(placa);
-            return ResponseEntity.ok(costo);
-        } catch (IllegalArgumentException e) {
-            return ResponseEntity.notFound().build();
-        } catch (IllegalStateException e) {
-            return ResponseEntity.badRequest().build();
-        }
-    }
-
-    private VehiculoResponse mapToResponse(Vehiculo vehiculo) {
-        return VehiculoResponse.builder()
-                .placa(vehiculo.getPlaca())
-                .tipo(vehiculo.getTipo())
-                .fechaIngreso(vehiculo.getFechaIngreso())
-                .fechaSalida(vehiculo.getFechaSalida())
-                .activo(vehiculo.isActivo())
+    public ResponseEntity<?> calcularCosto(@PathVariable String placa) {
+        // El ETag va en la respuesta y no se evalúa antes de consultar: así
+        // los 404 y 400 nunca lo llevan, y Spring responde 304 solo sobre un 200
+        String etag = etag("costo");
+        ResultadoParqueadero<Integer> resultado = parqueaderoUseCase.calcularCosto(placa);
+        if (resultado instanceof ResultadoParqueadero.Exito<Integer> exito) {
+            return ResponseEntity.ok()
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache().cachePrivate())
+                    .body(exito.valor());
+        }
+        return conError(resultado);
+    }
+
+    /**
+     * Desenlaces esperados de las puertas: el mismo ErrorResponse que arma
+     * GlobalExceptionHandler, pero ya preparado (sin excepción ni mensaje por
+     * placa) y sin timestamp ni path
+     */
+    static ResponseEntity<ErrorResponse> conError(ResultadoParqueadero<?> resultado) {
+        ErrorResponse error = errorDe(resultado);
+        return ResponseEntity.status(error.getCodigo()).body(error);
+    }
+
+    static ErrorResponse errorDe(ResultadoParqueadero<?> resultado) {
+        if (resultado instanceof ResultadoParqueadero.Duplicado<?>) {
+            return ERROR_DUPLICADO;
+        } else if (resultado instanceof ResultadoParqueadero.NoEncontrado<?>) {
+            return ERROR_NO_ENCONTRADO;
+        } else if (resultado instanceof ResultadoParqueadero.AunActivo<?>) {
+            return ERROR_AUN_ACTIVO;
+        }
+        throw new IllegalStateException("Resultado sin código de estado: " + resultado);
+    }
+
+    /**
+     * Lee un arreglo JSON o una secuencia NDJSON sin distinguirlos: el iterador
+     * de Jackson recorre los elementos de un arreglo raíz o los valores sueltos
+     */
+    private <T> List<T> leerLote(InputStream cuerpo, Class<T> tipo) throws IOException {
+        List<T> elementos = new ArrayList<>();
+        try (MappingIterator<T> iterador = objectMapper.readerFor(tipo).readValues(cuerpo)) {
+            while (iterador.hasNextValue()) {
+                if (elementos.size() == maximoLote) {
+                    throw new IllegalArgumentException("El lote admite como máximo " + maximoLote + " elementos");
+                }
+                elementos.add(iterador.nextValue());
+            }
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Lote mal formado: " + e.getOriginalMessage());
+        }
+        return elementos;
+    }
+
+    /**
+     * @return los mensajes de validación unidos, o null si el elemento es válido
+     */
+    private String validar(Object elemento) {
+        if (elemento == null) {
+            return "Elemento vacío";
+        }
+        Set<ConstraintViolation<Object>> violaciones = validator.validate(elemento);
+        if (violaciones.isEmpty()) {
+            return null;
+        }
+        return "Errores de validación: " + violaciones.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    private static ErrorResponse error(HttpStatus estado, String mensaje) {
+        return ErrorResponse.builder()
+                .mensaje(mensaje)
+                .codigo(estado.value())
+                .build();
+    }
+
+    private static ResultadoLoteResponse invalido(int indice, String placa, String mensaje) {
+        return ResultadoLoteResponse.builder()
+                .indice(indice)
+                .placa(placa)
+                .estado(HttpStatus.BAD_REQUEST.value())
+                .mensaje(mensaje)
                 .build();
     }
+
+    /**
+     * La versión se lee antes de consultar: si una escritura concurrente se
+     * cuela, el ETag queda atrás del dato y el cliente solo pierde un 304
+     */
+    private String etag(String recurso) {
+        return "\"" + recurso + "-" + EPOCA + "-" + parqueaderoUseCase.versionCambios() + "\"";
+    }
+
+    private static boolean aceptaGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String codificacion : acceptEncoding.split(",")) {
+            String[] partes = codificacion.trim().split(";");
+            if (partes[0].trim().equalsIgnoreCase("gzip")) {
+                return partes.length < 2 || !partes[1].trim().matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    static VehiculoResponse mapToResponse(Vehiculo vehiculo) {
+        return VehiculoResponse.de(vehiculo);
+    }
 }
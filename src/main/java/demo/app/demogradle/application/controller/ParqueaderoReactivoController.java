@@ -0,0 +1,88 @@
+package demo.app.demogradle.application.controller;
+
+import demo.app.demogradle.application.dto.IngresoVehiculoRequest;
+import demo.app.demogradle.application.dto.VehiculoResponse;
+import demo.app.demogradle.domain.model.ReciboSalida;
+import demo.app.demogradle.domain.model.ResultadoParqueadero;
+import demo.app.demogradle.domain.model.Vehiculo;
+import demo.app.demogradle.domain.port.in.ParqueaderoReactivoUseCase;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Adaptador de entrada no bloqueante (perfil reactivo): mismas rutas, códigos
+ * y cuerpos que ParqueaderoController para las operaciones de puertas y pantallas
+ * - Cada petición es una secuencia de Reactor; el hilo del servidor se libera
+ *   mientras espera la red, pero no mientras H2 ejecuta una sentencia (el
+ *   driver r2dbc-h2 corre el motor embebido en el hilo que se suscribe)
+ * - Sin lotes, ETag ni historial paginado: esas rutas siguen solo en la pila servlet
+ */
+@RestController
+@RequestMapping("/api/parqueadero")
+@ConditionalOnProperty(name = "parqueadero.reactivo.habilitado", havingValue = "true")
+@RequiredArgsConstructor
+public class ParqueaderoReactivoController {
+
+    private final ParqueaderoReactivoUseCase parqueaderoUseCase;
+
+    @PostMapping("/ingresar")
+    public Mono<ResponseEntity<?>> ingresarVehiculo(@Valid @RequestBody IngresoVehiculoRequest request) {
+        return parqueaderoUseCase.ingresarVehiculo(request.getPlaca(), request.getTipo())
+                .<ResponseEntity<?>>map(resultado -> resultado instanceof ResultadoParqueadero.Exito<Vehiculo> exito
+                        ? ResponseEntity.status(HttpStatus.CREATED).body(ParqueaderoController.mapToResponse(exito.valor()))
+                        : ParqueaderoController.conError(resultado));
+    }
+
+    @PutMapping("/sacar/{placa}")
+    public Mono<ResponseEntity<?>> sacarVehiculo(@PathVariable String placa) {
+        return parqueaderoUseCase.liquidarSalida(placa)
+                .<ResponseEntity<?>>map(resultado -> {
+                    if (resultado instanceof ResultadoParqueadero.Exito<ReciboSalida> exito) {
+                        VehiculoResponse response = ParqueaderoController.mapToResponse(exito.valor().getVehiculo());
+                        response.setCosto(exito.valor().getCosto());
+                        return ResponseEntity.ok(response);
+                    }
+                    return ParqueaderoController.conError(resultado);
+                });
+    }
+
+    /**
+     * Se escribe como arreglo JSON a medida que llegan las filas
+     */
+    @GetMapping("/activos")
+    public Flux<VehiculoResponse> consultarVehiculosActivos() {
+        return parqueaderoUseCase.consultarVehiculosActivos()
+                .map(ParqueaderoController::mapToResponse);
+    }
+
+    /**
+     * Exportación completa en NDJSON: las filas se piden según la demanda de
+     * Netty, pero cada una se lee de H2 en el bucle de eventos
+     */
+    @GetMapping(value = "/historial", produces = ParqueaderoController.MEDIA_TYPE_NDJSON)
+    public Flux<VehiculoResponse> exportarHistorial() {
+        return parqueaderoUseCase.exportarHistorial()
+                .map(ParqueaderoController::mapToResponse);
+    }
+
+    /**
+     * La URL es por placa y no por estancia: sin ETag con qué revalidar, el
+     * cliente no debe reutilizar la respuesta sin volver a preguntar
+     */
+    @GetMapping("/costo/{placa}")
+    public Mono<ResponseEntity<?>> calcularCosto(@PathVariable String placa) {
+        return parqueaderoUseCase.calcularCosto(placa)
+                .<ResponseEntity<?>>map(resultado -> resultado instanceof ResultadoParqueadero.Exito<Integer> exito
+                        ? ResponseEntity.ok()
+                                .cacheControl(CacheControl.noCache().cachePrivate())
+                                .body(exito.valor())
+                        : ParqueaderoController.conError(resultado));
+    }
+}
@@ -0,0 +1,21 @@
+package demo.app.demogradle.application.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Desenlace de un elemento de un lote
+ * - estado: el código HTTP que habría respondido la operación individual
+ * - vehiculo solo si se aplicó; mensaje solo si no
+ */
+@Data
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ResultadoLoteResponse {
+    private int indice;
+    private String placa;
+    private int estado;
+    private String mensaje;
+    private VehiculoResponse vehiculo;
+}
@@ -0,0 +1,18 @@
+package demo.app.demogradle.application.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Elemento de una salida en lote: la salida individual lleva la placa en la ruta
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalidaVehiculoRequest {
+
+    @NotBlank(message = "La placa es obligatoria")
+    private String placa;
+}
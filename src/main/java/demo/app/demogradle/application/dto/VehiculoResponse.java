@@ -1,6 +1,7 @@
 package demo.app.demogradle.application.dto;
 
 import demo.app.demogradle.domain.model.TipoVehiculo;
+import demo.app.demogradle.domain.model.VistaEstancia;
 import lombok.Builder;
 import lombok.Data;
 
@@ -15,4 +16,18 @@ public class VehiculoResponse {
     private LocalDateTime fechaSalida;
     private boolean activo;
     private Integer costo;
+
+    /**
+     * Un solo objeto por fila, sin builder intermedio: lo usan las lecturas que
+     * responden listas completas
+     */
+    public static VehiculoResponse de(VistaEstancia estancia) {
+        return new VehiculoResponse(
+                estancia.getPlaca(),
+                estancia.getTipo(),
+                estancia.getFechaIngreso(),
+                estancia.getFechaSalida(),
+                estancia.isActivo(),
+                estancia.getCosto());
+    }
 }
@@ -1,15 +1,21 @@
 package demo.app.demogradle.application.exception;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Builder;
-import lombok.Data;
+import lombok.Value;
 
 import java.time.LocalDateTime;
 
-@Data
+/**
+ * Inmutable: ParqueaderoController comparte una sola instancia por desenlace
+ * esperado entre todas las peticiones
+ */
+@Value
 @Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class ErrorResponse {
-    private String mensaje;
-    private int codigo;
-    private LocalDateTime timestamp;
-    private String path;
+    String mensaje;
+    int codigo;
+    LocalDateTime timestamp;
+    String path;
 }
@@ -1,6 +1,7 @@
 package demo.app.demogradle.application.exception;
 
 import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -12,6 +13,7 @@ import java.time.LocalDateTime;
 import java.util.stream.Collectors;
 
 @RestControllerAdvice
+@ConditionalOnProperty(name = "parqueadero.reactivo.habilitado", havingValue = "false", matchIfMissing = true)
 public class GlobalExceptionHandler {
 
     @ExceptionHandler(IllegalArgumentException.class)
@@ -0,0 +1,71 @@
+package demo.app.demogradle.application.exception;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.stream.Collectors;
+
+/**
+ * Los mismos ErrorResponse que GlobalExceptionHandler, para la pila WebFlux
+ * (perfil reactivo): la ruta sale de ServerHttpRequest en vez de HttpServletRequest
+ */
+@RestControllerAdvice
+@ConditionalOnProperty(name = "parqueadero.reactivo.habilitado", havingValue = "true")
+public class GlobalExceptionHandlerReactivo {
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<ErrorResponse> handleIllegalArgumentException(
+            IllegalArgumentException ex, ServerHttpRequest request) {
+        return respuesta(HttpStatus.BAD_REQUEST, ex.getMessage(), request);
+    }
+
+    @ExceptionHandler(IllegalStateException.class)
+    public ResponseEntity<ErrorResponse> handleIllegalStateException(
+            IllegalStateException ex, ServerHttpRequest request) {
+        return respuesta(HttpStatus.CONFLICT, ex.getMessage(), request);
+    }
+
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<ErrorResponse> handleValidationException(
+            WebExchangeBindException ex, ServerHttpRequest request) {
+        String mensaje = ex.getBindingResult().getFieldErrors().stream()
+                .map(FieldError::getDefaultMessage)
+                .collect(Collectors.joining(", "));
+        return respuesta(HttpStatus.BAD_REQUEST, "Errores de validación: " + mensaje, request);
+    }
+
+    /**
+     * Cuerpo ilegible, ruta inexistente, tipo de contenido no soportado...: se
+     * conserva el código que decidió WebFlux en vez de convertirlo en un 500
+     */
+    @ExceptionHandler(ResponseStatusException.class)
+    public ResponseEntity<ErrorResponse> handleResponseStatusException(
+            ResponseStatusException ex, ServerHttpRequest request) {
+        return respuesta(ex.getStatusCode(), ex.getReason(), request);
+    }
+
+    @ExceptionHandler(Exception.class)
+    public ResponseEntity<ErrorResponse> handleGenericException(
+            Exception ex, ServerHttpRequest request) {
+        return respuesta(HttpStatus.INTERNAL_SERVER_ERROR, "Error interno del servidor", request);
+    }
+
+    private static ResponseEntity<ErrorResponse> respuesta(HttpStatusCode estado, String mensaje, ServerHttpRequest request) {
+        ErrorResponse error = ErrorResponse.builder()
+                .mensaje(mensaje)
+                .codigo(estado.value())
+                .timestamp(LocalDateTime.now())
+                .path(request.getPath().value())
+                .build();
+        return ResponseEntity.status(estado).body(error);
+    }
+}
@@ -0,0 +1,32 @@
+package demo.app.demogradle.domain.model;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Criterios de una página del historial
+ * - Orden: fechaIngreso descendente, placa descendente
+ * - Filtros opcionales por tipo y rango de fechas de ingreso [desde, hasta)
+ * - El tamaño de página se acota a LIMITE_MAXIMO
+ */
+@Getter
+@Builder
+public class ConsultaHistorial {
+    public static final int LIMITE_POR_DEFECTO = 50;
+    public static final int LIMITE_MAXIMO = 500;
+
+    private final CursorHistorial cursor;
+    private final TipoVehiculo tipo;
+    private final LocalDateTime desde;
+    private final LocalDateTime hasta;
+    private final Integer limite;
+
+    public int getLimite() {
+        if (limite == null || limite < 1) {
+            return LIMITE_POR_DEFECTO;
+        }
+        return Math.min(limite, LIMITE_MAXIMO);
+    }
+}
@@ -0,0 +1,24 @@
+package demo.app.demogradle.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Posición dentro del historial para paginación por llave (keyset)
+ * - Identifica la última estancia entregada por (fechaIngreso, placa)
+ * - La siguiente página empieza estrictamente después de esa posición
+ */
+@Getter
+@AllArgsConstructor
+@EqualsAndHashCode
+public class CursorHistorial {
+    private final LocalDateTime fechaIngreso;
+    private final String placa;
+
+    public static CursorHistorial de(VistaEstancia estancia) {
+        return new CursorHistorial(estancia.getFechaIngreso(), estancia.getPlaca());
+    }
+}
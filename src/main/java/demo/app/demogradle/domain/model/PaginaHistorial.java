@@ -0,0 +1,33 @@
+package demo.app.demogradle.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Página del historial junto con el cursor para pedir la siguiente
+ */
+@Getter
+@AllArgsConstructor
+public class PaginaHistorial {
+    private final List<Vehiculo> vehiculos;
+    private final CursorHistorial siguienteCursor;
+
+    /**
+     * Arma la página a partir de hasta limite + 1 filas ya ordenadas:
+     * la fila sobrante solo indica que existe una página siguiente
+     */
+    public static PaginaHistorial desde(List<Vehiculo> filas, int limite) {
+        if (filas.size() <= limite) {
+            return new PaginaHistorial(filas, null);
+        }
+        List<Vehiculo> pagina = filas.subList(0, limite);
+        return new PaginaHistorial(pagina, CursorHistorial.de(pagina.get(limite - 1)));
+    }
+
+    public Optional<CursorHistorial> siguiente() {
+        return Optional.ofNullable(siguienteCursor);
+    }
+}
@@ -0,0 +1,40 @@
+package demo.app.demogradle.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Página del historial del lado de lectura, con el cursor para pedir la siguiente
+ */
+@Getter
+@AllArgsConstructor
+public class PaginaVistas {
+    private final List<? extends VistaEstancia> vistas;
+    private final CursorHistorial siguienteCursor;
+
+    /**
+     * Igual que PaginaHistorial.desde: de limite + 1 filas ordenadas, la sobrante
+     * solo indica que existe una página siguiente
+     */
+    public static PaginaVistas desde(List<? extends VistaEstancia> filas, int limite) {
+        if (filas.size() <= limite) {
+            return new PaginaVistas(filas, null);
+        }
+        List<? extends VistaEstancia> pagina = filas.subList(0, limite);
+        return new PaginaVistas(pagina, CursorHistorial.de(pagina.get(limite - 1)));
+    }
+
+    /**
+     * Para los adaptadores cuyo historial ya sale en objetos de dominio livianos
+     */
+    public static PaginaVistas de(PaginaHistorial pagina) {
+        return new PaginaVistas(pagina.getVehiculos(), pagina.getSiguienteCursor());
+    }
+
+    public Optional<CursorHistorial> siguiente() {
+        return Optional.ofNullable(siguienteCursor);
+    }
+}
@@ -0,0 +1,22 @@
+package demo.app.demogradle.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * VALUE OBJECT: comprobante inmutable de una salida
+ * Reúne la estancia cerrada, cuánto duró y cuánto costó, calculados una sola vez
+ */
+@Getter
+@AllArgsConstructor
+public class ReciboSalida {
+    private final Vehiculo vehiculo;
+    private final Duration duracion;
+    private final int costo;
+
+    public static ReciboSalida de(Vehiculo vehiculoSalida) {
+        return new ReciboSalida(vehiculoSalida, vehiculoSalida.duracion(), vehiculoSalida.costoFinal());
+    }
+}
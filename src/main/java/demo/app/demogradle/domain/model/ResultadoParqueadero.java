@@ -0,0 +1,50 @@
+package demo.app.demogradle.domain.model;
+
+import java.util.Optional;
+
+/**
+ * Resultado de un caso de uso del parqueadero
+ * - "Ya está adentro", "no encontrado" y "aún está adentro" son desenlaces
+ *   normales en las puertas, no errores: se devuelven como valores en lugar de
+ *   lanzar excepciones (sin capturar la pila ni armar mensajes en cada rechazo)
+ * - La jerarquía es cerrada, así que el adaptador de entrada sabe que cubre todos los casos
+ * - Las excepciones quedan para lo verdaderamente inválido (p. ej. una placa mal formada)
+ */
+public sealed interface ResultadoParqueadero<T> {
+
+    /** El caso de uso se completó */
+    record Exito<T>(T valor) implements ResultadoParqueadero<T> {
+    }
+
+    /** La placa ya tiene una estancia activa */
+    record Duplicado<T>(String placa) implements ResultadoParqueadero<T> {
+    }
+
+    /** La placa no tiene la estancia que el caso de uso necesita */
+    record NoEncontrado<T>(String placa) implements ResultadoParqueadero<T> {
+    }
+
+    /** La estancia sigue activa y todavía no se puede liquidar */
+    record AunActivo<T>(String placa) implements ResultadoParqueadero<T> {
+    }
+
+    static <T> ResultadoParqueadero<T> exito(T valor) {
+        return new Exito<>(valor);
+    }
+
+    static <T> ResultadoParqueadero<T> duplicado(String placa) {
+        return new Duplicado<>(placa);
+    }
+
+    static <T> ResultadoParqueadero<T> noEncontrado(String placa) {
+        return new NoEncontrado<>(placa);
+    }
+
+    static <T> ResultadoParqueadero<T> aunActivo(String placa) {
+        return new AunActivo<>(placa);
+    }
+
+    default Optional<T> siExito() {
+        return this instanceof Exito<T> exito ? Optional.of(exito.valor()) : Optional.empty();
+    }
+}
@@ -0,0 +1,15 @@
+package demo.app.demogradle.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * VALUE OBJECT: un ingreso pedido dentro de un lote
+ * El vehículo se crea (y su placa se valida) recién en el caso de uso
+ */
+@Getter
+@AllArgsConstructor(staticName = "de")
+public class SolicitudIngreso {
+    private final String placa;
+    private final TipoVehiculo tipo;
+}
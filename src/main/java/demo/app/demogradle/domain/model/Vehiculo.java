@@ -4,41 +4,78 @@ import lombok.Getter;
 import lombok.Builder;
 import lombok.AllArgsConstructor;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 
 @Getter
 @Builder
 @AllArgsConstructor
-public class Vehiculo {
+public class Vehiculo implements VistaEstancia {
     private final String placa;
     private final TipoVehiculo tipo;
     private final LocalDateTime fechaIngreso;
     private final LocalDateTime fechaSalida;
     private final boolean activo;
+    private final Integer costo;
 
+    /**
+     * Las fechas se truncan a microsegundos, la precisión de TIMESTAMP(6): la
+     * fecha de ingreso en memoria es la misma que se guarda, y la salida puede
+     * usarla para identificar la estancia
+     */
     public static Vehiculo crear(String placa, TipoVehiculo tipo) {
         validarPlaca(placa);
         return Vehiculo.builder()
                 .placa(placa.toUpperCase())
                 .tipo(tipo)
-                .fechaIngreso(LocalDateTime.now())
+                .fechaIngreso(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS))
                 .activo(true)
                 .build();
     }
 
+    /**
+     * Cierra la estancia y la liquida en el mismo paso: el costo queda fijado
+     * con la fecha de salida y no vuelve a calcularse
+     */
     public Vehiculo marcarSalida() {
         if (!activo) {
             throw new IllegalStateException("El vehículo ya ha salido del parqueadero");
         }
+        LocalDateTime fechaSalida = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
         return Vehiculo.builder()
                 .placa(this.placa)
                 .tipo(this.tipo)
                 .fechaIngreso(this.fechaIngreso)
-                .fechaSalida(LocalDateTime.now())
+                .fechaSalida(fechaSalida)
                 .activo(false)
+                .costo(tarifar(this.tipo, this.fechaIngreso, fechaSalida))
                 .build();
     }
 
+    /**
+     * Regla de negocio: Solo se puede calcular el costo si el vehículo ya salió
+     * Usa el costo fijado a la salida; las estancias sin costo guardado se tarifan
+     */
+    public int costoFinal() {
+        if (activo) {
+            throw new IllegalStateException("El vehículo aún está en el parqueadero. No se puede calcular el costo final.");
+        }
+        return costo != null ? costo : tarifar(tipo, fechaIngreso, fechaSalida);
+    }
+
+    public Duration duracion() {
+        return Duration.between(fechaIngreso, fechaSalida != null ? fechaSalida : LocalDateTime.now());
+    }
+
+    private static int tarifar(TipoVehiculo tipo, LocalDateTime fechaIngreso, LocalDateTime fechaSalida) {
+        long horas = Duration.between(fechaIngreso, fechaSalida).toHours();
+        if (horas == 0) {
+            horas = 1; // Mínimo 1 hora
+        }
+        return (int) (horas * tipo.getTarifaPorHora());
+    }
+
     private static void validarPlaca(String placa) {
         if (placa == null || placa.trim().isEmpty()) {
             throw new IllegalArgumentException("La placa no puede estar vacía");
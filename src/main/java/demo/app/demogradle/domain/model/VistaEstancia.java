@@ -0,0 +1,18 @@
+package demo.app.demogradle.domain.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Estancia de solo lectura para las consultas (lado de lectura)
+ * - La implementa Vehiculo, y también las proyecciones de los adaptadores que
+ *   leen la fila directo, sin armar entidad ni objeto de dominio
+ * - Quien la recibe solo la lee para responder; no tiene reglas de negocio
+ */
+public interface VistaEstancia {
+    String getPlaca();
+    TipoVehiculo getTipo();
+    LocalDateTime getFechaIngreso();
+    LocalDateTime getFechaSalida();
+    boolean isActivo();
+    Integer getCosto();
+}
@@ -0,0 +1,11 @@
+package demo.app.demogradle.domain.port.in;
+
+import demo.app.demogradle.domain.model.ConsultaHistorial;
+import demo.app.demogradle.domain.model.PaginaVistas;
+
+/**
+ * Caso de uso de lectura del historial, separado de los de las puertas
+ */
+public interface ConsultaHistorialUseCase {
+    PaginaVistas consultarHistorial(ConsultaHistorial consulta);
+}
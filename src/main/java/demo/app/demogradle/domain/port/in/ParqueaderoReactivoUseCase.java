@@ -0,0 +1,19 @@
+package demo.app.demogradle.domain.port.in;
+
+import demo.app.demogradle.domain.model.ReciboSalida;
+import demo.app.demogradle.domain.model.ResultadoParqueadero;
+import demo.app.demogradle.domain.model.TipoVehiculo;
+import demo.app.demogradle.domain.model.Vehiculo;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Casos de uso de las puertas y pantallas en versión no bloqueante (perfil reactivo)
+ */
+public interface ParqueaderoReactivoUseCase {
+    Mono<ResultadoParqueadero<Vehiculo>> ingresarVehiculo(String placa, TipoVehiculo tipo);
+    Mono<ResultadoParqueadero<ReciboSalida>> liquidarSalida(String placa);
+    Flux<Vehiculo> consultarVehiculosActivos();
+    Flux<Vehiculo> exportarHistorial();
+    Mono<ResultadoParqueadero<Integer>> calcularCosto(String placa);
+}
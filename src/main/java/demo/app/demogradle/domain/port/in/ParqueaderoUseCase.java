@@ -1,14 +1,24 @@
 package demo.app.demogradle.domain.port.in;
 
+import demo.app.demogradle.domain.model.ReciboSalida;
+import demo.app.demogradle.domain.model.ResultadoParqueadero;
+import demo.app.demogradle.domain.model.SolicitudIngreso;
 import demo.app.demogradle.domain.model.Vehiculo;
 import demo.app.demogradle.domain.model.TipoVehiculo;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface ParqueaderoUseCase {
-    Vehiculo ingresarVehiculo(String placa, TipoVehiculo tipo);
-    Vehiculo sacarVehiculo(String placa);
+    ResultadoParqueadero<Vehiculo> ingresarVehiculo(String placa, TipoVehiculo tipo);
+    ResultadoParqueadero<Vehiculo> sacarVehiculo(String placa);
+    ResultadoParqueadero<ReciboSalida> liquidarSalida(String placa);
+    /** Un resultado por solicitud, en el mismo orden */
+    List<ResultadoParqueadero<Vehiculo>> ingresarVehiculos(List<SolicitudIngreso> solicitudes);
+    /** Un resultado por placa, en el mismo orden */
+    List<ResultadoParqueadero<ReciboSalida>> liquidarSalidas(List<String> placas);
     List<Vehiculo> consultarVehiculosActivos();
-    List<Vehiculo> consultarHistorial();
-    int calcularCosto(String placa);
+    Stream<Vehiculo> exportarHistorial();
+    ResultadoParqueadero<Integer> calcularCosto(String placa);
+    long versionCambios();
 }
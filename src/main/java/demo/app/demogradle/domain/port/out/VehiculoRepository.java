@@ -1,14 +1,47 @@
 package demo.app.demogradle.domain.port.out;
 
+import demo.app.demogradle.domain.model.ConsultaHistorial;
+import demo.app.demogradle.domain.model.PaginaHistorial;
 import demo.app.demogradle.domain.model.Vehiculo;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface VehiculoRepository {
     Vehiculo guardar(Vehiculo vehiculo);
+    /**
+     * Abre la estancia solo si la placa no tiene otra activa, de forma atómica
+     * @return false si ya existía una estancia activa para la placa
+     */
+    boolean registrarIngreso(Vehiculo vehiculo);
+    /**
+     * Cierra la estancia activa de la placa solo si sigue activa, de forma atómica
+     * @return false si otra salida la cerró primero o no había estancia activa
+     */
+    boolean registrarSalida(Vehiculo vehiculoSalida);
+    /**
+     * Ingresos en lote, cada uno con la misma condición que registrarIngreso
+     * @return en la posición i, si se abrió la estancia del vehículo i
+     */
+    boolean[] registrarIngresos(List<Vehiculo> vehiculos);
+    /**
+     * Salidas en lote, cada una con la misma condición que registrarSalida
+     * @return en la posición i, si se cerró la estancia del vehículo i
+     */
+    boolean[] registrarSalidas(List<Vehiculo> vehiculosSalida);
+    /** Última estancia registrada para la placa (activa o no) */
     Optional<Vehiculo> buscarPorPlaca(String placa);
+    /** Estancia activa de la placa, si el vehículo está dentro del parqueadero */
+    Optional<Vehiculo> buscarActivoPorPlaca(String placa);
+    /** Estancias activas de las placas dadas que estén dentro; las demás se omiten */
+    List<Vehiculo> buscarActivosPorPlacas(Collection<String> placas);
     List<Vehiculo> buscarVehiculosActivos();
     List<Vehiculo> buscarTodos();
+    /** Página del historial por llave (fechaIngreso, placa), sin contar ni cargar el resto */
+    PaginaHistorial buscarHistorial(ConsultaHistorial consulta);
+    /** Historial completo leído a medida que se consume; quien lo recibe debe cerrarlo */
+    Stream<Vehiculo> transmitirHistorial();
     void eliminar(String placa);
 }
@@ -0,0 +1,32 @@
+package demo.app.demogradle.domain.port.out;
+
+import demo.app.demogradle.domain.model.Vehiculo;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Puerto de salida no bloqueante (perfil reactivo)
+ * - Mismo contrato que VehiculoRepository, pero cada operación devuelve un
+ *   publicador y ninguna retiene un hilo mientras espera a la base de datos
+ * - Un Mono vacío significa "no hay estancia", igual que un Optional vacío
+ */
+public interface VehiculoRepositoryReactivo {
+    /**
+     * Abre la estancia solo si la placa no tiene otra activa, de forma atómica
+     * @return false si ya existía una estancia activa para la placa
+     */
+    Mono<Boolean> registrarIngreso(Vehiculo vehiculo);
+    /**
+     * Cierra exactamente la estancia leída (misma placa y fecha de ingreso) solo si
+     * sigue activa: una salida tardía no puede cerrar una estancia más nueva
+     * @return false si otra salida la cerró primero o ya no está activa
+     */
+    Mono<Boolean> registrarSalida(Vehiculo vehiculoSalida);
+    /** Última estancia registrada para la placa (activa o no) */
+    Mono<Vehiculo> buscarPorPlaca(String placa);
+    /** Estancia activa de la placa, si el vehículo está dentro del parqueadero */
+    Mono<Vehiculo> buscarActivoPorPlaca(String placa);
+    Flux<Vehiculo> buscarVehiculosActivos();
+    /** Historial completo en orden de ingreso, leído según lo pida el suscriptor */
+    Flux<Vehiculo> transmitirHistorial();
+}
@@ -0,0 +1,14 @@
+package demo.app.demogradle.domain.port.out;
+
+import demo.app.demogradle.domain.model.ConsultaHistorial;
+import demo.app.demogradle.domain.model.PaginaVistas;
+
+/**
+ * Puerto de salida del lado de lectura: consultas que terminan en una respuesta
+ * y no necesitan el modelo de dominio. Lo implementa el adaptador real, sin los
+ * decoradores de VehiculoRepository (que solo aceleran lecturas por placa y escrituras)
+ */
+public interface VehiculoVistasRepository {
+    /** Misma página, orden y cursor que VehiculoRepository.buscarHistorial */
+    PaginaVistas buscarVistasHistorial(ConsultaHistorial consulta);
+}
@@ -0,0 +1,64 @@
+package demo.app.demogradle.domain.service;
+
+import java.util.Collection;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Candados por franja de placa para los casos de uso
+ * - La placa se normaliza a mayúsculas y su hash elige la franja
+ * - Operaciones sobre una misma placa se serializan; placas de franjas
+ *   distintas no compiten, así que no hay un candado global
+ * - Varias placas toman sus franjas en orden ascendente, sin repetir,
+ *   para que dos lotes nunca se bloqueen entre sí
+ * - Solo protege dentro de esta JVM; entre instancias siguen valiendo
+ *   las escrituras condicionales del puerto
+ */
+final class CandadosPorPlaca {
+
+    private final ReentrantLock[] franjas;
+
+    CandadosPorPlaca(int cantidad) {
+        if (cantidad < 1) {
+            throw new IllegalArgumentException("Se necesita al menos una franja");
+        }
+        this.franjas = new ReentrantLock[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            franjas[i] = new ReentrantLock();
+        }
+    }
+
+    <T> T conPlaca(String placa, Supplier<T> operacion) {
+        ReentrantLock candado = franjas[franja(placa)];
+        candado.lock();
+        try {
+            return operacion.get();
+        } finally {
+            candado.unlock();
+        }
+    }
+
+    <T> T conPlacas(Collection<String> placas, Supplier<T> operacion) {
+        boolean[] usadas = new boolean[franjas.length];
+        placas.forEach(p -> usadas[franja(p)] = true);
+        int tomadas = 0;
+        try {
+            for (; tomadas < franjas.length; tomadas++) {
+                if (usadas[tomadas]) {
+                    franjas[tomadas].lock();
+                }
+            }
+            return operacion.get();
+        } finally {
+            for (int i = tomadas - 1; i >= 0; i--) {
+                if (usadas[i]) {
+                    franjas[i].unlock();
+                }
+            }
+        }
+    }
+
+    int franja(String placa) {
+        return (placa.toUpperCase().hashCode() & 0x7fffffff) % franjas.length;
+    }
+}
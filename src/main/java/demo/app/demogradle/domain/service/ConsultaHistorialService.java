@@ -0,0 +1,32 @@
+package demo.app.demogradle.domain.service;
+
+import demo.app.demogradle.domain.model.ConsultaHistorial;
+import demo.app.demogradle.domain.model.PaginaVistas;
+import demo.app.demogradle.domain.port.in.ConsultaHistorialUseCase;
+import demo.app.demogradle.domain.port.out.VehiculoVistasRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+/**
+ * Lado de lectura del historial
+ * - Sin reglas de negocio: las filas van del adaptador a la respuesta sin
+ *   convertirse en Vehiculo
+ * - La versión de cambios para el ETag sigue siendo la de ParqueaderoService
+ */
+@Service
+@ConditionalOnProperty(name = "parqueadero.reactivo.habilitado", havingValue = "false", matchIfMissing = true)
+@RequiredArgsConstructor
+public class ConsultaHistorialService implements ConsultaHistorialUseCase {
+
+    private final VehiculoVistasRepository vehiculoVistasRepository;
+
+    /**
+     * CASO DE USO: Consultar Historial de Vehículos
+     * Se entrega por páginas acotadas; el cursor de la página anterior indica dónde seguir
+     */
+    @Override
+    public PaginaVistas consultarHistorial(ConsultaHistorial consulta) {
+        return vehiculoVistasRepository.buscarVistasHistorial(consulta);
+    }
+}
@@ -0,0 +1,90 @@
+package demo.app.demogradle.domain.service;
+
+import demo.app.demogradle.domain.model.ReciboSalida;
+import demo.app.demogradle.domain.model.ResultadoParqueadero;
+import demo.app.demogradle.domain.model.TipoVehiculo;
+import demo.app.demogradle.domain.model.Vehiculo;
+import demo.app.demogradle.domain.port.in.ParqueaderoReactivoUseCase;
+import demo.app.demogradle.domain.port.out.VehiculoRepositoryReactivo;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * DOMAIN SERVICE no bloqueante (perfil reactivo)
+ * - Mismas reglas que ParqueaderoService, con las mismas piezas del modelo
+ *   (Vehiculo.crear, marcarSalida, ReciboSalida, ResultadoParqueadero)
+ * - Sin candados por placa: no se puede esperar un candado sin bloquear el hilo.
+ *   En su lugar el puerto cierra solo la estancia que se leyó, así una salida
+ *   tardía pierde la carrera en vez de cerrar una estancia más nueva
+ */
+@Service
+@ConditionalOnProperty(name = "parqueadero.reactivo.habilitado", havingValue = "true")
+@RequiredArgsConstructor
+public class ParqueaderoReactivoService implements ParqueaderoReactivoUseCase {
+
+    private final VehiculoRepositoryReactivo vehiculoRepository;
+
+    /**
+     * CASO DE USO: Ingresar Vehículo
+     * Regla de negocio: No permitir vehículos duplicados activos
+     */
+    @Override
+    public Mono<ResultadoParqueadero<Vehiculo>> ingresarVehiculo(String placa, TipoVehiculo tipo) {
+        // Una placa mal formada llega como error de la secuencia, no como excepción al suscribir
+        return Mono.fromSupplier(() -> Vehiculo.crear(placa, tipo))
+                .flatMap(vehiculo -> vehiculoRepository.registrarIngreso(vehiculo)
+                        .map(ingresado -> ingresado
+                                ? ResultadoParqueadero.exito(vehiculo)
+                                : ResultadoParqueadero.<Vehiculo>duplicado(vehiculo.getPlaca())));
+    }
+
+    /**
+     * CASO DE USO: Sacar y Cobrar
+     * Regla de negocio: Solo se puede sacar un vehículo que esté activo
+     */
+    @Override
+    public Mono<ResultadoParqueadero<ReciboSalida>> liquidarSalida(String placa) {
+        return vehiculoRepository.buscarActivoPorPlaca(placa)
+                .flatMap(activo -> {
+                    Vehiculo vehiculoSalida = activo.marcarSalida();
+                    return vehiculoRepository.registrarSalida(vehiculoSalida)
+                            .map(cerrada -> cerrada
+                                    ? ResultadoParqueadero.exito(ReciboSalida.de(vehiculoSalida))
+                                    : ResultadoParqueadero.<ReciboSalida>noEncontrado(placa));
+                })
+                .defaultIfEmpty(ResultadoParqueadero.noEncontrado(placa));
+    }
+
+    /**
+     * CASO DE USO: Consultar Vehículos Activos
+     */
+    @Override
+    public Flux<Vehiculo> consultarVehiculosActivos() {
+        return vehiculoRepository.buscarVehiculosActivos();
+    }
+
+    /**
+     * CASO DE USO: Exportar Historial Completo
+     * Se lee de la base solo lo que el cliente alcanza a consumir
+     */
+    @Override
+    public Flux<Vehiculo> exportarHistorial() {
+        return vehiculoRepository.transmitirHistorial();
+    }
+
+    /**
+     * CASO DE USO: Calcular Costo de Estacionamiento
+     * Regla de negocio: Solo se puede calcular el costo si el vehículo ya salió
+     */
+    @Override
+    public Mono<ResultadoParqueadero<Integer>> calcularCosto(String placa) {
+        return vehiculoRepository.buscarPorPlaca(placa)
+                .map(vehiculo -> vehiculo.isActivo()
+                        ? ResultadoParqueadero.<Integer>aunActivo(placa)
+                        : ResultadoParqueadero.exito(vehiculo.costoFinal()))
+                .defaultIfEmpty(ResultadoParqueadero.noEncontrado(placa));
+    }
+}
@@ -1,44 +1,66 @@
 package demo.app.demogradle.domain.service;
 
+import demo.app.demogradle.domain.model.ReciboSalida;
+import demo.app.demogradle.domain.model.ResultadoParqueadero;
+import demo.app.demogradle.domain.model.SolicitudIngreso;
 import demo.app.demogradle.domain.model.Vehiculo;
 import demo.app.demogradle.domain.model.TipoVehiculo;
 import demo.app.demogradle.domain.port.in.ParqueaderoUseCase;
 import demo.app.demogradle.domain.port.out.VehiculoRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 
-import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
 
 /**
  * DOMAIN SERVICE en DDD
  * - Contiene lógica de negocio que no pertenece a una entidad específica
  * - Orquesta operaciones complejas del dominio
- * - No tiene estado, solo comportamiento
+ * - Su único estado es una secuencia de cambios que avanza con cada ingreso y
+ *   salida confirmados; los adaptadores de entrada la usan como versión de las lecturas
+ * - Ingresos y salidas de una misma placa se serializan con candados por franja:
+ *   entre leer la estancia activa y cerrarla no puede colarse otra puerta
  * - Utiliza el repositorio (port) para persistencia
+ * - El historial paginado lo atiende ConsultaHistorialService (lado de lectura)
+ * - En el perfil reactivo lo reemplaza ParqueaderoReactivoService
  */
 @Service
+@ConditionalOnProperty(name = "parqueadero.reactivo.habilitado", havingValue = "false", matchIfMissing = true)
 @RequiredArgsConstructor
 public class ParqueaderoService implements ParqueaderoUseCase {
 
+    /** Holgado frente a los núcleos: placas distintas rara vez comparten franja */
+    static final int FRANJAS_PLACA = 256;
+
     private final VehiculoRepository vehiculoRepository;
+    private final AtomicLong versionCambios = new AtomicLong();
+    private final CandadosPorPlaca candados = new CandadosPorPlaca(FRANJAS_PLACA);
 
     /**
      * CASO DE USO: Ingresar Vehículo
      * Regla de negocio: No permitir vehículos duplicados activos
      */
     @Override
-    public Vehiculo ingresarVehiculo(String placa, TipoVehiculo tipo) {
-        // INVARIANTE DEL DOMINIO: Un vehículo no puede estar dos veces activo
-        vehiculoRepository.buscarPorPlaca(placa)
-                .filter(Vehiculo::isActivo)
-                .ifPresent(v -> {
-                    throw new IllegalStateException("El vehículo con placa " + placa + " ya está en el parqueadero");
-                });
-
+    public ResultadoParqueadero<Vehiculo> ingresarVehiculo(String placa, TipoVehiculo tipo) {
         // FACTORY METHOD del dominio
         Vehiculo vehiculo = Vehiculo.crear(placa, tipo);
-        return vehiculoRepository.guardar(vehiculo);
+
+        // INVARIANTE DEL DOMINIO: Un vehículo no puede estar dos veces activo
+        // Se verifica y registra en un solo paso atómico del puerto, sin consulta previa
+        return candados.conPlaca(vehiculo.getPlaca(), () -> {
+            if (!vehiculoRepository.registrarIngreso(vehiculo)) {
+                return ResultadoParqueadero.duplicado(vehiculo.getPlaca());
+            }
+            versionCambios.incrementAndGet();
+            return ResultadoParqueadero.exito(vehiculo);
+        });
     }
 
     /**
@@ -46,13 +68,114 @@ public class ParqueaderoService implements ParqueaderoUseCase {
      * Regla de negocio: Solo se puede sacar un vehículo que esté activo
      */
     @Override
-    public Vehiculo sacarVehiculo(String placa) {
-        Vehiculo vehiculo = vehiculoRepository.buscarPorPlaca(placa)
-                .filter(Vehiculo::isActivo)
-                .orElseThrow(() -> new IllegalArgumentException("Vehículo con placa " + placa + " no encontrado en el parqueadero"));
+    public ResultadoParqueadero<Vehiculo> sacarVehiculo(String placa) {
+        ResultadoParqueadero<ReciboSalida> salida = liquidarSalida(placa);
+        return salida instanceof ResultadoParqueadero.Exito<ReciboSalida> exito
+                ? ResultadoParqueadero.exito(exito.valor().getVehiculo())
+                : ResultadoParqueadero.noEncontrado(placa);
+    }
+
+    /**
+     * CASO DE USO: Sacar y Cobrar
+     * Cierra la estancia y la liquida con el objeto de dominio ya leído;
+     * el costo se guarda con la salida para no recalcularlo después
+     */
+    @Override
+    public ResultadoParqueadero<ReciboSalida> liquidarSalida(String placa) {
+        return candados.conPlaca(placa, () -> cerrarEstanciaActiva(placa));
+    }
+
+    private ResultadoParqueadero<ReciboSalida> cerrarEstanciaActiva(String placa) {
+        Optional<Vehiculo> vehiculo = vehiculoRepository.buscarActivoPorPlaca(placa);
+        if (vehiculo.isEmpty()) {
+            return ResultadoParqueadero.noEncontrado(placa);
+        }
+
+        Vehiculo vehiculoSalida = vehiculo.get().marcarSalida();
+
+        // Otra instancia puede haber cerrado la estancia; solo una logra cerrarla
+        if (!vehiculoRepository.registrarSalida(vehiculoSalida)) {
+            return ResultadoParqueadero.noEncontrado(placa);
+        }
+        versionCambios.incrementAndGet();
+        return ResultadoParqueadero.exito(ReciboSalida.de(vehiculoSalida));
+    }
+
+    /**
+     * CASO DE USO: Ingresar Vehículos en Lote
+     * Misma regla que el ingreso individual, aplicada por el puerto en un solo
+     * viaje; también rechaza una placa repetida dentro del mismo lote
+     */
+    @Override
+    public List<ResultadoParqueadero<Vehiculo>> ingresarVehiculos(List<SolicitudIngreso> solicitudes) {
+        List<Vehiculo> vehiculos = solicitudes.stream()
+                .map(s -> Vehiculo.crear(s.getPlaca(), s.getTipo()))
+                .toList();
+        boolean[] ingresados = vehiculos.isEmpty() ? new boolean[0] : candados.conPlacas(
+                vehiculos.stream().map(Vehiculo::getPlaca).toList(),
+                () -> vehiculoRepository.registrarIngresos(vehiculos));
 
-        Vehiculo vehiculoSalida = vehiculo.marcarSalida();
-        return vehiculoRepository.guardar(vehiculoSalida);
+        List<ResultadoParqueadero<Vehiculo>> resultados = new ArrayList<>(vehiculos.size());
+        int confirmados = 0;
+        for (int i = 0; i < vehiculos.size(); i++) {
+            Vehiculo vehiculo = vehiculos.get(i);
+            if (ingresados[i]) {
+                confirmados++;
+                resultados.add(ResultadoParqueadero.exito(vehiculo));
+            } else {
+                resultados.add(ResultadoParqueadero.duplicado(vehiculo.getPlaca()));
+            }
+        }
+        if (confirmados > 0) {
+            versionCambios.addAndGet(confirmados);
+        }
+        return resultados;
+    }
+
+    /**
+     * CASO DE USO: Sacar y Cobrar en Lote
+     * Las estancias activas se leen de una vez y se cierran con un solo viaje;
+     * si la placa se repite, solo la primera aparición la cierra
+     */
+    @Override
+    public List<ResultadoParqueadero<ReciboSalida>> liquidarSalidas(List<String> placas) {
+        return candados.conPlacas(placas, () -> cerrarEstanciasActivas(placas));
+    }
+
+    private List<ResultadoParqueadero<ReciboSalida>> cerrarEstanciasActivas(List<String> placas) {
+        Map<String, Vehiculo> activos = new HashMap<>();
+        for (Vehiculo activo : vehiculoRepository.buscarActivosPorPlacas(placas)) {
+            activos.put(activo.getPlaca().toUpperCase(), activo);
+        }
+
+        List<Vehiculo> salidas = new ArrayList<>(activos.size());
+        int[] posicionSalida = new int[placas.size()];
+        for (int i = 0; i < placas.size(); i++) {
+            Vehiculo activo = activos.remove(placas.get(i).toUpperCase());
+            if (activo == null) {
+                posicionSalida[i] = -1;
+            } else {
+                posicionSalida[i] = salidas.size();
+                salidas.add(activo.marcarSalida());
+            }
+        }
+        boolean[] cerradas = salidas.isEmpty() ? new boolean[0] : vehiculoRepository.registrarSalidas(salidas);
+
+        List<ResultadoParqueadero<ReciboSalida>> resultados = new ArrayList<>(placas.size());
+        int confirmadas = 0;
+        for (int i = 0; i < placas.size(); i++) {
+            int j = posicionSalida[i];
+            if (j >= 0 && cerradas[j]) {
+                confirmadas++;
+                resultados.add(ResultadoParqueadero.exito(ReciboSalida.de(salidas.get(j))));
+            } else {
+                resultados.add(ResultadoParqueadero.noEncontrado(placas.get(i)));
+            }
+        }
+        if (confirmadas > 0) {
+            versionCambios.addAndGet(confirmadas);
+        }
+        return resultados;
     }
 
     /**
@@ -64,32 +187,38 @@ public class ParqueaderoService implements ParqueaderoUseCase {
     }
 
     /**
-     * CASO DE USO: Consultar Historial de Vehículos
+     * CASO DE USO: Exportar Historial Completo
+     * El Stream debe cerrarse al terminar para liberar el cursor subyacente
      */
     @Override
-    public List<Vehiculo> consultarHistorial() {
-        return vehiculoRepository.buscarTodos();
+    public Stream<Vehiculo> exportarHistorial() {
+        return vehiculoRepository.transmitirHistorial();
     }
 
     /**
      * CASO DE USO: Calcular Costo de Estacionamiento
      * Regla de negocio: Solo se puede calcular el costo si el vehículo ya salió
+     * Se usa el costo guardado al salir de la última estancia de la placa
      */
     @Override
-    public int calcularCosto(String placa) {
-        Vehiculo vehiculo = vehiculoRepository.buscarPorPlaca(placa)
-                .orElseThrow(() -> new IllegalArgumentException("Vehículo con placa " + placa + " no encontrado"));
-
-        if (vehiculo.isActivo()) {
-            throw new IllegalStateException("El vehículo aún está en el parqueadero. No se puede calcular el costo final.");
+    public ResultadoParqueadero<Integer> calcularCosto(String placa) {
+        Optional<Vehiculo> vehiculo = vehiculoRepository.buscarPorPlaca(placa);
+        if (vehiculo.isEmpty()) {
+            return ResultadoParqueadero.noEncontrado(placa);
         }
-
-        Duration duracion = Duration.between(vehiculo.getFechaIngreso(), vehiculo.getFechaSalida());
-        long horas = duracion.toHours();
-        if (horas == 0) {
-            horas = 1; // Mínimo 1 hora
+        if (vehiculo.get().isActivo()) {
+            return ResultadoParqueadero.aunActivo(placa);
         }
+        return ResultadoParqueadero.exito(vehiculo.get().costoFinal());
+    }
 
-        return (int) (horas * vehiculo.getTipo().getTarifaPorHora());
+    /**
+     * Secuencia monótona de cambios: si no avanzó, ninguna lectura cambió.
+     * Debe leerse ANTES de consultar, así una escritura concurrente solo puede
+     * hacer que la versión entregada quede atrás del dato, nunca adelante
+     */
+    @Override
+    public long versionCambios() {
+        return versionCambios.get();
     }
 }
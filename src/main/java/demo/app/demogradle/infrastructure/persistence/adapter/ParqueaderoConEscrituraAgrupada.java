@@ -0,0 +1,272 @@
+package demo.app.demogradle.infrastructure.persistence.adapter;
+
+import demo.app.demogradle.domain.model.ReciboSalida;
+import demo.app.demogradle.domain.model.ResultadoParqueadero;
+import demo.app.demogradle.domain.model.SolicitudIngreso;
+import demo.app.demogradle.domain.model.TipoVehiculo;
+import demo.app.demogradle.domain.model.Vehiculo;
+import demo.app.demogradle.domain.port.in.ParqueaderoUseCase;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * DECORADOR del caso de uso: agrupa ingresos y salidas concurrentes de las puertas (group commit)
+ * - Cada llamada deja su escritura en una cola y espera su resultado
+ * - Un hilo por operación junta lo que llegue durante la ventana, o hasta
+ *   completar el lote, y lo aplica con el caso de uso en lote del servicio
+ *   (ingresarVehiculos / liquidarSalidas): un solo lote JDBC en una transacción
+ * - Va por encima de los candados: mientras una escritura espera la ventana no
+ *   retiene ninguna franja. El servicio y el índice de activos toman las franjas
+ *   de todo el lote, en orden ascendente, solo mientras se aplica. Así el lote no
+ *   tiene más techo que tamanoLote, y placas que comparten franja caen en el mismo lote
+ * - Una placa repetida en el lote la resuelve el servicio: solo la primera
+ *   aparición ingresa o sale, las demás reciben duplicado o no encontrado
+ * - Si el lote completo falla por una restricción (otra instancia ganó una placa)
+ *   o por una placa inválida (el servicio las valida antes de escribir), se
+ *   reintenta uno por uno para que cada llamador reciba su propio resultado
+ * - Los lotes que ya vienen armados y el resto de casos de uso pasan directo al servicio
+ */
+@Slf4j
+public class ParqueaderoConEscrituraAgrupada implements ParqueaderoUseCase, AutoCloseable {
+
+    public static final String METRICA_LOTE = "parqueadero.persistencia.lote";
+    public static final String METRICA_REINTENTOS = "parqueadero.persistencia.lote.reintentos";
+
+    private final ParqueaderoUseCase delegado;
+    private final Agrupador<SolicitudIngreso, ResultadoParqueadero<Vehiculo>> ingresos;
+    private final Agrupador<String, ResultadoParqueadero<ReciboSalida>> salidas;
+
+    public ParqueaderoConEscrituraAgrupada(ParqueaderoUseCase delegado, Duration ventana,
+                                           int tamanoLote, MeterRegistry registry) {
+        if (tamanoLote < 1) {
+            throw new IllegalArgumentException("El lote debe admitir al menos una escritura");
+        }
+        this.delegado = delegado;
+        this.ingresos = new Agrupador<>("ingreso", ventana, tamanoLote, registry,
+                delegado::ingresarVehiculos,
+                solicitud -> delegado.ingresarVehiculo(solicitud.getPlaca(), solicitud.getTipo()));
+        this.salidas = new Agrupador<>("salida", ventana, tamanoLote, registry,
+                delegado::liquidarSalidas, delegado::liquidarSalida);
+    }
+
+    @Override
+    public ResultadoParqueadero<Vehiculo> ingresarVehiculo(String placa, TipoVehiculo tipo) {
+        return ingresos.escribir(SolicitudIngreso.de(placa, tipo));
+    }
+
+    @Override
+    public ResultadoParqueadero<Vehiculo> sacarVehiculo(String placa) {
+        ResultadoParqueadero<ReciboSalida> salida = liquidarSalida(placa);
+        return salida instanceof ResultadoParqueadero.Exito<ReciboSalida> exito
+                ? ResultadoParqueadero.exito(exito.valor().getVehiculo())
+                : ResultadoParqueadero.noEncontrado(placa);
+    }
+
+    @Override
+    public ResultadoParqueadero<ReciboSalida> liquidarSalida(String placa) {
+        return salidas.escribir(placa);
+    }
+
+    @Override
+    public List<ResultadoParqueadero<Vehiculo>> ingresarVehiculos(List<SolicitudIngreso> solicitudes) {
+        return delegado.ingresarVehiculos(solicitudes);
+    }
+
+    @Override
+    public List<ResultadoParqueadero<ReciboSalida>> liquidarSalidas(List<String> placas) {
+        return delegado.liquidarSalidas(placas);
+    }
+
+    @Override
+    public List<Vehiculo> consultarVehiculosActivos() {
+        return delegado.consultarVehiculosActivos();
+    }
+
+    @Override
+    public Stream<Vehiculo> exportarHistorial() {
+        return delegado.exportarHistorial();
+    }
+
+    @Override
+    public ResultadoParqueadero<Integer> calcularCosto(String placa) {
+        return delegado.calcularCosto(placa);
+    }
+
+    @Override
+    public long versionCambios() {
+        return delegado.versionCambios();
+    }
+
+    /**
+     * Deja de aceptar escrituras; las que ya estaban en cola se aplican antes de salir
+     */
+    @Override
+    public void close() {
+        ingresos.detener();
+        salidas.detener();
+    }
+
+    private record Pendiente<E, R>(E escritura, CompletableFuture<R> resultado) {
+    }
+
+    private static final class Agrupador<E, R> implements Runnable {
+
+        /** Cada cuánto el hilo ocioso revisa si debe detenerse */
+        private static final long ESPERA_OCIOSA_MS = 100;
+
+        private final LinkedBlockingQueue<Pendiente<E, R>> cola = new LinkedBlockingQueue<>();
+        private final long ventanaNanos;
+        private final int tamanoLote;
+        private final Function<List<E>, List<R>> enLote;
+        private final Function<E, R> individual;
+        private final DistributionSummary tamanos;
+        private final Counter reintentos;
+        private final Thread hilo;
+        private volatile boolean activo = true;
+
+        Agrupador(String operacion, Duration ventana, int tamanoLote, MeterRegistry registry,
+                  Function<List<E>, List<R>> enLote, Function<E, R> individual) {
+            this.ventanaNanos = ventana.toNanos();
+            this.tamanoLote = tamanoLote;
+            this.enLote = enLote;
+            this.individual = individual;
+            this.tamanos = DistributionSummary.builder(METRICA_LOTE)
+                    .description("Escrituras aplicadas por lote JDBC")
+                    .baseUnit("escrituras")
+                    .tag("operacion", operacion)
+                    .publishPercentiles(0.5, 0.99)
+                    .register(registry);
+            this.reintentos = Counter.builder(METRICA_REINTENTOS)
+                    .description("Lotes que fallaron completos y se aplicaron uno por uno")
+                    .tag("operacion", operacion)
+                    .register(registry);
+            this.hilo = new Thread(this, "escritura-agrupada-" + operacion);
+            this.hilo.setDaemon(true);
+            this.hilo.start();
+        }
+
+        R escribir(E escritura) {
+            if (!activo) {
+                throw new IllegalStateException("La escritura agrupada ya se detuvo");
+            }
+            Pendiente<E, R> pendiente = new Pendiente<>(escritura, new CompletableFuture<>());
+            cola.add(pendiente);
+            // Si todavía está activo después de encolar, el hilo verá esta escritura antes
+            // de salir; si no, o se retira de la cola o alguien más ya la completó
+            if ((!activo || !hilo.isAlive()) && cola.remove(pendiente)) {
+                throw new IllegalStateException("La escritura agrupada ya se detuvo");
+            }
+            try {
+                return pendiente.resultado().join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException causa) {
+                    throw causa;
+                }
+                if (e.getCause() instanceof Error error) {
+                    throw error;
+                }
+                throw e;
+            }
+        }
+
+        /**
+         * Lo que siga en cola después de esperar al hilo falla en vez de quedar colgado
+         */
+        void detener() {
+            activo = false;
+            try {
+                hilo.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            IllegalStateException detenida = new IllegalStateException("La escritura agrupada ya se detuvo");
+            Pendiente<E, R> huerfana;
+            while ((huerfana = cola.poll()) != null) {
+                huerfana.resultado().completeExceptionally(detenida);
+            }
+        }
+
+        @Override
+        public void run() {
+            List<Pendiente<E, R>> lote = new ArrayList<>(tamanoLote);
+            // Sin interrupciones: cortar un hilo a mitad de una llamada JDBC puede cerrar
+            // la conexión; al detenerse, el hilo vacía la cola y termina solo
+            while (activo || !cola.isEmpty()) {
+                try {
+                    juntar(lote);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                if (!lote.isEmpty()) {
+                    aplicar(lote);
+                    lote.clear();
+                }
+            }
+        }
+
+        /**
+         * Espera la primera escritura; desde ahí corre la ventana
+         */
+        private void juntar(List<Pendiente<E, R>> lote) throws InterruptedException {
+            Pendiente<E, R> primera = cola.poll(ESPERA_OCIOSA_MS, TimeUnit.MILLISECONDS);
+            if (primera == null) {
+                return;
+            }
+            lote.add(primera);
+            long limite = System.nanoTime() + ventanaNanos;
+            while (lote.size() < tamanoLote) {
+                cola.drainTo(lote, tamanoLote - lote.size());
+                long restante = limite - System.nanoTime();
+                if (lote.size() == tamanoLote || restante <= 0) {
+                    return;
+                }
+                Pendiente<E, R> siguiente = cola.poll(restante, TimeUnit.NANOSECONDS);
+                if (siguiente == null) {
+                    return;
+                }
+                lote.add(siguiente);
+            }
+        }
+
+        private void aplicar(List<Pendiente<E, R>> lote) {
+            tamanos.record(lote.size());
+            List<E> escrituras = new ArrayList<>(lote.size());
+            lote.forEach(p -> escrituras.add(p.escritura()));
+            try {
+                List<R> resultados = enLote.apply(escrituras);
+                for (int i = 0; i < lote.size(); i++) {
+                    lote.get(i).resultado().complete(resultados.get(i));
+                }
+            } catch (DataIntegrityViolationException | IllegalArgumentException e) {
+                reintentos.increment();
+                log.debug("Lote de {} escrituras rechazado; se aplica uno por uno", lote.size(), e);
+                lote.forEach(this::aplicarSola);
+            } catch (Throwable e) {
+                // También un Error: si el hilo muriera, nadie completaría a los que esperan
+                lote.forEach(p -> p.resultado().completeExceptionally(e));
+            }
+        }
+
+        private void aplicarSola(Pendiente<E, R> pendiente) {
+            try {
+                pendiente.resultado().complete(individual.apply(pendiente.escritura()));
+            } catch (Throwable e) {
+                pendiente.resultado().completeExceptionally(e);
+            }
+        }
+    }
+}
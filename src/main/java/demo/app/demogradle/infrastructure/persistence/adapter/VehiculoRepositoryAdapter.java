@@ -1,36 +1,198 @@
 package demo.app.demogradle.infrastructure.persistence.adapter;
 
+import demo.app.demogradle.domain.model.ConsultaHistorial;
+import demo.app.demogradle.domain.model.PaginaHistorial;
+import demo.app.demogradle.domain.model.PaginaVistas;
 import demo.app.demogradle.domain.model.Vehiculo;
 import demo.app.demogradle.domain.port.out.VehiculoRepository;
+import demo.app.demogradle.domain.port.out.VehiculoVistasRepository;
+import demo.app.demogradle.infrastructure.persistence.config.PersistenciaConfig;
 import demo.app.demogradle.infrastructure.persistence.entity.VehiculoEntity;
 import demo.app.demogradle.infrastructure.persistence.mapper.VehiculoMapper;
+import demo.app.demogradle.infrastructure.persistence.mapper.VehiculoRowMapper;
 import demo.app.demogradle.infrastructure.persistence.repository.VehiculoJpaRepository;
-import lombok.RequiredArgsConstructor;
+import demo.app.demogradle.infrastructure.persistence.repository.VehiculoSpecifications;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Component
-@RequiredArgsConstructor
-public class VehiculoRepositoryAdapter implements VehiculoRepository {
+@Qualifier(PersistenciaConfig.ADAPTADOR)
+@ConditionalOnProperty(name = PersistenciaConfig.PROPIEDAD_ADAPTADOR, havingValue = "jpa", matchIfMissing = true)
+public class VehiculoRepositoryAdapter implements VehiculoRepository, VehiculoVistasRepository {
+
+    public static final String BLOQUEO_OPTIMISTA = "optimista";
+    public static final String BLOQUEO_PESIMISTA = "pesimista";
+    public static final String METRICA_CONFLICTOS = "parqueadero.persistencia.optimista.conflictos";
+    public static final String METRICA_REINTENTOS = "parqueadero.persistencia.optimista.reintentos";
+
+    private static final String SQL_EXPORTAR_HISTORIAL =
+            "SELECT " + VehiculoRowMapper.COLUMNAS + " FROM estancias ORDER BY id";
+
+    /**
+     * Dentro de un lote, un duplicado no debe abortar a los demás: la condición
+     * deja la fila sin insertar (0 filas) en vez de violar placa_activa. Lo que se
+     * insertó antes en el mismo lote ya es visible para las filas siguientes
+     */
+    private static final String SQL_INGRESO_CONDICIONAL =
+            "INSERT INTO estancias (id, placa, tipo, fecha_ingreso, activo, placa_activa) "
+                    + "SELECT NEXT VALUE FOR estancias_seq, ?, ?, ?, TRUE, ? "
+                    + "WHERE NOT EXISTS (SELECT 1 FROM estancias WHERE placa_activa = ?)";
+
+    /** Tope de valores por IN (...) al buscar activos de muchas placas */
+    private static final int PLACAS_POR_CONSULTA = 1_000;
+
+    /** La fecha de ingreso fija la estancia leída; placa_activa sola podría ser una más nueva */
+    private static final String SQL_SALIDA_CONDICIONAL =
+            "UPDATE estancias SET activo = FALSE, fecha_salida = ?, costo = ?, placa_activa = NULL, "
+                    + "version = version + 1 WHERE placa_activa = ? AND fecha_ingreso = ? AND activo = TRUE";
 
     private final VehiculoJpaRepository jpaRepository;
     private final VehiculoMapper mapper;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transaccion;
+    private final MeterRegistry meterRegistry;
+
+    private final int tamanoLoteExportacion;
+    private final String bloqueo;
+    private final int intentosOptimistas;
 
+    public VehiculoRepositoryAdapter(VehiculoJpaRepository jpaRepository, VehiculoMapper mapper,
+                                     JdbcTemplate jdbcTemplate, TransactionTemplate transaccion,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${parqueadero.historial.exportacion.fetch-size:1000}") int tamanoLoteExportacion,
+                                     @Value("${parqueadero.persistencia.bloqueo:" + BLOQUEO_OPTIMISTA + "}") String bloqueo,
+                                     @Value("${parqueadero.persistencia.optimista.intentos:5}") int intentosOptimistas) {
+        if (intentosOptimistas < 1) {
+            throw new IllegalArgumentException("El cierre optimista necesita al menos un intento");
+        }
+        this.jpaRepository = jpaRepository;
+        this.mapper = mapper;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transaccion = transaccion;
+        this.meterRegistry = meterRegistry;
+        this.tamanoLoteExportacion = tamanoLoteExportacion;
+        this.bloqueo = bloqueo;
+        this.intentosOptimistas = intentosOptimistas;
+    }
+
+    /**
+     * Un vehículo activo abre una estancia nueva; uno inactivo cierra la estancia
+     * activa de su placa. Las estancias anteriores nunca se sobrescriben, y si la
+     * placa no tiene estancia activa (o la cerró otro escritor) no se inventa una:
+     * se responde como no encontrada.
+     *
+     * El modo de bloqueo (parqueadero.persistencia.bloqueo) solo aplica aquí, a la
+     * lectura-modificación-escritura de la entidad. Las salidas de producción van
+     * por registrarSalida, que es un único UPDATE condicional y atómico: ni @Version
+     * ni un FOR UPDATE le agregan nada, porque la condición sobre la fila activa ya
+     * decide quién gana y el perdedor recibe 0 filas.
+     */
     @Override
     public Vehiculo guardar(Vehiculo vehiculo) {
-        VehiculoEntity entity = mapper.toEntity(vehiculo);
-        VehiculoEntity savedEntity = jpaRepository.save(entity);
-        return mapper.toDomain(savedEntity);
+        if (vehiculo.isActivo()) {
+            return mapper.toDomain(jpaRepository.save(mapper.toEntity(vehiculo)));
+        }
+        return BLOQUEO_PESIMISTA.equalsIgnoreCase(bloqueo) ? cerrarConBloqueo(vehiculo) : cerrarOptimista(vehiculo);
+    }
+
+    /**
+     * Una sola sentencia INSERT; la restricción única de placa_activa es la que
+     * decide, así que dos ingresos simultáneos de la misma placa no pueden ganar ambos
+     */
+    @Override
+    public boolean registrarIngreso(Vehiculo vehiculo) {
+        try {
+            return jpaRepository.insertarEstanciaActiva(
+                    vehiculo.getPlaca(), vehiculo.getTipo().name(), vehiculo.getFechaIngreso()) == 1;
+        } catch (DataIntegrityViolationException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Un solo UPDATE condicional, sin cargar ni fusionar la entidad ni tomar bloqueos
+     * pesimistas: gana la salida que encuentra la estancia todavía activa. Por eso
+     * no pasa por el reintento optimista ni por el bloqueo de guardar: no hay una
+     * lectura previa que pueda quedar vieja
+     */
+    @Override
+    public boolean registrarSalida(Vehiculo vehiculoSalida) {
+        return jpaRepository.cerrarEstanciaActiva(
+                vehiculoSalida.getPlaca().toUpperCase(),
+                vehiculoSalida.getFechaIngreso(),
+                vehiculoSalida.getFechaSalida(),
+                vehiculoSalida.getCosto()) == 1;
+    }
+
+    /**
+     * Un solo lote JDBC en una transacción. Si otra instancia gana una placa entre
+     * la condición y el INSERT, la restricción única aborta el lote completo y se
+     * propaga la excepción (la escritura agrupada reintenta uno por uno)
+     */
+    @Override
+    @Transactional
+    public boolean[] registrarIngresos(List<Vehiculo> vehiculos) {
+        int[] filas = jdbcTemplate.batchUpdate(SQL_INGRESO_CONDICIONAL, vehiculos.stream()
+                .map(v -> new Object[]{v.getPlaca(), v.getTipo().name(),
+                        Timestamp.valueOf(v.getFechaIngreso()), v.getPlaca(), v.getPlaca()})
+                .toList());
+        return aplicadas(filas);
+    }
+
+    @Override
+    @Transactional
+    public boolean[] registrarSalidas(List<Vehiculo> vehiculosSalida) {
+        int[] filas = jdbcTemplate.batchUpdate(SQL_SALIDA_CONDICIONAL, vehiculosSalida.stream()
+                .map(v -> new Object[]{Timestamp.valueOf(v.getFechaSalida()), v.getCosto(),
+                        v.getPlaca().toUpperCase(), Timestamp.valueOf(v.getFechaIngreso())})
+                .toList());
+        return aplicadas(filas);
     }
 
     @Override
     public Optional<Vehiculo> buscarPorPlaca(String placa) {
-        return jpaRepository.findById(placa.toUpperCase())
+        return jpaRepository.findFirstByPlacaOrderByFechaIngresoDesc(placa.toUpperCase())
+                .map(mapper::toDomain);
+    }
+
+    @Override
+    public Optional<Vehiculo> buscarActivoPorPlaca(String placa) {
+        return jpaRepository.findByPlacaActiva(placa.toUpperCase())
                 .map(mapper::toDomain);
     }
 
+    /**
+     * Resuelto por el índice único de placa_activa, en consultas de hasta
+     * PLACAS_POR_CONSULTA placas
+     */
+    @Override
+    public List<Vehiculo> buscarActivosPorPlacas(Collection<String> placas) {
+        List<String> normalizadas = placas.stream().map(String::toUpperCase).distinct().toList();
+        List<Vehiculo> activos = new ArrayList<>(normalizadas.size());
+        for (int desde = 0; desde < normalizadas.size(); desde += PLACAS_POR_CONSULTA) {
+            List<String> tramo = normalizadas.subList(desde, Math.min(desde + PLACAS_POR_CONSULTA, normalizadas.size()));
+            jpaRepository.findByPlacaActivaIn(tramo).forEach(e -> activos.add(mapper.toDomain(e)));
+        }
+        return activos;
+    }
+
     @Override
     public List<Vehiculo> buscarVehiculosActivos() {
         return jpaRepository.findByActivoTrue()
@@ -47,8 +209,106 @@ public class VehiculoRepositoryAdapter implements VehiculoRepository {
                 .toList();
     }
 
+    @Override
+    public PaginaHistorial buscarHistorial(ConsultaHistorial consulta) {
+        int limite = consulta.getLimite();
+        List<Vehiculo> filas = jpaRepository.findBy(VehiculoSpecifications.historial(consulta),
+                        q -> q.sortBy(VehiculoSpecifications.ORDEN_HISTORIAL).limit(limite + 1).all())
+                .stream()
+                .map(mapper::toDomain)
+                .toList();
+        return PaginaHistorial.desde(filas, limite);
+    }
+
+    /**
+     * Misma consulta que buscarHistorial, pero cada fila es una EstanciaProyeccion:
+     * ni entidad administrada ni Vehiculo de por medio
+     */
+    @Override
+    public PaginaVistas buscarVistasHistorial(ConsultaHistorial consulta) {
+        int limite = consulta.getLimite();
+        return PaginaVistas.desde(jpaRepository.proyectarHistorial(consulta, limite + 1), limite);
+    }
+
+    /**
+     * Cursor JDBC de solo avance: las filas se leen por lotes de tamanoLoteExportacion
+     * y se mapean una a una, sin entidades administradas que se acumulen en memoria.
+     * La conexión queda tomada hasta que quien consume cierre el Stream.
+     */
+    @Override
+    public Stream<Vehiculo> transmitirHistorial() {
+        return jdbcTemplate.queryForStream(con -> {
+            PreparedStatement ps = con.prepareStatement(SQL_EXPORTAR_HISTORIAL,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(tamanoLoteExportacion);
+            return ps;
+        }, VehiculoRowMapper.INSTANCIA);
+    }
+
     @Override
     public void eliminar(String placa) {
-        jpaRepository.deleteById(placa.toUpperCase());
+        jpaRepository.deleteByPlaca(placa.toUpperCase());
+    }
+
+    private static boolean[] aplicadas(int[] filas) {
+        boolean[] resultado = new boolean[filas.length];
+        for (int i = 0; i < filas.length; i++) {
+            resultado[i] = filas[i] == 1;
+        }
+        return resultado;
+    }
+
+    /**
+     * Sin bloqueos en la base: la estancia se lee, se cierra y se fusiona; @Version
+     * detecta si otro escritor la cambió entre tanto. En ese caso se relee por id
+     * (nunca por placa, que ya podría tener otra estancia activa): si sigue activa
+     * se reintenta, si ya se cerró ganó el otro y este cierre no encuentra estancia
+     */
+    private Vehiculo cerrarOptimista(Vehiculo vehiculo) {
+        VehiculoEntity estancia = jpaRepository.findByPlacaActiva(vehiculo.getPlaca())
+                .orElseThrow(() -> sinEstanciaActiva(vehiculo));
+        for (int intento = 1; ; intento++) {
+            try {
+                return mapper.toDomain(jpaRepository.save(cerrar(estancia, vehiculo)));
+            } catch (OptimisticLockingFailureException e) {
+                meterRegistry.counter(METRICA_CONFLICTOS).increment();
+                Optional<VehiculoEntity> actual = jpaRepository.findById(estancia.getId());
+                if (actual.isEmpty()) {
+                    throw e;
+                }
+                if (!actual.get().isActivo()) {
+                    throw sinEstanciaActiva(vehiculo);
+                }
+                if (intento == intentosOptimistas) {
+                    throw e;
+                }
+                meterRegistry.counter(METRICA_REINTENTOS).increment();
+                estancia = actual.get();
+            }
+        }
+    }
+
+    /**
+     * SELECT ... FOR UPDATE y cierre en la misma transacción: los demás escritores
+     * de la fila esperan en la base en vez de reintentar. El que llega después de
+     * un cierre ya no encuentra la estancia activa
+     */
+    private Vehiculo cerrarConBloqueo(Vehiculo vehiculo) {
+        return transaccion.execute(estado -> mapper.toDomain(jpaRepository.save(
+                jpaRepository.bloquearPorPlacaActiva(vehiculo.getPlaca())
+                        .filter(VehiculoEntity::isActivo)
+                        .map(estancia -> cerrar(estancia, vehiculo))
+                        .orElseThrow(() -> sinEstanciaActiva(vehiculo)))));
+    }
+
+    private static IllegalArgumentException sinEstanciaActiva(Vehiculo vehiculo) {
+        return new IllegalArgumentException("La placa " + vehiculo.getPlaca() + " no tiene una estancia activa que cerrar");
+    }
+
+    private VehiculoEntity cerrar(VehiculoEntity estancia, Vehiculo vehiculo) {
+        estancia.setFechaSalida(vehiculo.getFechaSalida());
+        estancia.setCosto(vehiculo.getCosto());
+        estancia.setActivo(false);
+        return estancia;
     }
 }
@@ -0,0 +1,197 @@
+package demo.app.demogradle.infrastructure.persistence.adapter;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import demo.app.demogradle.domain.model.ConsultaHistorial;
+import demo.app.demogradle.domain.model.PaginaHistorial;
+import demo.app.demogradle.domain.model.Vehiculo;
+import demo.app.demogradle.domain.port.out.VehiculoRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+/**
+ * DECORADOR del puerto de salida: caché de lectura por placa
+ * - Guarda la última estancia de cada placa, también la ausencia (caché negativa);
+ *   buscarActivoPorPlaca confirma con el delegado cualquier respuesta que no sea activa
+ * - Desalojo por tamaño con frecuencia de uso (W-TinyLFU de Caffeine) y TTL
+ * - Ingresos y salidas confirmados escriben el valor nuevo; guardar, eliminar y
+ *   las escrituras rechazadas lo invalidan
+ * - Las escrituras de una misma placa deben llegar serializadas (ver PersistenciaConfig)
+ * - Por defecto un fallo se carga en el hilo que lee, dentro del candado interno
+ *   del mapa; las demás lecturas de la misma placa esperan esa única carga
+ * - Con hilos virtuales (spring.threads.virtual.enabled) el fallo se carga en un
+ *   hilo virtual aparte, fuera de ese candado: quien espera no ancla su hilo
+ *   portador mientras dura la consulta. Esa consulta ya no corre en el hilo de
+ *   la petición, así que no la ven los contadores por hilo como ContadorSentenciasSql
+ */
+public class VehiculoRepositoryConCache implements VehiculoRepository {
+
+    public static final String NOMBRE_CACHE = "vehiculosPorPlaca";
+
+    private final VehiculoRepository delegado;
+    /** Solo con carga en hilos virtuales; si no, null */
+    private final AsyncCache<String, Optional<Vehiculo>> cargas;
+    private final Cache<String, Optional<Vehiculo>> porPlaca;
+
+    public VehiculoRepositoryConCache(VehiculoRepository delegado, long tamanoMaximo, Duration ttl) {
+        this(delegado, tamanoMaximo, ttl, false);
+    }
+
+    public VehiculoRepositoryConCache(VehiculoRepository delegado, long tamanoMaximo, Duration ttl,
+                                      boolean cargaEnHilosVirtuales) {
+        this.delegado = delegado;
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                .maximumSize(tamanoMaximo)
+                .expireAfterWrite(ttl)
+                .recordStats();
+        if (cargaEnHilosVirtuales) {
+            Executor hilosCarga = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("cache-placas-", 0).factory());
+            this.cargas = builder.executor(hilosCarga).buildAsync();
+            this.porPlaca = cargas.synchronous();
+        } else {
+            this.cargas = null;
+            this.porPlaca = builder.build();
+        }
+    }
+
+    /**
+     * Publica aciertos, fallos y desalojos como cache.gets / cache.evictions
+     */
+    public void registrarMetricas(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, porPlaca, NOMBRE_CACHE);
+    }
+
+    public CacheStats estadisticas() {
+        porPlaca.cleanUp();
+        return porPlaca.stats();
+    }
+
+    @Override
+    public Vehiculo guardar(Vehiculo vehiculo) {
+        try {
+            return delegado.guardar(vehiculo);
+        } finally {
+            porPlaca.invalidate(vehiculo.getPlaca().toUpperCase());
+        }
+    }
+
+    @Override
+    public boolean registrarIngreso(Vehiculo vehiculo) {
+        return escribir(vehiculo, delegado.registrarIngreso(vehiculo));
+    }
+
+    @Override
+    public boolean registrarSalida(Vehiculo vehiculoSalida) {
+        return escribir(vehiculoSalida, delegado.registrarSalida(vehiculoSalida));
+    }
+
+    @Override
+    public boolean[] registrarIngresos(List<Vehiculo> vehiculos) {
+        return escribirLote(vehiculos, delegado.registrarIngresos(vehiculos));
+    }
+
+    @Override
+    public boolean[] registrarSalidas(List<Vehiculo> vehiculosSalida) {
+        return escribirLote(vehiculosSalida, delegado.registrarSalidas(vehiculosSalida));
+    }
+
+    @Override
+    public Optional<Vehiculo> buscarPorPlaca(String placa) {
+        if (cargas == null) {
+            return porPlaca.get(placa.toUpperCase(), delegado::buscarPorPlaca);
+        }
+        CompletableFuture<Optional<Vehiculo>> carga = cargas.get(placa.toUpperCase(),
+                (normalizada, hilosCarga) -> CompletableFuture.supplyAsync(
+                        () -> delegado.buscarPorPlaca(normalizada), hilosCarga));
+        try {
+            return carga.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * La estancia activa, si existe, siempre es la última de la placa. Un acierto
+     * activo se sirve de la caché: si quedó viejo, la salida condicional no lo
+     * encuentra por su fecha de ingreso y la escritura rechazada lo invalida.
+     * Una ausencia o una estancia cerrada en caché no bastan para responder que
+     * no hay vehículo (otra instancia pudo abrir una estancia después): se
+     * confirma con el delegado y, si hay una activa, reemplaza la entrada
+     */
+    @Override
+    public Optional<Vehiculo> buscarActivoPorPlaca(String placa) {
+        Optional<Vehiculo> enCache = buscarPorPlaca(placa).filter(Vehiculo::isActivo);
+        if (enCache.isPresent()) {
+            return enCache;
+        }
+        Optional<Vehiculo> activo = delegado.buscarActivoPorPlaca(placa);
+        activo.ifPresent(vehiculo -> porPlaca.put(placa.toUpperCase(), activo));
+        return activo;
+    }
+
+    @Override
+    public List<Vehiculo> buscarActivosPorPlacas(Collection<String> placas) {
+        return delegado.buscarActivosPorPlacas(placas);
+    }
+
+    @Override
+    public List<Vehiculo> buscarVehiculosActivos() {
+        return delegado.buscarVehiculosActivos();
+    }
+
+    @Override
+    public List<Vehiculo> buscarTodos() {
+        return delegado.buscarTodos();
+    }
+
+    @Override
+    public PaginaHistorial buscarHistorial(ConsultaHistorial consulta) {
+        return delegado.buscarHistorial(consulta);
+    }
+
+    @Override
+    public Stream<Vehiculo> transmitirHistorial() {
+        return delegado.transmitirHistorial();
+    }
+
+    @Override
+    public void eliminar(String placa) {
+        try {
+            delegado.eliminar(placa);
+        } finally {
+            porPlaca.invalidate(placa.toUpperCase());
+        }
+    }
+
+    private boolean[] escribirLote(List<Vehiculo> vehiculos, boolean[] confirmados) {
+        for (int i = 0; i < confirmados.length; i++) {
+            escribir(vehiculos.get(i), confirmados[i]);
+        }
+        return confirmados;
+    }
+
+    private boolean escribir(Vehiculo vehiculo, boolean confirmado) {
+        String placa = vehiculo.getPlaca().toUpperCase();
+        if (confirmado) {
+            porPlaca.put(placa, Optional.of(vehiculo));
+        } else {
+            porPlaca.invalidate(placa);
+        }
+        return confirmado;
+    }
+}
@@ -0,0 +1,232 @@
+package demo.app.demogradle.infrastructure.persistence.adapter;
+
+import demo.app.demogradle.domain.model.ConsultaHistorial;
+import demo.app.demogradle.domain.model.PaginaHistorial;
+import demo.app.demogradle.domain.model.Vehiculo;
+import demo.app.demogradle.domain.port.out.VehiculoRepository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * DECORADOR del puerto de salida: índice en memoria de las estancias activas
+ * - Se reconstruye desde el adaptador real al arrancar
+ * - Se actualiza en cada escritura que el adaptador confirma (write-through)
+ * - Las lecturas de activos devuelven una instantánea inmutable, sin ir a la
+ *   base de datos y sin tomar bloqueos
+ * - Las escrituras de una misma placa se serializan con un candado por franja,
+ *   para que el índice quede en el mismo orden que la base de datos; placas de
+ *   franjas distintas no compiten
+ * - Un lote toma de una vez, en orden ascendente, las franjas de todas sus placas
+ * - Los activos de varias placas se responden desde el índice
+ */
+public class VehiculoRepositoryConIndiceActivos implements VehiculoRepository {
+
+    private static final int FRANJAS = 64;
+
+    private final VehiculoRepository delegado;
+    private final ConcurrentHashMap<String, Vehiculo> activos = new ConcurrentHashMap<>();
+    private final ReentrantLock[] franjas = new ReentrantLock[FRANJAS];
+    private final AtomicLong version = new AtomicLong();
+    private volatile Instantanea instantanea = new Instantanea(-1, List.of());
+
+    public VehiculoRepositoryConIndiceActivos(VehiculoRepository delegado) {
+        this.delegado = delegado;
+        for (int i = 0; i < FRANJAS; i++) {
+            franjas[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Carga las estancias activas desde el adaptador real
+     */
+    public void reconstruir() {
+        activos.clear();
+        delegado.buscarVehiculosActivos().forEach(v -> activos.put(v.getPlaca(), v));
+        version.incrementAndGet();
+    }
+
+    @Override
+    public Vehiculo guardar(Vehiculo vehiculo) {
+        Vehiculo[] guardado = new Vehiculo[1];
+        enFranja(vehiculo.getPlaca(), () -> {
+            guardado[0] = delegado.guardar(vehiculo);
+            if (guardado[0].isActivo()) {
+                activos.put(guardado[0].getPlaca(), guardado[0]);
+            } else {
+                activos.remove(guardado[0].getPlaca());
+            }
+            return true;
+        });
+        return guardado[0];
+    }
+
+    @Override
+    public boolean registrarIngreso(Vehiculo vehiculo) {
+        return enFranja(vehiculo.getPlaca(), () -> {
+            if (!delegado.registrarIngreso(vehiculo)) {
+                return false;
+            }
+            activos.put(vehiculo.getPlaca(), vehiculo);
+            return true;
+        });
+    }
+
+    @Override
+    public boolean registrarSalida(Vehiculo vehiculoSalida) {
+        return enFranja(vehiculoSalida.getPlaca(), () -> {
+            if (!delegado.registrarSalida(vehiculoSalida)) {
+                return false;
+            }
+            activos.remove(vehiculoSalida.getPlaca());
+            return true;
+        });
+    }
+
+    @Override
+    public boolean[] registrarIngresos(List<Vehiculo> vehiculos) {
+        return enFranjas(vehiculos, () -> {
+            boolean[] ingresados = delegado.registrarIngresos(vehiculos);
+            for (int i = 0; i < ingresados.length; i++) {
+                if (ingresados[i]) {
+                    activos.put(vehiculos.get(i).getPlaca(), vehiculos.get(i));
+                }
+            }
+            return ingresados;
+        });
+    }
+
+    @Override
+    public boolean[] registrarSalidas(List<Vehiculo> vehiculosSalida) {
+        return enFranjas(vehiculosSalida, () -> {
+            boolean[] cerradas = delegado.registrarSalidas(vehiculosSalida);
+            for (int i = 0; i < cerradas.length; i++) {
+                if (cerradas[i]) {
+                    activos.remove(vehiculosSalida.get(i).getPlaca());
+                }
+            }
+            return cerradas;
+        });
+    }
+
+    @Override
+    public Optional<Vehiculo> buscarPorPlaca(String placa) {
+        return delegado.buscarPorPlaca(placa);
+    }
+
+    @Override
+    public Optional<Vehiculo> buscarActivoPorPlaca(String placa) {
+        return delegado.buscarActivoPorPlaca(placa);
+    }
+
+    @Override
+    public List<Vehiculo> buscarActivosPorPlacas(Collection<String> placas) {
+        List<Vehiculo> encontrados = new ArrayList<>(placas.size());
+        for (String placa : placas) {
+            Vehiculo activo = activos.get(placa.toUpperCase());
+            if (activo != null) {
+                encontrados.add(activo);
+            }
+        }
+        return encontrados;
+    }
+
+    /**
+     * Sin base de datos ni bloqueos: la instantánea solo se rehace cuando
+     * alguna escritura cambió el conjunto de activos desde la última vez
+     */
+    @Override
+    public List<Vehiculo> buscarVehiculosActivos() {
+        Instantanea actual = instantanea;
+        long versionActual = version.get();
+        if (actual.version() == versionActual) {
+            return actual.vehiculos();
+        }
+        // La versión se lee antes de copiar: si otra escritura llega durante la
+        // copia, la versión ya habrá avanzado y la próxima lectura la rehace
+        Instantanea nueva = new Instantanea(versionActual, List.copyOf(activos.values()));
+        instantanea = nueva;
+        return nueva.vehiculos();
+    }
+
+    @Override
+    public List<Vehiculo> buscarTodos() {
+        return delegado.buscarTodos();
+    }
+
+    @Override
+    public PaginaHistorial buscarHistorial(ConsultaHistorial consulta) {
+        return delegado.buscarHistorial(consulta);
+    }
+
+    @Override
+    public Stream<Vehiculo> transmitirHistorial() {
+        return delegado.transmitirHistorial();
+    }
+
+    @Override
+    public void eliminar(String placa) {
+        String normalizada = placa.toUpperCase();
+        enFranja(normalizada, () -> {
+            delegado.eliminar(normalizada);
+            activos.remove(normalizada);
+            return true;
+        });
+    }
+
+    private boolean[] enFranjas(List<Vehiculo> vehiculos, Supplier<boolean[]> escritura) {
+        boolean[] usadas = new boolean[FRANJAS];
+        vehiculos.forEach(v -> usadas[franja(v.getPlaca())] = true);
+        int tomadas = 0;
+        try {
+            for (; tomadas < FRANJAS; tomadas++) {
+                if (usadas[tomadas]) {
+                    franjas[tomadas].lock();
+                }
+            }
+            boolean[] resultado = escritura.get();
+            for (boolean cambio : resultado) {
+                if (cambio) {
+                    version.incrementAndGet();
+                    break;
+                }
+            }
+            return resultado;
+        } finally {
+            for (int i = tomadas - 1; i >= 0; i--) {
+                if (usadas[i]) {
+                    franjas[i].unlock();
+                }
+            }
+        }
+    }
+
+    private boolean enFranja(String placa, BooleanSupplier escritura) {
+        ReentrantLock candado = franjas[franja(placa)];
+        candado.lock();
+        try {
+            boolean cambio = escritura.getAsBoolean();
+            if (cambio) {
+                version.incrementAndGet();
+            }
+            return cambio;
+        } finally {
+            candado.unlock();
+        }
+    }
+
+    private static int franja(String placa) {
+        return (placa.toUpperCase().hashCode() & 0x7fffffff) % FRANJAS;
+    }
+
+    private record Instantanea(long version, List<Vehiculo> vehiculos) {
+    }
+}
@@ -0,0 +1,73 @@
+package demo.app.demogradle.infrastructure.persistence.config;
+
+import demo.app.demogradle.domain.port.out.VehiculoRepository;
+import demo.app.demogradle.domain.service.ParqueaderoService;
+import demo.app.demogradle.infrastructure.persistence.adapter.ParqueaderoConEscrituraAgrupada;
+import demo.app.demogradle.infrastructure.persistence.adapter.VehiculoRepositoryConCache;
+import demo.app.demogradle.infrastructure.persistence.adapter.VehiculoRepositoryConIndiceActivos;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import java.time.Duration;
+
+/**
+ * Arma el puerto de salida que ve el dominio
+ * - El adaptador real se marca con @Qualifier(ADAPTADOR); cuál se usa lo decide
+ *   la propiedad parqueadero.persistencia.adaptador (jpa por defecto, memoria, diario, jdbc o mvstore)
+ * - Los decoradores se apilan aquí, de modo que ParqueaderoService no se entera
+ * - Orden: índice de activos → caché por placa → adaptador. El índice serializa
+ *   las escrituras de cada placa, así la caché las recibe en el mismo orden que
+ *   la base de datos
+ * - La escritura agrupada es opcional (parqueadero.persistencia.agrupacion.habilitada)
+ *   y va por encima de todos los candados: decora al caso de uso, no al puerto, y
+ *   convierte las puertas concurrentes en los casos de uso en lote del servicio
+ * - El lado de lectura (VehiculoVistasRepository) no pasa por aquí: lo implementa el
+ *   mismo adaptador y se inyecta directo, porque ningún decorador acelera el historial
+ * - El perfil reactivo no usa este puerto: su adaptador (r2dbc) implementa
+ *   VehiculoRepositoryReactivo y se inyecta directo en ParqueaderoReactivoService
+ */
+@Configuration
+@ConditionalOnProperty(name = "parqueadero.reactivo.habilitado", havingValue = "false", matchIfMissing = true)
+public class PersistenciaConfig {
+
+    public static final String ADAPTADOR = "adaptadorPersistencia";
+    public static final String PROPIEDAD_ADAPTADOR = "parqueadero.persistencia.adaptador";
+    public static final String PROPIEDAD_AGRUPACION = "parqueadero.persistencia.agrupacion.habilitada";
+
+    /**
+     * Reemplaza al servicio como ParqueaderoUseCase de los controladores; Spring
+     * lo cierra al apagar y aplica lo que quede en cola
+     */
+    @Bean
+    @Primary
+    @ConditionalOnProperty(name = PROPIEDAD_AGRUPACION, havingValue = "true")
+    public ParqueaderoConEscrituraAgrupada escrituraAgrupada(
+            ParqueaderoService servicio,
+            MeterRegistry meterRegistry,
+            @Value("${parqueadero.persistencia.agrupacion.ventana:2ms}") Duration ventana,
+            @Value("${parqueadero.persistencia.agrupacion.tamano-lote:64}") int tamanoLote) {
+        return new ParqueaderoConEscrituraAgrupada(servicio, ventana, tamanoLote, meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public VehiculoRepository vehiculoRepository(
+            @Qualifier(ADAPTADOR) VehiculoRepository adaptador,
+            MeterRegistry meterRegistry,
+            @Value("${parqueadero.cache.placas.tamano-maximo:50000}") long tamanoMaximoCache,
+            @Value("${parqueadero.cache.placas.ttl:10m}") Duration ttlCache,
+            @Value("${spring.threads.virtual.enabled:false}") boolean hilosVirtuales) {
+        VehiculoRepositoryConCache conCache =
+                new VehiculoRepositoryConCache(adaptador, tamanoMaximoCache, ttlCache, hilosVirtuales);
+        conCache.registrarMetricas(meterRegistry);
+
+        VehiculoRepositoryConIndiceActivos conIndiceActivos = new VehiculoRepositoryConIndiceActivos(conCache);
+        conIndiceActivos.reconstruir();
+        return conIndiceActivos;
+    }
+}
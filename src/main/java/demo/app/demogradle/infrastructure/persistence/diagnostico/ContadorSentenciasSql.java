@@ -0,0 +1,28 @@
+package demo.app.demogradle.infrastructure.persistence.diagnostico;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Cuenta las sentencias SQL que Hibernate prepara en el hilo actual
+ * - Se registra con hibernate.session_factory.statement_inspector
+ * - Incluye consultas nativas; no ve lo que se ejecuta con JdbcTemplate
+ * - Permite comprobar cuántos viajes a la base de datos cuesta cada petición
+ */
+public class ContadorSentenciasSql implements StatementInspector {
+
+    private static final ThreadLocal<long[]> CONTADOR = ThreadLocal.withInitial(() -> new long[1]);
+
+    @Override
+    public String inspect(String sql) {
+        CONTADOR.get()[0]++;
+        return sql;
+    }
+
+    public static void reiniciar() {
+        CONTADOR.get()[0] = 0;
+    }
+
+    public static long total() {
+        return CONTADOR.get()[0];
+    }
+}
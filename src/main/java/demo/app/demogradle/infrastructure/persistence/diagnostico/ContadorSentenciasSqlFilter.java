@@ -0,0 +1,34 @@
+package demo.app.demogradle.infrastructure.persistence.diagnostico;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Registra cuántas sentencias SQL costó cada petición HTTP
+ * Se activa con parqueadero.diagnostico.sentencias-sql=true
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "parqueadero.diagnostico.sentencias-sql", havingValue = "true")
+public class ContadorSentenciasSqlFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        ContadorSentenciasSql.reiniciar();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            log.info("{} {} -> {} sentencias SQL", request.getMethod(), request.getRequestURI(),
+                    ContadorSentenciasSql.total());
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package demo.app.demogradle.infrastructure.persistence.diagnostico;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Detecta hilos virtuales anclados a su portador (jdk.VirtualThreadPinned de JFR):
+ * un hilo virtual que se bloquea dentro de un synchronized o de código nativo
+ * retiene el hilo de plataforma y deja de escalar
+ * - Cada evento que supere el umbral se registra con su pila y cuenta en
+ *   parqueadero.hilos.anclados, etiquetado con el primer marco de la aplicación
+ * - Se activa con parqueadero.diagnostico.anclaje-hilos.habilitado=true (perfil virtuales)
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "parqueadero.diagnostico.anclaje-hilos.habilitado", havingValue = "true")
+public class DetectorAnclajeHilos implements AutoCloseable {
+
+    public static final String METRICA = "parqueadero.hilos.anclados";
+
+    private static final String EVENTO = "jdk.VirtualThreadPinned";
+    private static final String PAQUETE_APLICACION = "demo.app.demogradle.";
+    private static final int MARCOS_EN_LOG = 15;
+
+    private final MeterRegistry meterRegistry;
+    private final RecordingStream grabacion;
+
+    public DetectorAnclajeHilos(MeterRegistry meterRegistry,
+                                @Value("${parqueadero.diagnostico.anclaje-hilos.umbral:20ms}") Duration umbral) {
+        this.meterRegistry = meterRegistry;
+        this.grabacion = new RecordingStream();
+        grabacion.enable(EVENTO).withThreshold(umbral).withStackTrace();
+        grabacion.onEvent(EVENTO, this::registrar);
+        grabacion.startAsync();
+    }
+
+    @Override
+    public void close() {
+        grabacion.close();
+    }
+
+    private void registrar(RecordedEvent evento) {
+        List<RecordedFrame> marcos = evento.getStackTrace() != null
+                ? evento.getStackTrace().getFrames()
+                : List.of();
+        meterRegistry.counter(METRICA, "origen", origen(marcos)).increment();
+        log.warn("Hilo virtual anclado {} ms en {}:\n{}", evento.getDuration().toMillis(),
+                evento.getThread() != null ? evento.getThread().getJavaName() : "?",
+                marcos.stream()
+                        .limit(MARCOS_EN_LOG)
+                        .map(m -> "\tat " + m.getMethod().getType().getName() + "." + m.getMethod().getName()
+                                + ":" + m.getLineNumber())
+                        .collect(Collectors.joining("\n")));
+    }
+
+    /**
+     * Primer marco del código propio; si no hay, el más alto de la pila
+     */
+    private static String origen(List<RecordedFrame> marcos) {
+        RecordedFrame elegido = marcos.stream()
+                .filter(m -> m.getMethod().getType().getName().startsWith(PAQUETE_APLICACION))
+                .findFirst()
+                .orElse(marcos.isEmpty() ? null : marcos.get(0));
+        if (elegido == null) {
+            return "desconocido";
+        }
+        String clase = elegido.getMethod().getType().getName();
+        return clase.substring(clase.lastIndexOf('.') + 1) + "." + elegido.getMethod().getName();
+    }
+}
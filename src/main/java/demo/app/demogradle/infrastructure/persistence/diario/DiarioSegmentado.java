@@ -0,0 +1,313 @@
+package demo.app.demogradle.infrastructure.persistence.diario;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Diario de solo anexar en archivos mapeados en memoria, partido en segmentos
+ * de tamaño fijo (00000000000000000001.diario, ...)
+ * - Escribir un registro es copiar 40 bytes al mapeo; la durabilidad depende de
+ *   la política de sincronización
+ * - Un segmento lleno se fuerza a disco antes de abrir el siguiente, así que solo
+ *   el último puede tener registros sin forzar
+ * - Al abrir, reproduce los registros válidos y sigue escribiendo justo después
+ *   del último; un registro roto solo se tolera al final del último segmento, y
+ *   todo lo que viene detrás se borra antes de volver a escribir
+ * - Se puede cortar en cualquier momento para empezar un segmento nuevo; los
+ *   segmentos anteriores al corte se borran cuando una instantánea los cubre
+ */
+@Slf4j
+final class DiarioSegmentado implements AutoCloseable {
+
+    private static final String EXTENSION = ".diario";
+
+    private final Path directorio;
+    private final int tamanoSegmento;
+    private final PoliticaSincronizacion politica;
+    /** Candados en vez de monitores: un hilo virtual que espera aquí no ancla su portador */
+    private final ReentrantLock estado = new ReentrantLock();
+    private final ReentrantLock forzado = new ReentrantLock();
+    private final ScheduledExecutorService sincronizadorPeriodico;
+
+    private FileChannel canal;
+    private MappedByteBuffer segmento;
+    private long numeroSegmento;
+    private int posicion;
+    private long escritos;
+    private volatile long durables;
+
+    DiarioSegmentado(Path directorio, int tamanoSegmento, PoliticaSincronizacion politica, Duration intervalo) {
+        if (tamanoSegmento < RegistroDiario.TAMANO) {
+            throw new IllegalArgumentException("El segmento debe tener espacio para al menos un registro");
+        }
+        this.directorio = directorio;
+        this.tamanoSegmento = tamanoSegmento - tamanoSegmento % RegistroDiario.TAMANO;
+        this.politica = politica;
+        if (politica == PoliticaSincronizacion.PERIODICA) {
+            sincronizadorPeriodico = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread hilo = new Thread(r, "diario-sincronizacion");
+                hilo.setDaemon(true);
+                return hilo;
+            });
+            sincronizadorPeriodico.scheduleWithFixedDelay(this::forzarTodo,
+                    intervalo.toNanos(), intervalo.toNanos(), TimeUnit.NANOSECONDS);
+        } else {
+            sincronizadorPeriodico = null;
+        }
+    }
+
+    /**
+     * Entrega cada registro válido en orden y deja el diario listo para anexar
+     *
+     * @param desdeSegmento primer segmento a reproducir; los anteriores ya están
+     *                      en una instantánea y se ignoran
+     * @return cuántos registros se reprodujeron
+     */
+    long reproducir(long desdeSegmento, Consumer<RegistroDiario> destino) {
+        estado.lock();
+        try {
+            Files.createDirectories(directorio);
+            List<Path> segmentos;
+            try (Stream<Path> archivos = Files.list(directorio)) {
+                segmentos = archivos
+                        .filter(p -> p.getFileName().toString().endsWith(EXTENSION))
+                        .filter(p -> numero(p) >= desdeSegmento)
+                        .sorted()
+                        .toList();
+            }
+
+            for (int i = 0; i < segmentos.size(); i++) {
+                abrir(segmentos.get(i), numero(segmentos.get(i)));
+                int leidos = 0;
+                RegistroDiario registro;
+                while (posicion + RegistroDiario.TAMANO <= tamanoMapeado()
+                        && (registro = RegistroDiario.leer(segmento, posicion)) != null) {
+                    destino.accept(registro);
+                    posicion += RegistroDiario.TAMANO;
+                    leidos++;
+                }
+                escritos += leidos;
+                // Un segmento cortado termina antes de llenarse, pero en ceros
+                boolean ultimo = i == segmentos.size() - 1;
+                if (!ultimo && posicion + RegistroDiario.TAMANO <= tamanoMapeado()
+                        && segmento.get(posicion + 4) != RegistroDiario.FIN) {
+                    throw new IllegalStateException("Diario corrupto: registro inválido en medio de " + segmentos.get(i));
+                }
+            }
+            if (canal != null) {
+                limpiarCola();
+            }
+            if (canal == null) {
+                long primero = Math.max(1, desdeSegmento);
+                abrir(directorio.resolve(nombre(primero)), primero);
+            }
+            durables = escritos;
+            log.info("Diario reproducido: {} registros en {} segmentos", escritos, segmentos.size());
+            return escritos;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            estado.unlock();
+        }
+    }
+
+    /**
+     * @return el número de orden del registro, para esperar su durabilidad con confirmar
+     */
+    long agregar(RegistroDiario registro) {
+        estado.lock();
+        try {
+            if (posicion + RegistroDiario.TAMANO > tamanoMapeado()) {
+                rotar();
+            }
+            registro.escribir(segmento, posicion);
+            if (politica == PoliticaSincronizacion.POR_ESCRITURA) {
+                segmento.force(posicion, RegistroDiario.TAMANO);
+            }
+            posicion += RegistroDiario.TAMANO;
+            escritos++;
+            if (politica == PoliticaSincronizacion.POR_ESCRITURA) {
+                durables = escritos;
+            }
+            return escritos;
+        } finally {
+            estado.unlock();
+        }
+    }
+
+    /**
+     * Vuelve cuando el registro ya está en disco según la política. En AGRUPADA
+     * quien entra primero fuerza todo lo escrito hasta ese momento, y los que
+     * esperaban detrás casi siempre encuentran su registro ya durable
+     */
+    void confirmar(long orden) {
+        if (politica == PoliticaSincronizacion.AGRUPADA && durables < orden) {
+            forzarTodo();
+        }
+    }
+
+    long durables() {
+        return durables;
+    }
+
+    /**
+     * Fuerza lo escrito y, si el segmento actual tiene registros, sigue en uno nuevo
+     *
+     * @return el número del segmento donde irá el próximo registro: todo lo anterior
+     *         ya está en segmentos de número menor
+     */
+    long cortar() {
+        estado.lock();
+        try {
+            if (posicion > 0) {
+                rotar();
+            }
+            return numeroSegmento;
+        } finally {
+            estado.unlock();
+        }
+    }
+
+    /**
+     * Borra los segmentos de número menor al dado (ya cubiertos por una instantánea)
+     *
+     * @return cuántos segmentos se borraron
+     */
+    int truncarAntesDe(long numero) {
+        int borrados = 0;
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            for (Path segmentoViejo : archivos
+                    .filter(p -> p.getFileName().toString().endsWith(EXTENSION))
+                    .filter(p -> numero(p) < numero)
+                    .toList()) {
+                Files.deleteIfExists(segmentoViejo);
+                borrados++;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return borrados;
+    }
+
+    @Override
+    public void close() {
+        if (sincronizadorPeriodico != null) {
+            sincronizadorPeriodico.shutdown();
+        }
+        forzarTodo();
+        estado.lock();
+        try {
+            cerrarCanal();
+        } finally {
+            estado.unlock();
+        }
+    }
+
+    private void forzarTodo() {
+        forzado.lock();
+        try {
+            MappedByteBuffer actual;
+            long hasta;
+            estado.lock();
+            try {
+                actual = segmento;
+                hasta = escritos;
+            } finally {
+                estado.unlock();
+            }
+            if (actual == null || durables >= hasta) {
+                return;
+            }
+            actual.force();
+            durables = hasta;
+        } finally {
+            forzado.unlock();
+        }
+    }
+
+    /**
+     * Llena de ceros lo que sigue al último registro válido del último segmento y lo
+     * fuerza a disco. Con sincronización agrupada o periódica las páginas no llegan a
+     * disco en orden: detrás de un registro roto puede haber registros con CRC válido
+     * que nunca se confirmaron. Sin esto, la primera escritura nueva tapa solo el
+     * registro roto y una segunda caída los volvería a reproducir
+     */
+    private void limpiarCola() {
+        int fin = segmento.capacity();
+        int sucio = posicion;
+        while (sucio < fin && segmento.get(sucio) == 0) {
+            sucio++;
+        }
+        if (sucio == fin) {
+            return;
+        }
+        log.warn("Diario: {} bytes tras el último registro válido del segmento {}; se borran",
+                fin - posicion, numeroSegmento);
+        for (int i = sucio; i < fin; i++) {
+            segmento.put(i, (byte) 0);
+        }
+        segmento.force();
+    }
+
+    private void rotar() {
+        segmento.force();
+        durables = escritos;
+        long siguiente = numeroSegmento + 1;
+        try {
+            abrir(directorio.resolve(nombre(siguiente)), siguiente);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void abrir(Path archivo, long numero) throws IOException {
+        cerrarCanal();
+        canal = FileChannel.open(archivo,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        // Un segmento nuevo se crea ya con su tamaño completo, lleno de ceros (= fin)
+        long tamano = Math.max(canal.size(), tamanoSegmento);
+        segmento = canal.map(FileChannel.MapMode.READ_WRITE, 0, tamano);
+        numeroSegmento = numero;
+        posicion = 0;
+    }
+
+    private int tamanoMapeado() {
+        return segmento.capacity() - segmento.capacity() % RegistroDiario.TAMANO;
+    }
+
+    private void cerrarCanal() {
+        if (canal == null) {
+            return;
+        }
+        try {
+            canal.close();
+        } catch (IOException e) {
+            log.warn("No se pudo cerrar el segmento {} del diario", numeroSegmento, e);
+        }
+        canal = null;
+    }
+
+    private static String nombre(long numero) {
+        return String.format("%020d%s", numero, EXTENSION);
+    }
+
+    private static long numero(Path archivo) {
+        String nombre = archivo.getFileName().toString();
+        return Long.parseLong(nombre.substring(0, nombre.length() - EXTENSION.length()));
+    }
+}
@@ -0,0 +1,194 @@
+package demo.app.demogradle.infrastructure.persistence.diario;
+
+import demo.app.demogradle.domain.model.Vehiculo;
+import demo.app.demogradle.infrastructure.persistence.memoria.PlacaCodificada;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Instantánea binaria de todas las estancias visibles (00000000000000000007.instantanea)
+ * <pre>
+ *  0  int   firma "PQI1"
+ *  4  int   reservado
+ *  8  long  primer segmento del diario que NO está incluido
+ * 16  ...   una estancia por registro de 40 bytes, en orden de ingreso al sistema:
+ *           INGRESO si sigue activa, GUARDADO si ya salió
+ * fin long  cantidad de estancias
+ *     int   CRC32C de todo lo anterior
+ * </pre>
+ * - Se escribe en un .tmp, se fuerza a disco y se renombra de forma atómica: una
+ *   instantánea a medias nunca reemplaza a la anterior
+ * - Las eliminadas no se copian, así que la instantánea también compacta
+ * - Cargar es recorrer el archivo mapeado y aplicar los registros igual que al
+ *   reproducir el diario
+ */
+@Slf4j
+final class InstantaneaDiario {
+
+    private static final String EXTENSION = ".instantanea";
+    private static final int FIRMA = 0x50514931;
+    private static final int ENCABEZADO = 16;
+    private static final int PIE = 12;
+    private static final int REGISTROS_POR_BLOQUE = 1024;
+
+    private InstantaneaDiario() {
+    }
+
+    /**
+     * Escribe la instantánea y borra las anteriores
+     *
+     * @param desdeSegmento primer segmento del diario posterior a la copia
+     * @return cuántas estancias se escribieron
+     */
+    static long escribir(Path directorio, long desdeSegmento, Stream<Vehiculo> estancias) {
+        Path definitivo = directorio.resolve(nombre(desdeSegmento));
+        Path temporal = directorio.resolve(nombre(desdeSegmento) + ".tmp");
+        long cantidad = 0;
+        try (FileChannel canal = FileChannel.open(temporal, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            CRC32C crc = new CRC32C();
+            ByteBuffer bloque = ByteBuffer.allocateDirect(REGISTROS_POR_BLOQUE * RegistroDiario.TAMANO);
+            bloque.putInt(FIRMA).putInt(0).putLong(desdeSegmento);
+
+            Iterator<Vehiculo> recorrido = estancias.iterator();
+            while (recorrido.hasNext()) {
+                if (bloque.remaining() < RegistroDiario.TAMANO) {
+                    volcar(canal, bloque, crc);
+                }
+                Vehiculo estancia = recorrido.next();
+                byte operacion = estancia.isActivo() ? RegistroDiario.INGRESO : RegistroDiario.GUARDADO;
+                RegistroDiario.de(operacion, PlacaCodificada.codificar(estancia.getPlaca()), estancia)
+                        .escribir(bloque, bloque.position());
+                bloque.position(bloque.position() + RegistroDiario.TAMANO);
+                cantidad++;
+            }
+
+            if (bloque.remaining() < PIE) {
+                volcar(canal, bloque, crc);
+            }
+            bloque.putLong(cantidad);
+            crc.update(bloque.duplicate().flip());
+            bloque.putInt((int) crc.getValue());
+            bloque.flip();
+            while (bloque.hasRemaining()) {
+                canal.write(bloque);
+            }
+            canal.force(true);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            estancias.close();
+        }
+
+        try {
+            Files.move(temporal, definitivo, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            forzarDirectorio(directorio);
+            for (Path vieja : listar(directorio)) {
+                if (numero(vieja) < desdeSegmento) {
+                    Files.deleteIfExists(vieja);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return cantidad;
+    }
+
+    /**
+     * Aplica la instantánea más reciente, si hay
+     *
+     * @return el primer segmento del diario que falta reproducir (1 si no hay instantánea)
+     */
+    static long cargar(Path directorio, Consumer<RegistroDiario> destino) {
+        try {
+            Files.createDirectories(directorio);
+            // Restos de una instantánea que no terminó de escribirse
+            try (Stream<Path> archivos = Files.list(directorio)) {
+                for (Path temporal : archivos
+                        .filter(p -> p.getFileName().toString().endsWith(EXTENSION + ".tmp"))
+                        .toList()) {
+                    Files.deleteIfExists(temporal);
+                }
+            }
+            List<Path> instantaneas = listar(directorio);
+            if (instantaneas.isEmpty()) {
+                return 1;
+            }
+            Path ultima = instantaneas.get(instantaneas.size() - 1);
+            try (FileChannel canal = FileChannel.open(ultima, StandardOpenOption.READ)) {
+                MappedByteBuffer contenido = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+                int fin = contenido.capacity() - PIE;
+                if (fin < ENCABEZADO || contenido.getInt(0) != FIRMA) {
+                    throw new IllegalStateException("Instantánea inválida: " + ultima);
+                }
+                CRC32C crc = new CRC32C();
+                crc.update(contenido.slice(0, fin + 8));
+                long cantidad = contenido.getLong(fin);
+                if (contenido.getInt(fin + 8) != (int) crc.getValue()
+                        || (fin - ENCABEZADO) != cantidad * RegistroDiario.TAMANO) {
+                    throw new IllegalStateException("Instantánea corrupta: " + ultima);
+                }
+                for (int posicion = ENCABEZADO; posicion < fin; posicion += RegistroDiario.TAMANO) {
+                    destino.accept(RegistroDiario.leer(contenido, posicion));
+                }
+                log.info("Instantánea {} cargada: {} estancias", ultima.getFileName(), cantidad);
+                return contenido.getLong(8);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void volcar(FileChannel canal, ByteBuffer bloque, CRC32C crc) throws IOException {
+        bloque.flip();
+        crc.update(bloque.duplicate());
+        while (bloque.hasRemaining()) {
+            canal.write(bloque);
+        }
+        bloque.clear();
+    }
+
+    /**
+     * Para que el renombre sobreviva a un corte de energía; no todos los sistemas
+     * permiten abrir un directorio, y ahí basta con lo que haga el sistema de archivos
+     */
+    private static void forzarDirectorio(Path directorio) {
+        try (FileChannel canal = FileChannel.open(directorio, StandardOpenOption.READ)) {
+            canal.force(true);
+        } catch (IOException | UnsupportedOperationException e) {
+            log.debug("No se pudo forzar el directorio {}", directorio, e);
+        }
+    }
+
+    private static List<Path> listar(Path directorio) throws IOException {
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            return archivos
+                    .filter(p -> p.getFileName().toString().endsWith(EXTENSION))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static String nombre(long numero) {
+        return String.format("%020d%s", numero, EXTENSION);
+    }
+
+    private static long numero(Path archivo) {
+        String nombre = archivo.getFileName().toString();
+        return Long.parseLong(nombre.substring(0, nombre.length() - EXTENSION.length()));
+    }
+}
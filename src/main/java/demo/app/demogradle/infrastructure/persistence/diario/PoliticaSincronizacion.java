@@ -0,0 +1,13 @@
+package demo.app.demogradle.infrastructure.persistence.diario;
+
+/**
+ * Cuándo se fuerza el diario a disco antes de confirmar una escritura
+ */
+public enum PoliticaSincronizacion {
+    /** Cada escritura fuerza su propio registro antes de confirmarse */
+    POR_ESCRITURA,
+    /** Las escrituras que llegan juntas comparten un solo fsync; ninguna se confirma antes */
+    AGRUPADA,
+    /** Se confirma de inmediato y un hilo fuerza cada intervalo: se puede perder el último intervalo */
+    PERIODICA
+}
@@ -0,0 +1,103 @@
+package demo.app.demogradle.infrastructure.persistence.diario;
+
+import demo.app.demogradle.domain.model.TipoVehiculo;
+import demo.app.demogradle.domain.model.Vehiculo;
+import demo.app.demogradle.infrastructure.persistence.memoria.PlacaCodificada;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.zip.CRC32C;
+
+/**
+ * Registro binario de tamaño fijo del diario (40 bytes)
+ * <pre>
+ *  0  int   CRC32C de los bytes 4..39
+ *  4  byte  operación (0 = fin del diario)
+ *  5  byte  tipo de vehículo (ordinal)
+ *  6  short reservado
+ *  8  long  placa codificada
+ * 16  long  ingreso, segundos
+ * 24  long  salida, segundos (Long.MIN_VALUE si no hay)
+ * 32  int   costo (-1 si no hay)
+ * 36  int   reservado
+ * </pre>
+ * Un registro a medio escribir no pasa el CRC y marca el final del diario
+ */
+record RegistroDiario(byte operacion, long placa, byte tipo, long ingreso, long salida, int costo) {
+
+    static final int TAMANO = 40;
+
+    static final byte FIN = 0;
+    static final byte INGRESO = 1;
+    static final byte SALIDA = 2;
+    static final byte GUARDADO = 3;
+    static final byte ELIMINACION = 4;
+
+    private static final TipoVehiculo[] TIPOS = TipoVehiculo.values();
+    private static final long SIN_SALIDA = Long.MIN_VALUE;
+    private static final int SIN_COSTO = -1;
+
+    static RegistroDiario de(byte operacion, long placa, Vehiculo vehiculo) {
+        return new RegistroDiario(operacion, placa,
+                (byte) vehiculo.getTipo().ordinal(),
+                segundos(vehiculo.getFechaIngreso()),
+                vehiculo.getFechaSalida() != null ? segundos(vehiculo.getFechaSalida()) : SIN_SALIDA,
+                vehiculo.getCosto() != null ? vehiculo.getCosto() : SIN_COSTO);
+    }
+
+    static RegistroDiario eliminacion(long placa) {
+        return new RegistroDiario(ELIMINACION, placa, (byte) 0, 0, SIN_SALIDA, SIN_COSTO);
+    }
+
+    Vehiculo vehiculo() {
+        return Vehiculo.builder()
+                .placa(PlacaCodificada.decodificar(placa))
+                .tipo(TIPOS[tipo])
+                .fechaIngreso(LocalDateTime.ofEpochSecond(ingreso, 0, ZoneOffset.UTC))
+                .fechaSalida(salida == SIN_SALIDA ? null : LocalDateTime.ofEpochSecond(salida, 0, ZoneOffset.UTC))
+                .activo(salida == SIN_SALIDA)
+                .costo(costo == SIN_COSTO ? null : costo)
+                .build();
+    }
+
+    void escribir(ByteBuffer destino, int posicion) {
+        destino.put(posicion + 4, operacion);
+        destino.put(posicion + 5, tipo);
+        destino.putShort(posicion + 6, (short) 0);
+        destino.putLong(posicion + 8, placa);
+        destino.putLong(posicion + 16, ingreso);
+        destino.putLong(posicion + 24, salida);
+        destino.putInt(posicion + 32, costo);
+        destino.putInt(posicion + 36, 0);
+        // El CRC va al final: si el proceso muere antes, el registro queda inválido
+        destino.putInt(posicion, crc(destino, posicion));
+    }
+
+    /**
+     * @return el registro, o null si en esa posición termina el diario
+     *         (nunca escrito o escrito a medias)
+     */
+    static RegistroDiario leer(ByteBuffer origen, int posicion) {
+        byte operacion = origen.get(posicion + 4);
+        if (operacion == FIN || origen.getInt(posicion) != crc(origen, posicion)) {
+            return null;
+        }
+        return new RegistroDiario(operacion,
+                origen.getLong(posicion + 8),
+                origen.get(posicion + 5),
+                origen.getLong(posicion + 16),
+                origen.getLong(posicion + 24),
+                origen.getInt(posicion + 32));
+    }
+
+    private static int crc(ByteBuffer buffer, int posicion) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(posicion + 4, TAMANO - 4));
+        return (int) crc.getValue();
+    }
+
+    private static long segundos(LocalDateTime fecha) {
+        return fecha.toEpochSecond(ZoneOffset.UTC);
+    }
+}
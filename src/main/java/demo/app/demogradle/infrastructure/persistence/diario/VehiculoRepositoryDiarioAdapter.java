@@ -0,0 +1,396 @@
+package demo.app.demogradle.infrastructure.persistence.diario;
+
+import demo.app.demogradle.domain.model.ConsultaHistorial;
+import demo.app.demogradle.domain.model.PaginaHistorial;
+import demo.app.demogradle.domain.model.PaginaVistas;
+import demo.app.demogradle.domain.model.Vehiculo;
+import demo.app.demogradle.domain.port.out.VehiculoRepository;
+import demo.app.demogradle.domain.port.out.VehiculoVistasRepository;
+import demo.app.demogradle.infrastructure.persistence.config.PersistenciaConfig;
+import demo.app.demogradle.infrastructure.persistence.memoria.PlacaCodificada;
+import demo.app.demogradle.infrastructure.persistence.memoria.VehiculoRepositoryMemoriaAdapter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * ADAPTADOR CON DIARIO del puerto de salida (perfil "diario")
+ * - Cada ingreso, salida, guardado o eliminación confirmado se anexa como un
+ *   registro binario fijo a un diario mapeado en memoria
+ * - El estado vive en el adaptador en memoria (arreglos primitivos), que se
+ *   reconstruye al arrancar reproduciendo el diario
+ * - Las escrituras se deciden y anotan bajo un mismo candado, y solo se aplican al
+ *   índice y se confirman al llamador cuando la política de sincronización lo
+ *   permite. Con POR_ESCRITURA y AGRUPADA eso es después del fsync: las lecturas
+ *   nunca ven un cambio que podría perderse en una caída. Con PERIODICA se
+ *   confirma y se publica antes del fsync, así que una caída del sistema puede
+ *   perder el último intervalo ya confirmado y ya leído
+ * - Las lecturas van directo al índice en memoria
+ * - Cada cierto tiempo, si hubo cambios, copia el índice a una instantánea y borra
+ *   los segmentos que esta cubre; al arrancar carga la instantánea y reproduce
+ *   solo la cola del diario
+ */
+@Slf4j
+@Component
+@Qualifier(PersistenciaConfig.ADAPTADOR)
+@ConditionalOnProperty(name = PersistenciaConfig.PROPIEDAD_ADAPTADOR, havingValue = "diario")
+public class VehiculoRepositoryDiarioAdapter implements VehiculoRepository, VehiculoVistasRepository, AutoCloseable {
+
+    private final Path directorio;
+    private final VehiculoRepositoryMemoriaAdapter indice;
+    private final DiarioSegmentado diario;
+    private final ReentrantLock escritura = new ReentrantLock();
+    private final ReentrantLock instantaneas = new ReentrantLock();
+    private final ScheduledExecutorService instantaneaPeriodica;
+    /** Cambios anotados en el diario que el índice todavía no muestra, en orden */
+    private final ArrayDeque<Pendiente> pendientes = new ArrayDeque<>();
+    /** Último cambio pendiente por placa codificada */
+    private final Map<Long, Pendiente> ultimaPendiente = new HashMap<>();
+    private long cambiosSinInstantanea;
+
+    public VehiculoRepositoryDiarioAdapter(
+            @Value("${parqueadero.persistencia.diario.directorio:datos/diario}") Path directorio,
+            @Value("${parqueadero.persistencia.diario.tamano-segmento:64MB}") DataSize tamanoSegmento,
+            @Value("${parqueadero.persistencia.diario.sincronizacion:AGRUPADA}") PoliticaSincronizacion politica,
+            @Value("${parqueadero.persistencia.diario.intervalo:10ms}") Duration intervalo,
+            @Value("${parqueadero.persistencia.diario.instantanea.intervalo:15m}") Duration intervaloInstantanea,
+            @Value("${parqueadero.persistencia.memoria.capacidad-inicial:1024}") int capacidadInicial) {
+        this.directorio = directorio;
+        this.indice = new VehiculoRepositoryMemoriaAdapter(capacidadInicial);
+        this.diario = new DiarioSegmentado(directorio, Math.toIntExact(tamanoSegmento.toBytes()), politica, intervalo);
+        long desdeSegmento = InstantaneaDiario.cargar(directorio, this::aplicar);
+        this.cambiosSinInstantanea = diario.reproducir(desdeSegmento, this::aplicar);
+
+        if (intervaloInstantanea.isZero()) {
+            instantaneaPeriodica = null;
+        } else {
+            instantaneaPeriodica = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread hilo = new Thread(r, "diario-instantanea");
+                hilo.setDaemon(true);
+                return hilo;
+            });
+            instantaneaPeriodica.scheduleWithFixedDelay(this::tomarInstantaneaPeriodica,
+                    intervaloInstantanea.toMillis(), intervaloInstantanea.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Copia el estado a una instantánea y borra los segmentos que quedan cubiertos
+     * - Bajo el candado de escritura solo se corta el diario y se copian los
+     *   arreglos del índice; serializar y forzar a disco ocurre sin frenar a nadie
+     * - Si nada cambió desde la última, no hace nada
+     *
+     * @return cuántas estancias se escribieron (0 si no hacía falta)
+     */
+    public long tomarInstantanea() {
+        instantaneas.lock();
+        try {
+            long desdeSegmento;
+            Stream<Vehiculo> copia;
+            escritura.lock();
+            try {
+                if (cambiosSinInstantanea == 0) {
+                    return 0;
+                }
+                desdeSegmento = diario.cortar();
+                // Cortar fuerza todo lo escrito: lo pendiente ya es durable y debe
+                // quedar en la instantánea, porque sus segmentos se van a borrar
+                publicarHasta(diario.durables());
+                copia = indice.copiarHistorial();
+                cambiosSinInstantanea = 0;
+            } finally {
+                escritura.unlock();
+            }
+            long estancias = InstantaneaDiario.escribir(directorio, desdeSegmento, copia);
+            int borrados = diario.truncarAntesDe(desdeSegmento);
+            log.info("Instantánea del diario: {} estancias, {} segmentos borrados", estancias, borrados);
+            return estancias;
+        } finally {
+            instantaneas.unlock();
+        }
+    }
+
+    @Override
+    public Vehiculo guardar(Vehiculo vehiculo) {
+        long placa = codificar(vehiculo.getPlaca());
+        long orden;
+        escritura.lock();
+        try {
+            if (vehiculo.isActivo() && tieneActiva(placa, vehiculo.getPlaca())) {
+                throw new IllegalStateException("Ya existe una estancia activa para la placa " + vehiculo.getPlaca());
+            }
+            orden = anotar(RegistroDiario.de(RegistroDiario.GUARDADO, placa, vehiculo), vehiculo.isActivo(),
+                    () -> indice.guardar(vehiculo));
+        } finally {
+            escritura.unlock();
+        }
+        confirmarYPublicar(orden);
+        return indice.buscarPorPlaca(vehiculo.getPlaca()).orElse(vehiculo);
+    }
+
+    @Override
+    public boolean registrarIngreso(Vehiculo vehiculo) {
+        long placa = codificar(vehiculo.getPlaca());
+        long orden;
+        escritura.lock();
+        try {
+            if (tieneActiva(placa, vehiculo.getPlaca())) {
+                return false;
+            }
+            orden = anotar(RegistroDiario.de(RegistroDiario.INGRESO, placa, vehiculo), true,
+                    () -> indice.registrarIngreso(vehiculo));
+        } finally {
+            escritura.unlock();
+        }
+        confirmarYPublicar(orden);
+        return true;
+    }
+
+    @Override
+    public boolean registrarSalida(Vehiculo vehiculoSalida) {
+        long placa = PlacaCodificada.codificar(vehiculoSalida.getPlaca());
+        if (placa == PlacaCodificada.NO_REPRESENTABLE) {
+            return false;
+        }
+        long orden;
+        escritura.lock();
+        try {
+            if (!tieneActiva(placa, vehiculoSalida.getPlaca())) {
+                return false;
+            }
+            orden = anotar(RegistroDiario.de(RegistroDiario.SALIDA, placa, vehiculoSalida), false,
+                    () -> indice.registrarSalida(vehiculoSalida));
+        } finally {
+            escritura.unlock();
+        }
+        confirmarYPublicar(orden);
+        return true;
+    }
+
+    /**
+     * Todo el lote se anota bajo un solo candado y se confirma una vez, con el
+     * último registro: una sola sincronización para todo el lote
+     */
+    @Override
+    public boolean[] registrarIngresos(List<Vehiculo> vehiculos) {
+        boolean[] ingresados = new boolean[vehiculos.size()];
+        long orden = 0;
+        escritura.lock();
+        try {
+            for (int i = 0; i < ingresados.length; i++) {
+                Vehiculo vehiculo = vehiculos.get(i);
+                long placa = codificar(vehiculo.getPlaca());
+                if (tieneActiva(placa, vehiculo.getPlaca())) {
+                    continue;
+                }
+                orden = anotar(RegistroDiario.de(RegistroDiario.INGRESO, placa, vehiculo), true,
+                        () -> indice.registrarIngreso(vehiculo));
+                ingresados[i] = true;
+            }
+        } finally {
+            escritura.unlock();
+        }
+        confirmarYPublicar(orden);
+        return ingresados;
+    }
+
+    @Override
+    public boolean[] registrarSalidas(List<Vehiculo> vehiculosSalida) {
+        boolean[] cerradas = new boolean[vehiculosSalida.size()];
+        long orden = 0;
+        escritura.lock();
+        try {
+            for (int i = 0; i < cerradas.length; i++) {
+                Vehiculo vehiculoSalida = vehiculosSalida.get(i);
+                long placa = PlacaCodificada.codificar(vehiculoSalida.getPlaca());
+                if (placa == PlacaCodificada.NO_REPRESENTABLE || !tieneActiva(placa, vehiculoSalida.getPlaca())) {
+                    continue;
+                }
+                orden = anotar(RegistroDiario.de(RegistroDiario.SALIDA, placa, vehiculoSalida), false,
+                        () -> indice.registrarSalida(vehiculoSalida));
+                cerradas[i] = true;
+            }
+        } finally {
+            escritura.unlock();
+        }
+        confirmarYPublicar(orden);
+        return cerradas;
+    }
+
+    @Override
+    public Optional<Vehiculo> buscarPorPlaca(String placa) {
+        return indice.buscarPorPlaca(placa);
+    }
+
+    @Override
+    public Optional<Vehiculo> buscarActivoPorPlaca(String placa) {
+        return indice.buscarActivoPorPlaca(placa);
+    }
+
+    @Override
+    public List<Vehiculo> buscarActivosPorPlacas(Collection<String> placas) {
+        return indice.buscarActivosPorPlacas(placas);
+    }
+
+    @Override
+    public List<Vehiculo> buscarVehiculosActivos() {
+        return indice.buscarVehiculosActivos();
+    }
+
+    @Override
+    public List<Vehiculo> buscarTodos() {
+        return indice.buscarTodos();
+    }
+
+    @Override
+    public PaginaHistorial buscarHistorial(ConsultaHistorial consulta) {
+        return indice.buscarHistorial(consulta);
+    }
+
+    /**
+     * El historial sale del índice en memoria, ya en objetos de dominio livianos
+     */
+    @Override
+    public PaginaVistas buscarVistasHistorial(ConsultaHistorial consulta) {
+        return PaginaVistas.de(buscarHistorial(consulta));
+    }
+
+    @Override
+    public Stream<Vehiculo> transmitirHistorial() {
+        return indice.transmitirHistorial();
+    }
+
+    @Override
+    public void eliminar(String placa) {
+        long codigo = PlacaCodificada.codificar(placa);
+        if (codigo == PlacaCodificada.NO_REPRESENTABLE) {
+            return;
+        }
+        long orden;
+        escritura.lock();
+        try {
+            orden = anotar(RegistroDiario.eliminacion(codigo), false, () -> indice.eliminar(placa));
+        } finally {
+            escritura.unlock();
+        }
+        confirmarYPublicar(orden);
+    }
+
+    @Override
+    public void close() {
+        if (instantaneaPeriodica != null) {
+            instantaneaPeriodica.shutdown();
+        }
+        instantaneas.lock();
+        try {
+            diario.close();
+        } finally {
+            instantaneas.unlock();
+        }
+    }
+
+    private void tomarInstantaneaPeriodica() {
+        try {
+            tomarInstantanea();
+        } catch (RuntimeException e) {
+            // El diario sigue completo: se reintenta en el próximo intervalo
+            log.error("No se pudo tomar la instantánea del diario", e);
+        }
+    }
+
+    /**
+     * Anexa el registro y deja el cambio pendiente; el índice no lo ve hasta que
+     * el registro se confirma. Llamar con el candado de escritura tomado
+     *
+     * @param activa si la placa queda con una estancia activa tras este cambio
+     */
+    private long anotar(RegistroDiario registro, boolean activa, Runnable cambio) {
+        long orden = diario.agregar(registro);
+        cambiosSinInstantanea++;
+        Pendiente pendiente = new Pendiente(orden, registro.placa(), activa, cambio);
+        pendientes.add(pendiente);
+        ultimaPendiente.put(registro.placa(), pendiente);
+        return orden;
+    }
+
+    /**
+     * Las decisiones ven primero lo anotado y aún sin confirmar: dos ingresos de la
+     * misma placa no pasan ambos mientras el primero espera su sincronización
+     */
+    private boolean tieneActiva(long placa, String texto) {
+        Pendiente pendiente = ultimaPendiente.get(placa);
+        if (pendiente != null) {
+            return pendiente.activa();
+        }
+        return indice.buscarActivoPorPlaca(texto).isPresent();
+    }
+
+    /**
+     * Si la sincronización falla, el llamador recibe la excepción y su cambio
+     * sigue pendiente: se publica cuando otra escritura logre forzar el diario
+     */
+    private void confirmarYPublicar(long orden) {
+        if (orden == 0) {
+            return;
+        }
+        diario.confirmar(orden);
+        escritura.lock();
+        try {
+            publicarHasta(orden);
+        } finally {
+            escritura.unlock();
+        }
+    }
+
+    /**
+     * Aplica al índice, en orden del diario, los cambios pendientes hasta el orden
+     * dado; lo confirmado es siempre un prefijo del diario. Llamar con el candado
+     * de escritura tomado
+     */
+    private void publicarHasta(long orden) {
+        Pendiente pendiente;
+        while ((pendiente = pendientes.peek()) != null && pendiente.orden() <= orden) {
+            pendientes.poll();
+            pendiente.cambio().run();
+            ultimaPendiente.remove(pendiente.placa(), pendiente);
+        }
+    }
+
+    private void aplicar(RegistroDiario registro) {
+        switch (registro.operacion()) {
+            case RegistroDiario.INGRESO -> indice.registrarIngreso(registro.vehiculo());
+            case RegistroDiario.SALIDA -> indice.registrarSalida(registro.vehiculo());
+            case RegistroDiario.GUARDADO -> indice.guardar(registro.vehiculo());
+            case RegistroDiario.ELIMINACION -> indice.eliminar(PlacaCodificada.decodificar(registro.placa()));
+            default -> throw new IllegalStateException("Operación desconocida en el diario: " + registro.operacion());
+        }
+    }
+
+    private record Pendiente(long orden, long placa, boolean activa, Runnable cambio) {
+    }
+
+    private static long codificar(String placa) {
+        long codigo = PlacaCodificada.codificar(placa);
+        if (codigo == PlacaCodificada.NO_REPRESENTABLE) {
+            throw new IllegalArgumentException("La placa " + placa + " debe ser alfanumérica de hasta 7 caracteres");
+        }
+        return codigo;
+    }
+}
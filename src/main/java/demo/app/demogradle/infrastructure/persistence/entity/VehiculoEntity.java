@@ -9,8 +9,26 @@ import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
 
+/**
+ * Estancia de un vehículo en el parqueadero.
+ * - Cada ingreso crea una fila nueva (tabla de solo inserción), por eso la clave es sustituta
+ * - La placa deja de ser identidad: un mismo vehículo acumula muchas estancias
+ * - placa_activa solo tiene valor mientras la estancia está activa; su índice único
+ *   funciona como índice parcial sobre las estancias activas (H2 ignora los NULL)
+ * - Los índices van en orden descendente porque el historial se recorre del más reciente al más antiguo
+ * - version detecta escrituras perdidas sin bloquear filas; los INSERT directos
+ *   la dejan en 0 por defecto y los UPDATE directos la incrementan
+ */
 @Entity
-@Table(name = "vehiculos")
+@Table(name = "estancias",
+        indexes = {
+                @Index(name = "idx_estancias_placa_fecha_ingreso", columnList = "placa, fecha_ingreso DESC"),
+                @Index(name = "idx_estancias_fecha_ingreso_placa", columnList = "fecha_ingreso DESC, placa DESC"),
+                @Index(name = "idx_estancias_tipo_fecha_ingreso", columnList = "tipo, fecha_ingreso DESC, placa DESC")
+        },
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_estancias_placa_activa", columnNames = "placa_activa")
+        })
 @Data
 @Builder
 @NoArgsConstructor
@@ -18,7 +36,12 @@ import java.time.LocalDateTime;
 public class VehiculoEntity {
 
     @Id
-    @Column(name = "placa", length = 7)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "estancias_seq")
+    @SequenceGenerator(name = "estancias_seq", sequenceName = "estancias_seq", allocationSize = 50)
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "placa", length = 7, nullable = false)
     private String placa;
 
     @Enumerated(EnumType.STRING)
@@ -33,4 +56,20 @@ public class VehiculoEntity {
 
     @Column(name = "activo")
     private boolean activo;
+
+    @Column(name = "costo")
+    private Integer costo;
+
+    @Column(name = "placa_activa", length = 7)
+    private String placaActiva;
+
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "BIGINT DEFAULT 0 NOT NULL")
+    private long version;
+
+    @PrePersist
+    @PreUpdate
+    void sincronizarPlacaActiva() {
+        this.placaActiva = activo ? placa : null;
+    }
 }
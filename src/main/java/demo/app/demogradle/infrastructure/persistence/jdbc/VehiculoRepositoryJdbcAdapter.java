@@ -0,0 +1,282 @@
+package demo.app.demogradle.infrastructure.persistence.jdbc;
+
+import demo.app.demogradle.domain.model.ConsultaHistorial;
+import demo.app.demogradle.domain.model.CursorHistorial;
+import demo.app.demogradle.domain.model.PaginaHistorial;
+import demo.app.demogradle.domain.model.PaginaVistas;
+import demo.app.demogradle.domain.model.Vehiculo;
+import demo.app.demogradle.domain.port.out.VehiculoRepository;
+import demo.app.demogradle.domain.port.out.VehiculoVistasRepository;
+import demo.app.demogradle.infrastructure.persistence.config.PersistenciaConfig;
+import demo.app.demogradle.infrastructure.persistence.mapper.VehiculoRowMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * ADAPTADOR de salida con JDBC escrito a mano: la misma tabla estancias sin Hibernate
+ * - Sin contexto de persistencia, dirty checking, merge ni entidades: cada fila
+ *   se mapea directo a Vehiculo con VehiculoRowMapper, y cada escritura es una
+ *   sola sentencia con sus parámetros fijados a mano
+ * - Todo texto SQL es constante (también los del historial, uno por combinación de
+ *   filtros), así el caché de sentencias de la base analiza cada uno una vez por conexión
+ * - Ingreso y salida mantienen la semántica del adaptador JPA: condicionales y atómicos
+ */
+@Component
+@Qualifier(PersistenciaConfig.ADAPTADOR)
+@ConditionalOnProperty(name = PersistenciaConfig.PROPIEDAD_ADAPTADOR, havingValue = "jdbc")
+@RequiredArgsConstructor
+public class VehiculoRepositoryJdbcAdapter implements VehiculoRepository, VehiculoVistasRepository {
+
+    private static final String SELECT = "SELECT " + VehiculoRowMapper.COLUMNAS + " FROM estancias ";
+
+    /** Un duplicado deja 0 filas en vez de violar placa_activa, también dentro de un lote */
+    private static final String SQL_INGRESO_CONDICIONAL =
+            "INSERT INTO estancias (id, placa, tipo, fecha_ingreso, activo, placa_activa) "
+                    + "SELECT NEXT VALUE FOR estancias_seq, ?, ?, ?, TRUE, ? "
+                    + "WHERE NOT EXISTS (SELECT 1 FROM estancias WHERE placa_activa = ?)";
+
+    /** La fecha de ingreso fija la estancia leída; placa_activa sola podría ser una más nueva */
+    private static final String SQL_SALIDA_CONDICIONAL =
+            "UPDATE estancias SET activo = FALSE, fecha_salida = ?, costo = ?, placa_activa = NULL, "
+                    + "version = version + 1 WHERE placa_activa = ? AND fecha_ingreso = ? AND activo = TRUE";
+
+    private static final String SQL_INSERTAR =
+            "INSERT INTO estancias (id, placa, tipo, fecha_ingreso, fecha_salida, activo, costo, placa_activa) "
+                    + "VALUES (NEXT VALUE FOR estancias_seq, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String SQL_ULTIMA_POR_PLACA =
+            SELECT + "WHERE placa = ? ORDER BY fecha_ingreso DESC LIMIT 1";
+
+    private static final String SQL_ACTIVA_POR_PLACA = SELECT + "WHERE placa_activa = ?";
+
+    /** Un solo parámetro arreglo: el mismo texto SQL sirve para cualquier cantidad de placas */
+    private static final String SQL_ACTIVAS_POR_PLACAS = SELECT + "WHERE placa_activa = ANY(?)";
+
+    private static final String SQL_ACTIVAS = SELECT + "WHERE activo = TRUE";
+
+    private static final String SQL_TODAS = SELECT;
+
+    private static final String SQL_EXPORTAR_HISTORIAL = SELECT + "ORDER BY id";
+
+    private static final String SQL_ELIMINAR = "DELETE FROM estancias WHERE placa = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${parqueadero.historial.exportacion.fetch-size:1000}")
+    private final int tamanoLoteExportacion;
+
+    /**
+     * Un vehículo activo abre una estancia nueva; uno inactivo cierra la estancia
+     * activa de su placa con esa fecha de ingreso, o se agrega ya cerrado si la
+     * placa no tenía esa estancia activa
+     */
+    @Override
+    public Vehiculo guardar(Vehiculo vehiculo) {
+        if (!vehiculo.isActivo() && registrarSalida(vehiculo)) {
+            return vehiculo;
+        }
+        jdbcTemplate.update(SQL_INSERTAR, ps -> {
+            ps.setString(1, vehiculo.getPlaca());
+            ps.setString(2, vehiculo.getTipo().name());
+            ps.setObject(3, vehiculo.getFechaIngreso());
+            ps.setObject(4, vehiculo.getFechaSalida(), Types.TIMESTAMP);
+            ps.setBoolean(5, vehiculo.isActivo());
+            ps.setObject(6, vehiculo.getCosto(), Types.INTEGER);
+            ps.setString(7, vehiculo.isActivo() ? vehiculo.getPlaca() : null);
+        });
+        return vehiculo;
+    }
+
+    @Override
+    public boolean registrarIngreso(Vehiculo vehiculo) {
+        try {
+            return jdbcTemplate.update(SQL_INGRESO_CONDICIONAL, ps -> fijarIngreso(ps, vehiculo)) == 1;
+        } catch (DataIntegrityViolationException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public boolean registrarSalida(Vehiculo vehiculoSalida) {
+        return jdbcTemplate.update(SQL_SALIDA_CONDICIONAL, ps -> fijarSalida(ps, vehiculoSalida)) == 1;
+    }
+
+    /**
+     * Un solo lote JDBC en una transacción; si la restricción única aborta el lote,
+     * la excepción se propaga (la escritura agrupada reintenta uno por uno)
+     */
+    @Override
+    @Transactional
+    public boolean[] registrarIngresos(List<Vehiculo> vehiculos) {
+        return aplicadas(jdbcTemplate.batchUpdate(SQL_INGRESO_CONDICIONAL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                fijarIngreso(ps, vehiculos.get(i));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return vehiculos.size();
+            }
+        }));
+    }
+
+    @Override
+    @Transactional
+    public boolean[] registrarSalidas(List<Vehiculo> vehiculosSalida) {
+        return aplicadas(jdbcTemplate.batchUpdate(SQL_SALIDA_CONDICIONAL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                fijarSalida(ps, vehiculosSalida.get(i));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return vehiculosSalida.size();
+            }
+        }));
+    }
+
+    @Override
+    public Optional<Vehiculo> buscarPorPlaca(String placa) {
+        return buscarUna(SQL_ULTIMA_POR_PLACA, placa.toUpperCase());
+    }
+
+    @Override
+    public Optional<Vehiculo> buscarActivoPorPlaca(String placa) {
+        return buscarUna(SQL_ACTIVA_POR_PLACA, placa.toUpperCase());
+    }
+
+    @Override
+    public List<Vehiculo> buscarActivosPorPlacas(Collection<String> placas) {
+        Object[] normalizadas = placas.stream().map(String::toUpperCase).distinct().toArray();
+        return jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(SQL_ACTIVAS_POR_PLACAS);
+            Array arreglo = con.createArrayOf("VARCHAR", normalizadas);
+            ps.setArray(1, arreglo);
+            return ps;
+        }, VehiculoRowMapper.INSTANCIA);
+    }
+
+    @Override
+    public List<Vehiculo> buscarVehiculosActivos() {
+        return jdbcTemplate.query(SQL_ACTIVAS, VehiculoRowMapper.INSTANCIA);
+    }
+
+    @Override
+    public List<Vehiculo> buscarTodos() {
+        return jdbcTemplate.query(SQL_TODAS, VehiculoRowMapper.INSTANCIA);
+    }
+
+    /**
+     * Mismos predicados y orden que VehiculoSpecifications, con limite + 1 filas
+     */
+    @Override
+    public PaginaHistorial buscarHistorial(ConsultaHistorial consulta) {
+        int limite = consulta.getLimite();
+        StringBuilder sql = new StringBuilder(SELECT).append("WHERE TRUE");
+        List<Object> parametros = new ArrayList<>(6);
+        if (consulta.getTipo() != null) {
+            sql.append(" AND tipo = ?");
+            parametros.add(consulta.getTipo().name());
+        }
+        if (consulta.getDesde() != null) {
+            sql.append(" AND fecha_ingreso >= ?");
+            parametros.add(consulta.getDesde());
+        }
+        if (consulta.getHasta() != null) {
+            sql.append(" AND fecha_ingreso < ?");
+            parametros.add(consulta.getHasta());
+        }
+        CursorHistorial cursor = consulta.getCursor();
+        if (cursor != null) {
+            // (fecha_ingreso, placa) < (:fecha, :placa) en orden descendente
+            sql.append(" AND (fecha_ingreso < ? OR (fecha_ingreso = ? AND placa < ?))");
+            parametros.add(cursor.getFechaIngreso());
+            parametros.add(cursor.getFechaIngreso());
+            parametros.add(cursor.getPlaca());
+        }
+        sql.append(" ORDER BY fecha_ingreso DESC, placa DESC LIMIT ?");
+        parametros.add(limite + 1);
+
+        List<Vehiculo> filas = jdbcTemplate.query(sql.toString(), ps -> {
+            for (int i = 0; i < parametros.size(); i++) {
+                ps.setObject(i + 1, parametros.get(i));
+            }
+        }, VehiculoRowMapper.INSTANCIA);
+        return PaginaHistorial.desde(filas, limite);
+    }
+
+    /**
+     * VehiculoRowMapper ya pasa cada fila directo a Vehiculo: un objeto por fila
+     */
+    @Override
+    public PaginaVistas buscarVistasHistorial(ConsultaHistorial consulta) {
+        return PaginaVistas.de(buscarHistorial(consulta));
+    }
+
+    /**
+     * Cursor JDBC de solo avance, leído por lotes de tamanoLoteExportacion; la
+     * conexión queda tomada hasta que quien consume cierre el Stream
+     */
+    @Override
+    public Stream<Vehiculo> transmitirHistorial() {
+        return jdbcTemplate.queryForStream(con -> {
+            PreparedStatement ps = con.prepareStatement(SQL_EXPORTAR_HISTORIAL,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(tamanoLoteExportacion);
+            return ps;
+        }, VehiculoRowMapper.INSTANCIA);
+    }
+
+    @Override
+    public void eliminar(String placa) {
+        jdbcTemplate.update(SQL_ELIMINAR, ps -> ps.setString(1, placa.toUpperCase()));
+    }
+
+    private Optional<Vehiculo> buscarUna(String sql, String placa) {
+        return jdbcTemplate.query(sql, ps -> ps.setString(1, placa), rs ->
+                rs.next() ? Optional.of(VehiculoRowMapper.INSTANCIA.mapRow(rs, 0)) : Optional.<Vehiculo>empty());
+    }
+
+    private static void fijarIngreso(PreparedStatement ps, Vehiculo vehiculo) throws SQLException {
+        ps.setString(1, vehiculo.getPlaca());
+        ps.setString(2, vehiculo.getTipo().name());
+        ps.setObject(3, vehiculo.getFechaIngreso());
+        ps.setString(4, vehiculo.getPlaca());
+        ps.setString(5, vehiculo.getPlaca());
+    }
+
+    private static void fijarSalida(PreparedStatement ps, Vehiculo vehiculoSalida) throws SQLException {
+        ps.setObject(1, vehiculoSalida.getFechaSalida());
+        ps.setObject(2, vehiculoSalida.getCosto(), Types.INTEGER);
+        ps.setString(3, vehiculoSalida.getPlaca().toUpperCase());
+        ps.setObject(4, vehiculoSalida.getFechaIngreso());
+    }
+
+    private static boolean[] aplicadas(int[] filas) {
+        boolean[] resultado = new boolean[filas.length];
+        for (int i = 0; i < filas.length; i++) {
+            resultado[i] = filas[i] == 1;
+        }
+        return resultado;
+    }
+}
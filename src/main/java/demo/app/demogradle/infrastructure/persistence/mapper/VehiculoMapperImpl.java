@@ -23,6 +23,7 @@ public class VehiculoMapperImpl implements VehiculoMapper {
                 .fechaIngreso(vehiculo.getFechaIngreso())
                 .fechaSalida(vehiculo.getFechaSalida())
                 .activo(vehiculo.isActivo())
+                .costo(vehiculo.getCosto())
                 .build();
     }
 
@@ -38,6 +39,7 @@ public class VehiculoMapperImpl implements VehiculoMapper {
                 .fechaIngreso(entity.getFechaIngreso())
                 .fechaSalida(entity.getFechaSalida())
                 .activo(entity.isActivo())
+                .costo(entity.getCosto())
                 .build();
     }
 }
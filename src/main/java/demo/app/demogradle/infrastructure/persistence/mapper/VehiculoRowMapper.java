@@ -0,0 +1,34 @@
+package demo.app.demogradle.infrastructure.persistence.mapper;
+
+import demo.app.demogradle.domain.model.TipoVehiculo;
+import demo.app.demogradle.domain.model.Vehiculo;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+
+/**
+ * Mapea una fila de la tabla estancias directamente al modelo de dominio,
+ * sin pasar por VehiculoEntity ni por el contexto de persistencia
+ * - Lee por posición: la consulta debe seleccionar COLUMNAS en ese orden, y
+ *   así cada fila no busca sus columnas por nombre
+ */
+public class VehiculoRowMapper implements RowMapper<Vehiculo> {
+
+    public static final String COLUMNAS = "placa, tipo, fecha_ingreso, fecha_salida, activo, costo";
+
+    public static final VehiculoRowMapper INSTANCIA = new VehiculoRowMapper();
+
+    @Override
+    public Vehiculo mapRow(ResultSet rs, int rowNum) throws SQLException {
+        return Vehiculo.builder()
+                .placa(rs.getString(1))
+                .tipo(TipoVehiculo.valueOf(rs.getString(2)))
+                .fechaIngreso(rs.getObject(3, LocalDateTime.class))
+                .fechaSalida(rs.getObject(4, LocalDateTime.class))
+                .activo(rs.getBoolean(5))
+                .costo(rs.getObject(6, Integer.class))
+                .build();
+    }
+}
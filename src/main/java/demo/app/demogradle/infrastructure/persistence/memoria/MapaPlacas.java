@@ -0,0 +1,115 @@
+package demo.app.demogradle.infrastructure.persistence.memoria;
+
+/**
+ * Mapa abierto long → int (código de placa → posición de su última estancia)
+ * - Sondeo lineal sobre dos arreglos paralelos: sin nodos, sin boxing y sin
+ *   asignar memoria al consultar
+ * - La clave 0 marca una casilla libre (ninguna placa se codifica como 0)
+ * - Borrado con desplazamiento hacia atrás, sin lápidas
+ * - No es seguro entre hilos; quien lo usa lo protege con su propio candado
+ */
+final class MapaPlacas {
+
+    static final int AUSENTE = -1;
+
+    private long[] claves;
+    private int[] valores;
+    private int mascara;
+    private int tamano;
+
+    MapaPlacas(int capacidadEsperada) {
+        int capacidad = Integer.highestOneBit(Math.max(16, capacidadEsperada * 2 - 1)) << 1;
+        claves = new long[capacidad];
+        valores = new int[capacidad];
+        mascara = capacidad - 1;
+    }
+
+    int obtener(long clave) {
+        for (int i = posicion(clave, mascara); ; i = (i + 1) & mascara) {
+            long actual = claves[i];
+            if (actual == clave) {
+                return valores[i];
+            }
+            if (actual == 0) {
+                return AUSENTE;
+            }
+        }
+    }
+
+    void poner(long clave, int valor) {
+        if ((tamano + 1) * 2 > claves.length) {
+            crecer();
+        }
+        int i = posicion(clave, mascara);
+        while (claves[i] != 0 && claves[i] != clave) {
+            i = (i + 1) & mascara;
+        }
+        if (claves[i] == 0) {
+            tamano++;
+        }
+        claves[i] = clave;
+        valores[i] = valor;
+    }
+
+    void quitar(long clave) {
+        int i = posicion(clave, mascara);
+        while (claves[i] != clave) {
+            if (claves[i] == 0) {
+                return;
+            }
+            i = (i + 1) & mascara;
+        }
+        // Las claves que siguen en el mismo grupo se corren para no dejar huecos
+        for (int j = (i + 1) & mascara; claves[j] != 0; j = (j + 1) & mascara) {
+            int ideal = posicion(claves[j], mascara);
+            boolean enRango = i <= j ? (ideal > i && ideal <= j) : (ideal > i || ideal <= j);
+            if (!enRango) {
+                claves[i] = claves[j];
+                valores[i] = valores[j];
+                i = j;
+            }
+        }
+        claves[i] = 0;
+        tamano--;
+    }
+
+    int tamano() {
+        return tamano;
+    }
+
+    int capacidad() {
+        return claves.length;
+    }
+
+    boolean ocupada(int casilla) {
+        return claves[casilla] != 0;
+    }
+
+    int valorEn(int casilla) {
+        return valores[casilla];
+    }
+
+    private void crecer() {
+        long[] clavesAnteriores = claves;
+        int[] valoresAnteriores = valores;
+        claves = new long[clavesAnteriores.length * 2];
+        valores = new int[clavesAnteriores.length * 2];
+        mascara = claves.length - 1;
+        for (int i = 0; i < clavesAnteriores.length; i++) {
+            long clave = clavesAnteriores[i];
+            if (clave != 0) {
+                int j = posicion(clave, mascara);
+                while (claves[j] != 0) {
+                    j = (j + 1) & mascara;
+                }
+                claves[j] = clave;
+                valores[j] = valoresAnteriores[i];
+            }
+        }
+    }
+
+    private static int posicion(long clave, int mascara) {
+        long mezcla = clave * 0x9E3779B97F4A7C15L;
+        return (int) (mezcla ^ (mezcla >>> 32)) & mascara;
+    }
+}
@@ -0,0 +1,71 @@
+package demo.app.demogradle.infrastructure.persistence.memoria;
+
+/**
+ * Placa de 6 a 7 caracteres alfanuméricos empacada sin pérdida en un long
+ * - Cada posición es un dígito en base 37: 0 = sin carácter, 1..10 = '0'..'9',
+ *   11..36 = 'A'..'Z' (sin distinguir mayúsculas)
+ * - Alineada a la izquierda, así que el orden numérico de los códigos es el mismo
+ *   orden lexicográfico de las placas: se comparan sin volver a armar el String
+ * - 0 nunca es una placa válida y sirve de "sin valor"
+ */
+public final class PlacaCodificada {
+
+    public static final long NO_REPRESENTABLE = 0L;
+    public static final int LONGITUD_MAXIMA = 7;
+
+    private static final int BASE = 37;
+
+    private PlacaCodificada() {
+    }
+
+    /**
+     * @return el código, o NO_REPRESENTABLE si la placa tiene más de 7 caracteres
+     *         o alguno no es alfanumérico ASCII
+     */
+    public static long codificar(String placa) {
+        int longitud = placa.length();
+        if (longitud == 0 || longitud > LONGITUD_MAXIMA) {
+            return NO_REPRESENTABLE;
+        }
+        long codigo = 0;
+        for (int i = 0; i < LONGITUD_MAXIMA; i++) {
+            int digito = 0;
+            if (i < longitud) {
+                digito = digito(placa.charAt(i));
+                if (digito == 0) {
+                    return NO_REPRESENTABLE;
+                }
+            }
+            codigo = codigo * BASE + digito;
+        }
+        return codigo;
+    }
+
+    public static String decodificar(long codigo) {
+        char[] caracteres = new char[LONGITUD_MAXIMA];
+        int longitud = LONGITUD_MAXIMA;
+        for (int i = LONGITUD_MAXIMA - 1; i >= 0; i--) {
+            int digito = (int) (codigo % BASE);
+            codigo /= BASE;
+            if (digito == 0) {
+                longitud = i;
+            } else {
+                caracteres[i] = digito <= 10 ? (char) ('0' + digito - 1) : (char) ('A' + digito - 11);
+            }
+        }
+        return new String(caracteres, 0, longitud);
+    }
+
+    private static int digito(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0' + 1;
+        }
+        if (c >= 'A' && c <= 'Z') {
+            return c - 'A' + 11;
+        }
+        if (c >= 'a' && c <= 'z') {
+            return c - 'a' + 11;
+        }
+        return 0;
+    }
+}
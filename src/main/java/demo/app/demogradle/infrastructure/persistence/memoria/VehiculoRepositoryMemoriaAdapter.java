@@ -0,0 +1,475 @@
+package demo.app.demogradle.infrastructure.persistence.memoria;
+
+import demo.app.demogradle.domain.model.ConsultaHistorial;
+import demo.app.demogradle.domain.model.CursorHistorial;
+import demo.app.demogradle.domain.model.PaginaHistorial;
+import demo.app.demogradle.domain.model.PaginaVistas;
+import demo.app.demogradle.domain.model.TipoVehiculo;
+import demo.app.demogradle.domain.model.Vehiculo;
+import demo.app.demogradle.domain.port.out.VehiculoRepository;
+import demo.app.demogradle.domain.port.out.VehiculoVistasRepository;
+import demo.app.demogradle.infrastructure.persistence.config.PersistenciaConfig;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.locks.StampedLock;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * ADAPTADOR EN MEMORIA del puerto de salida (perfil "memoria")
+ * - Cada estancia es una posición en arreglos primitivos paralelos (placa
+ *   codificada, tipo, ingreso y salida en segundos, costo, estado), sin objetos
+ *   por vehículo; los Vehiculo solo se arman al devolver resultados
+ * - La última estancia de cada placa se ubica con un mapa abierto long → int,
+ *   así que consultar no asigna memoria más allá del resultado
+ * - Las estancias de una placa quedan encadenadas hacia atrás para poder eliminarlas
+ * - Un índice de posiciones ordenado por (ingreso, placa) sirve el historial
+ *   paginado sin recorrer todas las estancias
+ * - Las fechas se guardan con precisión de segundos
+ * - Un StampedLock serializa las escrituras; las lecturas comparten el candado
+ */
+@Component
+@Qualifier(PersistenciaConfig.ADAPTADOR)
+@ConditionalOnProperty(name = PersistenciaConfig.PROPIEDAD_ADAPTADOR, havingValue = "memoria")
+public class VehiculoRepositoryMemoriaAdapter implements VehiculoRepository, VehiculoVistasRepository {
+
+    private static final TipoVehiculo[] TIPOS = TipoVehiculo.values();
+    private static final byte CERRADA = 0;
+    private static final byte ACTIVA = 1;
+    private static final byte ELIMINADA = 2;
+    private static final long SIN_SALIDA = Long.MIN_VALUE;
+    private static final int SIN_COSTO = -1;
+    private static final int SIN_ANTERIOR = -1;
+
+    private final StampedLock candado = new StampedLock();
+    private final MapaPlacas ultimaPorPlaca;
+
+    private long[] placas;
+    private byte[] tipos;
+    private long[] ingresos;
+    private long[] salidas;
+    private int[] costos;
+    private byte[] estados;
+    private int[] anteriores;
+    /** Posiciones ordenadas por (ingreso, placa); las primeras tamano son válidas */
+    private int[] porIngreso;
+    private int tamano;
+    private int activas;
+
+    public VehiculoRepositoryMemoriaAdapter(
+            @Value("${parqueadero.persistencia.memoria.capacidad-inicial:1024}") int capacidadInicial) {
+        int capacidad = Math.max(16, capacidadInicial);
+        ultimaPorPlaca = new MapaPlacas(capacidad);
+        placas = new long[capacidad];
+        tipos = new byte[capacidad];
+        ingresos = new long[capacidad];
+        salidas = new long[capacidad];
+        costos = new int[capacidad];
+        estados = new byte[capacidad];
+        anteriores = new int[capacidad];
+        porIngreso = new int[capacidad];
+    }
+
+    /**
+     * Igual que el adaptador JPA: un vehículo activo abre una estancia nueva y uno
+     * inactivo cierra la estancia activa de su placa, o queda como estancia cerrada
+     */
+    @Override
+    public Vehiculo guardar(Vehiculo vehiculo) {
+        long placa = codificarParaEscribir(vehiculo.getPlaca());
+        long sello = candado.writeLock();
+        try {
+            int ultima = ultimaPorPlaca.obtener(placa);
+            boolean hayActiva = ultima != MapaPlacas.AUSENTE && estados[ultima] == ACTIVA;
+            int posicion;
+            if (vehiculo.isActivo()) {
+                if (hayActiva) {
+                    throw new IllegalStateException("Ya existe una estancia activa para la placa " + vehiculo.getPlaca());
+                }
+                posicion = agregar(placa, vehiculo, ultima);
+            } else if (hayActiva) {
+                cerrar(ultima, vehiculo);
+                posicion = ultima;
+            } else {
+                posicion = agregar(placa, vehiculo, ultima);
+                cerrar(posicion, vehiculo);
+            }
+            return leer(posicion);
+        } finally {
+            candado.unlockWrite(sello);
+        }
+    }
+
+    @Override
+    public boolean registrarIngreso(Vehiculo vehiculo) {
+        long placa = codificarParaEscribir(vehiculo.getPlaca());
+        long sello = candado.writeLock();
+        try {
+            int ultima = ultimaPorPlaca.obtener(placa);
+            if (ultima != MapaPlacas.AUSENTE && estados[ultima] == ACTIVA) {
+                return false;
+            }
+            agregar(placa, vehiculo, ultima);
+            return true;
+        } finally {
+            candado.unlockWrite(sello);
+        }
+    }
+
+    @Override
+    public boolean registrarSalida(Vehiculo vehiculoSalida) {
+        long placa = PlacaCodificada.codificar(vehiculoSalida.getPlaca());
+        if (placa == PlacaCodificada.NO_REPRESENTABLE) {
+            return false;
+        }
+        long sello = candado.writeLock();
+        try {
+            int ultima = ultimaPorPlaca.obtener(placa);
+            if (ultima == MapaPlacas.AUSENTE || estados[ultima] != ACTIVA) {
+                return false;
+            }
+            cerrar(ultima, vehiculoSalida);
+            return true;
+        } finally {
+            candado.unlockWrite(sello);
+        }
+    }
+
+    /**
+     * Sin viajes que ahorrar: cada elemento es el ingreso individual
+     */
+    @Override
+    public boolean[] registrarIngresos(List<Vehiculo> vehiculos) {
+        boolean[] ingresados = new boolean[vehiculos.size()];
+        for (int i = 0; i < ingresados.length; i++) {
+            ingresados[i] = registrarIngreso(vehiculos.get(i));
+        }
+        return ingresados;
+    }
+
+    @Override
+    public boolean[] registrarSalidas(List<Vehiculo> vehiculosSalida) {
+        boolean[] cerradas = new boolean[vehiculosSalida.size()];
+        for (int i = 0; i < cerradas.length; i++) {
+            cerradas[i] = registrarSalida(vehiculosSalida.get(i));
+        }
+        return cerradas;
+    }
+
+    @Override
+    public Optional<Vehiculo> buscarPorPlaca(String placa) {
+        long codigo = PlacaCodificada.codificar(placa);
+        if (codigo == PlacaCodificada.NO_REPRESENTABLE) {
+            return Optional.empty();
+        }
+        long sello = candado.readLock();
+        try {
+            int ultima = ultimaPorPlaca.obtener(codigo);
+            return ultima == MapaPlacas.AUSENTE ? Optional.empty() : Optional.of(leer(ultima));
+        } finally {
+            candado.unlockRead(sello);
+        }
+    }
+
+    @Override
+    public Optional<Vehiculo> buscarActivoPorPlaca(String placa) {
+        long codigo = PlacaCodificada.codificar(placa);
+        if (codigo == PlacaCodificada.NO_REPRESENTABLE) {
+            return Optional.empty();
+        }
+        long sello = candado.readLock();
+        try {
+            int ultima = ultimaPorPlaca.obtener(codigo);
+            return ultima == MapaPlacas.AUSENTE || estados[ultima] != ACTIVA
+                    ? Optional.empty()
+                    : Optional.of(leer(ultima));
+        } finally {
+            candado.unlockRead(sello);
+        }
+    }
+
+    @Override
+    public List<Vehiculo> buscarActivosPorPlacas(Collection<String> placas) {
+        List<Vehiculo> encontrados = new ArrayList<>(placas.size());
+        for (String placa : placas) {
+            buscarActivoPorPlaca(placa).ifPresent(encontrados::add);
+        }
+        return encontrados;
+    }
+
+    @Override
+    public List<Vehiculo> buscarVehiculosActivos() {
+        long sello = candado.readLock();
+        try {
+            List<Vehiculo> resultado = new ArrayList<>(activas);
+            for (int casilla = 0; casilla < ultimaPorPlaca.capacidad(); casilla++) {
+                if (ultimaPorPlaca.ocupada(casilla)) {
+                    int posicion = ultimaPorPlaca.valorEn(casilla);
+                    if (estados[posicion] == ACTIVA) {
+                        resultado.add(leer(posicion));
+                    }
+                }
+            }
+            return resultado;
+        } finally {
+            candado.unlockRead(sello);
+        }
+    }
+
+    @Override
+    public List<Vehiculo> buscarTodos() {
+        long sello = candado.readLock();
+        try {
+            List<Vehiculo> resultado = new ArrayList<>(tamano);
+            for (int i = 0; i < tamano; i++) {
+                if (estados[i] != ELIMINADA) {
+                    resultado.add(leer(i));
+                }
+            }
+            return resultado;
+        } finally {
+            candado.unlockRead(sello);
+        }
+    }
+
+    /**
+     * Búsqueda binaria en el índice por (ingreso, placa) hasta el cursor o hasta
+     * "hasta", y de ahí hacia atrás hasta juntar limite + 1 o pasar de "desde".
+     * Las estancias eliminadas y las de otro tipo se saltan en el recorrido, así
+     * que un tipo escaso cuesta tantas posiciones como estancias del otro tipo haya
+     * entre medio. Las placas se comparan por su código, que respeta el orden alfabético
+     */
+    @Override
+    public PaginaHistorial buscarHistorial(ConsultaHistorial consulta) {
+        int limite = consulta.getLimite();
+        int tipo = consulta.getTipo() != null ? consulta.getTipo().ordinal() : -1;
+        long desde = consulta.getDesde() != null ? segundos(consulta.getDesde()) : Long.MIN_VALUE;
+        long hasta = consulta.getHasta() != null ? segundos(consulta.getHasta()) : Long.MAX_VALUE;
+        CursorHistorial cursor = consulta.getCursor();
+        long cursorIngreso = cursor != null ? segundos(cursor.getFechaIngreso()) : Long.MAX_VALUE;
+        long cursorPlaca = cursor != null ? PlacaCodificada.codificar(cursor.getPlaca()) : Long.MAX_VALUE;
+
+        long sello = candado.readLock();
+        try {
+            // Primera posición del índice que ya no entra: ni antes del cursor ni antes de "hasta"
+            int k = Math.min(primeraNoMenor(cursorIngreso, cursorPlaca, tamano),
+                    primeraNoMenor(hasta, Long.MIN_VALUE, tamano));
+            List<Vehiculo> filas = new ArrayList<>(Math.min(limite + 1, k));
+            while (--k >= 0 && filas.size() <= limite) {
+                int i = porIngreso[k];
+                if (ingresos[i] < desde) {
+                    break;
+                }
+                if (estados[i] != ELIMINADA && (tipo < 0 || tipos[i] == tipo)) {
+                    filas.add(leer(i));
+                }
+            }
+            return PaginaHistorial.desde(filas, limite);
+        } finally {
+            candado.unlockRead(sello);
+        }
+    }
+
+    /**
+     * Las filas ya se arman como Vehiculo desde los arreglos; no hay una forma más liviana
+     */
+    @Override
+    public PaginaVistas buscarVistasHistorial(ConsultaHistorial consulta) {
+        return PaginaVistas.de(buscarHistorial(consulta));
+    }
+
+    /**
+     * En orden de ingreso al sistema; cada estancia se lee con su propio candado
+     * de lectura, así que la exportación no frena las escrituras
+     */
+    @Override
+    public Stream<Vehiculo> transmitirHistorial() {
+        int hastaPosicion;
+        long sello = candado.readLock();
+        try {
+            hastaPosicion = tamano;
+        } finally {
+            candado.unlockRead(sello);
+        }
+        return IntStream.range(0, hastaPosicion)
+                .mapToObj(this::leerSiVisible)
+                .filter(Objects::nonNull);
+    }
+
+    /**
+     * Copia consistente de todas las estancias visibles, en orden de ingreso al
+     * sistema. Bajo el candado solo se copian los arreglos; los Vehiculo se arman
+     * al recorrer el Stream, sin frenar las escrituras
+     */
+    public Stream<Vehiculo> copiarHistorial() {
+        long[] copiaPlacas;
+        byte[] copiaTipos;
+        long[] copiaIngresos;
+        long[] copiaSalidas;
+        int[] copiaCostos;
+        byte[] copiaEstados;
+        long sello = candado.readLock();
+        try {
+            copiaPlacas = Arrays.copyOf(placas, tamano);
+            copiaTipos = Arrays.copyOf(tipos, tamano);
+            copiaIngresos = Arrays.copyOf(ingresos, tamano);
+            copiaSalidas = Arrays.copyOf(salidas, tamano);
+            copiaCostos = Arrays.copyOf(costos, tamano);
+            copiaEstados = Arrays.copyOf(estados, tamano);
+        } finally {
+            candado.unlockRead(sello);
+        }
+        return IntStream.range(0, copiaPlacas.length)
+                .filter(i -> copiaEstados[i] != ELIMINADA)
+                .mapToObj(i -> armar(copiaPlacas[i], copiaTipos[i], copiaIngresos[i],
+                        copiaSalidas[i], copiaCostos[i], copiaEstados[i]));
+    }
+
+    @Override
+    public void eliminar(String placa) {
+        long codigo = PlacaCodificada.codificar(placa);
+        if (codigo == PlacaCodificada.NO_REPRESENTABLE) {
+            return;
+        }
+        long sello = candado.writeLock();
+        try {
+            for (int i = ultimaPorPlaca.obtener(codigo); i != MapaPlacas.AUSENTE && i != SIN_ANTERIOR; i = anteriores[i]) {
+                if (estados[i] == ACTIVA) {
+                    activas--;
+                }
+                estados[i] = ELIMINADA;
+            }
+            ultimaPorPlaca.quitar(codigo);
+        } finally {
+            candado.unlockWrite(sello);
+        }
+    }
+
+    private int agregar(long placa, Vehiculo vehiculo, int anterior) {
+        if (tamano == placas.length) {
+            int capacidad = placas.length * 2;
+            placas = Arrays.copyOf(placas, capacidad);
+            tipos = Arrays.copyOf(tipos, capacidad);
+            ingresos = Arrays.copyOf(ingresos, capacidad);
+            salidas = Arrays.copyOf(salidas, capacidad);
+            costos = Arrays.copyOf(costos, capacidad);
+            estados = Arrays.copyOf(estados, capacidad);
+            anteriores = Arrays.copyOf(anteriores, capacidad);
+            porIngreso = Arrays.copyOf(porIngreso, capacidad);
+        }
+        int i = tamano++;
+        placas[i] = placa;
+        tipos[i] = (byte) vehiculo.getTipo().ordinal();
+        ingresos[i] = segundos(vehiculo.getFechaIngreso());
+        salidas[i] = SIN_SALIDA;
+        costos[i] = SIN_COSTO;
+        estados[i] = ACTIVA;
+        anteriores[i] = anterior == MapaPlacas.AUSENTE ? SIN_ANTERIOR : anterior;
+        activas++;
+        ultimaPorPlaca.poner(placa, i);
+        indexar(i);
+        return i;
+    }
+
+    /**
+     * Lo normal es ingresar con la hora actual, así que la posición nueva suele
+     * ir al final del índice; una fecha vieja (guardar) desplaza lo que le sigue
+     */
+    private void indexar(int i) {
+        int k = i;
+        if (k > 0 && compararOrden(i, porIngreso[k - 1]) <= 0) {
+            k = primeraNoMenor(ingresos[i], placas[i], i);
+            System.arraycopy(porIngreso, k, porIngreso, k + 1, i - k);
+        }
+        porIngreso[k] = i;
+    }
+
+    /**
+     * Primera posición del índice cuya estancia no va antes de (ingreso, placa),
+     * entre las primeras "indexadas"
+     */
+    private int primeraNoMenor(long ingreso, long placa, int indexadas) {
+        int bajo = 0;
+        int alto = indexadas;
+        while (bajo < alto) {
+            int medio = (bajo + alto) >>> 1;
+            int i = porIngreso[medio];
+            if (compararOrden(ingresos[i], placas[i], ingreso, placa) < 0) {
+                bajo = medio + 1;
+            } else {
+                alto = medio;
+            }
+        }
+        return bajo;
+    }
+
+    private void cerrar(int i, Vehiculo vehiculoSalida) {
+        if (estados[i] == ACTIVA) {
+            activas--;
+        }
+        salidas[i] = vehiculoSalida.getFechaSalida() != null ? segundos(vehiculoSalida.getFechaSalida()) : SIN_SALIDA;
+        costos[i] = vehiculoSalida.getCosto() != null ? vehiculoSalida.getCosto() : SIN_COSTO;
+        estados[i] = CERRADA;
+    }
+
+    private Vehiculo leerSiVisible(int i) {
+        long sello = candado.readLock();
+        try {
+            return estados[i] == ELIMINADA ? null : leer(i);
+        } finally {
+            candado.unlockRead(sello);
+        }
+    }
+
+    private Vehiculo leer(int i) {
+        return armar(placas[i], tipos[i], ingresos[i], salidas[i], costos[i], estados[i]);
+    }
+
+    private static Vehiculo armar(long placa, byte tipo, long ingreso, long salida, int costo, byte estado) {
+        return Vehiculo.builder()
+                .placa(PlacaCodificada.decodificar(placa))
+                .tipo(TIPOS[tipo])
+                .fechaIngreso(fecha(ingreso))
+                .fechaSalida(salida == SIN_SALIDA ? null : fecha(salida))
+                .activo(estado == ACTIVA)
+                .costo(costo == SIN_COSTO ? null : costo)
+                .build();
+    }
+
+    /** Positivo si la estancia i va antes que la j en el historial (más reciente primero) */
+    private int compararOrden(int i, int j) {
+        return compararOrden(ingresos[i], placas[i], ingresos[j], placas[j]);
+    }
+
+    private static int compararOrden(long ingresoA, long placaA, long ingresoB, long placaB) {
+        int porIngreso = Long.compare(ingresoA, ingresoB);
+        return porIngreso != 0 ? porIngreso : Long.compare(placaA, placaB);
+    }
+
+    private static long codificarParaEscribir(String placa) {
+        long codigo = PlacaCodificada.codificar(placa);
+        if (codigo == PlacaCodificada.NO_REPRESENTABLE) {
+            throw new IllegalArgumentException("La placa " + placa + " debe ser alfanumérica de hasta 7 caracteres");
+        }
+        return codigo;
+    }
+
+    private static long segundos(LocalDateTime fecha) {
+        return fecha.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static LocalDateTime fecha(long segundos) {
+        return LocalDateTime.ofEpochSecond(segundos, 0, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,89 @@
+package demo.app.demogradle.infrastructure.persistence.mvstore;
+
+import demo.app.demogradle.domain.model.TipoVehiculo;
+import demo.app.demogradle.domain.model.Vehiculo;
+import demo.app.demogradle.infrastructure.persistence.memoria.PlacaCodificada;
+import org.h2.mvstore.WriteBuffer;
+import org.h2.mvstore.type.BasicDataType;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Una estancia como valor del MVStore, en 37 bytes fijos
+ * <pre>
+ *  0  long  placa codificada (PlacaCodificada)
+ *  8  byte  tipo (ordinal); bit 7 = activa
+ *  9  long  ingreso: segundos desde 1970, tomando la hora local como UTC
+ * 17  int   ingreso: nanos
+ * 21  long  salida: segundos, Long.MIN_VALUE si no hay
+ * 29  int   salida: nanos
+ * 33  int   costo, Integer.MIN_VALUE si no hay
+ * </pre>
+ * - Sin serialización de Java ni texto: leer una estancia es leer cinco números
+ * - La placa debe ser representable; el adaptador lo valida antes de escribir,
+ *   porque la serialización ocurre al confirmar y ahí ya no se puede rechazar
+ */
+final class EstanciaDataType extends BasicDataType<Vehiculo> {
+
+    static final EstanciaDataType INSTANCIA = new EstanciaDataType();
+
+    /** Vehiculo + dos LocalDateTime + String de la placa, aproximado */
+    private static final int MEMORIA_ESTIMADA = 160;
+    private static final int ACTIVA = 0x80;
+    private static final TipoVehiculo[] TIPOS = TipoVehiculo.values();
+
+    private EstanciaDataType() {
+    }
+
+    @Override
+    public int getMemory(Vehiculo estancia) {
+        return MEMORIA_ESTIMADA;
+    }
+
+    @Override
+    public void write(WriteBuffer buff, Vehiculo estancia) {
+        buff.putLong(PlacaCodificada.codificar(estancia.getPlaca()));
+        buff.put((byte) (estancia.getTipo().ordinal() | (estancia.isActivo() ? ACTIVA : 0)));
+        escribirFecha(buff, estancia.getFechaIngreso());
+        escribirFecha(buff, estancia.getFechaSalida());
+        buff.putInt(estancia.getCosto() != null ? estancia.getCosto() : Integer.MIN_VALUE);
+    }
+
+    @Override
+    public Vehiculo read(ByteBuffer buff) {
+        String placa = PlacaCodificada.decodificar(buff.getLong());
+        int tipoYEstado = buff.get() & 0xFF;
+        LocalDateTime ingreso = leerFecha(buff);
+        LocalDateTime salida = leerFecha(buff);
+        int costo = buff.getInt();
+        return Vehiculo.builder()
+                .placa(placa)
+                .tipo(TIPOS[tipoYEstado & ~ACTIVA])
+                .fechaIngreso(ingreso)
+                .fechaSalida(salida)
+                .activo((tipoYEstado & ACTIVA) != 0)
+                .costo(costo != Integer.MIN_VALUE ? costo : null)
+                .build();
+    }
+
+    @Override
+    public Vehiculo[] createStorage(int size) {
+        return new Vehiculo[size];
+    }
+
+    private static void escribirFecha(WriteBuffer buff, LocalDateTime fecha) {
+        if (fecha == null) {
+            buff.putLong(Long.MIN_VALUE).putInt(0);
+        } else {
+            buff.putLong(fecha.toEpochSecond(ZoneOffset.UTC)).putInt(fecha.getNano());
+        }
+    }
+
+    private static LocalDateTime leerFecha(ByteBuffer buff) {
+        long segundos = buff.getLong();
+        int nanos = buff.getInt();
+        return segundos == Long.MIN_VALUE ? null : LocalDateTime.ofEpochSecond(segundos, nanos, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,440 @@
+package demo.app.demogradle.infrastructure.persistence.mvstore;
+
+import demo.app.demogradle.domain.model.ConsultaHistorial;
+import demo.app.demogradle.domain.model.CursorHistorial;
+import demo.app.demogradle.domain.model.PaginaHistorial;
+import demo.app.demogradle.domain.model.PaginaVistas;
+import demo.app.demogradle.domain.model.Vehiculo;
+import demo.app.demogradle.domain.port.out.VehiculoRepository;
+import demo.app.demogradle.domain.port.out.VehiculoVistasRepository;
+import demo.app.demogradle.infrastructure.persistence.config.PersistenciaConfig;
+import demo.app.demogradle.infrastructure.persistence.memoria.PlacaCodificada;
+import lombok.extern.slf4j.Slf4j;
+import org.h2.mvstore.MVMap;
+import org.h2.mvstore.MVStore;
+import org.h2.mvstore.type.StringDataType;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * ADAPTADOR MVSTORE del puerto de salida (perfil "mvstore")
+ * - Usa el almacén llave-valor de H2 directamente: ni SQL, ni JDBC, ni JPA
+ * - estancias: "PLACA:orden" → estancia. La llave agrupa las estancias de cada
+ *   placa en orden de registro, así la última se encuentra con una sola búsqueda
+ * - activas: placa → llave de su estancia activa
+ * - porIngreso: (fecha de ingreso, placa, orden) → llave, para paginar el
+ *   historial por rangos, de la más reciente hacia atrás
+ * - Sin commits de fondo: cada escritura cambia los mapas bajo un candado y termina
+ *   en un commit explícito antes de confirmar al llamador, así que un commit nunca
+ *   guarda un mapa a medias. El archivo es copy-on-write con sumas de
+ *   verificación: tras una caída abre en el último commit completo, sin revisar nada
+ * - Con sincronizar-cada-escritura, además se fuerza a disco (sobrevive a un
+ *   corte de energía, no solo a la caída del proceso)
+ * - Las placas se validan antes de tocar los mapas; si aun así algo falla, el
+ *   almacén vuelve al último commit
+ * - Las lecturas van directo a los mapas, sin candado; los valores ya leídos
+ *   quedan en la caché de páginas como objetos, sin volver a deserializarse
+ */
+@Slf4j
+@Component
+@Qualifier(PersistenciaConfig.ADAPTADOR)
+@ConditionalOnProperty(name = PersistenciaConfig.PROPIEDAD_ADAPTADOR, havingValue = "mvstore")
+public class VehiculoRepositoryMvStoreAdapter implements VehiculoRepository, VehiculoVistasRepository, AutoCloseable {
+
+    /**
+     * ':' y ';' quedan entre los dígitos y las letras: ninguna otra placa cae entre
+     * "ABC123:" y "ABC123;", así que las llaves de una placa son contiguas
+     */
+    private static final char SEPARADOR = ':';
+    private static final char FIN_PLACA = ';';
+    private static final int DIGITOS_ORDEN = 19;
+    private static final int LARGO_PLACA = 7;
+    /** Corre los segundos para que también un ingreso anterior a 1970 ocupe 12 dígitos */
+    private static final long DESPLAZAMIENTO_SEGUNDOS = 100_000_000_000L;
+    private static final String ULTIMO_ORDEN = "ultimoOrden";
+
+    private final MVStore almacen;
+    private final MVMap<String, Vehiculo> estancias;
+    private final MVMap<String, String> activas;
+    private final MVMap<String, String> porIngreso;
+    private final MVMap<String, String> contadores;
+    private final boolean sincronizarCadaEscritura;
+    private final ReentrantLock escritura = new ReentrantLock();
+    private long ultimoOrden;
+
+    public VehiculoRepositoryMvStoreAdapter(
+            @Value("${parqueadero.persistencia.mvstore.archivo:datos/parqueadero.mv}") Path archivo,
+            @Value("${parqueadero.persistencia.mvstore.cache:16MB}") DataSize cache,
+            @Value("${parqueadero.persistencia.mvstore.sincronizar-cada-escritura:true}") boolean sincronizarCadaEscritura) {
+        try {
+            Path directorio = archivo.toAbsolutePath().getParent();
+            if (directorio != null) {
+                Files.createDirectories(directorio);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.sincronizarCadaEscritura = sincronizarCadaEscritura;
+        this.almacen = new MVStore.Builder()
+                .fileName(archivo.toString())
+                .cacheSize(Math.max(1, (int) cache.toMegabytes()))
+                .autoCommitDisabled()
+                .open();
+        this.estancias = almacen.openMap("estancias", new MVMap.Builder<String, Vehiculo>()
+                .keyType(StringDataType.INSTANCE)
+                .valueType(EstanciaDataType.INSTANCIA));
+        this.activas = almacen.openMap("activas", new MVMap.Builder<String, String>()
+                .keyType(StringDataType.INSTANCE)
+                .valueType(StringDataType.INSTANCE));
+        this.porIngreso = almacen.openMap("porIngreso", new MVMap.Builder<String, String>()
+                .keyType(StringDataType.INSTANCE)
+                .valueType(StringDataType.INSTANCE));
+        this.contadores = almacen.openMap("contadores", new MVMap.Builder<String, String>()
+                .keyType(StringDataType.INSTANCE)
+                .valueType(StringDataType.INSTANCE));
+        this.ultimoOrden = leerUltimoOrden();
+        log.info("MVStore {} abierto: {} estancias, {} activas", archivo, estancias.size(), activas.size());
+    }
+
+    /**
+     * Un vehículo activo abre una estancia nueva; uno inactivo cierra la estancia
+     * activa de su placa, o se agrega ya cerrado si la placa no tenía una
+     */
+    @Override
+    public Vehiculo guardar(Vehiculo vehiculo) {
+        String placa = validar(vehiculo.getPlaca());
+        return escribir(() -> {
+            String activa = activas.get(placa);
+            if (vehiculo.isActivo() && activa != null) {
+                throw new IllegalStateException("Ya existe una estancia activa para la placa " + placa);
+            }
+            if (!vehiculo.isActivo() && activa != null) {
+                cerrar(placa, activa, vehiculo);
+            } else {
+                insertar(placa, vehiculo);
+            }
+            return vehiculo;
+        });
+    }
+
+    @Override
+    public boolean registrarIngreso(Vehiculo vehiculo) {
+        validar(vehiculo.getPlaca());
+        return escribir(() -> ingresar(vehiculo));
+    }
+
+    @Override
+    public boolean registrarSalida(Vehiculo vehiculoSalida) {
+        return escribir(() -> sacar(vehiculoSalida));
+    }
+
+    /**
+     * Todo el lote es un solo commit (y una sola sincronización): se guarda entero o nada
+     */
+    @Override
+    public boolean[] registrarIngresos(List<Vehiculo> vehiculos) {
+        vehiculos.forEach(vehiculo -> validar(vehiculo.getPlaca()));
+        return escribir(() -> {
+            boolean[] ingresados = new boolean[vehiculos.size()];
+            for (int i = 0; i < ingresados.length; i++) {
+                ingresados[i] = ingresar(vehiculos.get(i));
+            }
+            return ingresados;
+        });
+    }
+
+    @Override
+    public boolean[] registrarSalidas(List<Vehiculo> vehiculosSalida) {
+        return escribir(() -> {
+            boolean[] cerradas = new boolean[vehiculosSalida.size()];
+            for (int i = 0; i < cerradas.length; i++) {
+                cerradas[i] = sacar(vehiculosSalida.get(i));
+            }
+            return cerradas;
+        });
+    }
+
+    @Override
+    public Optional<Vehiculo> buscarPorPlaca(String placa) {
+        String normalizada = placa.toUpperCase();
+        String ultima = estancias.lowerKey(normalizada + FIN_PLACA);
+        if (ultima == null || !esDe(ultima, normalizada)) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(estancias.get(ultima));
+    }
+
+    @Override
+    public Optional<Vehiculo> buscarActivoPorPlaca(String placa) {
+        String llave = activas.get(placa.toUpperCase());
+        if (llave == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(estancias.get(llave)).filter(Vehiculo::isActivo);
+    }
+
+    @Override
+    public List<Vehiculo> buscarActivosPorPlacas(Collection<String> placas) {
+        Set<String> distintas = new LinkedHashSet<>();
+        placas.forEach(placa -> distintas.add(placa.toUpperCase()));
+        List<Vehiculo> encontradas = new ArrayList<>(distintas.size());
+        for (String placa : distintas) {
+            buscarActivoPorPlaca(placa).ifPresent(encontradas::add);
+        }
+        return encontradas;
+    }
+
+    @Override
+    public List<Vehiculo> buscarVehiculosActivos() {
+        List<Vehiculo> encontradas = new ArrayList<>(activas.size());
+        for (String llave : activas.values()) {
+            Vehiculo estancia = estancias.get(llave);
+            if (estancia != null && estancia.isActivo()) {
+                encontradas.add(estancia);
+            }
+        }
+        return encontradas;
+    }
+
+    @Override
+    public List<Vehiculo> buscarTodos() {
+        return new ArrayList<>(estancias.values());
+    }
+
+    /**
+     * Recorre porIngreso hacia atrás desde el cursor (o desde hasta) y se detiene al
+     * juntar limite + 1 filas o al pasar desde: cada página es una lectura por rango.
+     * El filtro por tipo se aplica sobre la marcha
+     */
+    @Override
+    public PaginaHistorial buscarHistorial(ConsultaHistorial consulta) {
+        int limite = consulta.getLimite();
+        String tope = null;
+        CursorHistorial cursor = consulta.getCursor();
+        if (cursor != null) {
+            tope = prefijoHistorial(cursor.getFechaIngreso(), cursor.getPlaca());
+        }
+        if (consulta.getHasta() != null) {
+            String hasta = prefijoHistorial(consulta.getHasta(), "");
+            if (tope == null || hasta.compareTo(tope) < 0) {
+                tope = hasta;
+            }
+        }
+        String piso = consulta.getDesde() != null ? prefijoHistorial(consulta.getDesde(), "") : null;
+
+        List<Vehiculo> filas = new ArrayList<>(limite + 1);
+        String clave = tope == null ? porIngreso.lastKey() : porIngreso.lowerKey(tope);
+        while (clave != null && filas.size() <= limite && (piso == null || clave.compareTo(piso) >= 0)) {
+            Vehiculo estancia = estancias.get(porIngreso.get(clave));
+            if (estancia != null && (consulta.getTipo() == null || estancia.getTipo() == consulta.getTipo())) {
+                filas.add(estancia);
+            }
+            clave = porIngreso.lowerKey(clave);
+        }
+        return PaginaHistorial.desde(filas, limite);
+    }
+
+    /**
+     * Las estancias salen del mapa ya como Vehiculo: no hay una forma más liviana
+     */
+    @Override
+    public PaginaVistas buscarVistasHistorial(ConsultaHistorial consulta) {
+        return PaginaVistas.de(buscarHistorial(consulta));
+    }
+
+    /**
+     * En orden de placa y, dentro de cada placa, de registro. El iterador recorre
+     * la versión del mapa vigente al empezar, sin frenar las escrituras
+     */
+    @Override
+    public Stream<Vehiculo> transmitirHistorial() {
+        return estancias.values().stream();
+    }
+
+    @Override
+    public void eliminar(String placa) {
+        String normalizada = placa.toUpperCase();
+        escribir(() -> {
+            List<String> llaves = new ArrayList<>();
+            Iterator<String> recorrido = estancias.keyIterator(normalizada + SEPARADOR);
+            while (recorrido.hasNext()) {
+                String llave = recorrido.next();
+                if (!esDe(llave, normalizada)) {
+                    break;
+                }
+                llaves.add(llave);
+            }
+            for (String llave : llaves) {
+                Vehiculo estancia = estancias.remove(llave);
+                porIngreso.remove(claveHistorial(estancia, llave));
+            }
+            activas.remove(normalizada);
+            return null;
+        });
+    }
+
+    /**
+     * Cierre ordenado: lo pendiente ya está confirmado, así que solo libera el archivo
+     */
+    @Override
+    public void close() {
+        escritura.lock();
+        try {
+            almacen.close();
+        } finally {
+            escritura.unlock();
+        }
+    }
+
+    /**
+     * Suelta el archivo sin escribir nada más, como si el proceso muriera (para pruebas)
+     */
+    void abandonar() {
+        almacen.closeImmediately();
+    }
+
+    /**
+     * Aplica los cambios bajo el candado y los confirma con un commit; si algo
+     * falla, el almacén vuelve al último commit y los mapas quedan como estaban
+     */
+    private <T> T escribir(Supplier<T> cambios) {
+        escritura.lock();
+        try {
+            T resultado = cambios.get();
+            if (almacen.hasUnsavedChanges()) {
+                almacen.commit();
+                if (sincronizarCadaEscritura) {
+                    almacen.sync();
+                }
+            }
+            return resultado;
+        } catch (RuntimeException e) {
+            almacen.rollback();
+            ultimoOrden = leerUltimoOrden();
+            throw e;
+        } finally {
+            escritura.unlock();
+        }
+    }
+
+    private boolean ingresar(Vehiculo vehiculo) {
+        String placa = vehiculo.getPlaca().toUpperCase();
+        if (activas.containsKey(placa)) {
+            return false;
+        }
+        insertar(placa, vehiculo);
+        return true;
+    }
+
+    private boolean sacar(Vehiculo vehiculoSalida) {
+        String placa = vehiculoSalida.getPlaca().toUpperCase();
+        String llave = activas.get(placa);
+        if (llave == null) {
+            return false;
+        }
+        cerrar(placa, llave, vehiculoSalida);
+        return true;
+    }
+
+    private void insertar(String placa, Vehiculo vehiculo) {
+        if (PlacaCodificada.codificar(placa) == PlacaCodificada.NO_REPRESENTABLE) {
+            throw new IllegalArgumentException("La placa " + placa + " debe ser alfanumérica de hasta 7 caracteres");
+        }
+        String llave = llave(placa, ++ultimoOrden);
+        estancias.put(llave, vehiculo);
+        porIngreso.put(claveHistorial(vehiculo, llave), llave);
+        contadores.put(ULTIMO_ORDEN, Long.toString(ultimoOrden));
+        if (vehiculo.isActivo()) {
+            activas.put(placa, llave);
+        }
+    }
+
+    /**
+     * Conserva placa, tipo e ingreso guardados; de la salida solo toma fecha y costo
+     */
+    private void cerrar(String placa, String llave, Vehiculo vehiculoSalida) {
+        Vehiculo activa = estancias.get(llave);
+        estancias.put(llave, Vehiculo.builder()
+                .placa(activa.getPlaca())
+                .tipo(activa.getTipo())
+                .fechaIngreso(activa.getFechaIngreso())
+                .fechaSalida(vehiculoSalida.getFechaSalida())
+                .activo(false)
+                .costo(vehiculoSalida.getCosto())
+                .build());
+        activas.remove(placa);
+    }
+
+    private long leerUltimoOrden() {
+        String ultimo = contadores.get(ULTIMO_ORDEN);
+        return ultimo == null ? 0 : Long.parseLong(ultimo);
+    }
+
+    private static String validar(String placa) {
+        String normalizada = placa.toUpperCase();
+        if (PlacaCodificada.codificar(normalizada) == PlacaCodificada.NO_REPRESENTABLE) {
+            throw new IllegalArgumentException("La placa " + placa + " debe ser alfanumérica de hasta 7 caracteres");
+        }
+        return normalizada;
+    }
+
+    /**
+     * Segundos y nanos de ingreso con ancho fijo, y la placa rellenada con espacios
+     * (menores que cualquier carácter de una placa): el orden de las cadenas es el
+     * de (fecha_ingreso, placa)
+     */
+    private static String prefijoHistorial(LocalDateTime ingreso, String placa) {
+        StringBuilder clave = new StringBuilder(32);
+        rellenar(clave, ingreso.toEpochSecond(ZoneOffset.UTC) + DESPLAZAMIENTO_SEGUNDOS, 12);
+        rellenar(clave, ingreso.getNano(), 9);
+        clave.append(placa);
+        for (int i = placa.length(); i < LARGO_PLACA; i++) {
+            clave.append(' ');
+        }
+        return clave.toString();
+    }
+
+    /**
+     * La llave principal al final desempata dos estancias con la misma fecha y placa
+     */
+    private static String claveHistorial(Vehiculo estancia, String llave) {
+        String placa = llave.substring(0, llave.indexOf(SEPARADOR));
+        return prefijoHistorial(estancia.getFechaIngreso(), placa) + llave.substring(placa.length());
+    }
+
+    private static void rellenar(StringBuilder destino, long numero, int digitos) {
+        String texto = Long.toString(numero);
+        destino.append("0".repeat(Math.max(0, digitos - texto.length()))).append(texto);
+    }
+
+    private static boolean esDe(String llave, String placa) {
+        return llave.length() > placa.length()
+                && llave.charAt(placa.length()) == SEPARADOR
+                && llave.startsWith(placa);
+    }
+
+    private static String llave(String placa, long orden) {
+        String numero = Long.toString(orden);
+        return placa + SEPARADOR + "0".repeat(DIGITOS_ORDEN - numero.length()) + numero;
+    }
+}
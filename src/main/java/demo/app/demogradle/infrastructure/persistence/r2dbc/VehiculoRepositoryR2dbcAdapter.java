@@ -0,0 +1,139 @@
+package demo.app.demogradle.infrastructure.persistence.r2dbc;
+
+import demo.app.demogradle.domain.model.TipoVehiculo;
+import demo.app.demogradle.domain.model.Vehiculo;
+import demo.app.demogradle.domain.port.out.VehiculoRepositoryReactivo;
+import demo.app.demogradle.infrastructure.persistence.config.PersistenciaConfig;
+import demo.app.demogradle.infrastructure.persistence.mapper.VehiculoRowMapper;
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+/**
+ * ADAPTADOR de salida no bloqueante: la misma tabla estancias, por R2DBC
+ * - Las sentencias son las del adaptador JPA (ingreso y salida condicionales en
+ *   una sola sentencia), enviadas con DatabaseClient sin entidades ni contexto de persistencia
+ * - Cada llamada toma una conexión del pool solo mientras la sentencia corre
+ * - r2dbc-h2 envuelve el motor embebido: cada sentencia corre en el hilo que se
+ *   suscribe, que queda tomado mientras H2 trabaja. Con un servidor de base de
+ *   datos y un driver de red el hilo sí quedaría libre
+ * - El esquema lo crea db/estancias.sql al arrancar (no hay Hibernate en este perfil)
+ */
+@Component
+@ConditionalOnProperty(name = PersistenciaConfig.PROPIEDAD_ADAPTADOR, havingValue = "r2dbc")
+@RequiredArgsConstructor
+public class VehiculoRepositoryR2dbcAdapter implements VehiculoRepositoryReactivo {
+
+    private static final String SQL_INGRESO_CONDICIONAL =
+            "INSERT INTO estancias (id, placa, tipo, fecha_ingreso, activo, placa_activa) "
+                    + "SELECT NEXT VALUE FOR estancias_seq, :placa, :tipo, :fechaIngreso, TRUE, :placaActiva "
+                    + "WHERE NOT EXISTS (SELECT 1 FROM estancias WHERE placa_activa = :placaExistente)";
+
+    /** La fecha de ingreso fija la estancia leída; placa_activa sola podría ser una más nueva */
+    private static final String SQL_SALIDA_CONDICIONAL =
+            "UPDATE estancias SET activo = FALSE, fecha_salida = :fechaSalida, costo = :costo, "
+                    + "placa_activa = NULL, version = version + 1 "
+                    + "WHERE placa_activa = :placa AND fecha_ingreso = :fechaIngreso AND activo = TRUE";
+
+    private static final String SQL_ULTIMA_POR_PLACA =
+            "SELECT " + VehiculoRowMapper.COLUMNAS + " FROM estancias WHERE placa = :placa "
+                    + "ORDER BY fecha_ingreso DESC LIMIT 1";
+
+    private static final String SQL_ACTIVA_POR_PLACA =
+            "SELECT " + VehiculoRowMapper.COLUMNAS + " FROM estancias WHERE placa_activa = :placa";
+
+    private static final String SQL_ACTIVAS =
+            "SELECT " + VehiculoRowMapper.COLUMNAS + " FROM estancias WHERE activo = TRUE";
+
+    private static final String SQL_EXPORTAR_HISTORIAL =
+            "SELECT " + VehiculoRowMapper.COLUMNAS + " FROM estancias ORDER BY id";
+
+    private final DatabaseClient databaseClient;
+
+    /**
+     * La condición deja la fila sin insertar si ya hay una activa; si otro ingreso
+     * gana entre la condición y el INSERT, lo rechaza la restricción única
+     */
+    @Override
+    public Mono<Boolean> registrarIngreso(Vehiculo vehiculo) {
+        return databaseClient.sql(SQL_INGRESO_CONDICIONAL)
+                .bind("placa", vehiculo.getPlaca())
+                .bind("tipo", vehiculo.getTipo().name())
+                .bind("fechaIngreso", vehiculo.getFechaIngreso())
+                .bind("placaActiva", vehiculo.getPlaca())
+                .bind("placaExistente", vehiculo.getPlaca())
+                .fetch()
+                .rowsUpdated()
+                .map(filas -> filas == 1)
+                .onErrorReturn(DataIntegrityViolationException.class, false);
+    }
+
+    @Override
+    public Mono<Boolean> registrarSalida(Vehiculo vehiculoSalida) {
+        return databaseClient.sql(SQL_SALIDA_CONDICIONAL)
+                .bind("fechaSalida", vehiculoSalida.getFechaSalida())
+                .bind("costo", vehiculoSalida.getCosto())
+                .bind("placa", vehiculoSalida.getPlaca().toUpperCase())
+                .bind("fechaIngreso", vehiculoSalida.getFechaIngreso())
+                .fetch()
+                .rowsUpdated()
+                .map(filas -> filas == 1);
+    }
+
+    @Override
+    public Mono<Vehiculo> buscarPorPlaca(String placa) {
+        return databaseClient.sql(SQL_ULTIMA_POR_PLACA)
+                .bind("placa", placa.toUpperCase())
+                .map(VehiculoRepositoryR2dbcAdapter::mapear)
+                .one();
+    }
+
+    @Override
+    public Mono<Vehiculo> buscarActivoPorPlaca(String placa) {
+        return databaseClient.sql(SQL_ACTIVA_POR_PLACA)
+                .bind("placa", placa.toUpperCase())
+                .map(VehiculoRepositoryR2dbcAdapter::mapear)
+                .one();
+    }
+
+    @Override
+    public Flux<Vehiculo> buscarVehiculosActivos() {
+        return databaseClient.sql(SQL_ACTIVAS)
+                .map(VehiculoRepositoryR2dbcAdapter::mapear)
+                .all();
+    }
+
+    /**
+     * Las filas se emiten según la demanda del suscriptor. H2 construye el
+     * resultado completo antes de la primera fila salvo con LAZY_QUERY_EXECUTION=1
+     * en la URL (ver application-reactivo.properties); aun así, cada fila se lee
+     * en el hilo que la pide y ese hilo queda tomado mientras H2 la produce
+     */
+    @Override
+    public Flux<Vehiculo> transmitirHistorial() {
+        return databaseClient.sql(SQL_EXPORTAR_HISTORIAL)
+                .map(VehiculoRepositoryR2dbcAdapter::mapear)
+                .all();
+    }
+
+    /**
+     * Igual que VehiculoRowMapper, sobre una fila de R2DBC
+     */
+    private static Vehiculo mapear(Readable fila) {
+        return Vehiculo.builder()
+                .placa(fila.get("placa", String.class))
+                .tipo(TipoVehiculo.valueOf(fila.get("tipo", String.class)))
+                .fechaIngreso(fila.get("fecha_ingreso", LocalDateTime.class))
+                .fechaSalida(fila.get("fecha_salida", LocalDateTime.class))
+                .activo(Boolean.TRUE.equals(fila.get("activo", Boolean.class)))
+                .costo(fila.get("costo", Integer.class))
+                .build();
+    }
+}
@@ -0,0 +1,25 @@
+package demo.app.demogradle.infrastructure.persistence.repository;
+
+import demo.app.demogradle.domain.model.TipoVehiculo;
+import demo.app.demogradle.domain.model.VistaEstancia;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Proyección por constructor (SELECT new ...) de una fila de estancias
+ * - Hibernate la arma desde las columnas: no hay entidad administrada, ni
+ *   estado cargado, ni entrada en el contexto de persistencia
+ * - Llega hasta la respuesta como VistaEstancia, sin pasar por Vehiculo
+ */
+@Getter
+@AllArgsConstructor
+public class EstanciaProyeccion implements VistaEstancia {
+    private final String placa;
+    private final TipoVehiculo tipo;
+    private final LocalDateTime fechaIngreso;
+    private final LocalDateTime fechaSalida;
+    private final boolean activo;
+    private final Integer costo;
+}
@@ -1,15 +1,83 @@
 package demo.app.demogradle.infrastructure.persistence.repository;
 
 import demo.app.demogradle.infrastructure.persistence.entity.VehiculoEntity;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface VehiculoJpaRepository extends JpaRepository<VehiculoEntity, String> {
+public interface VehiculoJpaRepository extends JpaRepository<VehiculoEntity, Long>,
+        JpaSpecificationExecutor<VehiculoEntity>, VehiculoProyecciones {
     
     @Query("SELECT v FROM VehiculoEntity v WHERE v.activo = true")
     List<VehiculoEntity> findByActivoTrue();
+
+    /**
+     * Estancia activa de la placa, resuelta por el índice único de placa_activa
+     * sin recorrer el historial
+     */
+    Optional<VehiculoEntity> findByPlacaActiva(String placaActiva);
+
+    /**
+     * Igual que findByPlacaActiva pero con SELECT ... FOR UPDATE: la fila queda
+     * bloqueada hasta que termine la transacción que la llama
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT v FROM VehiculoEntity v WHERE v.placaActiva = :placa")
+    Optional<VehiculoEntity> bloquearPorPlacaActiva(@Param("placa") String placa);
+
+    /**
+     * Estancias activas de varias placas en una sola consulta sobre el índice de placa_activa
+     */
+    List<VehiculoEntity> findByPlacaActivaIn(Collection<String> placasActivas);
+
+    /**
+     * Última estancia de la placa, resuelta por el índice (placa, fecha_ingreso)
+     */
+    Optional<VehiculoEntity> findFirstByPlacaOrderByFechaIngresoDesc(String placa);
+
+    /**
+     * Ingreso en una sola sentencia: el id sale de la secuencia dentro del mismo INSERT
+     * y el índice único de placa_activa rechaza una segunda estancia activa
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO estancias (id, placa, tipo, fecha_ingreso, activo, placa_activa) "
+            + "VALUES (NEXT VALUE FOR estancias_seq, :placa, :tipo, :fechaIngreso, TRUE, :placa)",
+            nativeQuery = true)
+    int insertarEstanciaActiva(@Param("placa") String placa,
+                               @Param("tipo") String tipo,
+                               @Param("fechaIngreso") LocalDateTime fechaIngreso);
+
+    /**
+     * Salida condicional: solo actualiza si la estancia leída sigue activa y devuelve
+     * cuántas filas cambió (0 si otra salida ganó la carrera). La fecha de ingreso
+     * fija esa estancia: placa_activa sola podría ser una más nueva abierta por otra
+     * instancia
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE VehiculoEntity v SET v.activo = false, v.fechaSalida = :fechaSalida, v.costo = :costo, "
+            + "v.placaActiva = NULL, v.version = v.version + 1 "
+            + "WHERE v.placaActiva = :placa AND v.fechaIngreso = :fechaIngreso AND v.activo = true")
+    int cerrarEstanciaActiva(@Param("placa") String placa,
+                             @Param("fechaIngreso") LocalDateTime fechaIngreso,
+                             @Param("fechaSalida") LocalDateTime fechaSalida,
+                             @Param("costo") Integer costo);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM VehiculoEntity v WHERE v.placa = :placa")
+    int deleteByPlaca(@Param("placa") String placa);
 }
@@ -0,0 +1,16 @@
+package demo.app.demogradle.infrastructure.persistence.repository;
+
+import demo.app.demogradle.domain.model.ConsultaHistorial;
+
+import java.util.List;
+
+/**
+ * Fragmento de VehiculoJpaRepository con las lecturas que devuelven proyecciones
+ */
+public interface VehiculoProyecciones {
+
+    /**
+     * Mismos predicados y orden que VehiculoSpecifications.historial, hasta filas resultados
+     */
+    List<EstanciaProyeccion> proyectarHistorial(ConsultaHistorial consulta, int filas);
+}
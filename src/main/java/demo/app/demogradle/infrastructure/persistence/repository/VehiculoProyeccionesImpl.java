@@ -0,0 +1,44 @@
+package demo.app.demogradle.infrastructure.persistence.repository;
+
+import demo.app.demogradle.domain.model.ConsultaHistorial;
+import demo.app.demogradle.infrastructure.persistence.entity.VehiculoEntity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Implementación del fragmento (Spring Data la encuentra por el sufijo Impl)
+ * - Reutiliza la especificación del historial, pero selecciona columnas con
+ *   cb.construct en vez de la entidad completa
+ */
+class VehiculoProyeccionesImpl implements VehiculoProyecciones {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<EstanciaProyeccion> proyectarHistorial(ConsultaHistorial consulta, int filas) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<EstanciaProyeccion> query = cb.createQuery(EstanciaProyeccion.class);
+        Root<VehiculoEntity> root = query.from(VehiculoEntity.class);
+        query.select(cb.construct(EstanciaProyeccion.class,
+                        root.get("placa"),
+                        root.get("tipo"),
+                        root.get("fechaIngreso"),
+                        root.get("fechaSalida"),
+                        root.get("activo"),
+                        root.get("costo")))
+                .where(VehiculoSpecifications.historial(consulta).toPredicate(root, query, cb))
+                .orderBy(QueryUtils.toOrders(VehiculoSpecifications.ORDEN_HISTORIAL, root, cb));
+        return entityManager.createQuery(query)
+                .setMaxResults(filas)
+                .getResultList();
+    }
+}
@@ -0,0 +1,54 @@
+package demo.app.demogradle.infrastructure.persistence.repository;
+
+import demo.app.demogradle.domain.model.ConsultaHistorial;
+import demo.app.demogradle.domain.model.CursorHistorial;
+import demo.app.demogradle.infrastructure.persistence.entity.VehiculoEntity;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Criterios JPA para recorrer el historial por llave (keyset)
+ * Solo agrega los predicados de los filtros presentes, para que cada
+ * combinación pueda resolverse con su índice
+ */
+public final class VehiculoSpecifications {
+
+    public static final Sort ORDEN_HISTORIAL = Sort.by(
+            Sort.Order.desc("fechaIngreso"),
+            Sort.Order.desc("placa"));
+
+    private VehiculoSpecifications() {
+    }
+
+    public static Specification<VehiculoEntity> historial(ConsultaHistorial consulta) {
+        return (root, query, cb) -> {
+            List<Predicate> predicados = new ArrayList<>();
+
+            if (consulta.getTipo() != null) {
+                predicados.add(cb.equal(root.get("tipo"), consulta.getTipo()));
+            }
+            if (consulta.getDesde() != null) {
+                predicados.add(cb.greaterThanOrEqualTo(root.get("fechaIngreso"), consulta.getDesde()));
+            }
+            if (consulta.getHasta() != null) {
+                predicados.add(cb.lessThan(root.get("fechaIngreso"), consulta.getHasta()));
+            }
+
+            CursorHistorial cursor = consulta.getCursor();
+            if (cursor != null) {
+                // (fecha_ingreso, placa) < (:fecha, :placa) en orden descendente
+                predicados.add(cb.or(
+                        cb.lessThan(root.get("fechaIngreso"), cursor.getFechaIngreso()),
+                        cb.and(
+                                cb.equal(root.get("fechaIngreso"), cursor.getFechaIngreso()),
+                                cb.lessThan(root.get("placa"), cursor.getPlaca()))));
+            }
+
+            return cb.and(predicados.toArray(Predicate[]::new));
+        };
+    }
+}
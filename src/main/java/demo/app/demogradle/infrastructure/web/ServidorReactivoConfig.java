@@ -0,0 +1,23 @@
+package demo.app.demogradle.infrastructure.web;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Servidor de la pila WebFlux (perfil reactivo)
+ * - Tomcat sigue en el classpath por la pila servlet, y Spring Boot lo preferiría
+ *   también para WebFlux; se fija Netty, que atiende todas las conexiones con
+ *   un hilo por núcleo
+ * - server.port y demás propiedades server.* se aplican igual
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ServidorReactivoConfig {
+
+    @Bean
+    public NettyReactiveWebServerFactory servidorNetty() {
+        return new NettyReactiveWebServerFactory();
+    }
+}
@@ -0,0 +1,20 @@
+-- Tabla estancias para los perfiles sin Hibernate que la genere (reactivo, jdbc).
+-- Mismas columnas, restricciones e índices que VehiculoEntity
+CREATE SEQUENCE IF NOT EXISTS estancias_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS estancias (
+    id            BIGINT       NOT NULL PRIMARY KEY,
+    placa         VARCHAR(7)   NOT NULL,
+    tipo          VARCHAR(16)  NOT NULL,
+    fecha_ingreso TIMESTAMP(6) NOT NULL,
+    fecha_salida  TIMESTAMP(6),
+    activo        BOOLEAN,
+    costo         INTEGER,
+    placa_activa  VARCHAR(7),
+    version       BIGINT       DEFAULT 0 NOT NULL,
+    CONSTRAINT uk_estancias_placa_activa UNIQUE (placa_activa)
+);
+
+CREATE INDEX IF NOT EXISTS idx_estancias_placa_fecha_ingreso ON estancias (placa, fecha_ingreso DESC);
+CREATE INDEX IF NOT EXISTS idx_estancias_fecha_ingreso_placa ON estancias (fecha_ingreso DESC, placa DESC);
+CREATE INDEX IF NOT EXISTS idx_estancias_tipo_fecha_ingreso ON estancias (tipo, fecha_ingreso DESC, placa DESC);
@@ -3,17 +3,26 @@ package demo.app.demogradle.application.controller;
 import demo.app.demogradle.DemoGradleApplication;
 import demo.app.demogradle.application.dto.IngresoVehiculoRequest;
 import demo.app.demogradle.domain.model.TipoVehiculo;
+import demo.app.demogradle.infrastructure.persistence.diagnostico.ContadorSentenciasSql;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayInputStream;
+import java.util.zip.GZIPInputStream;
 
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -27,7 +36,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
  * - Base de datos H2 real (pero en memoria)
  * - Serialización/Deserialización JSON real
  * - Validaciones (@Valid) reales
- * - Transacciones reales
+ * - Transacciones reales (cada petición confirma su propia transacción)
  *
  * 🎯 QUÉ ESTAMOS PROBANDO:
  * - Flujo completo: HTTP → Controller → UseCase → Service → Repository → DB
@@ -40,12 +49,14 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
  * - @SpringBootTest: Carga el contexto completo de Spring (resuelve DI)
  * - @AutoConfigureMockMvc: Configura MockMvc para pruebas HTTP
  * - @ActiveProfiles("test"): Usa configuración específica de test
- * - @Transactional: Maneja transacciones de BD en tests
+ * - @DirtiesContext: Cada test arranca con base de datos limpia; no se usa
+ *   @Transactional porque la exportación NDJSON lee desde otro hilo y otra
+ *   conexión, y no vería datos sin confirmar
  */
 @SpringBootTest
 @AutoConfigureMockMvc
 @ActiveProfiles("test")
-@Transactional
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
 class ParqueaderoControllerE2ETest {
 
   @Autowired
@@ -78,6 +89,34 @@ class ParqueaderoControllerE2ETest {
         .andExpect(jsonPath("$.costo").isEmpty());
   }
 
+  /**
+   * E2E TEST: Costo del ingreso en base de datos
+   * El ingreso debe resolverse con una sola sentencia SQL, también cuando se rechaza
+   */
+  @Test
+  void deberiaIngresarConUnaSolaSentenciaSqlE2E() throws Exception {
+    // Given - ARRANGE
+    IngresoVehiculoRequest request = new IngresoVehiculoRequest();
+    request.setPlaca("SQL123");
+    request.setTipo(TipoVehiculo.CARRO);
+    String cuerpo = objectMapper.writeValueAsString(request);
+
+    // When & Then - ACT & ASSERT
+    ContadorSentenciasSql.reiniciar();
+    mockMvc.perform(post("/api/parqueadero/ingresar")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(cuerpo))
+        .andExpect(status().isCreated());
+    assertEquals(1, ContadorSentenciasSql.total());
+
+    ContadorSentenciasSql.reiniciar();
+    mockMvc.perform(post("/api/parqueadero/ingresar")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(cuerpo))
+        .andExpect(status().isConflict());
+    assertEquals(1, ContadorSentenciasSql.total());
+  }
+
   /**
    * E2E TEST: Validación de entrada real
    * Prueba @Valid en controller con datos inválidos
@@ -118,7 +157,9 @@ class ParqueaderoControllerE2ETest {
     mockMvc.perform(post("/api/parqueadero/ingresar")
             .contentType(MediaType.APPLICATION_JSON)
             .content(objectMapper.writeValueAsString(request)))
-        .andExpect(status().isConflict()); // 409 Conflict
+        .andExpect(status().isConflict()) // 409 Conflict
+        .andExpect(jsonPath("$.codigo").value(409))
+        .andExpect(jsonPath("$.mensaje").value("El vehículo ya está en el parqueadero"));
   }
 
   /**
@@ -146,7 +187,9 @@ class ParqueaderoControllerE2ETest {
 
     // Step 3: Intentar calcular costo (debe fallar - vehículo activo)
     mockMvc.perform(get("/api/parqueadero/costo/FLOW123"))
-        .andExpect(status().isBadRequest()); // 400 Bad Request
+        .andExpect(status().isBadRequest()) // 400 Bad Request
+        .andExpect(jsonPath("$.codigo").value(400))
+        .andExpect(jsonPath("$.mensaje").value(startsWith("El vehículo aún está en el parqueadero")));
 
     // Step 4: Sacar vehículo
     mockMvc.perform(put("/api/parqueadero/sacar/FLOW123"))
@@ -175,10 +218,13 @@ class ParqueaderoControllerE2ETest {
   void deberiaRetornar404ParaVehiculoNoExistenteE2E() throws Exception {
     // When & Then - ACT & ASSERT
     mockMvc.perform(put("/api/parqueadero/sacar/NOEXISTE"))
-        .andExpect(status().isNotFound()); // 404 Not Found
+        .andExpect(status().isNotFound()) // 404 Not Found
+        .andExpect(jsonPath("$.codigo").value(404))
+        .andExpect(jsonPath("$.mensaje").value("El vehículo no está en el parqueadero"));
 
     mockMvc.perform(get("/api/parqueadero/costo/NOEXISTE"))
-        .andExpect(status().isNotFound()); // 404 Not Found
+        .andExpect(status().isNotFound()) // 404 Not Found
+        .andExpect(jsonPath("$.codigo").value(404));
   }
 
   /**
@@ -256,6 +302,250 @@ class ParqueaderoControllerE2ETest {
         .andExpect(jsonPath("$[?(@.placa=='MULT02')]").exists())
         .andExpect(jsonPath("$[?(@.placa=='MULT03')]").exists());
   }
+
+  /**
+   * E2E TEST: Historial paginado por cursor
+   * Prueba que las páginas se encadenan sin repetir ni perder estancias
+   */
+  @Test
+  void deberiaPaginarHistorialConCursorE2E() throws Exception {
+    // Given - ARRANGE
+    String[] placas = {"PAG001", "PAG002", "PAG003"};
+    for (String placa : placas) {
+      IngresoVehiculoRequest request = new IngresoVehiculoRequest();
+      request.setPlaca(placa);
+      request.setTipo(TipoVehiculo.CARRO);
+
+      mockMvc.perform(post("/api/parqueadero/ingresar")
+              .contentType(MediaType.APPLICATION_JSON)
+              .content(objectMapper.writeValueAsString(request)))
+          .andExpect(status().isCreated());
+    }
+
+    // When & Then - ACT & ASSERT
+    // Primera página: dos estancias y cursor para seguir
+    String cursor = mockMvc.perform(get("/api/parqueadero/historial").param("limite", "2"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$", hasSize(2)))
+        .andExpect(header().exists("X-Siguiente-Cursor"))
+        .andReturn().getResponse().getHeader("X-Siguiente-Cursor");
+
+    // Segunda página: la estancia restante y sin cursor
+    mockMvc.perform(get("/api/parqueadero/historial")
+            .param("limite", "2")
+            .param("cursor", cursor))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$", hasSize(1)))
+        .andExpect(header().doesNotExist("X-Siguiente-Cursor"));
+
+    // Filtro por tipo sin coincidencias
+    mockMvc.perform(get("/api/parqueadero/historial").param("tipo", "MOTO"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$", hasSize(0)));
+
+    // Cursor alterado
+    mockMvc.perform(get("/api/parqueadero/historial").param("cursor", "no-es-un-cursor"))
+        .andExpect(status().isBadRequest());
+  }
+
+  /**
+   * E2E TEST: Exportación NDJSON del historial
+   * Prueba que cada estancia sale como una línea JSON independiente
+   */
+  @Test
+  void deberiaExportarHistorialComoNdjsonE2E() throws Exception {
+    // Given - ARRANGE
+    String[] placas = {"NDJ001", "NDJ002"};
+    for (String placa : placas) {
+      IngresoVehiculoRequest request = new IngresoVehiculoRequest();
+      request.setPlaca(placa);
+      request.setTipo(TipoVehiculo.MOTO);
+
+      mockMvc.perform(post("/api/parqueadero/ingresar")
+              .contentType(MediaType.APPLICATION_JSON)
+              .content(objectMapper.writeValueAsString(request)))
+          .andExpect(status().isCreated());
+    }
+
+    // When - ACT
+    MvcResult exportacion = mockMvc.perform(get("/api/parqueadero/historial")
+            .accept("application/x-ndjson"))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+    // Then - ASSERT
+    String cuerpo = mockMvc.perform(asyncDispatch(exportacion))
+        .andExpect(status().isOk())
+        .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+        .andReturn().getResponse().getContentAsString();
+
+    String[] lineas = cuerpo.split("\n");
+    assertEquals(2, lineas.length);
+    for (int i = 0; i < placas.length; i++) {
+      assertEquals(placas[i],
+          objectMapper.readTree(lineas[i]).get("placa").asText());
+    }
+  }
+
+  /**
+   * E2E TEST: Ingreso en lote con arreglo JSON
+   * Cada elemento trae su propio desenlace, en el orden de la petición
+   */
+  @Test
+  void deberiaIngresarEnLoteConDesenlacePorElementoE2E() throws Exception {
+    // Given - ARRANGE
+    String lote = "["
+        + "{\"placa\":\"LOT001\",\"tipo\":\"CARRO\"},"
+        + "{\"placa\":\"lot-01\",\"tipo\":\"CARRO\"},"
+        + "{\"placa\":\"LOT002\",\"tipo\":\"MOTO\"},"
+        + "{\"placa\":\"LOT001\",\"tipo\":\"CARRO\"}"
+        + "]";
+
+    // When & Then - ACT & ASSERT
+    mockMvc.perform(post("/api/parqueadero/ingresar/lote")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(lote))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$", hasSize(4)))
+        .andExpect(jsonPath("$[0].estado").value(201))
+        .andExpect(jsonPath("$[0].vehiculo.activo").value(true))
+        .andExpect(jsonPath("$[1].estado").value(400))
+        .andExpect(jsonPath("$[1].mensaje").exists())
+        .andExpect(jsonPath("$[2].estado").value(201))
+        .andExpect(jsonPath("$[3].estado").value(409))
+        .andExpect(jsonPath("$[3].indice").value(3));
+
+    mockMvc.perform(get("/api/parqueadero/activos"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$", hasSize(2)));
+  }
+
+  /**
+   * E2E TEST: Salida en lote con NDJSON
+   * Una línea por placa; las que no están en el parqueadero responden 404
+   */
+  @Test
+  void deberiaSacarEnLoteDesdeNdjsonE2E() throws Exception {
+    // Given - ARRANGE
+    mockMvc.perform(post("/api/parqueadero/ingresar/lote")
+            .contentType("application/x-ndjson")
+            .content("{\"placa\":\"NDL001\",\"tipo\":\"CARRO\"}\n"
+                + "{\"placa\":\"NDL002\",\"tipo\":\"MOTO\"}\n"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[*].estado", contains(201, 201)));
+
+    // When & Then - ACT & ASSERT
+    mockMvc.perform(put("/api/parqueadero/sacar/lote")
+            .contentType("application/x-ndjson")
+            .content("{\"placa\":\"NDL001\"}\n{\"placa\":\"NOX999\"}\n{\"placa\":\"NDL002\"}\n"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[*].estado", contains(200, 404, 200)))
+        .andExpect(jsonPath("$[0].vehiculo.activo").value(false))
+        .andExpect(jsonPath("$[0].vehiculo.costo").exists());
+
+    mockMvc.perform(get("/api/parqueadero/activos"))
+        .andExpect(jsonPath("$", hasSize(0)));
+  }
+
+  /**
+   * E2E TEST: Lote mal formado
+   */
+  @Test
+  void deberiaRechazarLoteMalFormadoE2E() throws Exception {
+    mockMvc.perform(post("/api/parqueadero/ingresar/lote")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("[{\"placa\":"))
+        .andExpect(status().isBadRequest());
+  }
+
+  /**
+   * E2E TEST: Activos comprimidos
+   * Con Accept-Encoding: gzip la respuesta llega comprimida y descomprime al mismo JSON
+   */
+  @Test
+  void deberiaServirActivosComprimidosConGzipE2E() throws Exception {
+    // Given - ARRANGE
+    IngresoVehiculoRequest request = new IngresoVehiculoRequest();
+    request.setPlaca("GZP123");
+    request.setTipo(TipoVehiculo.CARRO);
+    mockMvc.perform(post("/api/parqueadero/ingresar")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(request)))
+        .andExpect(status().isCreated());
+
+    // When - ACT
+    byte[] comprimido = mockMvc.perform(get("/api/parqueadero/activos")
+            .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+        .andExpect(header().string(HttpHeaders.VARY, containsString(HttpHeaders.ACCEPT_ENCODING)))
+        .andReturn().getResponse().getContentAsByteArray();
+
+    // Then - ASSERT
+    byte[] json;
+    try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(comprimido))) {
+      json = gzip.readAllBytes();
+    }
+    JsonNode activos = objectMapper.readTree(json);
+    assertEquals(1, activos.size());
+    assertEquals("GZP123", activos.get(0).get("placa").asText());
+
+    mockMvc.perform(get("/api/parqueadero/activos"))
+        .andExpect(status().isOk())
+        .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+        .andExpect(jsonPath("$[0].placa").value("GZP123"));
+  }
+
+  /**
+   * E2E TEST: Peticiones condicionales
+   * Mientras no haya ingresos ni salidas, las lecturas responden 304 sin cuerpo
+   */
+  @Test
+  void deberiaResponderNoModificadoHastaQueHayaCambiosE2E() throws Exception {
+    // Given - ARRANGE
+    String etagActivos = mockMvc.perform(get("/api/parqueadero/activos"))
+        .andExpect(status().isOk())
+        .andExpect(header().exists(HttpHeaders.ETAG))
+        .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    String etagHistorial = mockMvc.perform(get("/api/parqueadero/historial"))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+    // When & Then - ACT & ASSERT
+    // La versión vuelve a 0 en cada arranque: el ETag lleva además la época
+    assertTrue(etagActivos.matches("\"activos-[0-9a-f]+-\\d+\""), etagActivos);
+    mockMvc.perform(get("/api/parqueadero/activos").header(HttpHeaders.IF_NONE_MATCH, etagActivos))
+        .andExpect(status().isNotModified())
+        .andExpect(header().string(HttpHeaders.VARY, containsString(HttpHeaders.ACCEPT_ENCODING)))
+        .andExpect(content().string(""));
+    mockMvc.perform(get("/api/parqueadero/historial").header(HttpHeaders.IF_NONE_MATCH, etagHistorial))
+        .andExpect(status().isNotModified());
+
+    IngresoVehiculoRequest request = new IngresoVehiculoRequest();
+    request.setPlaca("ETG123");
+    request.setTipo(TipoVehiculo.MOTO);
+    mockMvc.perform(post("/api/parqueadero/ingresar")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(request)))
+        .andExpect(status().isCreated());
+
+    mockMvc.perform(get("/api/parqueadero/activos").header(HttpHeaders.IF_NONE_MATCH, etagActivos))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[0].placa").value("ETG123"));
+
+    // El costo se guarda en el cliente pero se revalida siempre con el ETag
+    mockMvc.perform(put("/api/parqueadero/sacar/ETG123"))
+        .andExpect(status().isOk());
+    String etagCosto = mockMvc.perform(get("/api/parqueadero/costo/ETG123"))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.CACHE_CONTROL, containsString("no-cache")))
+        .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    mockMvc.perform(get("/api/parqueadero/costo/ETG123").header(HttpHeaders.IF_NONE_MATCH, etagCosto))
+        .andExpect(status().isNotModified());
+    mockMvc.perform(get("/api/parqueadero/costo/NOX999"))
+        .andExpect(status().isNotFound())
+        .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+  }
 }
 
 /**
@@ -0,0 +1,163 @@
+package demo.app.demogradle.application.controller;
+
+import demo.app.demogradle.application.dto.IngresoVehiculoRequest;
+import demo.app.demogradle.domain.model.TipoVehiculo;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * END-TO-END INTEGRATION TESTS - Pila no bloqueante (perfil reactivo)
+ *
+ * ✅ CARACTERÍSTICAS:
+ * - Servidor Netty real en un puerto aleatorio, WebFlux y R2DBC contra H2 en memoria
+ * - Sin DataSource ni Hibernate: el esquema lo crea db/estancias.sql
+ * - Cada test usa sus propias placas, así que comparten el contexto
+ *
+ * 🎯 QUÉ ESTAMOS PROBANDO:
+ * - Flujo completo: HTTP → ParqueaderoReactivoController → ParqueaderoReactivoService
+ *   → VehiculoRepositoryR2dbcAdapter → DB
+ * - Mismos códigos y cuerpos que la pila servlet en las rutas que comparten
+ * - Exportación NDJSON del historial en streaming
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = {
+        "spring.main.web-application-type=reactive",
+        "spring.r2dbc.url=r2dbc:h2:mem:///reactivoe2e?options=DB_CLOSE_DELAY=-1;LAZY_QUERY_EXECUTION=1"
+    })
+@ActiveProfiles("reactivo")
+class ParqueaderoReactivoControllerE2ETest {
+
+  @Autowired
+  private WebTestClient webTestClient;
+
+  /**
+   * E2E TEST: Ingreso, duplicado, salida con costo y segunda salida
+   */
+  @Test
+  void deberiaEjecutarFlujoCompletoE2E() {
+    // Given - ARRANGE
+    IngresoVehiculoRequest request = ingreso("RXF123", TipoVehiculo.CARRO);
+
+    // When & Then - ACT & ASSERT
+    webTestClient.post().uri("/api/parqueadero/ingresar")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(request)
+        .exchange()
+        .expectStatus().isCreated()
+        .expectBody()
+        .jsonPath("$.placa").isEqualTo("RXF123")
+        .jsonPath("$.activo").isEqualTo(true);
+
+    webTestClient.post().uri("/api/parqueadero/ingresar")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(request)
+        .exchange()
+        .expectStatus().isEqualTo(409)
+        .expectBody()
+        .jsonPath("$.codigo").isEqualTo(409)
+        .jsonPath("$.mensaje").isEqualTo("El vehículo ya está en el parqueadero");
+
+    webTestClient.get().uri("/api/parqueadero/costo/RXF123")
+        .exchange()
+        .expectStatus().isBadRequest();
+
+    webTestClient.put().uri("/api/parqueadero/sacar/RXF123")
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody()
+        .jsonPath("$.activo").isEqualTo(false)
+        .jsonPath("$.costo").isEqualTo(1000);
+
+    webTestClient.put().uri("/api/parqueadero/sacar/RXF123")
+        .exchange()
+        .expectStatus().isNotFound();
+
+    webTestClient.get().uri("/api/parqueadero/costo/RXF123")
+        .exchange()
+        .expectStatus().isOk()
+        .expectHeader().cacheControl(CacheControl.noCache().cachePrivate())
+        .expectBody(Integer.class).isEqualTo(1000);
+  }
+
+  /**
+   * E2E TEST: Validación de entrada y placa desconocida
+   */
+  @Test
+  void deberiaRechazarPlacaInvalidaYDesconocidaE2E() {
+    // When & Then - ACT & ASSERT
+    webTestClient.post().uri("/api/parqueadero/ingresar")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(ingreso("AB12", TipoVehiculo.CARRO))
+        .exchange()
+        .expectStatus().isBadRequest()
+        .expectBody()
+        .jsonPath("$.mensaje").value(mensaje -> assertTrue(((String) mensaje).startsWith("Errores de validación")))
+        .jsonPath("$.path").isEqualTo("/api/parqueadero/ingresar");
+
+    webTestClient.get().uri("/api/parqueadero/costo/RXN404")
+        .exchange()
+        .expectStatus().isNotFound()
+        .expectBody()
+        .jsonPath("$.codigo").isEqualTo(404)
+        .jsonPath("$.mensaje").isEqualTo("El vehículo no está en el parqueadero");
+  }
+
+  /**
+   * E2E TEST: Activos y exportación NDJSON
+   */
+  @Test
+  void deberiaListarActivosYExportarHistorialE2E() {
+    // Given - ARRANGE
+    for (String placa : List.of("RXH001", "RXH002")) {
+      webTestClient.post().uri("/api/parqueadero/ingresar")
+          .contentType(MediaType.APPLICATION_JSON)
+          .bodyValue(ingreso(placa, TipoVehiculo.MOTO))
+          .exchange()
+          .expectStatus().isCreated();
+    }
+    webTestClient.put().uri("/api/parqueadero/sacar/RXH002").exchange().expectStatus().isOk();
+
+    // When - ACT
+    List<JsonNode> activos = webTestClient.get().uri("/api/parqueadero/activos")
+        .exchange()
+        .expectStatus().isOk()
+        .expectBodyList(JsonNode.class)
+        .returnResult()
+        .getResponseBody();
+    List<JsonNode> historial = webTestClient.get().uri("/api/parqueadero/historial")
+        .header(HttpHeaders.ACCEPT, ParqueaderoController.MEDIA_TYPE_NDJSON)
+        .exchange()
+        .expectStatus().isOk()
+        .expectHeader().contentTypeCompatibleWith(ParqueaderoController.MEDIA_TYPE_NDJSON)
+        .returnResult(JsonNode.class)
+        .getResponseBody()
+        .collectList()
+        .block();
+
+    // Then - ASSERT
+    assertNotNull(activos);
+    assertTrue(activos.stream().anyMatch(v -> v.path("placa").asText().equals("RXH001")));
+    assertTrue(activos.stream().noneMatch(v -> v.path("placa").asText().equals("RXH002")));
+    assertNotNull(historial);
+    assertTrue(historial.stream().anyMatch(v -> v.path("placa").asText().equals("RXH002")
+        && !v.path("activo").asBoolean()));
+  }
+
+  private static IngresoVehiculoRequest ingreso(String placa, TipoVehiculo tipo) {
+    IngresoVehiculoRequest request = new IngresoVehiculoRequest();
+    request.setPlaca(placa);
+    request.setTipo(tipo);
+    return request;
+  }
+}
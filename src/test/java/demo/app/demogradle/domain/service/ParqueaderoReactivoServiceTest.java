@@ -0,0 +1,153 @@
+package demo.app.demogradle.domain.service;
+
+import demo.app.demogradle.domain.model.ReciboSalida;
+import demo.app.demogradle.domain.model.ResultadoParqueadero;
+import demo.app.demogradle.domain.model.TipoVehiculo;
+import demo.app.demogradle.domain.model.Vehiculo;
+import demo.app.demogradle.domain.port.out.VehiculoRepositoryReactivo;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * UNIT TESTS - Servicio de dominio no bloqueante
+ *
+ * ✅ CARACTERÍSTICAS:
+ * - Mock del PUERTO reactivo (VehiculoRepositoryReactivo), sin Spring Context
+ * - Las secuencias se verifican con StepVerifier
+ *
+ * 🎯 QUÉ ESTAMOS PROBANDO:
+ * - Las mismas reglas que ParqueaderoService: sin duplicados activos, solo
+ *   se saca lo que está adentro, solo se cobra lo que ya salió
+ * - Una placa inválida llega como error de la secuencia
+ * - La salida cierra exactamente la estancia que se leyó
+ */
+@ExtendWith(MockitoExtension.class)
+class ParqueaderoReactivoServiceTest {
+
+    @Mock
+    private VehiculoRepositoryReactivo vehiculoRepository; // ← PUERTO mockeado
+
+    @InjectMocks
+    private ParqueaderoReactivoService parqueaderoService; // ← DOMAIN SERVICE bajo prueba
+
+    /**
+     * TEST UNITARIO: Ingreso exitoso y duplicado
+     */
+    @Test
+    void deberiaIngresarOInformarDuplicado() {
+        // Given - ARRANGE
+        when(vehiculoRepository.registrarIngreso(any(Vehiculo.class)))
+                .thenReturn(Mono.just(true), Mono.just(false));
+
+        // When & Then - ACT & ASSERT
+        StepVerifier.create(parqueaderoService.ingresarVehiculo("abc123", TipoVehiculo.CARRO))
+                .assertNext(resultado -> {
+                    Vehiculo vehiculo = resultado.siExito().orElseThrow();
+                    assertEquals("ABC123", vehiculo.getPlaca());
+                    assertTrue(vehiculo.isActivo());
+                })
+                .verifyComplete();
+        StepVerifier.create(parqueaderoService.ingresarVehiculo("ABC123", TipoVehiculo.CARRO))
+                .expectNext(ResultadoParqueadero.duplicado("ABC123"))
+                .verifyComplete();
+    }
+
+    /**
+     * TEST UNITARIO: Placa inválida
+     * La validación del modelo ocurre al suscribirse y no toca el puerto
+     */
+    @Test
+    void deberiaEmitirErrorConPlacaInvalida() {
+        // When & Then - ACT & ASSERT
+        StepVerifier.create(parqueaderoService.ingresarVehiculo("AB", TipoVehiculo.MOTO))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+        verifyNoInteractions(vehiculoRepository);
+    }
+
+    /**
+     * TEST UNITARIO: Salida con liquidación
+     * Se cierra la estancia leída (misma fecha de ingreso) y se cobra una sola vez
+     */
+    @Test
+    void deberiaLiquidarLaEstanciaLeida() {
+        // Given - ARRANGE
+        Vehiculo activo = Vehiculo.builder()
+                .placa("MOT123")
+                .tipo(TipoVehiculo.MOTO)
+                .fechaIngreso(LocalDateTime.now().minusHours(3))
+                .activo(true)
+                .build();
+        when(vehiculoRepository.buscarActivoPorPlaca("MOT123")).thenReturn(Mono.just(activo));
+        when(vehiculoRepository.registrarSalida(any(Vehiculo.class))).thenReturn(Mono.just(true));
+
+        // When - ACT
+        ReciboSalida recibo = parqueaderoService.liquidarSalida("MOT123").block().siExito().orElseThrow();
+
+        // Then - ASSERT
+        // MOTO = 500/hora * 3 horas = 1500
+        assertEquals(1500, recibo.getCosto());
+        ArgumentCaptor<Vehiculo> salida = ArgumentCaptor.forClass(Vehiculo.class);
+        verify(vehiculoRepository).registrarSalida(salida.capture());
+        assertEquals(activo.getFechaIngreso(), salida.getValue().getFechaIngreso());
+        assertFalse(salida.getValue().isActivo());
+    }
+
+    /**
+     * TEST UNITARIO: Salida sin estancia activa o que perdió la carrera
+     */
+    @Test
+    void deberiaInformarNoEncontradoSinEstanciaOAlPerderLaCarrera() {
+        // Given - ARRANGE
+        Vehiculo activo = Vehiculo.crear("CAR123", TipoVehiculo.CARRO);
+        when(vehiculoRepository.buscarActivoPorPlaca("NOX123")).thenReturn(Mono.empty());
+        when(vehiculoRepository.buscarActivoPorPlaca("CAR123")).thenReturn(Mono.just(activo));
+        when(vehiculoRepository.registrarSalida(any(Vehiculo.class))).thenReturn(Mono.just(false));
+
+        // When & Then - ACT & ASSERT
+        StepVerifier.create(parqueaderoService.liquidarSalida("NOX123"))
+                .expectNext(ResultadoParqueadero.noEncontrado("NOX123"))
+                .verifyComplete();
+        StepVerifier.create(parqueaderoService.liquidarSalida("CAR123"))
+                .expectNext(ResultadoParqueadero.noEncontrado("CAR123"))
+                .verifyComplete();
+        verify(vehiculoRepository, times(1)).registrarSalida(any(Vehiculo.class));
+    }
+
+    /**
+     * TEST UNITARIO: Costo
+     * Solo se cobra la última estancia si ya salió
+     */
+    @Test
+    void deberiaCalcularCostoSoloDeEstanciasCerradas() {
+        // Given - ARRANGE
+        Vehiculo cerrado = Vehiculo.crear("COS123", TipoVehiculo.CARRO).marcarSalida();
+        when(vehiculoRepository.buscarPorPlaca("COS123")).thenReturn(Mono.just(cerrado));
+        when(vehiculoRepository.buscarPorPlaca("ACT123"))
+                .thenReturn(Mono.just(Vehiculo.crear("ACT123", TipoVehiculo.CARRO)));
+        when(vehiculoRepository.buscarPorPlaca("NOX123")).thenReturn(Mono.empty());
+
+        // When & Then - ACT & ASSERT
+        StepVerifier.create(parqueaderoService.calcularCosto("COS123"))
+                .expectNext(ResultadoParqueadero.exito(cerrado.getCosto()))
+                .verifyComplete();
+        StepVerifier.create(parqueaderoService.calcularCosto("ACT123"))
+                .expectNext(ResultadoParqueadero.aunActivo("ACT123"))
+                .verifyComplete();
+        StepVerifier.create(parqueaderoService.calcularCosto("NOX123"))
+                .expectNext(ResultadoParqueadero.noEncontrado("NOX123"))
+                .verifyComplete();
+    }
+}
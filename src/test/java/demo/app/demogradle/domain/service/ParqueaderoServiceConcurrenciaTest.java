@@ -0,0 +1,182 @@
+package demo.app.demogradle.domain.service;
+
+import demo.app.demogradle.domain.model.ResultadoParqueadero;
+import demo.app.demogradle.domain.model.TipoVehiculo;
+import demo.app.demogradle.domain.model.Vehiculo;
+import demo.app.demogradle.domain.port.out.VehiculoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * STRESS TESTS - Candados por placa del DOMAIN SERVICE
+ *
+ * ✅ CARACTERÍSTICAS:
+ * - Sin Spring Context; el puerto es un falso SIN atomicidad propia
+ *   (revisa y después escribe), como un adaptador ingenuo
+ * - Muchos hilos ingresan y sacan las mismas placas a la vez
+ *
+ * 🎯 QUÉ ESTAMOS PROBANDO:
+ * - Nunca hay dos estancias activas de la misma placa
+ * - Una salida cierra exactamente la estancia que leyó, nunca otra posterior
+ * - Placas de franjas distintas no esperan unas por otras
+ */
+class ParqueaderoServiceConcurrenciaTest {
+
+    private final Map<String, Vehiculo> baseDeDatos = new ConcurrentHashMap<>();
+    private final AtomicInteger dobleActivo = new AtomicInteger();
+    private final AtomicInteger cierresCruzados = new AtomicInteger();
+    private VehiculoRepository puerto;
+    private ParqueaderoService servicio;
+
+    @BeforeEach
+    void setUp() {
+        puerto = mock(VehiculoRepository.class, withSettings().stubOnly());
+        when(puerto.registrarIngreso(any(Vehiculo.class))).thenAnswer(invocation -> {
+            Vehiculo vehiculo = invocation.getArgument(0);
+            if (baseDeDatos.containsKey(vehiculo.getPlaca())) {
+                return false;
+            }
+            Thread.yield();
+            if (baseDeDatos.put(vehiculo.getPlaca(), vehiculo) != null) {
+                dobleActivo.incrementAndGet();
+            }
+            return true;
+        });
+        when(puerto.buscarActivoPorPlaca(anyString()))
+                .thenAnswer(invocation -> Optional.ofNullable(baseDeDatos.get(invocation.<String>getArgument(0))));
+        when(puerto.registrarSalida(any(Vehiculo.class))).thenAnswer(invocation -> {
+            Vehiculo salida = invocation.getArgument(0);
+            Vehiculo activo = baseDeDatos.get(salida.getPlaca());
+            if (activo == null) {
+                return false;
+            }
+            Thread.yield();
+            if (!activo.getFechaIngreso().equals(salida.getFechaIngreso())) {
+                cierresCruzados.incrementAndGet();
+            }
+            baseDeDatos.remove(salida.getPlaca());
+            return true;
+        });
+
+        servicio = new ParqueaderoService(puerto);
+    }
+
+    /**
+     * STRESS TEST: Muchas puertas sobre pocas placas
+     * Ingresos confirmados menos salidas confirmadas debe dar los activos finales
+     */
+    @Test
+    void deberiaMantenerUnaEstanciaActivaPorPlacaBajoConcurrencia() throws Exception {
+        // Given - ARRANGE
+        int puertas = Math.max(8, Runtime.getRuntime().availableProcessors() * 2);
+        int operacionesPorPuerta = 20_000;
+        String[] placas = new String[16];
+        for (int i = 0; i < placas.length; i++) {
+            placas[i] = String.format("CON%03d", i);
+        }
+        AtomicInteger ingresos = new AtomicInteger();
+        AtomicInteger salidas = new AtomicInteger();
+        ExecutorService hilos = Executors.newFixedThreadPool(puertas);
+        CountDownLatch inicio = new CountDownLatch(1);
+
+        // When - ACT
+        List<Future<?>> tareas = new ArrayList<>();
+        for (int p = 0; p < puertas; p++) {
+            tareas.add(hilos.submit(() -> {
+                inicio.await();
+                ThreadLocalRandom azar = ThreadLocalRandom.current();
+                for (int i = 0; i < operacionesPorPuerta; i++) {
+                    String placa = placas[azar.nextInt(placas.length)];
+                    if (azar.nextBoolean()) {
+                        if (servicio.ingresarVehiculo(placa, TipoVehiculo.CARRO) instanceof ResultadoParqueadero.Exito<?>) {
+                            ingresos.incrementAndGet();
+                        }
+                    } else if (servicio.liquidarSalida(placa) instanceof ResultadoParqueadero.Exito<?>) {
+                        salidas.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        inicio.countDown();
+        for (Future<?> tarea : tareas) {
+            tarea.get(60, TimeUnit.SECONDS);
+        }
+        hilos.shutdown();
+
+        // Then - ASSERT
+        assertEquals(0, dobleActivo.get(), "dos estancias activas de la misma placa");
+        assertEquals(0, cierresCruzados.get(), "una salida cerró una estancia que no había leído");
+        assertEquals(ingresos.get() - salidas.get(), baseDeDatos.size());
+        assertEquals(ingresos.get() + salidas.get(), servicio.versionCambios());
+    }
+
+    /**
+     * TEST: Sin candado global
+     * Mientras una placa está detenida dentro del puerto, otra de distinta franja
+     * avanza y otra ingresada con la misma placa espera
+     */
+    @Test
+    void deberiaSerializarSoloLaMismaPlaca() throws Exception {
+        // Given - ARRANGE
+        String detenida = "LEN001";
+        CandadosPorPlaca candados = new CandadosPorPlaca(ParqueaderoService.FRANJAS_PLACA);
+        String otra = null;
+        for (int i = 2; otra == null; i++) {
+            String candidata = String.format("LEN%03d", i);
+            if (candados.franja(candidata) != candados.franja(detenida)) {
+                otra = candidata;
+            }
+        }
+        CountDownLatch dentro = new CountDownLatch(1);
+        CountDownLatch soltar = new CountDownLatch(1);
+        AtomicReference<Thread> primero = new AtomicReference<>();
+        doAnswer(invocation -> {
+            Vehiculo vehiculo = invocation.getArgument(0);
+            if (primero.compareAndSet(null, Thread.currentThread())) {
+                dentro.countDown();
+                soltar.await();
+            }
+            return baseDeDatos.putIfAbsent(vehiculo.getPlaca(), vehiculo) == null;
+        }).when(puerto).registrarIngreso(any(Vehiculo.class));
+        ExecutorService hilos = Executors.newFixedThreadPool(3);
+
+        // When - ACT
+        Future<?> lenta = hilos.submit(() -> servicio.ingresarVehiculo(detenida, TipoVehiculo.CARRO));
+        assertTrue(dentro.await(10, TimeUnit.SECONDS));
+        String libre = otra;
+        Future<ResultadoParqueadero<Vehiculo>> distinta =
+                hilos.submit(() -> servicio.ingresarVehiculo(libre, TipoVehiculo.MOTO));
+        Future<ResultadoParqueadero<Vehiculo>> misma =
+                hilos.submit(() -> servicio.ingresarVehiculo(detenida, TipoVehiculo.CARRO));
+
+        // Then - ASSERT
+        assertInstanceOf(ResultadoParqueadero.Exito.class, distinta.get(10, TimeUnit.SECONDS));
+        assertThrows(TimeoutException.class, () -> misma.get(200, TimeUnit.MILLISECONDS));
+
+        soltar.countDown();
+        lenta.get(10, TimeUnit.SECONDS);
+        assertInstanceOf(ResultadoParqueadero.Duplicado.class, misma.get(10, TimeUnit.SECONDS));
+        hilos.shutdown();
+    }
+}
@@ -1,5 +1,8 @@
 package demo.app.demogradle.domain.service;
 
+import demo.app.demogradle.domain.model.ReciboSalida;
+import demo.app.demogradle.domain.model.ResultadoParqueadero;
+import demo.app.demogradle.domain.model.SolicitudIngreso;
 import demo.app.demogradle.domain.model.TipoVehiculo;
 import demo.app.demogradle.domain.model.Vehiculo;
 import demo.app.demogradle.domain.port.out.VehiculoRepository;
@@ -17,6 +20,7 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.*;
 
 /**
@@ -60,11 +64,10 @@ class ParqueaderoServiceTest {
         TipoVehiculo tipo = TipoVehiculo.CARRO;
         
         // Mock del PUERTO de salida (no de infraestructura)
-        when(vehiculoRepository.buscarPorPlaca(placa)).thenReturn(Optional.empty());
-        when(vehiculoRepository.guardar(any(Vehiculo.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(vehiculoRepository.registrarIngreso(any(Vehiculo.class))).thenReturn(true);
 
         // When - ACT
-        Vehiculo resultado = parqueaderoService.ingresarVehiculo(placa, tipo);
+        Vehiculo resultado = parqueaderoService.ingresarVehiculo(placa, tipo).siExito().orElseThrow();
 
         // Then - ASSERT
         // Verificamos COMPORTAMIENTO del dominio
@@ -75,9 +78,9 @@ class ParqueaderoServiceTest {
         assertNotNull(resultado.getFechaIngreso());
         assertNull(resultado.getFechaSalida());
         
-        // Verificamos interacción con el PUERTO
-        verify(vehiculoRepository, times(1)).buscarPorPlaca(placa);
-        verify(vehiculoRepository, times(1)).guardar(any(Vehiculo.class));
+        // Verificamos interacción con el PUERTO: un solo paso, sin consulta previa
+        verify(vehiculoRepository, times(1)).registrarIngreso(any(Vehiculo.class));
+        verify(vehiculoRepository, never()).buscarActivoPorPlaca(placa);
     }
 
     /**
@@ -85,21 +88,21 @@ class ParqueaderoServiceTest {
      * Verifica INVARIANTE del dominio
      */
     @Test
-    void deberiaLanzarExcepcionCuandoVehiculoYaEstaEnParqueadero() {
+    void deberiaInformarDuplicadoCuandoVehiculoYaEstaEnParqueadero() {
         // Given - ARRANGE
         String placa = "ABC123";
         TipoVehiculo tipo = TipoVehiculo.CARRO;
-        Vehiculo vehiculoExistente = Vehiculo.crear(placa, tipo);
         
-        when(vehiculoRepository.buscarPorPlaca(placa)).thenReturn(Optional.of(vehiculoExistente));
+        // El puerto informa que ya existe una estancia activa para la placa
+        when(vehiculoRepository.registrarIngreso(any(Vehiculo.class))).thenReturn(false);
 
-        // When & Then - ACT & ASSERT
-        IllegalStateException excepcion = assertThrows(IllegalStateException.class,
-            () -> parqueaderoService.ingresarVehiculo(placa, tipo));
-        
-        // Verificamos el MENSAJE del dominio
-        assertTrue(excepcion.getMessage().contains("ya está en el parqueadero"));
-        verify(vehiculoRepository, times(1)).buscarPorPlaca(placa);
+        // When - ACT
+        ResultadoParqueadero<Vehiculo> resultado = parqueaderoService.ingresarVehiculo(placa, tipo);
+
+        // Then - ASSERT
+        // Desenlace esperado del dominio, sin excepción
+        assertEquals(ResultadoParqueadero.duplicado(placa), resultado);
+        verify(vehiculoRepository, times(1)).registrarIngreso(any(Vehiculo.class));
         verify(vehiculoRepository, never()).guardar(any(Vehiculo.class));
     }
 
@@ -113,20 +116,70 @@ class ParqueaderoServiceTest {
         String placa = "ABC123";
         Vehiculo vehiculoActivo = Vehiculo.crear(placa, TipoVehiculo.CARRO);
         
-        when(vehiculoRepository.buscarPorPlaca(placa)).thenReturn(Optional.of(vehiculoActivo));
-        when(vehiculoRepository.guardar(any(Vehiculo.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(vehiculoRepository.buscarActivoPorPlaca(placa)).thenReturn(Optional.of(vehiculoActivo));
+        when(vehiculoRepository.registrarSalida(any(Vehiculo.class))).thenReturn(true);
 
         // When - ACT
-        Vehiculo resultado = parqueaderoService.sacarVehiculo(placa);
+        Vehiculo resultado = parqueaderoService.sacarVehiculo(placa).siExito().orElseThrow();
 
         // Then - ASSERT
         assertNotNull(resultado);
         assertEquals(placa, resultado.getPlaca());
         assertFalse(resultado.isActivo()); // ← Estado cambió
         assertNotNull(resultado.getFechaSalida()); // ← Fecha de salida asignada
+        assertNotNull(resultado.getCosto()); // ← Costo fijado al salir
 
-        verify(vehiculoRepository, times(1)).buscarPorPlaca(placa);
-        verify(vehiculoRepository, times(1)).guardar(any(Vehiculo.class));
+        verify(vehiculoRepository, times(1)).buscarActivoPorPlaca(placa);
+        verify(vehiculoRepository, times(1)).registrarSalida(any(Vehiculo.class));
+        verify(vehiculoRepository, never()).guardar(any(Vehiculo.class));
+    }
+
+    /**
+     * TEST UNITARIO: Salida con liquidación
+     * El recibo se arma con el objeto ya leído, sin volver a consultar la placa
+     */
+    @Test
+    void deberiaLiquidarSalidaConUnaSolaLectura() {
+        // Given - ARRANGE
+        String placa = "ABC123";
+        Vehiculo vehiculoActivo = Vehiculo.builder()
+                .placa(placa)
+                .tipo(TipoVehiculo.MOTO)
+                .fechaIngreso(LocalDateTime.now().minusHours(3))
+                .activo(true)
+                .build();
+
+        when(vehiculoRepository.buscarActivoPorPlaca(placa)).thenReturn(Optional.of(vehiculoActivo));
+        when(vehiculoRepository.registrarSalida(any(Vehiculo.class))).thenReturn(true);
+
+        // When - ACT
+        ReciboSalida recibo = parqueaderoService.liquidarSalida(placa).siExito().orElseThrow();
+
+        // Then - ASSERT
+        // MOTO = 500/hora * 3 horas = 1500
+        assertEquals(1500, recibo.getCosto());
+        assertEquals(3, recibo.getDuracion().toHours());
+        assertEquals(1500, recibo.getVehiculo().getCosto());
+        verify(vehiculoRepository, times(1)).buscarActivoPorPlaca(placa);
+        verify(vehiculoRepository, never()).buscarPorPlaca(placa);
+    }
+
+    /**
+     * TEST UNITARIO: Salidas concurrentes
+     * Si otra puerta cerró la estancia primero, esta salida no cuenta
+     */
+    @Test
+    void deberiaRechazarSalidaCuandoOtraPuertaGanoLaCarrera() {
+        // Given - ARRANGE
+        String placa = "ABC123";
+        Vehiculo vehiculoActivo = Vehiculo.crear(placa, TipoVehiculo.CARRO);
+
+        when(vehiculoRepository.buscarActivoPorPlaca(placa)).thenReturn(Optional.of(vehiculoActivo));
+        when(vehiculoRepository.registrarSalida(any(Vehiculo.class))).thenReturn(false);
+
+        // When & Then - ACT & ASSERT
+        assertEquals(ResultadoParqueadero.noEncontrado(placa), parqueaderoService.sacarVehiculo(placa));
+        verify(vehiculoRepository, never()).guardar(any(Vehiculo.class));
     }
 
     /**
@@ -134,19 +187,16 @@ class ParqueaderoServiceTest {
      * Verifica manejo de errores del dominio
      */
     @Test
-    void deberiaLanzarExcepcionCuandoVehiculoNoExiste() {
+    void deberiaInformarNoEncontradoCuandoVehiculoNoExiste() {
         // Given - ARRANGE
         String placa = "ABC123";
         
-        when(vehiculoRepository.buscarPorPlaca(placa)).thenReturn(Optional.empty());
+        when(vehiculoRepository.buscarActivoPorPlaca(placa)).thenReturn(Optional.empty());
 
         // When & Then - ACT & ASSERT
-        IllegalArgumentException excepcion = assertThrows(IllegalArgumentException.class,
-            () -> parqueaderoService.sacarVehiculo(placa));
-        
-        assertTrue(excepcion.getMessage().contains("no encontrado"));
-        verify(vehiculoRepository, times(1)).buscarPorPlaca(placa);
-        verify(vehiculoRepository, never()).guardar(any(Vehiculo.class));
+        assertEquals(ResultadoParqueadero.noEncontrado(placa), parqueaderoService.sacarVehiculo(placa));
+        verify(vehiculoRepository, times(1)).buscarActivoPorPlaca(placa);
+        verify(vehiculoRepository, never()).registrarSalida(any(Vehiculo.class));
     }
 
     /**
@@ -172,7 +222,7 @@ class ParqueaderoServiceTest {
         when(vehiculoRepository.buscarPorPlaca(placa)).thenReturn(Optional.of(vehiculoInactivo));
 
         // When - ACT
-        int costo = parqueaderoService.calcularCosto(placa);
+        int costo = parqueaderoService.calcularCosto(placa).siExito().orElseThrow();
 
         // Then - ASSERT
         // CARRO = 1000/hora * 2 horas = 2000 (tarifa real del enum)
@@ -180,12 +230,39 @@ class ParqueaderoServiceTest {
         verify(vehiculoRepository, times(1)).buscarPorPlaca(placa);
     }
 
+    /**
+     * TEST UNITARIO: Costo guardado
+     * Si la estancia ya tiene costo fijado, no se recalcula con las fechas
+     */
+    @Test
+    void deberiaUsarCostoGuardadoAlSalir() {
+        // Given - ARRANGE
+        String placa = "ABC123";
+        LocalDateTime ahora = LocalDateTime.now();
+        Vehiculo vehiculoLiquidado = Vehiculo.builder()
+                .placa(placa)
+                .tipo(TipoVehiculo.CARRO)
+                .fechaIngreso(ahora.minusHours(5))
+                .fechaSalida(ahora)
+                .activo(false)
+                .costo(1234)
+                .build();
+
+        when(vehiculoRepository.buscarPorPlaca(placa)).thenReturn(Optional.of(vehiculoLiquidado));
+
+        // When - ACT
+        int costo = parqueaderoService.calcularCosto(placa).siExito().orElseThrow();
+
+        // Then - ASSERT
+        assertEquals(1234, costo);
+    }
+
     /**
      * TEST UNITARIO: Validación de estado para cálculo
      * No se puede calcular costo de vehículo activo
      */
     @Test
-    void deberiaLanzarExcepcionAlCalcularCostoDeVehiculoActivo() {
+    void deberiaInformarAunActivoAlCalcularCostoDeVehiculoActivo() {
         // Given - ARRANGE
         String placa = "ABC123";
         Vehiculo vehiculoActivo = Vehiculo.crear(placa, TipoVehiculo.MOTO);
@@ -193,10 +270,7 @@ class ParqueaderoServiceTest {
         when(vehiculoRepository.buscarPorPlaca(placa)).thenReturn(Optional.of(vehiculoActivo));
 
         // When & Then - ACT & ASSERT
-        IllegalStateException excepcion = assertThrows(IllegalStateException.class,
-            () -> parqueaderoService.calcularCosto(placa));
-
-        assertTrue(excepcion.getMessage().contains("aún está en el parqueadero"));
+        assertEquals(ResultadoParqueadero.aunActivo(placa), parqueaderoService.calcularCosto(placa));
         verify(vehiculoRepository, times(1)).buscarPorPlaca(placa);
     }
 
@@ -223,4 +297,81 @@ class ParqueaderoServiceTest {
         assertTrue(resultado.stream().allMatch(Vehiculo::isActivo));
         verify(vehiculoRepository, times(1)).buscarVehiculosActivos();
     }
+
+    /**
+     * TEST UNITARIO: Secuencia de cambios
+     * Solo avanza con ingresos y salidas confirmados
+     */
+    @Test
+    void deberiaAvanzarVersionSoloConCambiosConfirmados() {
+        // Given - ARRANGE
+        String placa = "VER123";
+        when(vehiculoRepository.registrarIngreso(any(Vehiculo.class))).thenReturn(true, false);
+        when(vehiculoRepository.buscarActivoPorPlaca(placa))
+            .thenReturn(Optional.of(Vehiculo.crear(placa, TipoVehiculo.CARRO)));
+        when(vehiculoRepository.registrarSalida(any(Vehiculo.class))).thenReturn(true, false);
+        long inicial = parqueaderoService.versionCambios();
+
+        // When - ACT
+        parqueaderoService.ingresarVehiculo(placa, TipoVehiculo.CARRO);
+        parqueaderoService.ingresarVehiculo(placa, TipoVehiculo.CARRO);
+        parqueaderoService.liquidarSalida(placa);
+        parqueaderoService.liquidarSalida(placa);
+
+        // Then - ASSERT
+        assertEquals(inicial + 2, parqueaderoService.versionCambios());
+    }
+
+    /**
+     * TEST UNITARIO: Ingreso en lote
+     * Un solo viaje al puerto; lo rechazado se informa como duplicado
+     */
+    @Test
+    void deberiaIngresarEnLoteConUnSoloViajeAlPuerto() {
+        // Given - ARRANGE
+        when(vehiculoRepository.registrarIngresos(anyList())).thenReturn(new boolean[]{true, false, true});
+        long inicial = parqueaderoService.versionCambios();
+
+        // When - ACT
+        List<ResultadoParqueadero<Vehiculo>> resultados = parqueaderoService.ingresarVehiculos(List.of(
+            SolicitudIngreso.de("LOT001", TipoVehiculo.CARRO),
+            SolicitudIngreso.de("LOT002", TipoVehiculo.MOTO),
+            SolicitudIngreso.de("LOT003", TipoVehiculo.CARRO)));
+
+        // Then - ASSERT
+        assertEquals(3, resultados.size());
+        assertInstanceOf(ResultadoParqueadero.Exito.class, resultados.get(0));
+        assertInstanceOf(ResultadoParqueadero.Duplicado.class, resultados.get(1));
+        assertInstanceOf(ResultadoParqueadero.Exito.class, resultados.get(2));
+        assertEquals(inicial + 2, parqueaderoService.versionCambios());
+        verify(vehiculoRepository, times(1)).registrarIngresos(anyList());
+        verify(vehiculoRepository, never()).registrarIngreso(any(Vehiculo.class));
+    }
+
+    /**
+     * TEST UNITARIO: Salida en lote
+     * Una lectura y una escritura para todo el lote; una placa repetida
+     * solo se liquida en su primera aparición
+     */
+    @Test
+    void deberiaLiquidarSalidasEnLoteConUnaLecturaYUnaEscritura() {
+        // Given - ARRANGE
+        Vehiculo activo = Vehiculo.crear("SAL001", TipoVehiculo.MOTO);
+        when(vehiculoRepository.buscarActivosPorPlacas(anyList())).thenReturn(List.of(activo));
+        when(vehiculoRepository.registrarSalidas(anyList())).thenReturn(new boolean[]{true});
+
+        // When - ACT
+        List<ResultadoParqueadero<ReciboSalida>> resultados =
+            parqueaderoService.liquidarSalidas(List.of("sal001", "NOX999", "SAL001"));
+
+        // Then - ASSERT
+        assertInstanceOf(ResultadoParqueadero.Exito.class, resultados.get(0));
+        assertInstanceOf(ResultadoParqueadero.NoEncontrado.class, resultados.get(1));
+        assertInstanceOf(ResultadoParqueadero.NoEncontrado.class, resultados.get(2));
+        ReciboSalida recibo = resultados.get(0).siExito().orElseThrow();
+        assertFalse(recibo.getVehiculo().isActivo());
+        verify(vehiculoRepository, times(1)).buscarActivosPorPlacas(anyList());
+        verify(vehiculoRepository, times(1)).registrarSalidas(argThat(salidas -> salidas.size() == 1));
+        verify(vehiculoRepository, never()).buscarActivoPorPlaca(any());
+    }
 }
@@ -0,0 +1,113 @@
+package demo.app.demogradle.infrastructure.persistence.adapter;
+
+import com.sun.management.ThreadMXBean;
+import demo.app.demogradle.application.dto.VehiculoResponse;
+import demo.app.demogradle.domain.model.ConsultaHistorial;
+import demo.app.demogradle.domain.model.TipoVehiculo;
+import demo.app.demogradle.domain.model.Vehiculo;
+import demo.app.demogradle.infrastructure.persistence.mapper.VehiculoMapperImpl;
+import demo.app.demogradle.infrastructure.persistence.repository.VehiculoJpaRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * INTEGRATION TESTS - Memoria asignada por fila al leer el historial
+ *
+ * ✅ CARACTERÍSTICAS:
+ * - Adaptador JPA real contra H2, sin transacción del test: cada consulta abre y
+ *   cierra su propio contexto de persistencia, como en una petición HTTP
+ * - Mide los bytes que asigna el hilo del test (ThreadMXBean) tras calentar
+ *   ambos caminos, promediados por fila
+ *
+ * 🎯 QUÉ ESTAMOS PROBANDO:
+ * - Entidad → Vehiculo → VehiculoResponse (buscarHistorial) frente a
+ *   proyección → VehiculoResponse (buscarVistasHistorial)
+ * - Ambos caminos entregan las mismas filas
+ * - La proyección asigna menos memoria por fila
+ */
+@DataJpaTest
+@Import({VehiculoRepositoryAdapter.class, VehiculoMapperImpl.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class HistorialAsignacionesTest {
+
+    private static final int FILAS = 400;
+    private static final int CALENTAMIENTO = 50;
+    private static final int MEDICIONES = 100;
+
+    private static final ConsultaHistorial PAGINA_COMPLETA = ConsultaHistorial.builder().limite(FILAS).build();
+
+    @Autowired
+    private VehiculoRepositoryAdapter adapter;
+
+    @Autowired
+    private VehiculoJpaRepository jpaRepository;
+
+    @BeforeEach
+    void setUp() {
+        List<Vehiculo> vehiculos = new ArrayList<>(FILAS);
+        for (int i = 0; i < FILAS; i++) {
+            vehiculos.add(Vehiculo.crear(String.format("ASG%03d", i), TipoVehiculo.values()[i % 2]));
+        }
+        adapter.registrarIngresos(vehiculos);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jpaRepository.deleteAllInBatch();
+    }
+
+    /**
+     * ALLOCATION TEST: Respuestas del historial por entidades y por proyecciones
+     */
+    @Test
+    void deberiaAsignarMenosMemoriaPorFilaConProyecciones() {
+        // Given - ARRANGE
+        ThreadMXBean hilos = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(hilos.isThreadAllocatedMemorySupported() && hilos.isThreadAllocatedMemoryEnabled());
+        Supplier<List<VehiculoResponse>> porEntidades = () -> adapter.buscarHistorial(PAGINA_COMPLETA)
+                .getVehiculos().stream()
+                .map(VehiculoResponse::de)
+                .toList();
+        Supplier<List<VehiculoResponse>> porProyecciones = () -> adapter.buscarVistasHistorial(PAGINA_COMPLETA)
+                .getVistas().stream()
+                .map(VehiculoResponse::de)
+                .toList();
+
+        // When - ACT
+        long bytesPorEntidades = bytesPorFila(hilos, porEntidades);
+        long bytesPorProyecciones = bytesPorFila(hilos, porProyecciones);
+
+        // Then - ASSERT
+        assertEquals(porEntidades.get(), porProyecciones.get());
+        assertTrue(bytesPorProyecciones < bytesPorEntidades,
+                "Por proyecciones: " + bytesPorProyecciones + " B/fila, por entidades: "
+                        + bytesPorEntidades + " B/fila");
+    }
+
+    private static long bytesPorFila(ThreadMXBean hilos, Supplier<List<VehiculoResponse>> consulta) {
+        for (int i = 0; i < CALENTAMIENTO; i++) {
+            assertEquals(FILAS, consulta.get().size());
+        }
+        long hilo = Thread.currentThread().threadId();
+        long antes = hilos.getThreadAllocatedBytes(hilo);
+        for (int i = 0; i < MEDICIONES; i++) {
+            consulta.get();
+        }
+        return (hilos.getThreadAllocatedBytes(hilo) - antes) / ((long) MEDICIONES * FILAS);
+    }
+}
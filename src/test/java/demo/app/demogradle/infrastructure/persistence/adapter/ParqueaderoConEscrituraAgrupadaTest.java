@@ -0,0 +1,262 @@
+package demo.app.demogradle.infrastructure.persistence.adapter;
+
+import demo.app.demogradle.domain.model.ResultadoParqueadero;
+import demo.app.demogradle.domain.model.SolicitudIngreso;
+import demo.app.demogradle.domain.model.TipoVehiculo;
+import demo.app.demogradle.domain.model.Vehiculo;
+import demo.app.demogradle.domain.port.in.ParqueaderoUseCase;
+import demo.app.demogradle.domain.service.ParqueaderoService;
+import demo.app.demogradle.infrastructure.persistence.memoria.VehiculoRepositoryMemoriaAdapter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * UNIT TESTS - Decorador de escritura agrupada (group commit) del caso de uso
+ *
+ * ✅ CARACTERÍSTICAS:
+ * - Sin Spring Context; el caso de uso es un falso con ingreso en lote que
+ *   guarda las estancias activas en un conjunto
+ * - Ventana larga para que los hilos concurrentes caigan en el mismo lote
+ *
+ * 🎯 QUÉ ESTAMOS PROBANDO:
+ * - Escrituras concurrentes salen en lotes que respetan el tamaño máximo
+ * - Cada llamador recibe el resultado de su propia escritura
+ * - Con el servicio real, placas que comparten franja caen en el mismo lote:
+ *   ninguna espera la ventana con un candado tomado
+ * - Un lote rechazado completo se reintenta uno por uno
+ * - La métrica de tamaño de lote registra cada lote
+ * - Un Error del caso de uso no deja a nadie esperando, ni al detenerse
+ */
+class ParqueaderoConEscrituraAgrupadaTest {
+
+    private final Set<String> activas = ConcurrentHashMap.newKeySet();
+    private final List<Integer> lotes = new ArrayList<>();
+    private ParqueaderoUseCase delegado;
+    private SimpleMeterRegistry registry;
+    private ParqueaderoConEscrituraAgrupada parqueadero;
+
+    @BeforeEach
+    void setUp() {
+        delegado = mock(ParqueaderoUseCase.class, withSettings().stubOnly());
+        when(delegado.ingresarVehiculos(anyList())).thenAnswer(invocation -> {
+            List<SolicitudIngreso> solicitudes = invocation.getArgument(0);
+            synchronized (lotes) {
+                lotes.add(solicitudes.size());
+            }
+            return solicitudes.stream().map(s -> ingresar(s.getPlaca())).toList();
+        });
+        when(delegado.ingresarVehiculo(anyString(), any(TipoVehiculo.class)))
+                .thenAnswer(invocation -> ingresar(invocation.getArgument(0)));
+        registry = new SimpleMeterRegistry();
+        parqueadero = new ParqueaderoConEscrituraAgrupada(delegado, Duration.ofMillis(200), 8, registry);
+    }
+
+    private ResultadoParqueadero<Vehiculo> ingresar(String placa) {
+        return activas.add(placa)
+                ? ResultadoParqueadero.exito(Vehiculo.crear(placa, TipoVehiculo.CARRO))
+                : ResultadoParqueadero.duplicado(placa);
+    }
+
+    private boolean ingresado(String placa) {
+        return parqueadero.ingresarVehiculo(placa, TipoVehiculo.CARRO) instanceof ResultadoParqueadero.Exito<?>;
+    }
+
+    @AfterEach
+    void tearDown() {
+        parqueadero.close();
+    }
+
+    @Test
+    void deberiaAgruparEscriturasConcurrentesEnLotesAcotados() throws Exception {
+        // Given - ARRANGE
+        int hilos = 20;
+        ExecutorService ejecutor = Executors.newFixedThreadPool(hilos);
+        CountDownLatch inicio = new CountDownLatch(1);
+
+        // When - ACT
+        List<Future<Boolean>> resultados = new ArrayList<>();
+        for (int i = 0; i < hilos; i++) {
+            String placa = String.format("LOT%03d", i);
+            resultados.add(ejecutor.submit(() -> {
+                inicio.await();
+                return ingresado(placa);
+            }));
+        }
+        inicio.countDown();
+        for (Future<Boolean> resultado : resultados) {
+            assertTrue(resultado.get(10, TimeUnit.SECONDS));
+        }
+        ejecutor.shutdown();
+
+        // Then - ASSERT
+        assertEquals(hilos, activas.size());
+        assertEquals(hilos, lotes.stream().mapToInt(Integer::intValue).sum());
+        assertTrue(lotes.stream().allMatch(tamano -> tamano <= 8));
+        assertTrue(lotes.size() < hilos, "Al menos un lote debió juntar varias escrituras");
+        verify(delegado, never()).ingresarVehiculo(anyString(), any());
+
+        DistributionSummary tamanos = registry.get(ParqueaderoConEscrituraAgrupada.METRICA_LOTE)
+                .tag("operacion", "ingreso").summary();
+        assertEquals(lotes.size(), tamanos.count());
+        assertEquals(hilos, tamanos.totalAmount());
+    }
+
+    /**
+     * TEST: Placas de una misma franja
+     * Todas caen en la franja 0 del servicio (256) y del índice de activos (64):
+     * si el decorador esperara la ventana con la franja tomada, saldría una por lote
+     */
+    @Test
+    void deberiaJuntarPlacasQueCompartenFranjaEnUnMismoLote() throws Exception {
+        // Given - ARRANGE
+        ParqueaderoService servicio = new ParqueaderoService(
+                new VehiculoRepositoryConIndiceActivos(new VehiculoRepositoryMemoriaAdapter(64)));
+        SimpleMeterRegistry metricas = new SimpleMeterRegistry();
+        List<String> placas = new ArrayList<>();
+        for (int i = 0; placas.size() < 8; i++) {
+            String placa = String.format("FRA%04d", i);
+            if ((placa.hashCode() & 0x7fffffff) % 256 == 0) {
+                placas.add(placa);
+            }
+        }
+        int hilos = placas.size();
+        ExecutorService ejecutor = Executors.newFixedThreadPool(hilos);
+        CountDownLatch inicio = new CountDownLatch(1);
+
+        // When - ACT
+        List<Future<ResultadoParqueadero<Vehiculo>>> resultados = new ArrayList<>();
+        try (ParqueaderoConEscrituraAgrupada agrupado =
+                     new ParqueaderoConEscrituraAgrupada(servicio, Duration.ofMillis(500), 64, metricas)) {
+            for (String placa : placas) {
+                resultados.add(ejecutor.submit(() -> {
+                    inicio.await();
+                    return agrupado.ingresarVehiculo(placa, TipoVehiculo.CARRO);
+                }));
+            }
+            inicio.countDown();
+            for (Future<ResultadoParqueadero<Vehiculo>> resultado : resultados) {
+                assertInstanceOf(ResultadoParqueadero.Exito.class, resultado.get(10, TimeUnit.SECONDS));
+            }
+        }
+        ejecutor.shutdown();
+
+        // Then - ASSERT
+        DistributionSummary tamanos = metricas.get(ParqueaderoConEscrituraAgrupada.METRICA_LOTE)
+                .tag("operacion", "ingreso").summary();
+        assertEquals(hilos, tamanos.totalAmount());
+        assertTrue(tamanos.max() > 1, "Placas de la misma franja debieron compartir lote");
+        assertEquals(hilos, servicio.consultarVehiculosActivos().size());
+    }
+
+    @Test
+    void deberiaEntregarACadaLlamadorSuPropioResultado() {
+        // Given - ARRANGE
+        activas.add("DUP001");
+
+        // When - ACT
+        boolean duplicado = ingresado("DUP001");
+        boolean nuevo = ingresado("DUP002");
+
+        // Then - ASSERT
+        assertFalse(duplicado);
+        assertTrue(nuevo);
+    }
+
+    @Test
+    void deberiaReintentarUnoPorUnoSiElLoteSeRechaza() {
+        // Given - ARRANGE
+        when(delegado.ingresarVehiculos(anyList())).thenThrow(new DataIntegrityViolationException("placa_activa"));
+
+        // When - ACT
+        boolean aplicada = ingresado("REI001");
+
+        // Then - ASSERT
+        assertTrue(aplicada);
+        assertTrue(activas.contains("REI001"));
+        assertEquals(1.0, registry.get(ParqueaderoConEscrituraAgrupada.METRICA_REINTENTOS)
+                .tag("operacion", "ingreso").counter().count());
+    }
+
+    @Test
+    void deberiaPropagarOtrosErroresAlLlamador() {
+        // Given - ARRANGE
+        when(delegado.ingresarVehiculos(anyList())).thenThrow(new IllegalStateException("sin conexión"));
+
+        // When & Then - ACT & ASSERT
+        IllegalStateException error = assertThrows(IllegalStateException.class, () -> ingresado("ERR001"));
+        assertEquals("sin conexión", error.getMessage());
+    }
+
+    /**
+     * TEST: Un Error no mata el hilo del lote
+     * El llamador recibe el Error y las escrituras siguientes se siguen aplicando
+     */
+    @Test
+    void deberiaSobrevivirAUnErrorDelCasoDeUso() {
+        // Given - ARRANGE
+        when(delegado.ingresarVehiculos(anyList()))
+                .thenThrow(new StackOverflowError("lote"))
+                .thenAnswer(invocation -> List.of(ingresar("ERR002")));
+
+        // When & Then - ACT & ASSERT
+        assertThrows(StackOverflowError.class, () -> ingresado("ERR001"));
+        assertTrue(ingresado("ERR002"));
+    }
+
+    /**
+     * TEST: Escrituras que llegan mientras se detiene
+     * Cada una termina aplicada o rechazada; ninguna queda esperando para siempre
+     */
+    @Test
+    void deberiaResolverTodasLasEscriturasAlDetenerse() throws Exception {
+        // Given - ARRANGE
+        int hilos = 16;
+        ExecutorService ejecutor = Executors.newFixedThreadPool(hilos);
+        CountDownLatch inicio = new CountDownLatch(1);
+        List<Future<Boolean>> resultados = new ArrayList<>();
+        for (int i = 0; i < hilos; i++) {
+            String placa = String.format("DET%03d", i);
+            resultados.add(ejecutor.submit(() -> {
+                inicio.await();
+                return ingresado(placa);
+            }));
+        }
+
+        // When - ACT
+        inicio.countDown();
+        parqueadero.close();
+
+        // Then - ASSERT
+        for (Future<Boolean> resultado : resultados) {
+            try {
+                resultado.get(10, TimeUnit.SECONDS);
+            } catch (ExecutionException e) {
+                assertInstanceOf(IllegalStateException.class, e.getCause());
+            }
+        }
+        ejecutor.shutdown();
+        assertThrows(IllegalStateException.class, () -> ingresado("DET999"));
+    }
+}
@@ -1,15 +1,25 @@
 package demo.app.demogradle.infrastructure.persistence.adapter;
 
+import demo.app.demogradle.domain.model.ConsultaHistorial;
+import demo.app.demogradle.domain.model.PaginaHistorial;
+import demo.app.demogradle.domain.model.PaginaVistas;
 import demo.app.demogradle.domain.model.TipoVehiculo;
 import demo.app.demogradle.domain.model.Vehiculo;
+import demo.app.demogradle.domain.model.VistaEstancia;
 import demo.app.demogradle.infrastructure.persistence.entity.VehiculoEntity;
+import demo.app.demogradle.infrastructure.persistence.mapper.VehiculoMapperImpl;
+import demo.app.demogradle.infrastructure.persistence.repository.EstanciaProyeccion;
 import demo.app.demogradle.infrastructure.persistence.repository.VehiculoJpaRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.PersistenceException;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Optional;
 
@@ -30,8 +40,12 @@ import static org.junit.jupiter.api.Assertions.*;
  * - Persistencia real en H2
  * - Consultas SQL generadas por JPA
  * - Mapeo de entidades JPA
+ * - Lotes JDBC condicionales del adaptador (escritura agrupada)
+ * - Columna de versión en cierres por entidad y por UPDATE directo
+ * - Proyecciones del historial: mismas filas y cursor que por entidades
  */
 @DataJpaTest
+@Import({VehiculoRepositoryAdapter.class, VehiculoMapperImpl.class, SimpleMeterRegistry.class})
 class VehiculoJpaRepositoryIntegrationTest {
 
     @Autowired
@@ -40,6 +54,9 @@ class VehiculoJpaRepositoryIntegrationTest {
     @Autowired
     private TestEntityManager entityManager; // ← Para setup de datos
 
+    @Autowired
+    private VehiculoRepositoryAdapter adapter; // ← Adaptador real, para los lotes JDBC
+
     /**
      * INTEGRATION TEST: Guardar entidad
      * Prueba persistencia real Entity → Database
@@ -65,7 +82,7 @@ class VehiculoJpaRepositoryIntegrationTest {
         assertTrue(vehiculoGuardado.isActivo());
         
         // Verificar en la base de datos directamente
-        VehiculoEntity entityEnBD = entityManager.find(VehiculoEntity.class, "ABC123");
+        VehiculoEntity entityEnBD = entityManager.find(VehiculoEntity.class, vehiculoGuardado.getId());
         assertNotNull(entityEnBD);
         assertEquals("ABC123", entityEnBD.getPlaca());
         assertEquals(TipoVehiculo.CARRO, entityEnBD.getTipo());
@@ -89,7 +106,7 @@ class VehiculoJpaRepositoryIntegrationTest {
         entityManager.persistAndFlush(entity);
 
         // When - ACT
-        Optional<VehiculoEntity> resultado = jpaRepository.findById("XYZ789");
+        Optional<VehiculoEntity> resultado = jpaRepository.findFirstByPlacaOrderByFechaIngresoDesc("XYZ789");
 
         // Then - ASSERT
         assertTrue(resultado.isPresent());
@@ -173,7 +190,7 @@ class VehiculoJpaRepositoryIntegrationTest {
         assertNotNull(vehiculoActualizado.getFechaSalida());
         
         // Verificar en BD
-        VehiculoEntity entityActualizada = entityManager.find(VehiculoEntity.class, "UPD123");
+        VehiculoEntity entityActualizada = entityManager.find(VehiculoEntity.class, vehiculoGuardado.getId());
         assertFalse(entityActualizada.isActivo());
         assertNotNull(entityActualizada.getFechaSalida());
     }
@@ -197,19 +214,19 @@ class VehiculoJpaRepositoryIntegrationTest {
         entityManager.flush();
 
         // Verificar que se guardó correctamente
-        assertTrue(jpaRepository.existsById("DEL123"));
+        assertTrue(jpaRepository.existsById(savedEntity.getId()));
 
         // When - ACT
-        jpaRepository.deleteById("DEL123");
+        jpaRepository.deleteByPlaca("DEL123");
         entityManager.flush();
         entityManager.clear(); // Limpiar cache de primer nivel
 
         // Then - ASSERT
-        VehiculoEntity entityEliminada = entityManager.find(VehiculoEntity.class, "DEL123");
+        VehiculoEntity entityEliminada = entityManager.find(VehiculoEntity.class, savedEntity.getId());
         assertNull(entityEliminada);
 
         // Verificar también con el repositorio
-        assertFalse(jpaRepository.existsById("DEL123"));
+        assertFalse(jpaRepository.existsById(savedEntity.getId()));
     }
 
     /**
@@ -254,4 +271,250 @@ class VehiculoJpaRepositoryIntegrationTest {
         assertTrue(activos.stream().anyMatch(v -> "QUERY1".equals(v.getPlaca())));
         assertTrue(activos.stream().anyMatch(v -> "QUERY2".equals(v.getPlaca())));
     }
+
+    /**
+     * INTEGRATION TEST: Reingresos de la misma placa
+     * Cada ingreso es una estancia nueva; el historial anterior se conserva
+     */
+    @Test
+    void deberiaConservarHistorialDeReingresos() {
+        // Given - ARRANGE
+        LocalDateTime ahora = LocalDateTime.now();
+        VehiculoEntity primeraEstancia = VehiculoEntity.builder()
+                .placa("REP123")
+                .tipo(TipoVehiculo.CARRO)
+                .fechaIngreso(ahora.minusHours(3))
+                .fechaSalida(ahora.minusHours(2))
+                .activo(false)
+                .build();
+        VehiculoEntity segundaEstancia = VehiculoEntity.builder()
+                .placa("REP123")
+                .tipo(TipoVehiculo.CARRO)
+                .fechaIngreso(ahora)
+                .activo(true)
+                .build();
+
+        // When - ACT
+        entityManager.persist(primeraEstancia);
+        entityManager.persist(segundaEstancia);
+        entityManager.flush();
+        entityManager.clear();
+
+        // Then - ASSERT
+        assertNotEquals(primeraEstancia.getId(), segundaEstancia.getId());
+        assertNotNull(entityManager.find(VehiculoEntity.class, primeraEstancia.getId()));
+
+        Optional<VehiculoEntity> activa = jpaRepository.findByPlacaActiva("REP123");
+        assertTrue(activa.isPresent());
+        assertEquals(segundaEstancia.getId(), activa.get().getId());
+
+        Optional<VehiculoEntity> ultima = jpaRepository.findFirstByPlacaOrderByFechaIngresoDesc("REP123");
+        assertTrue(ultima.isPresent());
+        assertEquals(segundaEstancia.getId(), ultima.get().getId());
+    }
+
+    /**
+     * INTEGRATION TEST: Salida condicional
+     * Solo la primera salida cierra la estancia; la segunda no encuentra fila activa
+     */
+    @Test
+    void deberiaCerrarEstanciaActivaUnaSolaVez() {
+        // Given - ARRANGE
+        LocalDateTime ingreso = LocalDateTime.now().minusHours(1).truncatedTo(ChronoUnit.MICROS);
+        VehiculoEntity estancia = entityManager.persistAndFlush(VehiculoEntity.builder()
+                .placa("SAL123")
+                .tipo(TipoVehiculo.CARRO)
+                .fechaIngreso(ingreso)
+                .activo(true)
+                .build());
+        entityManager.clear();
+
+        // When - ACT
+        int primeraSalida = jpaRepository.cerrarEstanciaActiva("SAL123", ingreso, LocalDateTime.now(), 1000);
+        int segundaSalida = jpaRepository.cerrarEstanciaActiva("SAL123", ingreso, LocalDateTime.now(), 1000);
+
+        // Then - ASSERT
+        assertEquals(1, primeraSalida);
+        assertEquals(0, segundaSalida);
+
+        VehiculoEntity cerrada = entityManager.find(VehiculoEntity.class, estancia.getId());
+        assertFalse(cerrada.isActivo());
+        assertNull(cerrada.getPlacaActiva());
+        assertNotNull(cerrada.getFechaSalida());
+        assertEquals(1000, cerrada.getCosto());
+    }
+
+    /**
+     * INTEGRATION TEST: Invariante en base de datos
+     * El índice único de placa_activa impide dos estancias activas de la misma placa
+     */
+    @Test
+    void deberiaRechazarDosEstanciasActivasDeLaMismaPlaca() {
+        // Given - ARRANGE
+        entityManager.persistAndFlush(VehiculoEntity.builder()
+                .placa("DOB123")
+                .tipo(TipoVehiculo.MOTO)
+                .fechaIngreso(LocalDateTime.now())
+                .activo(true)
+                .build());
+
+        VehiculoEntity duplicada = VehiculoEntity.builder()
+                .placa("DOB123")
+                .tipo(TipoVehiculo.MOTO)
+                .fechaIngreso(LocalDateTime.now())
+                .activo(true)
+                .build();
+
+        // When & Then - ACT & ASSERT
+        assertThrows(PersistenceException.class, () -> entityManager.persistAndFlush(duplicada));
+    }
+
+    /**
+     * INTEGRATION TEST: Ingresos y salidas por lote
+     * Un duplicado dentro del lote, o contra lo ya guardado, queda sin aplicar
+     * sin abortar al resto
+     */
+    @Test
+    void deberiaAplicarLotesCondicionalesSinAbortarPorDuplicados() {
+        // Given - ARRANGE
+        entityManager.persistAndFlush(VehiculoEntity.builder()
+                .placa("LOT000")
+                .tipo(TipoVehiculo.CARRO)
+                .fechaIngreso(LocalDateTime.now().minusHours(1))
+                .activo(true)
+                .build());
+        Vehiculo primera = Vehiculo.crear("LOT001", TipoVehiculo.CARRO);
+        List<Vehiculo> ingresos = List.of(
+                Vehiculo.crear("LOT000", TipoVehiculo.CARRO),
+                primera,
+                Vehiculo.crear("LOT001", TipoVehiculo.MOTO),
+                Vehiculo.crear("LOT002", TipoVehiculo.MOTO));
+
+        // When - ACT
+        boolean[] ingresados = adapter.registrarIngresos(ingresos);
+        boolean[] salidas = adapter.registrarSalidas(List.of(
+                primera.marcarSalida(),
+                Vehiculo.crear("LOT009", TipoVehiculo.CARRO).marcarSalida()));
+
+        // Then - ASSERT
+        assertArrayEquals(new boolean[]{false, true, false, true}, ingresados);
+        assertArrayEquals(new boolean[]{true, false}, salidas);
+        entityManager.clear();
+        assertEquals(List.of("LOT000", "LOT002"), jpaRepository.findByActivoTrue().stream()
+                .map(VehiculoEntity::getPlaca).sorted().toList());
+        VehiculoEntity cerrada = jpaRepository.findFirstByPlacaOrderByFechaIngresoDesc("LOT001").orElseThrow();
+        assertFalse(cerrada.isActivo());
+        assertNotNull(cerrada.getCosto());
+    }
+
+    /**
+     * INTEGRATION TEST: Salida de una estancia vieja
+     * Una salida calculada sobre una estancia ya cerrada no cierra la estancia
+     * más nueva de la misma placa, aunque esa sea la que ocupa placa_activa
+     */
+    @Test
+    void deberiaNoCerrarUnaEstanciaMasNuevaConUnaSalidaVieja() {
+        // Given - ARRANGE
+        Vehiculo vieja = Vehiculo.crear("VIE123", TipoVehiculo.CARRO);
+        assertTrue(adapter.registrarIngreso(vieja));
+        Vehiculo salidaVieja = vieja.marcarSalida();
+        assertTrue(adapter.registrarSalida(salidaVieja));
+        Vehiculo nueva = Vehiculo.builder()
+                .placa("VIE123")
+                .tipo(TipoVehiculo.CARRO)
+                .fechaIngreso(vieja.getFechaIngreso().plusSeconds(1))
+                .activo(true)
+                .build();
+        assertTrue(adapter.registrarIngreso(nueva));
+
+        // When - ACT
+        boolean salida = adapter.registrarSalida(salidaVieja);
+        boolean[] salidas = adapter.registrarSalidas(List.of(salidaVieja));
+
+        // Then - ASSERT
+        assertFalse(salida);
+        assertArrayEquals(new boolean[]{false}, salidas);
+        entityManager.clear();
+        Vehiculo activa = adapter.buscarActivoPorPlaca("VIE123").orElseThrow();
+        assertEquals(nueva.getFechaIngreso(), activa.getFechaIngreso());
+        assertTrue(adapter.registrarSalida(nueva.marcarSalida()));
+    }
+
+    /**
+     * INTEGRATION TEST: Versión optimista
+     * Los INSERT directos arrancan en 0 y cada cierre, por entidad o por
+     * UPDATE condicional, la incrementa
+     */
+    @Test
+    void deberiaIncrementarLaVersionEnCadaCierre() {
+        // Given - ARRANGE
+        assertTrue(adapter.registrarIngreso(Vehiculo.crear("VER001", TipoVehiculo.CARRO)));
+        Vehiculo segunda = Vehiculo.crear("VER002", TipoVehiculo.MOTO);
+        assertTrue(adapter.registrarIngreso(segunda));
+        entityManager.clear();
+        assertEquals(0, jpaRepository.findByPlacaActiva("VER001").orElseThrow().getVersion());
+
+        // When - ACT
+        adapter.guardar(Vehiculo.crear("VER001", TipoVehiculo.CARRO).marcarSalida());
+        entityManager.flush();
+        jpaRepository.cerrarEstanciaActiva("VER002", segunda.getFechaIngreso(), LocalDateTime.now(), 1000);
+        entityManager.clear();
+
+        // Then - ASSERT
+        VehiculoEntity porEntidad = jpaRepository.findFirstByPlacaOrderByFechaIngresoDesc("VER001").orElseThrow();
+        VehiculoEntity porUpdate = jpaRepository.findFirstByPlacaOrderByFechaIngresoDesc("VER002").orElseThrow();
+        assertFalse(porEntidad.isActivo());
+        assertEquals(1, porEntidad.getVersion());
+        assertEquals(1, porUpdate.getVersion());
+    }
+
+    /**
+     * INTEGRATION TEST: Historial por proyecciones
+     * Cada página trae las mismas filas y el mismo cursor que la consulta por
+     * entidades, pero sin entidades administradas
+     */
+    @Test
+    void deberiaProyectarElHistorialIgualQueLasEntidades() {
+        // Given - ARRANGE
+        LocalDateTime base = LocalDateTime.now().minusDays(1);
+        for (int i = 0; i < 5; i++) {
+            entityManager.persist(VehiculoEntity.builder()
+                    .placa(String.format("PRY%03d", i))
+                    .tipo(i % 2 == 0 ? TipoVehiculo.CARRO : TipoVehiculo.MOTO)
+                    .fechaIngreso(base.plusHours(i))
+                    .fechaSalida(base.plusHours(i + 1))
+                    .activo(false)
+                    .costo(1000)
+                    .build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+        ConsultaHistorial primeraPagina = ConsultaHistorial.builder().limite(2).build();
+
+        // When - ACT
+        PaginaHistorial porEntidades = adapter.buscarHistorial(primeraPagina);
+        PaginaVistas porProyecciones = adapter.buscarVistasHistorial(primeraPagina);
+        PaginaVistas siguiente = adapter.buscarVistasHistorial(ConsultaHistorial.builder()
+                .limite(2)
+                .cursor(porProyecciones.siguiente().orElseThrow())
+                .build());
+        PaginaVistas motos = adapter.buscarVistasHistorial(ConsultaHistorial.builder()
+                .tipo(TipoVehiculo.MOTO)
+                .build());
+
+        // Then - ASSERT
+        assertEquals(porEntidades.getVehiculos().stream().map(Vehiculo::getPlaca).toList(),
+                porProyecciones.getVistas().stream().map(VistaEstancia::getPlaca).toList());
+        assertEquals(porEntidades.getSiguienteCursor(), porProyecciones.getSiguienteCursor());
+        assertInstanceOf(EstanciaProyeccion.class, porProyecciones.getVistas().get(0));
+        VistaEstancia ultima = porProyecciones.getVistas().get(0);
+        assertEquals("PRY004", ultima.getPlaca());
+        assertEquals(TipoVehiculo.CARRO, ultima.getTipo());
+        assertFalse(ultima.isActivo());
+        assertEquals(1000, ultima.getCosto());
+        assertEquals(List.of("PRY002", "PRY001"),
+                siguiente.getVistas().stream().map(VistaEstancia::getPlaca).toList());
+        assertEquals(List.of("PRY003", "PRY001"),
+                motos.getVistas().stream().map(VistaEstancia::getPlaca).toList());
+    }
 }
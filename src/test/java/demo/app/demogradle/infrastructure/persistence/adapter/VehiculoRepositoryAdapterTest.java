@@ -0,0 +1,163 @@
+package demo.app.demogradle.infrastructure.persistence.adapter;
+
+import demo.app.demogradle.domain.model.TipoVehiculo;
+import demo.app.demogradle.domain.model.Vehiculo;
+import demo.app.demogradle.infrastructure.persistence.entity.VehiculoEntity;
+import demo.app.demogradle.infrastructure.persistence.mapper.VehiculoMapperImpl;
+import demo.app.demogradle.infrastructure.persistence.repository.VehiculoJpaRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * UNIT TESTS - Cierre optimista de estancias en el adaptador JPA
+ *
+ * ✅ CARACTERÍSTICAS:
+ * - Sin Spring Context ni base de datos: el repositorio JPA se simula y
+ *   lanza el conflicto de @Version que produciría Hibernate
+ *
+ * 🎯 QUÉ ESTAMOS PROBANDO:
+ * - Un conflicto sobre una estancia que sigue activa se reintenta sobre la fila releída
+ * - Si otro escritor ya la cerró, este cierre no la encuentra y no la pisa
+ * - Sin estancia activa no se inserta una estancia cerrada huérfana, en ningún modo
+ * - Los intentos tienen tope (al menos uno), y conflictos y reintentos quedan en métricas
+ */
+@ExtendWith(MockitoExtension.class)
+class VehiculoRepositoryAdapterTest {
+
+    @Mock
+    private VehiculoJpaRepository jpaRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transaccion;
+
+    private SimpleMeterRegistry registry;
+    private VehiculoRepositoryAdapter adapter;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        adapter = new VehiculoRepositoryAdapter(jpaRepository, new VehiculoMapperImpl(), jdbcTemplate,
+                transaccion, registry, 1000, VehiculoRepositoryAdapter.BLOQUEO_OPTIMISTA, 3);
+    }
+
+    @Test
+    void deberiaReintentarSobreLaFilaReleidaSiSigueActiva() {
+        // Given - ARRANGE
+        Vehiculo salida = Vehiculo.crear("OPT123", TipoVehiculo.CARRO).marcarSalida();
+        when(jpaRepository.findByPlacaActiva("OPT123")).thenReturn(Optional.of(activa(0)));
+        when(jpaRepository.findById(7L)).thenReturn(Optional.of(activa(1)));
+        when(jpaRepository.save(any(VehiculoEntity.class)))
+                .thenThrow(conflicto())
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When - ACT
+        Vehiculo guardado = adapter.guardar(salida);
+
+        // Then - ASSERT
+        assertFalse(guardado.isActivo());
+        assertEquals(salida.getCosto(), guardado.getCosto());
+        verify(jpaRepository, times(2)).save(any(VehiculoEntity.class));
+        assertEquals(1, registry.counter(VehiculoRepositoryAdapter.METRICA_CONFLICTOS).count());
+        assertEquals(1, registry.counter(VehiculoRepositoryAdapter.METRICA_REINTENTOS).count());
+    }
+
+    @Test
+    void deberiaNoEncontrarLaEstanciaSiOtroEscritorLaCerro() {
+        // Given - ARRANGE
+        VehiculoEntity cerradaPorOtro = activa(1);
+        cerradaPorOtro.setActivo(false);
+        cerradaPorOtro.setFechaSalida(LocalDateTime.now());
+        cerradaPorOtro.setCosto(1);
+        when(jpaRepository.findByPlacaActiva("OPT123")).thenReturn(Optional.of(activa(0)));
+        when(jpaRepository.findById(7L)).thenReturn(Optional.of(cerradaPorOtro));
+        when(jpaRepository.save(any(VehiculoEntity.class))).thenThrow(conflicto());
+        Vehiculo salida = Vehiculo.crear("OPT123", TipoVehiculo.CARRO).marcarSalida();
+
+        // When & Then - ACT & ASSERT
+        assertThrows(IllegalArgumentException.class, () -> adapter.guardar(salida));
+        verify(jpaRepository, times(1)).save(any(VehiculoEntity.class));
+        assertEquals(0, registry.counter(VehiculoRepositoryAdapter.METRICA_REINTENTOS).count());
+    }
+
+    @Test
+    void deberiaRendirseAlAgotarLosIntentos() {
+        // Given - ARRANGE
+        when(jpaRepository.findByPlacaActiva("OPT123")).thenReturn(Optional.of(activa(0)));
+        when(jpaRepository.findById(7L)).thenReturn(Optional.of(activa(1)));
+        when(jpaRepository.save(any(VehiculoEntity.class))).thenThrow(conflicto());
+        Vehiculo salida = Vehiculo.crear("OPT123", TipoVehiculo.CARRO).marcarSalida();
+
+        // When & Then - ACT & ASSERT
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> adapter.guardar(salida));
+        verify(jpaRepository, times(3)).save(any(VehiculoEntity.class));
+        assertEquals(3, registry.counter(VehiculoRepositoryAdapter.METRICA_CONFLICTOS).count());
+        assertEquals(2, registry.counter(VehiculoRepositoryAdapter.METRICA_REINTENTOS).count());
+    }
+
+    @Test
+    void deberiaNoInsertarUnaEstanciaCerradaSinEstanciaActiva() {
+        // Given - ARRANGE
+        Vehiculo salida = Vehiculo.crear("OPT123", TipoVehiculo.CARRO).marcarSalida();
+        when(jpaRepository.findByPlacaActiva("OPT123")).thenReturn(Optional.empty());
+
+        // When & Then - ACT & ASSERT
+        assertThrows(IllegalArgumentException.class, () -> adapter.guardar(salida));
+        verify(jpaRepository, never()).save(any(VehiculoEntity.class));
+    }
+
+    @Test
+    void deberiaNoInsertarUnaEstanciaCerradaSinEstanciaActivaConBloqueo() {
+        // Given - ARRANGE
+        VehiculoRepositoryAdapter pesimista = new VehiculoRepositoryAdapter(jpaRepository, new VehiculoMapperImpl(),
+                jdbcTemplate, transaccion, registry, 1000, VehiculoRepositoryAdapter.BLOQUEO_PESIMISTA, 3);
+        Vehiculo salida = Vehiculo.crear("OPT123", TipoVehiculo.CARRO).marcarSalida();
+        when(transaccion.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(jpaRepository.bloquearPorPlacaActiva("OPT123")).thenReturn(Optional.empty());
+
+        // When & Then - ACT & ASSERT
+        assertThrows(IllegalArgumentException.class, () -> pesimista.guardar(salida));
+        verify(jpaRepository, never()).save(any(VehiculoEntity.class));
+    }
+
+    @Test
+    void deberiaExigirAlMenosUnIntentoOptimista() {
+        assertThrows(IllegalArgumentException.class, () -> new VehiculoRepositoryAdapter(jpaRepository,
+                new VehiculoMapperImpl(), jdbcTemplate, transaccion, registry, 1000,
+                VehiculoRepositoryAdapter.BLOQUEO_OPTIMISTA, 0));
+    }
+
+    private static VehiculoEntity activa(long version) {
+        return VehiculoEntity.builder()
+                .id(7L)
+                .placa("OPT123")
+                .tipo(TipoVehiculo.CARRO)
+                .fechaIngreso(LocalDateTime.now().minusHours(2))
+                .activo(true)
+                .placaActiva("OPT123")
+                .version(version)
+                .build();
+    }
+
+    private static ObjectOptimisticLockingFailureException conflicto() {
+        return new ObjectOptimisticLockingFailureException(VehiculoEntity.class, 7L);
+    }
+}
@@ -0,0 +1,206 @@
+package demo.app.demogradle.infrastructure.persistence.adapter;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import demo.app.demogradle.domain.model.TipoVehiculo;
+import demo.app.demogradle.domain.model.Vehiculo;
+import demo.app.demogradle.domain.port.out.VehiculoRepository;
+import jdk.jfr.consumer.RecordingStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * UNIT TESTS - Decorador con caché por placa
+ *
+ * 🎯 QUÉ ESTAMOS PROBANDO:
+ * - Lectura a través de la caché, incluida la ausencia de la placa
+ * - Una ausencia en caché no niega una estancia activa abierta por otra instancia
+ * - Escritura del valor nuevo tras ingresos y salidas confirmados
+ * - Invalidación en guardar, eliminar y escrituras rechazadas
+ * - Contadores de aciertos, fallos y desalojos
+ * - Por defecto, la carga corre en el hilo que lee
+ * - Con hilos virtuales, cargas concurrentes sin anclar el portador
+ */
+@ExtendWith(MockitoExtension.class)
+class VehiculoRepositoryConCacheTest {
+
+    @Mock
+    private VehiculoRepository delegado;
+
+    private VehiculoRepositoryConCache repositorio;
+
+    @BeforeEach
+    void setUp() {
+        repositorio = new VehiculoRepositoryConCache(delegado, 1_000, Duration.ofMinutes(10));
+    }
+
+    @Test
+    void deberiaConsultarElAdaptadorUnaSolaVezPorPlaca() {
+        // Given - ARRANGE
+        Vehiculo vehiculo = Vehiculo.crear("CAC123", TipoVehiculo.CARRO);
+        when(delegado.buscarPorPlaca("CAC123")).thenReturn(Optional.of(vehiculo));
+
+        // When - ACT
+        repositorio.buscarPorPlaca("CAC123");
+        repositorio.buscarPorPlaca("cac123");
+        Optional<Vehiculo> activo = repositorio.buscarActivoPorPlaca("CAC123");
+
+        // Then - ASSERT
+        assertSame(vehiculo, activo.orElseThrow());
+        verify(delegado, times(1)).buscarPorPlaca("CAC123");
+        CacheStats estadisticas = repositorio.estadisticas();
+        assertEquals(1, estadisticas.missCount());
+        assertEquals(2, estadisticas.hitCount());
+    }
+
+    @Test
+    void deberiaRecordarPlacasDesconocidas() {
+        // Given - ARRANGE
+        when(delegado.buscarPorPlaca("NOX123")).thenReturn(Optional.empty());
+
+        // When - ACT
+        assertTrue(repositorio.buscarPorPlaca("NOX123").isEmpty());
+        assertTrue(repositorio.buscarActivoPorPlaca("NOX123").isEmpty());
+
+        // Then - ASSERT
+        verify(delegado, times(1)).buscarPorPlaca("NOX123");
+    }
+
+    @Test
+    void deberiaConfirmarConElAdaptadorUnaAusenciaAntesDeNegarLaEstanciaActiva() {
+        // Given - ARRANGE
+        Vehiculo abiertaPorOtra = Vehiculo.crear("OTR123", TipoVehiculo.CARRO);
+        when(delegado.buscarPorPlaca("OTR123")).thenReturn(Optional.empty());
+        when(delegado.buscarActivoPorPlaca("OTR123"))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(abiertaPorOtra));
+
+        // When & Then - ACT & ASSERT
+        assertTrue(repositorio.buscarActivoPorPlaca("OTR123").isEmpty());
+        assertSame(abiertaPorOtra, repositorio.buscarActivoPorPlaca("OTR123").orElseThrow());
+        assertSame(abiertaPorOtra, repositorio.buscarActivoPorPlaca("otr123").orElseThrow());
+        verify(delegado, times(1)).buscarPorPlaca("OTR123");
+        verify(delegado, times(2)).buscarActivoPorPlaca("OTR123");
+    }
+
+    @Test
+    void deberiaEscribirElValorNuevoTrasIngresoYSalida() {
+        // Given - ARRANGE
+        Vehiculo vehiculo = Vehiculo.crear("ESC123", TipoVehiculo.MOTO);
+        when(delegado.registrarIngreso(vehiculo)).thenReturn(true);
+        when(delegado.registrarSalida(any(Vehiculo.class))).thenReturn(true);
+
+        // When & Then - ACT & ASSERT
+        assertTrue(repositorio.registrarIngreso(vehiculo));
+        assertSame(vehiculo, repositorio.buscarActivoPorPlaca("ESC123").orElseThrow());
+
+        Vehiculo salida = vehiculo.marcarSalida();
+        assertTrue(repositorio.registrarSalida(salida));
+        assertTrue(repositorio.buscarActivoPorPlaca("ESC123").isEmpty());
+        assertSame(salida, repositorio.buscarPorPlaca("ESC123").orElseThrow());
+
+        verify(delegado, never()).buscarPorPlaca(any());
+    }
+
+    @Test
+    void deberiaInvalidarEnGuardarEliminarYEscriturasRechazadas() {
+        // Given - ARRANGE
+        Vehiculo vehiculo = Vehiculo.crear("INV123", TipoVehiculo.CARRO);
+        when(delegado.buscarPorPlaca("INV123")).thenReturn(Optional.empty());
+        when(delegado.guardar(vehiculo)).thenReturn(vehiculo);
+        when(delegado.registrarIngreso(vehiculo)).thenReturn(false);
+
+        // When - ACT
+        repositorio.buscarPorPlaca("INV123");
+        repositorio.guardar(vehiculo);
+        repositorio.buscarPorPlaca("INV123");
+        repositorio.eliminar("INV123");
+        repositorio.buscarPorPlaca("INV123");
+        repositorio.registrarIngreso(vehiculo);
+        repositorio.buscarPorPlaca("INV123");
+
+        // Then - ASSERT
+        verify(delegado, times(4)).buscarPorPlaca("INV123");
+    }
+
+    @Test
+    void deberiaContarDesalojosAlSuperarElTamano() {
+        // Given - ARRANGE
+        VehiculoRepositoryConCache pequena = new VehiculoRepositoryConCache(delegado, 10, Duration.ofMinutes(10));
+        when(delegado.buscarPorPlaca(any())).thenReturn(Optional.empty());
+
+        // When - ACT
+        for (int i = 0; i < 100; i++) {
+            pequena.buscarPorPlaca(String.format("EVI%03d", i));
+        }
+
+        // Then - ASSERT
+        CacheStats estadisticas = pequena.estadisticas();
+        assertEquals(100, estadisticas.missCount());
+        assertTrue(estadisticas.evictionCount() >= 90);
+    }
+
+    /**
+     * TEST: Sin hilos virtuales la consulta corre en el hilo de la petición,
+     * donde la cuentan los contadores por hilo (ContadorSentenciasSql)
+     */
+    @Test
+    void deberiaCargarFallosEnElHiloQueLee() {
+        // Given - ARRANGE
+        Thread lector = Thread.currentThread();
+        List<Thread> hilosDeCarga = new ArrayList<>();
+        when(delegado.buscarPorPlaca("HIL123")).thenAnswer(invocation -> {
+            hilosDeCarga.add(Thread.currentThread());
+            return Optional.empty();
+        });
+
+        // When - ACT
+        repositorio.buscarPorPlaca("hil123");
+
+        // Then - ASSERT
+        assertEquals(List.of(lector), hilosDeCarga);
+    }
+
+    @Test
+    void deberiaCargarFallosDesdeHilosVirtualesSinAnclarlos() throws Exception {
+        // Given - ARRANGE
+        repositorio = new VehiculoRepositoryConCache(delegado, 1_000, Duration.ofMinutes(10), true);
+        when(delegado.buscarPorPlaca("VIR123")).thenAnswer(invocation -> {
+            Thread.sleep(50); // Consulta lenta: dentro de un synchronized anclaría el hilo
+            return Optional.empty();
+        });
+        AtomicInteger anclados = new AtomicInteger();
+
+        try (RecordingStream grabacion = new RecordingStream()) {
+            grabacion.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO);
+            grabacion.onEvent("jdk.VirtualThreadPinned", evento -> anclados.incrementAndGet());
+            grabacion.startAsync();
+
+            // When - ACT
+            List<Thread> lectores = new ArrayList<>();
+            for (int i = 0; i < 32; i++) {
+                lectores.add(Thread.ofVirtual().start(() -> repositorio.buscarPorPlaca("VIR123")));
+            }
+            for (Thread lector : lectores) {
+                lector.join();
+            }
+            grabacion.stop();
+        }
+
+        // Then - ASSERT
+        assertEquals(0, anclados.get());
+        verify(delegado, times(1)).buscarPorPlaca("VIR123");
+    }
+}
@@ -0,0 +1,220 @@
+package demo.app.demogradle.infrastructure.persistence.adapter;
+
+import demo.app.demogradle.domain.model.TipoVehiculo;
+import demo.app.demogradle.domain.model.Vehiculo;
+import demo.app.demogradle.domain.port.out.VehiculoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * UNIT + STRESS TESTS - Decorador con índice de activos
+ *
+ * ✅ CARACTERÍSTICAS:
+ * - Sin Spring Context; el adaptador real se reemplaza por un puerto falso
+ *   con la misma atomicidad que la base de datos (ingreso y salida condicionales)
+ * - Muchos hilos ingresan y sacan las mismas placas mientras otros leen
+ *
+ * 🎯 QUÉ ESTAMOS PROBANDO:
+ * - Las lecturas de activos no llegan al adaptador real
+ * - Cada instantánea es inmutable y no repite placas
+ * - Al terminar, el índice coincide exactamente con la "base de datos"
+ */
+class VehiculoRepositoryConIndiceActivosTest {
+
+    private final Map<String, Vehiculo> baseDeDatos = new ConcurrentHashMap<>();
+    private VehiculoRepository delegado;
+    private VehiculoRepositoryConIndiceActivos repositorio;
+
+    @BeforeEach
+    void setUp() {
+        delegado = mock(VehiculoRepository.class, withSettings().stubOnly());
+        when(delegado.registrarIngreso(any(Vehiculo.class))).thenAnswer(invocation -> {
+            Vehiculo vehiculo = invocation.getArgument(0);
+            return baseDeDatos.putIfAbsent(vehiculo.getPlaca(), vehiculo) == null;
+        });
+        when(delegado.registrarSalida(any(Vehiculo.class))).thenAnswer(invocation -> {
+            Vehiculo vehiculo = invocation.getArgument(0);
+            return baseDeDatos.remove(vehiculo.getPlaca()) != null;
+        });
+        when(delegado.buscarVehiculosActivos()).thenAnswer(invocation -> List.copyOf(baseDeDatos.values()));
+
+        repositorio = new VehiculoRepositoryConIndiceActivos(delegado);
+        repositorio.reconstruir();
+    }
+
+    /**
+     * TEST: Reconstrucción al arrancar
+     * Lo que ya estaba activo en el adaptador aparece en el índice
+     */
+    @Test
+    void deberiaReconstruirDesdeElAdaptador() {
+        // Given - ARRANGE
+        Vehiculo previo = Vehiculo.crear("PRE123", TipoVehiculo.CARRO);
+        baseDeDatos.put(previo.getPlaca(), previo);
+
+        // When - ACT
+        repositorio.reconstruir();
+
+        // Then - ASSERT
+        assertEquals(List.of(previo), repositorio.buscarVehiculosActivos());
+    }
+
+    /**
+     * TEST: Lecturas sin base de datos
+     * La misma instantánea se reutiliza mientras no haya cambios
+     */
+    @Test
+    void deberiaServirActivosSinConsultarElAdaptador() {
+        // Given - ARRANGE
+        repositorio.registrarIngreso(Vehiculo.crear("IDX123", TipoVehiculo.MOTO));
+
+        // When - ACT
+        List<Vehiculo> primera = repositorio.buscarVehiculosActivos();
+        List<Vehiculo> segunda = repositorio.buscarVehiculosActivos();
+
+        // Then - ASSERT
+        assertSame(primera, segunda);
+        assertEquals(1, primera.size());
+        assertThrows(UnsupportedOperationException.class, () -> primera.add(primera.get(0)));
+    }
+
+    /**
+     * TEST: Ingresos rechazados o salidas perdidas no tocan el índice
+     */
+    @Test
+    void deberiaIgnorarEscriturasQueElAdaptadorRechaza() {
+        // Given - ARRANGE
+        Vehiculo vehiculo = Vehiculo.crear("REC123", TipoVehiculo.CARRO);
+        assertTrue(repositorio.registrarIngreso(vehiculo));
+
+        // When - ACT
+        boolean duplicado = repositorio.registrarIngreso(Vehiculo.crear("REC123", TipoVehiculo.CARRO));
+        boolean salida = repositorio.registrarSalida(vehiculo.marcarSalida());
+        boolean segundaSalida = repositorio.registrarSalida(vehiculo.marcarSalida());
+
+        // Then - ASSERT
+        assertFalse(duplicado);
+        assertTrue(salida);
+        assertFalse(segundaSalida);
+        assertTrue(repositorio.buscarVehiculosActivos().isEmpty());
+    }
+
+    /**
+     * TEST: Lotes
+     * Solo lo confirmado por el adaptador entra al índice, y las placas
+     * de un lote de salidas se buscan en el índice
+     */
+    @Test
+    void deberiaAplicarLotesConfirmadosAlIndice() {
+        // Given - ARRANGE
+        when(delegado.registrarIngresos(anyList())).thenAnswer(invocation -> {
+            List<Vehiculo> vehiculos = invocation.getArgument(0);
+            boolean[] aplicados = new boolean[vehiculos.size()];
+            for (int i = 0; i < aplicados.length; i++) {
+                aplicados[i] = baseDeDatos.putIfAbsent(vehiculos.get(i).getPlaca(), vehiculos.get(i)) == null;
+            }
+            return aplicados;
+        });
+        Vehiculo primero = Vehiculo.crear("LOT001", TipoVehiculo.CARRO);
+        Vehiculo segundo = Vehiculo.crear("LOT002", TipoVehiculo.MOTO);
+
+        // When - ACT
+        boolean[] aplicados = repositorio.registrarIngresos(
+                List.of(primero, segundo, Vehiculo.crear("LOT001", TipoVehiculo.CARRO)));
+
+        // Then - ASSERT
+        assertArrayEquals(new boolean[]{true, true, false}, aplicados);
+        assertEquals(2, repositorio.buscarVehiculosActivos().size());
+        assertEquals(List.of(primero), repositorio.buscarActivosPorPlacas(List.of("lot001", "NOX999")));
+    }
+
+    /**
+     * STRESS TEST: Ingresos y salidas concurrentes sobre pocas placas
+     * Mientras escriben, los lectores verifican cada instantánea; al final el
+     * índice debe coincidir con la base de datos
+     */
+    @Test
+    void deberiaCoincidirConLaBaseDeDatosBajoConcurrencia() throws Exception {
+        // Given - ARRANGE
+        int escritores = 8;
+        int lectores = 4;
+        int operacionesPorEscritor = 20_000;
+        String[] placas = new String[32];
+        for (int i = 0; i < placas.length; i++) {
+            placas[i] = String.format("STR%03d", i);
+        }
+
+        ExecutorService hilos = Executors.newFixedThreadPool(escritores + lectores);
+        CountDownLatch inicio = new CountDownLatch(1);
+        AtomicBoolean escribiendo = new AtomicBoolean(true);
+
+        // When - ACT
+        List<Future<?>> tareasEscritura = new ArrayList<>();
+        for (int e = 0; e < escritores; e++) {
+            tareasEscritura.add(hilos.submit(() -> {
+                inicio.await();
+                ThreadLocalRandom azar = ThreadLocalRandom.current();
+                for (int i = 0; i < operacionesPorEscritor; i++) {
+                    String placa = placas[azar.nextInt(placas.length)];
+                    Vehiculo activo = baseDeDatos.get(placa);
+                    if (activo == null) {
+                        repositorio.registrarIngreso(Vehiculo.crear(placa, TipoVehiculo.CARRO));
+                    } else {
+                        repositorio.registrarSalida(activo.marcarSalida());
+                    }
+                }
+                return null;
+            }));
+        }
+        List<Future<?>> tareasLectura = new ArrayList<>();
+        for (int l = 0; l < lectores; l++) {
+            tareasLectura.add(hilos.submit(() -> {
+                inicio.await();
+                while (escribiendo.get()) {
+                    List<Vehiculo> instantanea = repositorio.buscarVehiculosActivos();
+                    Set<String> distintas = instantanea.stream()
+                            .map(Vehiculo::getPlaca)
+                            .collect(Collectors.toSet());
+                    assertEquals(instantanea.size(), distintas.size());
+                    assertTrue(instantanea.stream().allMatch(Vehiculo::isActivo));
+                }
+                return null;
+            }));
+        }
+
+        inicio.countDown();
+        for (Future<?> tarea : tareasEscritura) {
+            tarea.get(60, TimeUnit.SECONDS);
+        }
+        escribiendo.set(false);
+        for (Future<?> tarea : tareasLectura) {
+            tarea.get(10, TimeUnit.SECONDS);
+        }
+        hilos.shutdown();
+
+        // Then - ASSERT
+        Set<String> enIndice = new HashSet<>();
+        repositorio.buscarVehiculosActivos().forEach(v -> enIndice.add(v.getPlaca()));
+        assertEquals(baseDeDatos.keySet(), enIndice);
+    }
+}
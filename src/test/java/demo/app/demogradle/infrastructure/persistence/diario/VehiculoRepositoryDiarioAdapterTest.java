@@ -0,0 +1,285 @@
+package demo.app.demogradle.infrastructure.persistence.diario;
+
+import demo.app.demogradle.domain.model.TipoVehiculo;
+import demo.app.demogradle.domain.model.Vehiculo;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * CRASH-RECOVERY TESTS - Adaptador con diario mapeado en memoria
+ *
+ * ✅ CARACTERÍSTICAS:
+ * - Sin Spring Context; cada test usa su propio directorio temporal
+ * - "Caída" = abandonar el adaptador sin cerrarlo y abrir otro sobre los mismos
+ *   archivos; un registro a medio escribir se simula escribiendo bytes sueltos
+ *
+ * 🎯 QUÉ ESTAMOS PROBANDO:
+ * - Ninguna escritura confirmada se pierde al reabrir, con POR_ESCRITURA y
+ *   AGRUPADA (las políticas que confirman después del fsync). PERIODICA no da esa
+ *   garantía y no se prueba aquí: la caída simulada es la muerte del proceso, que
+ *   no pierde páginas mapeadas, y lo que PERIODICA puede perder es el último
+ *   intervalo en una caída del sistema
+ * - Un registro roto al final se descarta y el diario sigue después del último válido
+ * - Lo que sigue a un registro roto se borra y no reaparece tras otra caída
+ * - La reproducción atraviesa varios segmentos
+ * - Escrituras concurrentes en modo agrupado quedan todas en el diario
+ * - Instantánea + cola del diario reconstruyen el mismo estado, y los segmentos
+ *   cubiertos se borran
+ */
+class VehiculoRepositoryDiarioAdapterTest {
+
+    @TempDir
+    Path directorio;
+
+    /**
+     * TEST: Escrituras confirmadas tras una caída
+     * Con POR_ESCRITURA cada confirmación ya pasó por fsync
+     */
+    @Test
+    void deberiaRecuperarLasEscriturasConfirmadasTrasUnaCaida() {
+        // Given - ARRANGE
+        VehiculoRepositoryDiarioAdapter antes = abrir(PoliticaSincronizacion.POR_ESCRITURA, DataSize.ofMegabytes(1));
+        Vehiculo carro = Vehiculo.crear("DIA001", TipoVehiculo.CARRO);
+        Vehiculo moto = Vehiculo.crear("DIA002", TipoVehiculo.MOTO);
+        assertTrue(antes.registrarIngreso(carro));
+        assertTrue(antes.registrarIngreso(moto));
+        assertFalse(antes.registrarIngreso(Vehiculo.crear("DIA001", TipoVehiculo.CARRO)));
+        Vehiculo salida = moto.marcarSalida();
+        assertTrue(antes.registrarSalida(salida));
+        antes.registrarIngreso(Vehiculo.crear("DIA003", TipoVehiculo.CARRO));
+        antes.eliminar("DIA003");
+
+        // When - ACT (sin close: el proceso "murió")
+        VehiculoRepositoryDiarioAdapter despues = abrir(PoliticaSincronizacion.POR_ESCRITURA, DataSize.ofMegabytes(1));
+
+        // Then - ASSERT
+        assertEquals(List.of("DIA001"), placas(despues.buscarVehiculosActivos()));
+        Vehiculo motoRecuperada = despues.buscarPorPlaca("DIA002").orElseThrow();
+        assertFalse(motoRecuperada.isActivo());
+        assertEquals(salida.getCosto(), motoRecuperada.getCosto());
+        assertTrue(despues.buscarPorPlaca("DIA003").isEmpty());
+        assertEquals(2, despues.buscarTodos().size());
+        despues.close();
+    }
+
+    @Test
+    void deberiaDescartarUnRegistroRotoAlFinal() throws IOException {
+        // Given - ARRANGE
+        VehiculoRepositoryDiarioAdapter antes = abrir(PoliticaSincronizacion.POR_ESCRITURA, DataSize.ofMegabytes(1));
+        antes.registrarIngreso(Vehiculo.crear("ROT001", TipoVehiculo.CARRO));
+        antes.registrarIngreso(Vehiculo.crear("ROT002", TipoVehiculo.CARRO));
+        antes.close();
+
+        // El proceso murió mientras escribía el tercer registro: tiene operación pero no CRC válido
+        Path segmento = unicoSegmento();
+        try (FileChannel canal = FileChannel.open(segmento, StandardOpenOption.WRITE)) {
+            ByteBuffer roto = ByteBuffer.allocate(12);
+            roto.putInt(0).put(RegistroDiario.INGRESO).put((byte) 0).putShort((short) 0).putInt(0x1234);
+            roto.flip();
+            canal.write(roto, 2L * RegistroDiario.TAMANO);
+        }
+
+        // When - ACT
+        VehiculoRepositoryDiarioAdapter recuperado = abrir(PoliticaSincronizacion.POR_ESCRITURA, DataSize.ofMegabytes(1));
+        assertTrue(recuperado.registrarIngreso(Vehiculo.crear("ROT003", TipoVehiculo.MOTO)));
+        recuperado.close();
+        VehiculoRepositoryDiarioAdapter otraVez = abrir(PoliticaSincronizacion.POR_ESCRITURA, DataSize.ofMegabytes(1));
+
+        // Then - ASSERT
+        assertEquals(List.of("ROT001", "ROT002", "ROT003"), placas(otraVez.buscarVehiculosActivos()));
+        otraVez.close();
+    }
+
+    /**
+     * TEST: Registros sin confirmar detrás de uno roto
+     * Con sincronización agrupada las páginas llegan a disco en cualquier orden: puede
+     * quedar un registro roto seguido de otro con CRC válido que nadie confirmó
+     */
+    @Test
+    void deberiaBorrarLoQueSigueAUnRegistroRoto() throws IOException {
+        // Given - ARRANGE
+        VehiculoRepositoryDiarioAdapter antes = abrir(PoliticaSincronizacion.AGRUPADA, DataSize.ofMegabytes(1));
+        antes.registrarIngreso(Vehiculo.crear("COL001", TipoVehiculo.CARRO));
+        antes.registrarIngreso(Vehiculo.crear("COL002", TipoVehiculo.CARRO));
+        antes.registrarIngreso(Vehiculo.crear("COL003", TipoVehiculo.CARRO));
+        antes.close();
+
+        // El segundo registro quedó roto; el tercero llegó entero a disco
+        Path segmento = unicoSegmento();
+        try (FileChannel canal = FileChannel.open(segmento, StandardOpenOption.WRITE)) {
+            ByteBuffer basura = ByteBuffer.allocate(4).putInt(0xDEADBEEF);
+            basura.flip();
+            canal.write(basura, RegistroDiario.TAMANO);
+        }
+
+        // When - ACT: la primera escritura nueva ocupa el hueco roto y el proceso vuelve a caer
+        VehiculoRepositoryDiarioAdapter recuperado = abrir(PoliticaSincronizacion.AGRUPADA, DataSize.ofMegabytes(1));
+        assertEquals(List.of("COL001"), placas(recuperado.buscarVehiculosActivos()));
+        assertTrue(recuperado.registrarIngreso(Vehiculo.crear("COL004", TipoVehiculo.MOTO)));
+        VehiculoRepositoryDiarioAdapter otraVez = abrir(PoliticaSincronizacion.AGRUPADA, DataSize.ofMegabytes(1));
+
+        // Then - ASSERT
+        assertEquals(List.of("COL001", "COL004"), placas(otraVez.buscarVehiculosActivos()));
+        assertTrue(otraVez.buscarPorPlaca("COL003").isEmpty());
+        otraVez.close();
+    }
+
+    @Test
+    void deberiaReproducirVariosSegmentos() throws IOException {
+        // Given - ARRANGE: segmentos de 10 registros
+        DataSize diezRegistros = DataSize.ofBytes(10L * RegistroDiario.TAMANO);
+        VehiculoRepositoryDiarioAdapter antes = abrir(PoliticaSincronizacion.AGRUPADA, diezRegistros);
+        for (int i = 0; i < 35; i++) {
+            assertTrue(antes.registrarIngreso(Vehiculo.crear(String.format("SEG%03d", i), TipoVehiculo.CARRO)));
+        }
+
+        // When - ACT
+        VehiculoRepositoryDiarioAdapter despues = abrir(PoliticaSincronizacion.AGRUPADA, diezRegistros);
+
+        // Then - ASSERT
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            assertEquals(4, archivos.count());
+        }
+        assertEquals(35, despues.buscarVehiculosActivos().size());
+        assertTrue(despues.registrarIngreso(Vehiculo.crear("SEG035", TipoVehiculo.MOTO)));
+        despues.close();
+    }
+
+    /**
+     * TEST: Escrituras concurrentes confirmadas
+     * Con AGRUPADA ninguna se confirma antes del fsync que comparte con las demás
+     */
+    @Test
+    void deberiaConservarTodasLasEscriturasConcurrentesConfirmadas() throws Exception {
+        // Given - ARRANGE
+        VehiculoRepositoryDiarioAdapter antes = abrir(PoliticaSincronizacion.AGRUPADA, DataSize.ofKilobytes(64));
+        Set<String> adentro = ConcurrentHashMap.newKeySet();
+        String[] placas = new String[64];
+        for (int i = 0; i < placas.length; i++) {
+            placas[i] = String.format("CON%03d", i);
+        }
+
+        // When - ACT
+        ExecutorService hilos = Executors.newFixedThreadPool(8);
+        List<Future<?>> tareas = Stream.generate(() -> hilos.submit(() -> {
+            ThreadLocalRandom azar = ThreadLocalRandom.current();
+            for (int i = 0; i < 500; i++) {
+                String placa = placas[azar.nextInt(placas.length)];
+                if (antes.registrarIngreso(Vehiculo.crear(placa, TipoVehiculo.CARRO))) {
+                    adentro.add(placa);
+                } else {
+                    antes.buscarActivoPorPlaca(placa).ifPresent(activo -> {
+                        if (antes.registrarSalida(activo.marcarSalida())) {
+                            adentro.remove(placa);
+                        }
+                    });
+                }
+            }
+            return null;
+        })).limit(8).collect(Collectors.toList());
+        for (Future<?> tarea : tareas) {
+            tarea.get(60, TimeUnit.SECONDS);
+        }
+        hilos.shutdown();
+
+        VehiculoRepositoryDiarioAdapter despues = abrir(PoliticaSincronizacion.AGRUPADA, DataSize.ofKilobytes(64));
+
+        // Then - ASSERT
+        assertEquals(Set.copyOf(placas(antes.buscarVehiculosActivos())), Set.copyOf(placas(despues.buscarVehiculosActivos())));
+        assertEquals(antes.buscarTodos().size(), despues.buscarTodos().size());
+        despues.close();
+    }
+
+    @Test
+    void deberiaRecuperarDesdeInstantaneaYColaDelDiario() throws IOException {
+        // Given - ARRANGE: segmentos de 4 registros
+        DataSize cuatroRegistros = DataSize.ofBytes(4L * RegistroDiario.TAMANO);
+        VehiculoRepositoryDiarioAdapter antes = abrir(PoliticaSincronizacion.AGRUPADA, cuatroRegistros);
+        for (int i = 0; i < 10; i++) {
+            antes.registrarIngreso(Vehiculo.crear(String.format("INS%03d", i), TipoVehiculo.CARRO));
+        }
+        antes.registrarSalida(antes.buscarActivoPorPlaca("INS000").orElseThrow().marcarSalida());
+        antes.eliminar("INS009");
+
+        // When - ACT
+        assertEquals(9, antes.tomarInstantanea());
+        assertEquals(0, antes.tomarInstantanea());
+        antes.registrarSalida(antes.buscarActivoPorPlaca("INS001").orElseThrow().marcarSalida());
+        antes.registrarIngreso(Vehiculo.crear("INS000", TipoVehiculo.MOTO));
+        antes.eliminar("INS002");
+        VehiculoRepositoryDiarioAdapter despues = abrir(PoliticaSincronizacion.AGRUPADA, cuatroRegistros);
+
+        // Then - ASSERT: solo queda la instantánea y la cola posterior
+        List<String> archivos;
+        try (Stream<Path> listado = Files.list(directorio)) {
+            archivos = listado.map(p -> p.getFileName().toString()).sorted().toList();
+        }
+        assertEquals(1, archivos.stream().filter(a -> a.endsWith(".instantanea")).count());
+        assertEquals(1, archivos.stream().filter(a -> a.endsWith(".diario")).count());
+
+        assertEquals(placas(antes.buscarVehiculosActivos()), placas(despues.buscarVehiculosActivos()));
+        assertEquals(placas(antes.buscarTodos()), placas(despues.buscarTodos()));
+        assertEquals(TipoVehiculo.MOTO, despues.buscarActivoPorPlaca("INS000").orElseThrow().getTipo());
+        assertTrue(despues.buscarPorPlaca("INS009").isEmpty());
+        despues.close();
+    }
+
+    @Test
+    void deberiaConservarLaInstantaneaAnteriorSiLaNuevaNoTermino() throws IOException {
+        // Given - ARRANGE
+        VehiculoRepositoryDiarioAdapter antes = abrir(PoliticaSincronizacion.POR_ESCRITURA, DataSize.ofMegabytes(1));
+        antes.registrarIngreso(Vehiculo.crear("TMP001", TipoVehiculo.CARRO));
+        antes.tomarInstantanea();
+        antes.registrarIngreso(Vehiculo.crear("TMP002", TipoVehiculo.CARRO));
+        antes.close();
+        // El proceso murió escribiendo la siguiente instantánea
+        Path aMedias = directorio.resolve(String.format("%020d.instantanea.tmp", 99));
+        Files.write(aMedias, new byte[]{1, 2, 3});
+
+        // When - ACT
+        VehiculoRepositoryDiarioAdapter despues = abrir(PoliticaSincronizacion.POR_ESCRITURA, DataSize.ofMegabytes(1));
+
+        // Then - ASSERT
+        assertEquals(List.of("TMP001", "TMP002"), placas(despues.buscarVehiculosActivos()));
+        assertFalse(Files.exists(aMedias));
+        despues.close();
+    }
+
+    private VehiculoRepositoryDiarioAdapter abrir(PoliticaSincronizacion politica, DataSize tamanoSegmento) {
+        return new VehiculoRepositoryDiarioAdapter(directorio, tamanoSegmento, politica,
+                Duration.ofMillis(5), Duration.ZERO, 16);
+    }
+
+    private Path unicoSegmento() throws IOException {
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            List<Path> segmentos = archivos.toList();
+            assertEquals(1, segmentos.size());
+            return segmentos.get(0);
+        }
+    }
+
+    private static List<String> placas(List<Vehiculo> vehiculos) {
+        return vehiculos.stream().map(Vehiculo::getPlaca).sorted().toList();
+    }
+}
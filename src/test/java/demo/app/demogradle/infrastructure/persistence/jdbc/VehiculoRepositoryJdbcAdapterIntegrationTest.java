@@ -0,0 +1,207 @@
+package demo.app.demogradle.infrastructure.persistence.jdbc;
+
+import demo.app.demogradle.domain.model.ConsultaHistorial;
+import demo.app.demogradle.domain.model.PaginaHistorial;
+import demo.app.demogradle.domain.model.TipoVehiculo;
+import demo.app.demogradle.domain.model.Vehiculo;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * INTEGRATION TESTS - Adaptador JDBC escrito a mano
+ *
+ * ✅ CARACTERÍSTICAS:
+ * - Spring Context mínimo (@JdbcTest): DataSource, JdbcTemplate y transacciones, sin Hibernate
+ * - Base de datos H2 en memoria con el esquema compartido db/estancias.sql
+ *
+ * 🎯 QUÉ ESTAMOS PROBANDO:
+ * - Ingreso y salida condicionales, también en lote
+ * - Mapeo directo de filas a Vehiculo
+ * - Historial por cursor y exportación en streaming
+ * - guardar: cierre de la estancia activa o inserción de una estancia ya cerrada
+ */
+@JdbcTest(properties = {
+        "parqueadero.persistencia.adaptador=jdbc",
+        "spring.sql.init.schema-locations=classpath:db/estancias.sql"
+})
+@Import(VehiculoRepositoryJdbcAdapter.class)
+class VehiculoRepositoryJdbcAdapterIntegrationTest {
+
+    @Autowired
+    private VehiculoRepositoryJdbcAdapter adapter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate; // ← Para verificar la tabla directamente
+
+    /**
+     * INTEGRATION TEST: Ingreso condicional
+     * El segundo ingreso de la misma placa deja 0 filas en vez de fallar
+     */
+    @Test
+    void deberiaRegistrarIngresoUnaSolaVezPorPlaca() {
+        // Given - ARRANGE
+        Vehiculo vehiculo = Vehiculo.crear("JDB123", TipoVehiculo.CARRO);
+
+        // When - ACT
+        boolean primero = adapter.registrarIngreso(vehiculo);
+        boolean duplicado = adapter.registrarIngreso(Vehiculo.crear("jdb123", TipoVehiculo.MOTO));
+
+        // Then - ASSERT
+        assertTrue(primero);
+        assertFalse(duplicado);
+        Vehiculo activo = adapter.buscarActivoPorPlaca("jdb123").orElseThrow();
+        assertEquals("JDB123", activo.getPlaca());
+        assertEquals(TipoVehiculo.CARRO, activo.getTipo());
+        assertTrue(activo.isActivo());
+        assertNull(activo.getFechaSalida());
+        assertNull(activo.getCosto());
+    }
+
+    /**
+     * INTEGRATION TEST: Salida condicional
+     * Solo la primera salida cierra la estancia, libera la placa y sube la versión
+     */
+    @Test
+    void deberiaCerrarEstanciaActivaUnaSolaVez() {
+        // Given - ARRANGE
+        Vehiculo vehiculo = Vehiculo.crear("SAL123", TipoVehiculo.MOTO);
+        adapter.registrarIngreso(vehiculo);
+        Vehiculo salida = vehiculo.marcarSalida();
+
+        // When - ACT
+        boolean primeraSalida = adapter.registrarSalida(salida);
+        boolean segundaSalida = adapter.registrarSalida(salida);
+
+        // Then - ASSERT
+        assertTrue(primeraSalida);
+        assertFalse(segundaSalida);
+        assertTrue(adapter.buscarActivoPorPlaca("SAL123").isEmpty());
+        Vehiculo cerrada = adapter.buscarPorPlaca("SAL123").orElseThrow();
+        assertFalse(cerrada.isActivo());
+        assertEquals(salida.getCosto(), cerrada.getCosto());
+        assertEquals(1L, jdbcTemplate.queryForObject(
+                "SELECT version FROM estancias WHERE placa = 'SAL123'", Long.class));
+    }
+
+    /**
+     * INTEGRATION TEST: Salida de una estancia vieja
+     * La fecha de ingreso fija la estancia: la salida vieja no cierra la nueva
+     */
+    @Test
+    void deberiaNoCerrarUnaEstanciaMasNuevaConUnaSalidaVieja() {
+        // Given - ARRANGE
+        Vehiculo vieja = Vehiculo.crear("VIE123", TipoVehiculo.CARRO);
+        adapter.registrarIngreso(vieja);
+        Vehiculo salidaVieja = vieja.marcarSalida();
+        adapter.registrarSalida(salidaVieja);
+        Vehiculo nueva = Vehiculo.builder()
+                .placa("VIE123")
+                .tipo(TipoVehiculo.CARRO)
+                .fechaIngreso(vieja.getFechaIngreso().plusSeconds(1))
+                .activo(true)
+                .build();
+        adapter.registrarIngreso(nueva);
+
+        // When & Then - ACT & ASSERT
+        assertFalse(adapter.registrarSalida(salidaVieja));
+        assertArrayEquals(new boolean[]{false}, adapter.registrarSalidas(List.of(salidaVieja)));
+        assertEquals(nueva.getFechaIngreso(), adapter.buscarActivoPorPlaca("VIE123").orElseThrow().getFechaIngreso());
+    }
+
+    /**
+     * INTEGRATION TEST: Lotes condicionales
+     * Un duplicado dentro del lote no aborta las demás escrituras
+     */
+    @Test
+    void deberiaAplicarLotesCondicionalesSinAbortarPorDuplicados() {
+        // Given - ARRANGE
+        Vehiculo primero = Vehiculo.crear("LOT001", TipoVehiculo.CARRO);
+        Vehiculo segundo = Vehiculo.crear("LOT002", TipoVehiculo.MOTO);
+
+        // When - ACT
+        boolean[] ingresos = adapter.registrarIngresos(
+                List.of(primero, segundo, Vehiculo.crear("LOT001", TipoVehiculo.CARRO)));
+        boolean[] salidas = adapter.registrarSalidas(
+                List.of(primero.marcarSalida(), Vehiculo.crear("NOX999", TipoVehiculo.CARRO).marcarSalida()));
+
+        // Then - ASSERT
+        assertArrayEquals(new boolean[]{true, true, false}, ingresos);
+        assertArrayEquals(new boolean[]{true, false}, salidas);
+        List<Vehiculo> activos = adapter.buscarActivosPorPlacas(List.of("lot001", "lot002", "NOX999"));
+        assertEquals(List.of("LOT002"), activos.stream().map(Vehiculo::getPlaca).toList());
+        assertEquals(1, adapter.buscarVehiculosActivos().size());
+    }
+
+    /**
+     * INTEGRATION TEST: Historial por cursor
+     * Las páginas siguen el orden (fechaIngreso, placa) descendente sin repetir filas
+     */
+    @Test
+    void deberiaPaginarHistorialPorCursorYExportarlo() {
+        // Given - ARRANGE
+        LocalDateTime base = LocalDateTime.now().minusDays(1);
+        for (int i = 0; i < 5; i++) {
+            adapter.guardar(Vehiculo.builder()
+                    .placa(String.format("HIS%03d", i))
+                    .tipo(i % 2 == 0 ? TipoVehiculo.CARRO : TipoVehiculo.MOTO)
+                    .fechaIngreso(base.plusHours(i))
+                    .fechaSalida(base.plusHours(i + 1))
+                    .activo(false)
+                    .costo(1000)
+                    .build());
+        }
+
+        // When - ACT
+        PaginaHistorial primera = adapter.buscarHistorial(ConsultaHistorial.builder().limite(3).build());
+        PaginaHistorial segunda = adapter.buscarHistorial(ConsultaHistorial.builder()
+                .limite(3)
+                .cursor(primera.siguiente().orElseThrow())
+                .build());
+        PaginaHistorial carros = adapter.buscarHistorial(ConsultaHistorial.builder()
+                .tipo(TipoVehiculo.CARRO)
+                .build());
+        List<String> exportadas;
+        try (Stream<Vehiculo> historial = adapter.transmitirHistorial()) {
+            exportadas = historial.map(Vehiculo::getPlaca).toList();
+        }
+
+        // Then - ASSERT
+        assertEquals(List.of("HIS004", "HIS003", "HIS002"),
+                primera.getVehiculos().stream().map(Vehiculo::getPlaca).toList());
+        assertEquals(List.of("HIS001", "HIS000"),
+                segunda.getVehiculos().stream().map(Vehiculo::getPlaca).toList());
+        assertTrue(segunda.siguiente().isEmpty());
+        assertEquals(3, carros.getVehiculos().size());
+        assertEquals(List.of("HIS000", "HIS001", "HIS002", "HIS003", "HIS004"), exportadas);
+    }
+
+    /**
+     * INTEGRATION TEST: guardar
+     * Un vehículo inactivo cierra la estancia activa en vez de duplicarla
+     */
+    @Test
+    void deberiaCerrarLaEstanciaActivaAlGuardarUnVehiculoInactivo() {
+        // Given - ARRANGE
+        Vehiculo vehiculo = adapter.guardar(Vehiculo.crear("GUA123", TipoVehiculo.CARRO));
+
+        // When - ACT
+        adapter.guardar(vehiculo.marcarSalida());
+        adapter.eliminar("OTR999");
+
+        // Then - ASSERT
+        assertEquals(1, adapter.buscarTodos().size());
+        assertFalse(adapter.buscarPorPlaca("GUA123").orElseThrow().isActivo());
+
+        adapter.eliminar("gua123");
+        assertTrue(adapter.buscarTodos().isEmpty());
+    }
+}
@@ -0,0 +1,209 @@
+package demo.app.demogradle.infrastructure.persistence.memoria;
+
+import demo.app.demogradle.domain.model.ConsultaHistorial;
+import demo.app.demogradle.domain.model.CursorHistorial;
+import demo.app.demogradle.domain.model.PaginaHistorial;
+import demo.app.demogradle.domain.model.TipoVehiculo;
+import demo.app.demogradle.domain.model.Vehiculo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * UNIT TESTS - Adaptador en memoria con arreglos primitivos
+ *
+ * ✅ CARACTERÍSTICAS:
+ * - Sin Spring Context ni base de datos
+ * - Capacidad inicial mínima, para forzar el crecimiento de arreglos y mapa
+ *
+ * 🎯 QUÉ ESTAMOS PROBANDO:
+ * - Codificación de placas sin pérdida y con el orden alfabético
+ * - Mismo contrato del puerto que el adaptador JPA (ingreso y salida
+ *   condicionales, última estancia, historial por llave, eliminación)
+ */
+class VehiculoRepositoryMemoriaAdapterTest {
+
+    private VehiculoRepositoryMemoriaAdapter adaptador;
+
+    @BeforeEach
+    void setUp() {
+        adaptador = new VehiculoRepositoryMemoriaAdapter(16);
+    }
+
+    @Test
+    void deberiaCodificarPlacasSinPerdidaYEnOrden() {
+        // Given - ARRANGE
+        String[] ordenadas = {"0AAAAA", "AAA000", "AAA0000", "ABC123", "ABC1234", "ZZZ999", "ZZZZZZZ"};
+
+        // When & Then - ACT & ASSERT
+        for (int i = 0; i < ordenadas.length; i++) {
+            long codigo = PlacaCodificada.codificar(ordenadas[i]);
+            assertEquals(ordenadas[i], PlacaCodificada.decodificar(codigo));
+            if (i > 0) {
+                assertTrue(PlacaCodificada.codificar(ordenadas[i - 1]) < codigo);
+            }
+        }
+        assertEquals(PlacaCodificada.codificar("ABC123"), PlacaCodificada.codificar("abc123"));
+        assertEquals(PlacaCodificada.NO_REPRESENTABLE, PlacaCodificada.codificar("ABC-12"));
+        assertEquals(PlacaCodificada.NO_REPRESENTABLE, PlacaCodificada.codificar("ABC12345"));
+    }
+
+    @Test
+    void deberiaAbrirYCerrarEstanciasDeFormaCondicional() {
+        // Given - ARRANGE
+        Vehiculo vehiculo = Vehiculo.crear("MEM123", TipoVehiculo.MOTO);
+
+        // When & Then - ACT & ASSERT
+        assertTrue(adaptador.registrarIngreso(vehiculo));
+        assertFalse(adaptador.registrarIngreso(Vehiculo.crear("MEM123", TipoVehiculo.MOTO)));
+        assertTrue(adaptador.buscarActivoPorPlaca("mem123").isPresent());
+
+        Vehiculo salida = vehiculo.marcarSalida();
+        assertTrue(adaptador.registrarSalida(salida));
+        assertFalse(adaptador.registrarSalida(salida));
+
+        Vehiculo guardado = adaptador.buscarPorPlaca("MEM123").orElseThrow();
+        assertFalse(guardado.isActivo());
+        assertEquals(salida.getCosto(), guardado.getCosto());
+        assertNotNull(guardado.getFechaSalida());
+        assertTrue(adaptador.buscarActivoPorPlaca("MEM123").isEmpty());
+        assertTrue(adaptador.buscarVehiculosActivos().isEmpty());
+    }
+
+    @Test
+    void deberiaDevolverLaUltimaEstanciaYConservarElHistorial() {
+        // Given - ARRANGE
+        Vehiculo primera = Vehiculo.crear("REI123", TipoVehiculo.CARRO);
+        adaptador.registrarIngreso(primera);
+        adaptador.registrarSalida(primera.marcarSalida());
+
+        // When - ACT
+        adaptador.registrarIngreso(Vehiculo.crear("REI123", TipoVehiculo.CARRO));
+
+        // Then - ASSERT
+        assertTrue(adaptador.buscarPorPlaca("REI123").orElseThrow().isActivo());
+        assertEquals(2, adaptador.buscarTodos().size());
+        try (Stream<Vehiculo> historial = adaptador.transmitirHistorial()) {
+            assertEquals(List.of(false, true), historial.map(Vehiculo::isActivo).toList());
+        }
+    }
+
+    @Test
+    void deberiaPaginarHistorialPorLlaveComoElAdaptadorJpa() {
+        // Given - ARRANGE
+        LocalDateTime base = LocalDateTime.of(2025, 3, 1, 8, 0);
+        for (int i = 0; i < 50; i++) {
+            adaptador.guardar(Vehiculo.builder()
+                    .placa(String.format("PAG%03d", i))
+                    .tipo(i % 2 == 0 ? TipoVehiculo.CARRO : TipoVehiculo.MOTO)
+                    .fechaIngreso(base.plusMinutes(i / 2))
+                    .activo(true)
+                    .build());
+        }
+
+        // When - ACT
+        List<Vehiculo> recorridas = new ArrayList<>();
+        CursorHistorial cursor = null;
+        do {
+            PaginaHistorial pagina = adaptador.buscarHistorial(ConsultaHistorial.builder()
+                    .cursor(cursor)
+                    .tipo(TipoVehiculo.CARRO)
+                    .limite(7)
+                    .build());
+            recorridas.addAll(pagina.getVehiculos());
+            cursor = pagina.siguiente().orElse(null);
+        } while (cursor != null);
+
+        // Then - ASSERT
+        assertEquals(25, recorridas.size());
+        for (int i = 1; i < recorridas.size(); i++) {
+            Vehiculo anterior = recorridas.get(i - 1);
+            Vehiculo actual = recorridas.get(i);
+            assertEquals(TipoVehiculo.CARRO, actual.getTipo());
+            int orden = anterior.getFechaIngreso().compareTo(actual.getFechaIngreso());
+            assertTrue(orden > 0 || (orden == 0 && anterior.getPlaca().compareTo(actual.getPlaca()) > 0));
+        }
+    }
+
+    /**
+     * TEST: Índice por (ingreso, placa)
+     * Estancias guardadas con fechas desordenadas y algunas eliminadas: las
+     * páginas dentro de [desde, hasta) salen en el mismo orden que ordenar todo
+     */
+    @Test
+    void deberiaPaginarDesdeElIndiceConFechasDesordenadas() {
+        // Given - ARRANGE
+        LocalDateTime base = LocalDateTime.of(2025, 5, 1, 6, 0);
+        for (int i = 0; i < 60; i++) {
+            int desorden = (i * 7) % 60;
+            adaptador.guardar(Vehiculo.builder()
+                    .placa(String.format("DES%03d", desorden))
+                    .tipo(TipoVehiculo.CARRO)
+                    .fechaIngreso(base.plusMinutes(desorden / 3))
+                    .activo(true)
+                    .build());
+        }
+        adaptador.eliminar("DES010");
+        adaptador.eliminar("DES031");
+        LocalDateTime desde = base.plusMinutes(2);
+        LocalDateTime hasta = base.plusMinutes(15);
+
+        // When - ACT
+        List<String> recorridas = new ArrayList<>();
+        CursorHistorial cursor = null;
+        do {
+            PaginaHistorial pagina = adaptador.buscarHistorial(ConsultaHistorial.builder()
+                    .cursor(cursor).desde(desde).hasta(hasta).limite(4).build());
+            pagina.getVehiculos().forEach(vehiculo -> recorridas.add(vehiculo.getPlaca()));
+            cursor = pagina.siguiente().orElse(null);
+        } while (cursor != null);
+
+        // Then - ASSERT
+        List<String> esperadas = adaptador.buscarTodos().stream()
+                .filter(vehiculo -> !vehiculo.getFechaIngreso().isBefore(desde)
+                        && vehiculo.getFechaIngreso().isBefore(hasta))
+                .sorted(Comparator.comparing(Vehiculo::getFechaIngreso)
+                        .thenComparing(Vehiculo::getPlaca)
+                        .reversed())
+                .map(Vehiculo::getPlaca)
+                .toList();
+        assertEquals(37, esperadas.size());
+        assertEquals(esperadas, recorridas);
+    }
+
+    @Test
+    void deberiaEliminarTodasLasEstanciasDeUnaPlacaYCrecerSinPerderOtras() {
+        // Given - ARRANGE
+        for (int i = 0; i < 5_000; i++) {
+            adaptador.registrarIngreso(Vehiculo.crear(String.format("GRO%04d", i), TipoVehiculo.CARRO));
+        }
+
+        // When - ACT
+        for (int i = 0; i < 5_000; i += 2) {
+            adaptador.eliminar(String.format("GRO%04d", i));
+        }
+
+        // Then - ASSERT
+        assertEquals(2_500, adaptador.buscarVehiculosActivos().size());
+        for (int i = 0; i < 5_000; i++) {
+            Optional<Vehiculo> vehiculo = adaptador.buscarPorPlaca(String.format("GRO%04d", i));
+            assertEquals(i % 2 == 1, vehiculo.isPresent());
+        }
+        assertTrue(adaptador.registrarIngreso(Vehiculo.crear("GRO0000", TipoVehiculo.MOTO)));
+    }
+
+    @Test
+    void deberiaRechazarPlacasNoAlfanumericasAlEscribir() {
+        assertThrows(IllegalArgumentException.class,
+                () -> adaptador.registrarIngreso(Vehiculo.crear("ABC-12", TipoVehiculo.CARRO)));
+        assertTrue(adaptador.buscarPorPlaca("ABC-12").isEmpty());
+    }
+}
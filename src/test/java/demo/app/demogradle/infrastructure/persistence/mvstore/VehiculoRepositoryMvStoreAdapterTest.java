@@ -0,0 +1,230 @@
+package demo.app.demogradle.infrastructure.persistence.mvstore;
+
+import demo.app.demogradle.domain.model.ConsultaHistorial;
+import demo.app.demogradle.domain.model.PaginaHistorial;
+import demo.app.demogradle.domain.model.TipoVehiculo;
+import demo.app.demogradle.domain.model.Vehiculo;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * CRASH-RECOVERY TESTS - Adaptador MVStore
+ *
+ * ✅ CARACTERÍSTICAS:
+ * - Sin Spring Context; cada test usa su propio archivo temporal
+ * - "Caída" = soltar el archivo sin cerrarlo ordenadamente (closeImmediately)
+ *   y abrir otro adaptador sobre el mismo archivo
+ *
+ * 🎯 QUÉ ESTAMOS PROBANDO:
+ * - Ninguna escritura confirmada se pierde al reabrir
+ * - Lotes, guardar y eliminar sobre los dos mapas
+ * - Historial paginado con cursor como lectura por rango, con empates de fecha
+ * - Un lote inválido se rechaza entero, sin dejar nada a medias
+ */
+class VehiculoRepositoryMvStoreAdapterTest {
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    void deberiaRecuperarLasEscriturasConfirmadasTrasUnaCaida() {
+        // Given - ARRANGE
+        VehiculoRepositoryMvStoreAdapter antes = abrir();
+        Vehiculo carro = Vehiculo.crear("MVS001", TipoVehiculo.CARRO);
+        Vehiculo moto = Vehiculo.crear("MVS002", TipoVehiculo.MOTO);
+        assertTrue(antes.registrarIngreso(carro));
+        assertTrue(antes.registrarIngreso(moto));
+        assertFalse(antes.registrarIngreso(Vehiculo.crear("mvs001", TipoVehiculo.CARRO)));
+        Vehiculo salida = moto.marcarSalida();
+        assertTrue(antes.registrarSalida(salida));
+        assertFalse(antes.registrarSalida(salida));
+        antes.registrarIngreso(Vehiculo.crear("MVS003", TipoVehiculo.CARRO));
+        antes.eliminar("MVS003");
+
+        // When - ACT (sin close: el proceso "murió")
+        antes.abandonar();
+        VehiculoRepositoryMvStoreAdapter despues = abrir();
+
+        // Then - ASSERT
+        assertEquals(List.of("MVS001"), placas(despues.buscarVehiculosActivos()));
+        Vehiculo motoRecuperada = despues.buscarPorPlaca("MVS002").orElseThrow();
+        assertFalse(motoRecuperada.isActivo());
+        assertEquals(TipoVehiculo.MOTO, motoRecuperada.getTipo());
+        assertEquals(moto.getFechaIngreso(), motoRecuperada.getFechaIngreso());
+        assertEquals(salida.getFechaSalida(), motoRecuperada.getFechaSalida());
+        assertEquals(salida.getCosto(), motoRecuperada.getCosto());
+        assertTrue(despues.buscarPorPlaca("MVS003").isEmpty());
+        assertEquals(2, despues.buscarTodos().size());
+        despues.close();
+    }
+
+    @Test
+    void deberiaDevolverLaUltimaEstanciaDeCadaPlaca() {
+        // Given - ARRANGE
+        VehiculoRepositoryMvStoreAdapter repositorio = abrir();
+        Vehiculo primera = Vehiculo.crear("ULT123", TipoVehiculo.CARRO);
+        repositorio.registrarIngreso(primera);
+        repositorio.registrarSalida(primera.marcarSalida());
+        repositorio.registrarIngreso(Vehiculo.crear("ULT1234", TipoVehiculo.MOTO));
+
+        // When - ACT
+        Vehiculo segunda = Vehiculo.crear("ULT123", TipoVehiculo.CARRO);
+        repositorio.registrarIngreso(segunda);
+
+        // Then - ASSERT (ULT123 no se mezcla con ULT1234)
+        assertSame(segunda, repositorio.buscarPorPlaca("ult123").orElseThrow());
+        assertTrue(repositorio.buscarActivoPorPlaca("ULT123").isPresent());
+        assertEquals(TipoVehiculo.MOTO, repositorio.buscarPorPlaca("ULT1234").orElseThrow().getTipo());
+        assertTrue(repositorio.buscarPorPlaca("ULT12").isEmpty());
+        repositorio.close();
+    }
+
+    @Test
+    void deberiaAplicarLotesYSobrevivirAlReabrir() {
+        // Given - ARRANGE
+        VehiculoRepositoryMvStoreAdapter antes = abrir();
+        Vehiculo primero = Vehiculo.crear("LOT001", TipoVehiculo.CARRO);
+        Vehiculo segundo = Vehiculo.crear("LOT002", TipoVehiculo.MOTO);
+
+        // When - ACT
+        boolean[] ingresados = antes.registrarIngresos(
+                List.of(primero, segundo, Vehiculo.crear("LOT001", TipoVehiculo.CARRO)));
+        boolean[] cerradas = antes.registrarSalidas(
+                List.of(segundo.marcarSalida(), Vehiculo.crear("NOX999", TipoVehiculo.CARRO).marcarSalida()));
+        antes.abandonar();
+        VehiculoRepositoryMvStoreAdapter despues = abrir();
+
+        // Then - ASSERT
+        assertArrayEquals(new boolean[]{true, true, false}, ingresados);
+        assertArrayEquals(new boolean[]{true, false}, cerradas);
+        assertEquals(List.of("LOT001"), placas(despues.buscarActivosPorPlacas(List.of("lot001", "LOT002", "NOX999"))));
+        despues.close();
+    }
+
+    @Test
+    void deberiaGuardarYEliminarEstancias() {
+        // Given - ARRANGE
+        VehiculoRepositoryMvStoreAdapter repositorio = abrir();
+        Vehiculo activo = Vehiculo.crear("GUA123", TipoVehiculo.CARRO);
+        repositorio.guardar(activo);
+
+        // When & Then - ACT & ASSERT
+        assertThrows(IllegalStateException.class,
+                () -> repositorio.guardar(Vehiculo.crear("GUA123", TipoVehiculo.CARRO)));
+        assertThrows(IllegalArgumentException.class,
+                () -> repositorio.registrarIngreso(Vehiculo.crear("GUA-12", TipoVehiculo.CARRO)));
+
+        repositorio.guardar(activo.marcarSalida());
+        assertTrue(repositorio.buscarActivoPorPlaca("GUA123").isEmpty());
+        assertEquals(1, repositorio.buscarTodos().size());
+
+        repositorio.registrarIngreso(Vehiculo.crear("GUA123", TipoVehiculo.CARRO));
+        repositorio.eliminar("gua123");
+        assertTrue(repositorio.buscarPorPlaca("GUA123").isEmpty());
+        assertTrue(repositorio.buscarTodos().isEmpty());
+        assertTrue(repositorio.buscarVehiculosActivos().isEmpty());
+        repositorio.close();
+    }
+
+    @Test
+    void deberiaPaginarElHistorialConCursor() {
+        // Given - ARRANGE
+        VehiculoRepositoryMvStoreAdapter repositorio = abrir();
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 8, 0);
+        for (int i = 0; i < 5; i++) {
+            repositorio.guardar(Vehiculo.builder()
+                    .placa(String.format("HIS%03d", i))
+                    .tipo(i % 2 == 0 ? TipoVehiculo.CARRO : TipoVehiculo.MOTO)
+                    .fechaIngreso(base.plusHours(i))
+                    .activo(true)
+                    .build());
+        }
+
+        // When - ACT
+        PaginaHistorial primera = repositorio.buscarHistorial(ConsultaHistorial.builder().limite(2).build());
+        PaginaHistorial segunda = repositorio.buscarHistorial(ConsultaHistorial.builder()
+                .limite(2).cursor(primera.siguiente().orElseThrow()).build());
+        PaginaHistorial carros = repositorio.buscarHistorial(ConsultaHistorial.builder()
+                .tipo(TipoVehiculo.CARRO).desde(base.plusHours(1)).build());
+
+        // Then - ASSERT
+        assertEquals(List.of("HIS004", "HIS003"), placas(primera.getVehiculos()));
+        assertEquals(List.of("HIS002", "HIS001"), placas(segunda.getVehiculos()));
+        assertTrue(segunda.siguiente().isPresent());
+        assertEquals(List.of("HIS004", "HIS002"), placas(carros.getVehiculos()));
+        assertTrue(carros.siguiente().isEmpty());
+        repositorio.close();
+    }
+
+    /**
+     * TEST: Historial por rangos
+     * Empates de fecha se ordenan por placa (ABC12 antes que ABC123) y el cursor
+     * sigue justo después; eliminar también saca la placa del historial
+     */
+    @Test
+    void deberiaSeguirElCursorEntreEstanciasDeLaMismaFecha() {
+        // Given - ARRANGE
+        VehiculoRepositoryMvStoreAdapter repositorio = abrir();
+        LocalDateTime ingreso = LocalDateTime.of(2024, 3, 1, 7, 30);
+        for (String placa : List.of("ABC123", "ABC12", "ZZZ999", "AAA111")) {
+            repositorio.guardar(Vehiculo.builder()
+                    .placa(placa).tipo(TipoVehiculo.CARRO).fechaIngreso(ingreso).activo(true).build());
+        }
+        repositorio.guardar(Vehiculo.builder()
+                .placa("VIE001").tipo(TipoVehiculo.MOTO).fechaIngreso(ingreso.minusDays(1)).activo(true).build());
+
+        // When - ACT
+        PaginaHistorial primera = repositorio.buscarHistorial(ConsultaHistorial.builder().limite(2).build());
+        PaginaHistorial segunda = repositorio.buscarHistorial(ConsultaHistorial.builder()
+                .limite(2).cursor(primera.siguiente().orElseThrow()).build());
+        repositorio.eliminar("ABC12");
+        PaginaHistorial delDia = repositorio.buscarHistorial(ConsultaHistorial.builder()
+                .desde(ingreso).hasta(ingreso.plusSeconds(1)).build());
+
+        // Then - ASSERT
+        assertEquals(List.of("ZZZ999", "ABC123"), placas(primera.getVehiculos()));
+        assertEquals(List.of("ABC12", "AAA111"), placas(segunda.getVehiculos()));
+        assertEquals(List.of("ZZZ999", "ABC123", "AAA111"), placas(delDia.getVehiculos()));
+        repositorio.close();
+    }
+
+    /**
+     * TEST: Un lote con una placa inválida no deja nada a medias
+     * Ni en memoria ni después de reabrir, y el orden de las llaves sigue bien
+     */
+    @Test
+    void deberiaRechazarElLoteCompletoSinTocarLosMapas() {
+        // Given - ARRANGE
+        VehiculoRepositoryMvStoreAdapter antes = abrir();
+        antes.registrarIngreso(Vehiculo.crear("PRE001", TipoVehiculo.CARRO));
+
+        // When - ACT
+        assertThrows(IllegalArgumentException.class, () -> antes.registrarIngresos(
+                List.of(Vehiculo.crear("LOT010", TipoVehiculo.CARRO), Vehiculo.crear("LOT-11", TipoVehiculo.CARRO))));
+        antes.abandonar();
+        VehiculoRepositoryMvStoreAdapter despues = abrir();
+        assertTrue(despues.registrarIngreso(Vehiculo.crear("POS001", TipoVehiculo.MOTO)));
+
+        // Then - ASSERT
+        assertTrue(despues.buscarPorPlaca("LOT010").isEmpty());
+        assertEquals(List.of("POS001", "PRE001"), placas(
+                despues.buscarHistorial(ConsultaHistorial.builder().build()).getVehiculos()));
+        despues.close();
+    }
+
+    private VehiculoRepositoryMvStoreAdapter abrir() {
+        return new VehiculoRepositoryMvStoreAdapter(directorio.resolve("parqueadero.mv"), DataSize.ofMegabytes(1), true);
+    }
+
+
+    private static List<String> placas(List<Vehiculo> vehiculos) {
+        return vehiculos.stream().map(Vehiculo::getPlaca).toList();
+    }
+}